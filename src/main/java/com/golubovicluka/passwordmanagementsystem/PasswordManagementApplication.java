@@ -1,15 +1,36 @@
 package com.golubovicluka.passwordmanagementsystem;
 
+import com.golubovicluka.passwordmanagementsystem.dao.DatabaseConfig;
+import com.golubovicluka.passwordmanagementsystem.dao.DatabaseConnection;
+import com.golubovicluka.passwordmanagementsystem.dao.DatabaseExecutor;
+import com.golubovicluka.passwordmanagementsystem.dao.PasswordEntryCache;
+import com.golubovicluka.passwordmanagementsystem.service.AuthExecutor;
+import com.golubovicluka.passwordmanagementsystem.service.BCryptCostCalibrator;
+import com.golubovicluka.passwordmanagementsystem.service.PasswordEntryWriteQueue;
+import com.golubovicluka.passwordmanagementsystem.service.SessionStore;
+import com.golubovicluka.passwordmanagementsystem.service.TrashPurgeJob;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import java.io.IOException;
 
 public class PasswordManagementApplication extends Application {
+    private static final Logger logger = LoggerFactory.getLogger(PasswordManagementApplication.class);
+
+    private TrashPurgeJob trashPurgeJob;
+
     @Override
     public void start(Stage stage) throws IOException {
+        startDatabaseWarmUp();
+        startBCryptCalibration();
+        startTrashPurge();
+        SessionStore.getInstance().start();
+
         FXMLLoader fxmlLoader = new FXMLLoader(PasswordManagementApplication.class.getResource("view/login-view.fxml"));
         Scene scene = new Scene(fxmlLoader.load(), 800, 600);
 
@@ -21,6 +42,67 @@ public class PasswordManagementApplication extends Application {
         stage.show();
     }
 
+    @Override
+    public void stop() {
+        if (trashPurgeJob != null) {
+            trashPurgeJob.shutdown();
+        }
+        PasswordEntryWriteQueue.getInstance().shutdown();
+        SessionStore.getInstance().shutdown();
+        AuthExecutor.shutdownInstance();
+        DatabaseExecutor.shutdownInstance();
+        logger.info("Password entry cache: {}", PasswordEntryCache.getInstance().getStats());
+        DatabaseConnection.shutdown();
+    }
+
+    /**
+     * Initializes the connection pool on a background thread while the login
+     * screen renders. A failure is only logged here; the login reports it to
+     * the user when it tries the database again.
+     */
+    private void startDatabaseWarmUp() {
+        Thread warmUp = new Thread(() -> {
+            try {
+                DatabaseConnection.warmUp();
+            } catch (RuntimeException e) {
+                logger.warn("Connection pool warm-up failed: {}", e.getMessage());
+            }
+        }, "db-warm-up");
+        warmUp.setDaemon(true);
+        warmUp.start();
+    }
+
+    /**
+     * Times BCrypt on a background thread while the login screen renders.
+     * Hashes created before it finishes use the minimum cost and are
+     * upgraded on a later login.
+     */
+    private void startBCryptCalibration() {
+        Thread calibration = new Thread(() -> {
+            try {
+                BCryptCostCalibrator.getInstance().calibrate();
+            } catch (RuntimeException e) {
+                logger.warn("BCrypt calibration failed: {}", e.getMessage());
+            }
+        }, "bcrypt-calibration");
+        calibration.setDaemon(true);
+        calibration.start();
+    }
+
+    /**
+     * Starts the background removal of entries that expired in the trash.
+     * Invalid trash settings are only logged; deleted entries then stay in
+     * the trash until the next start.
+     */
+    private void startTrashPurge() {
+        try {
+            trashPurgeJob = TrashPurgeJob.fromConfig(DatabaseConfig.load());
+            trashPurgeJob.start();
+        } catch (RuntimeException e) {
+            logger.warn("Trash purge is disabled: {}", e.getMessage());
+        }
+    }
+
     public static void main(String[] args) {
         launch();
     }
@@ -1,12 +1,17 @@
 package com.golubovicluka.passwordmanagementsystem.controller;
 
 import com.golubovicluka.passwordmanagementsystem.dao.CategoryDAO;
+import com.golubovicluka.passwordmanagementsystem.dao.DatabaseExecutor;
 import com.golubovicluka.passwordmanagementsystem.dao.PasswordEntryDAO;
+import com.golubovicluka.passwordmanagementsystem.dao.UnitOfWork;
+import com.golubovicluka.passwordmanagementsystem.exception.DatabaseException;
+import com.golubovicluka.passwordmanagementsystem.exception.EntryConflictException;
 import com.golubovicluka.passwordmanagementsystem.model.Category;
 import com.golubovicluka.passwordmanagementsystem.model.PasswordEntry;
+import com.golubovicluka.passwordmanagementsystem.service.CategoryCounts;
+import com.golubovicluka.passwordmanagementsystem.service.PasswordEntryWriteQueue;
 
 import javafx.application.Platform;
-import javafx.collections.FXCollections;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.geometry.Insets;
@@ -18,7 +23,7 @@ import javafx.scene.layout.GridPane;
 
 import java.io.IOException;
 import java.security.SecureRandom;
-import java.util.List;
+import java.util.Objects;
 
 import org.kordamp.ikonli.javafx.FontIcon;
 
@@ -98,6 +103,15 @@ public class AddPasswordController {
     /** Data Access Object for managing categories */
     private CategoryDAO categoryDAO;
 
+    /** Writes a new entry together with its new category, bypassing the write-behind queue */
+    private final PasswordEntryDAO passwordEntryDAO = new PasswordEntryDAO();
+
+    /**
+     * Category entered in the add category dialog but not stored yet. It is
+     * created in the same transaction as the entry that uses it.
+     */
+    private Category pendingCategory = null;
+
     /** Label displaying the form title */
     @FXML
     private Label titleLabel;
@@ -108,8 +122,14 @@ public class AddPasswordController {
     /** Reference to the password entry being edited */
     private PasswordEntry editingEntry = null;
 
-    /** Data Access Object for managing password entries */
-    private final PasswordEntryDAO passwordEntryDAO = new PasswordEntryDAO();
+    /** Set while the user resolves an edit conflict, which holds back the return to the list */
+    private boolean resolvingConflict = false;
+
+    /** Write-behind queue that persists edits without blocking the UI */
+    private final PasswordEntryWriteQueue writeQueue = PasswordEntryWriteQueue.getInstance();
+
+    /** Per-category entry counts of the filter bar, moved along with the edited entry's category */
+    private final CategoryCounts categoryCounts = CategoryCounts.getInstance();
 
     /** FontIcon for the password visibility toggle button */
     @FXML
@@ -276,50 +296,279 @@ public class AddPasswordController {
             return;
         }
 
+        if (selectedCategory != null && selectedCategory == pendingCategory) {
+            if (!isEditMode) {
+                PasswordEntry newEntry = new PasswordEntry(username, password, website);
+                saveWithNewCategory(newEntry, pendingCategory);
+                return;
+            }
+            // An edit goes through the write-behind queue, so the category is stored first
+            selectedCategory = storePendingCategory();
+            if (selectedCategory == null) {
+                return;
+            }
+        }
+
         if (isEditMode) {
+            PasswordEntry previous = new PasswordEntry(editingEntry);
             editingEntry.setWebsite(website);
             editingEntry.setUsername(username);
             editingEntry.setPassword(password);
             editingEntry.setCategory(selectedCategory);
-
-            if (passwordEntryDAO.updatePasswordEntry(editingEntry)) {
-                messageLabel.setText("Password updated successfully!");
-                messageLabel.setStyle("-fx-text-fill: green;");
-                new Thread(() -> {
-                    try {
-                        Thread.sleep(1500);
-                        Platform.runLater(this::handleBack);
-                    } catch (InterruptedException e) {
-                        e.printStackTrace();
-                    }
-                }).start();
-            } else {
-                messageLabel.setText("Failed to update password");
-                messageLabel.setStyle("-fx-text-fill: red;");
-            }
+            categoryCounts.move(passwordsController.getCurrentUserId(), previous.getCategory(), selectedCategory);
+            submitUpdate(previous);
         } else {
             PasswordEntry newEntry = new PasswordEntry(username, password, website);
             newEntry.setCategory(selectedCategory);
             passwordsController.addPasswordEntry(newEntry);
+            showSaved();
+        }
+    }
 
-            messageLabel.setText("Password saved successfully!");
-            messageLabel.setStyle("-fx-text-fill: green;");
+    /**
+     * Stores a new entry and the new category it uses in one unit of work on
+     * a database worker: one connection and one commit for both, and neither
+     * is stored if the other fails.
+     *
+     * @param entry    The new entry
+     * @param category The category entered in the dialog, not stored yet
+     */
+    private void saveWithNewCategory(PasswordEntry entry, Category category) {
+        int userId = passwordsController.getCurrentUserId();
+        saveButton.setDisable(true);
+        DatabaseExecutor.getInstance().submit(() -> {
+            try (UnitOfWork unit = UnitOfWork.beginForUser(userId)) {
+                Category created = categoryDAO.createCategory(userId, category.getName(), category.getDescription());
+                if (created == null) {
+                    throw new DatabaseException("Failed to create category " + category.getName());
+                }
+                entry.setCategory(created);
+                passwordEntryDAO.addPasswordEntry(entry, userId);
+                unit.commit();
+                return created;
+            }
+        }).whenCompleteAsync((created, error) -> {
+            saveButton.setDisable(false);
+            if (error != null) {
+                entry.setCategory(null);
+                messageLabel.setText("Failed to save password");
+                messageLabel.setStyle("-fx-text-fill: red;");
+                return;
+            }
+            pendingCategory = null;
+            categoryComboBox.setValue(created);
+            passwordsController.addStoredPasswordEntry(entry);
+            showSaved();
+        }, Platform::runLater);
+    }
 
-            websiteField.setStyle(SUCCESS_STYLE);
-            usernameField.setStyle(SUCCESS_STYLE);
-            passwordField.setStyle(SUCCESS_STYLE);
-            if (visiblePasswordField != null) {
-                visiblePasswordField.setStyle(SUCCESS_STYLE);
+    /**
+     * Stores the category entered in the dialog on its own.
+     *
+     * @return The stored category, or null if it could not be stored
+     */
+    private Category storePendingCategory() {
+        Category created = categoryDAO.createCategory(passwordsController.getCurrentUserId(),
+                pendingCategory.getName(), pendingCategory.getDescription());
+        if (created == null) {
+            messageLabel.setText("Failed to create category");
+            messageLabel.setStyle("-fx-text-fill: red;");
+            return null;
+        }
+        pendingCategory = null;
+        categoryComboBox.setValue(created);
+        return created;
+    }
+
+    /**
+     * Confirms a saved entry and clears the form shortly after, so the next
+     * entry can be added.
+     */
+    private void showSaved() {
+        messageLabel.setText("Password saved successfully!");
+        messageLabel.setStyle("-fx-text-fill: green;");
+
+        websiteField.setStyle(SUCCESS_STYLE);
+        usernameField.setStyle(SUCCESS_STYLE);
+        passwordField.setStyle(SUCCESS_STYLE);
+        if (visiblePasswordField != null) {
+            visiblePasswordField.setStyle(SUCCESS_STYLE);
+        }
+
+        new Thread(() -> {
+            try {
+                Thread.sleep(1500);
+                javafx.application.Platform.runLater(this::clearFields);
+            } catch (InterruptedException e) {
+                e.printStackTrace();
             }
+        }).start();
+    }
 
-            new Thread(() -> {
-                try {
-                    Thread.sleep(1500);
-                    javafx.application.Platform.runLater(this::clearFields);
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                }
-            }).start();
+    /**
+     * Enqueues the update of the entry being edited and returns to the list
+     * shortly after, unless the update runs into an edit conflict first.
+     *
+     * @param previous The entry as it was before the edit, restored if the
+     *                 update fails
+     */
+    private void submitUpdate(PasswordEntry previous) {
+        writeQueue.update(editingEntry, e -> handleUpdateFailure(previous, e));
+
+        messageLabel.setText("Password updated successfully!");
+        messageLabel.setStyle("-fx-text-fill: green;");
+        new Thread(() -> {
+            try {
+                Thread.sleep(1500);
+                Platform.runLater(this::returnToList);
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+            }
+        }).start();
+    }
+
+    /**
+     * Handles a failed update of the entry being edited. Edit conflicts are
+     * resolved with the user; other failures restore the previous values.
+     *
+     * @param previous The entry as it was before the edit
+     * @param e        The reason the update failed
+     */
+    private void handleUpdateFailure(PasswordEntry previous, DatabaseException e) {
+        PasswordEntry mine = new PasswordEntry(editingEntry);
+        applyValues(previous);
+
+        if (e instanceof EntryConflictException conflict) {
+            if (!conflict.isConflicting(editingEntry.getId())) {
+                // Rolled back because another entry in the same batch conflicted
+                applyValues(mine);
+                writeQueue.update(editingEntry, retryError -> handleUpdateFailure(previous, retryError));
+                return;
+            }
+            resolveConflict(mine, conflict.getCurrentEntry(editingEntry.getId()));
+            return;
+        }
+
+        messageLabel.setText("Failed to update password");
+        messageLabel.setStyle("-fx-text-fill: red;");
+    }
+
+    /**
+     * Lets the user decide how to continue after the entry was changed in
+     * another session since it was opened for editing: overwrite it with their
+     * changes, take over the stored version, or edit again on top of it.
+     *
+     * @param mine   The entry with the user's unsaved changes
+     * @param theirs The entry as currently stored, or null if it was deleted
+     */
+    private void resolveConflict(PasswordEntry mine, PasswordEntry theirs) {
+        resolvingConflict = true;
+        try {
+            if (theirs == null) {
+                Alert deleted = new Alert(Alert.AlertType.INFORMATION);
+                deleted.setTitle("Edit Conflict");
+                deleted.setHeaderText("This entry was deleted in another session");
+                deleted.setContentText("Your changes were not saved.");
+                deleted.showAndWait();
+                categoryCounts.adjust(passwordsController.getCurrentUserId(), editingEntry.getCategory(), -1);
+                resolvingConflict = false;
+                returnToList();
+                return;
+            }
+
+            if (hasSameValues(mine, theirs)) {
+                applyValues(theirs);
+                editingEntry.setRowVersion(theirs.getRowVersion());
+                resolvingConflict = false;
+                return;
+            }
+
+            ButtonType keepMine = new ButtonType("Keep Mine", ButtonBar.ButtonData.YES);
+            ButtonType useTheirs = new ButtonType("Use Theirs", ButtonBar.ButtonData.NO);
+            ButtonType editAgain = new ButtonType("Edit Again", ButtonBar.ButtonData.CANCEL_CLOSE);
+            Alert dialog = new Alert(Alert.AlertType.CONFIRMATION, describeConflict(mine, theirs), keepMine,
+                    useTheirs, editAgain);
+            dialog.setTitle("Edit Conflict");
+            dialog.setHeaderText("This entry was changed in another session while you were editing it");
+
+            ButtonType choice = dialog.showAndWait().orElse(editAgain);
+            editingEntry.setRowVersion(theirs.getRowVersion());
+            if (choice == keepMine) {
+                applyValues(mine);
+                resolvingConflict = false;
+                submitUpdate(new PasswordEntry(theirs));
+                return;
+            }
+
+            applyValues(theirs);
+            resolvingConflict = false;
+            if (choice == useTheirs) {
+                fillForm(theirs);
+                messageLabel.setText("Loaded the latest version of this entry");
+            } else {
+                fillForm(mine);
+                messageLabel.setText("Review the other changes and save again to overwrite them");
+            }
+            messageLabel.setStyle("-fx-text-fill: orange;");
+        } finally {
+            resolvingConflict = false;
+        }
+    }
+
+    /**
+     * Describes both versions of a conflicting entry. Passwords are only
+     * compared, never shown.
+     */
+    private String describeConflict(PasswordEntry mine, PasswordEntry theirs) {
+        return String.format("Their version:%n  Website: %s%n  Username: %s%n  Category: %s%n  Password: %s%n%n"
+                + "Your version:%n  Website: %s%n  Username: %s%n  Category: %s",
+                theirs.getWebsite(), theirs.getUsername(), categoryName(theirs.getCategory()),
+                Objects.equals(mine.getPassword(), theirs.getPassword()) ? "same as yours" : "different from yours",
+                mine.getWebsite(), mine.getUsername(), categoryName(mine.getCategory()));
+    }
+
+    private static String categoryName(Category category) {
+        return category != null ? category.getName() : "Uncategorized";
+    }
+
+    private static boolean hasSameValues(PasswordEntry a, PasswordEntry b) {
+        return Objects.equals(a.getWebsite(), b.getWebsite())
+                && Objects.equals(a.getUsername(), b.getUsername())
+                && Objects.equals(a.getPassword(), b.getPassword())
+                && Objects.equals(categoryId(a), categoryId(b));
+    }
+
+    private static Integer categoryId(PasswordEntry entry) {
+        return entry.getCategory() != null ? entry.getCategory().getId() : null;
+    }
+
+    /**
+     * Copies the editable fields of an entry to the entry being edited and
+     * moves it between category counts if its category changes.
+     */
+    private void applyValues(PasswordEntry from) {
+        Category counted = editingEntry.getCategory();
+        copyValues(from, editingEntry);
+        categoryCounts.move(passwordsController.getCurrentUserId(), counted, editingEntry.getCategory());
+    }
+
+    /**
+     * Copies the editable fields of one entry to another.
+     */
+    private static void copyValues(PasswordEntry from, PasswordEntry to) {
+        to.setWebsite(from.getWebsite());
+        to.setUsername(from.getUsername());
+        to.setPassword(from.getPassword());
+        to.setCategory(from.getCategory());
+    }
+
+    /**
+     * Returns to the passwords list unless an edit conflict is being resolved
+     * or this view has already been left.
+     */
+    private void returnToList() {
+        if (!resolvingConflict && backButton.getScene() != null && backButton.getScene().getWindow() != null) {
+            handleBack();
         }
     }
 
@@ -344,7 +593,7 @@ public class AddPasswordController {
             Scene scene = new Scene(fxmlLoader.load(), 1200, 800);
 
             PasswordsController newPasswordsController = fxmlLoader.getController();
-            newPasswordsController.setCurrentUserId(this.passwordsController.getCurrentUserId());
+            newPasswordsController.setSession(this.passwordsController.getSession());
 
             Stage stage = (Stage) backButton.getScene().getWindow();
             stage.setTitle("Password Management - Passwords");
@@ -446,51 +695,62 @@ public class AddPasswordController {
             if (dialogButton == saveButtonType) {
                 String name = nameField.getText().trim();
                 String description = descriptionField.getText().trim();
-                return categoryDAO.createCategory(
-                        passwordsController.getCurrentUserId(),
-                        name,
-                        description);
+                // Stored together with the entry when it is saved
+                return new Category(0, passwordsController.getCurrentUserId(), name, description);
             }
             return null;
         });
 
         dialog.showAndWait().ifPresent(category -> {
             if (category != null) {
-                loadCategories();
+                pendingCategory = category;
                 categoryComboBox.setValue(category);
             }
         });
     }
 
     /**
-     * Loads all available categories into the category dropdown.
-     * Retrieves categories from the database and populates the combo box.
+     * Binds the category dropdown to the user's cached category list.
+     * Categories created later are added to the list in place.
      */
-
     private void loadCategories() {
-        List<Category> categories = categoryDAO.getCategoriesForUser(passwordsController.getCurrentUserId());
-        categoryComboBox.setItems(FXCollections.observableArrayList(categories));
+        try {
+            categoryComboBox.setItems(categoryDAO.getCategoriesSnapshot(passwordsController.getCurrentUserId()));
+        } catch (DatabaseException e) {
+            messageLabel.setText("Failed to load categories");
+            messageLabel.setStyle("-fx-text-fill: red;");
+        }
     }
 
     /**
      * Switches the controller to edit mode for modifying an existing password entry.
      * Populates fields with the existing entry's data and changes UI elements accordingly.
      *
-     * @param entry The password entry to edit
+     * @param entry    The password entry to edit
+     * @param password The stored password of the entry, shown in the form only
      */
 
-    public void setEditMode(PasswordEntry entry) {
+    public void setEditMode(PasswordEntry entry, String password) {
         this.isEditMode = true;
         this.editingEntry = entry;
         titleLabel.setText("Edit Password Entry");
         saveButton.setText("Update Password");
 
+        fillForm(entry);
+        passwordField.setText(password);
+        visiblePasswordField.setText(password);
+    }
+
+    /**
+     * Shows the values of an entry in the form fields.
+     *
+     * @param entry The entry to show
+     */
+    private void fillForm(PasswordEntry entry) {
         websiteField.setText(entry.getWebsite());
         usernameField.setText(entry.getUsername());
         passwordField.setText(entry.getPassword());
         visiblePasswordField.setText(entry.getPassword());
-        if (entry.getCategory() != null) {
-            categoryComboBox.setValue(entry.getCategory());
-        }
+        categoryComboBox.setValue(entry.getCategory());
     }
 }
\ No newline at end of file
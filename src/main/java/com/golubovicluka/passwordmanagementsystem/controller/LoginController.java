@@ -12,6 +12,7 @@ import javafx.scene.input.KeyCode;
 
 import java.io.IOException;
 import com.golubovicluka.passwordmanagementsystem.service.AuthService;
+import com.golubovicluka.passwordmanagementsystem.service.LoginResult;
 import javafx.application.Platform;
 import com.golubovicluka.passwordmanagementsystem.model.User;
 
@@ -110,10 +111,10 @@ public class LoginController {
         errorLabel.setText("Authenticating...");
         errorLabel.setVisible(true);
 
-        authService.validateUser(username, password)
-                .thenAccept(user -> Platform.runLater(() -> {
-                    if (user != null) {
-                        loggedInUser = user;
+        authService.authenticate(username, password)
+                .thenAccept(result -> Platform.runLater(() -> {
+                    if (result.isSuccess()) {
+                        loggedInUser = result.user();
                         try {
                             FXMLLoader loader = new FXMLLoader(getClass().getResource(
                                     "/com/golubovicluka/passwordmanagementsystem/view/passwords-view.fxml"));
@@ -125,7 +126,7 @@ public class LoginController {
                                         "Failed to load the passwords controller. Please check FXML configuration.");
                             }
 
-                            passwordsController.setCurrentUserId(loggedInUser.getId());
+                            passwordsController.setSession(result.session());
 
                             Stage stage = (Stage) loginButton.getScene().getWindow();
                             stage.setTitle("Password Management - Passwords");
@@ -137,6 +138,13 @@ public class LoginController {
                             e.printStackTrace();
                             showError("An unexpected error occurred: " + e.getMessage());
                         }
+                    } else if (result.status() == LoginResult.Status.TRY_AGAIN) {
+                        showError("The server is busy. Please try again in a moment.");
+                    } else if (result.status() == LoginResult.Status.THROTTLED) {
+                        long seconds = Math.max(1, (result.retryAfterMillis() + 999) / 1000);
+                        showError("Too many failed attempts. Please try again in " + seconds + " seconds.");
+                    } else if (result.status() == LoginResult.Status.ERROR) {
+                        showError("Connection error. Please try again.");
                     } else {
                         showError("Invalid username or password");
                         usernameField.getStyleClass().add("error-field");
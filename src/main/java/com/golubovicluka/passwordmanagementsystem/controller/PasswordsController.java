@@ -1,8 +1,14 @@
 package com.golubovicluka.passwordmanagementsystem.controller;
 
 import com.golubovicluka.passwordmanagementsystem.model.PasswordEntry;
+import javafx.animation.PauseTransition;
 import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import javafx.collections.MapChangeListener;
 import javafx.collections.ObservableList;
+import javafx.collections.ObservableMap;
+import javafx.collections.WeakListChangeListener;
+import javafx.collections.WeakMapChangeListener;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.geometry.Pos;
@@ -14,26 +20,47 @@ import javafx.scene.image.ImageView;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 import javafx.collections.transformation.FilteredList;
 import javafx.collections.transformation.SortedList;
+import com.golubovicluka.passwordmanagementsystem.dao.AsyncDAO;
 import com.golubovicluka.passwordmanagementsystem.dao.PasswordEntryDAO;
 import com.golubovicluka.passwordmanagementsystem.model.Category;
+import com.golubovicluka.passwordmanagementsystem.model.PasswordEntryDelta;
+import com.golubovicluka.passwordmanagementsystem.service.CategoryCounts;
+import com.golubovicluka.passwordmanagementsystem.service.PasswordEntryPager;
+import com.golubovicluka.passwordmanagementsystem.service.PasswordEntryWriteQueue;
+import com.golubovicluka.passwordmanagementsystem.service.Session;
+import com.golubovicluka.passwordmanagementsystem.service.SessionStore;
+import javafx.beans.binding.Bindings;
+import javafx.beans.property.SimpleObjectProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.scene.input.Clipboard;
 import javafx.scene.input.ClipboardContent;
 import javafx.scene.control.Button;
 import javafx.scene.layout.FlowPane;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
 import com.golubovicluka.passwordmanagementsystem.dao.CategoryDAO;
 import org.kordamp.ikonli.fontawesome5.FontAwesomeSolid;
 import org.kordamp.ikonli.javafx.FontIcon;
 import javafx.scene.control.Label;
 
 import java.io.IOException;
+import java.time.format.DateTimeFormatter;
 import com.golubovicluka.passwordmanagementsystem.exception.DatabaseException;
+import com.golubovicluka.passwordmanagementsystem.exception.EntryConflictException;
 import javafx.stage.Popup;
 import javafx.application.Platform;
 import javafx.geometry.Point2D;
+import javafx.geometry.Orientation;
+import javafx.scene.Node;
 
 /**
  * Controller class for managing password entries in the Password Management System.
@@ -54,9 +81,9 @@ public class PasswordsController {
     @FXML
     private TableColumn<PasswordEntry, String> usernameColumn;
 
-    /** Column displaying passwords */
+    /** Column displaying masked passwords, which are fetched when revealed or copied */
     @FXML
-    private TableColumn<PasswordEntry, String> passwordColumn;
+    private TableColumn<PasswordEntry, PasswordEntry> passwordColumn;
 
     /** Column displaying website URLs */
     @FXML
@@ -78,6 +105,10 @@ public class PasswordsController {
     @FXML
     private Button addPasswordButton;
 
+    /** Button to load changes made since the entries were loaded */
+    @FXML
+    private Button refreshButton;
+
     /** Flow pane containing category filter buttons */
     @FXML
     private FlowPane categoryFilterPane;
@@ -86,6 +117,18 @@ public class PasswordsController {
     @FXML
     private TableColumn<PasswordEntry, Void> actionsColumn;
 
+    /** Button to delete all selected entries at once */
+    @FXML
+    private Button deleteSelectedButton;
+
+    /** Button to move all selected entries to another category at once */
+    @FXML
+    private Button changeCategorySelectedButton;
+
+    /** Button to open the trash with the deleted entries */
+    @FXML
+    private Button trashButton;
+
     /** Observable list containing all password entries */
     private ObservableList<PasswordEntry> masterData;
     
@@ -94,7 +137,19 @@ public class PasswordsController {
     
     /** Data access object for password entries */
     private final PasswordEntryDAO passwordEntryDAO;
+
+    /** Write-behind queue used for single-entry saves and deletes */
+    private final PasswordEntryWriteQueue writeQueue = PasswordEntryWriteQueue.getInstance();
+
+    /** Runs the database calls of dialogs without blocking the JavaFX thread */
+    private final AsyncDAO asyncDAO = new AsyncDAO();
     
+    /** Session of the logged-in user, checked before secrets are read or entries changed */
+    private Session session;
+
+    /** Store the session is validated against */
+    private final SessionStore sessionStore = SessionStore.getInstance();
+
     /** ID of the currently logged-in user */
     private int currentUserId;
     
@@ -107,6 +162,62 @@ public class PasswordsController {
     /** Currently selected category for filtering */
     private Category selectedCategory = null;
 
+    /** Pager that lazily appends pages of entries to the master data */
+    private PasswordEntryPager pager;
+
+    /** Data version of the user that the master data is up to date with */
+    private long loadedVersion;
+
+    /** Format of the deletion time shown in the trash */
+    private static final DateTimeFormatter TRASH_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    /** Fraction of the scroll range after which the next page is fetched */
+    private static final double LOAD_AHEAD_THRESHOLD = 0.9;
+
+    /** Maximum number of matches fetched from the database for one search */
+    private static final int SEARCH_RESULT_LIMIT = 100;
+
+    /** Typing pause after which the database is searched for the current text */
+    private static final Duration SEARCH_DEBOUNCE = Duration.millis(250);
+
+    /** Restarted by every keystroke; searches the database once typing pauses */
+    private final PauseTransition searchDebounce = new PauseTransition(SEARCH_DEBOUNCE);
+
+    /** Ids of entries a search fetched before the pager reached them, skipped when their page loads */
+    private final Set<Integer> loadedAheadIds = new HashSet<>();
+
+    /** Data access object for categories, backed by the shared category cache */
+    private final CategoryDAO categoryDAO = new CategoryDAO();
+
+    /** Read-only view of the cached category list the filter bar is built from */
+    private ObservableList<Category> categories;
+
+    /** Rebuilds the filter bar when categories are added to the cached list */
+    private final ListChangeListener<Category> categoryListener = change -> renderCategoryFilters();
+
+    /**
+     * Registered on the cached list instead of {@link #categoryListener}, so
+     * the application-wide cache does not keep a left view alive
+     */
+    private final ListChangeListener<Category> weakCategoryListener = new WeakListChangeListener<>(
+            categoryListener);
+
+    /** Shared per-category entry counts, adjusted by every add, move and delete */
+    private final CategoryCounts categoryCounts = CategoryCounts.getInstance();
+
+    /** Read-only view of the current user's counts, or null if they could not be loaded */
+    private ObservableMap<Integer, Integer> counts;
+
+    /** Refreshes the badges when a count changes */
+    private final MapChangeListener<Integer, Integer> countListener = change -> updateCountBadges();
+
+    /** Registered on the shared counts instead of {@link #countListener}, so they do not keep a left view alive */
+    private final MapChangeListener<Integer, Integer> weakCountListener = new WeakMapChangeListener<>(
+            countListener);
+
+    /** Count badge of each filter button, keyed by category ID; the "All" badge is keyed by null */
+    private final Map<Integer, Label> countBadges = new HashMap<>();
+
     /**
      * Constructs a new PasswordsController and initializes the password entry DAO.
      */
@@ -139,10 +250,34 @@ public class PasswordsController {
 
         loadCategoryFilters();
 
+        searchDebounce.setOnFinished(event -> loadSearchMatches());
         searchField.textProperty().addListener((observable, oldValue, newValue) -> {
             currentSearchText = newValue;
             updateFilters();
+            searchDebounce.playFromStart();
         });
+
+        passwordTable.skinProperty().addListener((observable, oldSkin, newSkin) -> {
+            if (newSkin != null) {
+                Platform.runLater(this::installScrollPaging);
+            }
+        });
+    }
+
+    /**
+     * Hooks the vertical scroll bar of the password table so that the next page
+     * of entries is fetched once the user scrolls close to the bottom.
+     */
+    private void installScrollPaging() {
+        for (Node node : passwordTable.lookupAll(".scroll-bar")) {
+            if (node instanceof ScrollBar scrollBar && scrollBar.getOrientation() == Orientation.VERTICAL) {
+                scrollBar.valueProperty().addListener((observable, oldValue, newValue) -> {
+                    if (newValue.doubleValue() >= scrollBar.getMax() * LOAD_AHEAD_THRESHOLD) {
+                        loadNextPage();
+                    }
+                });
+            }
+        }
     }
 
     /**
@@ -151,9 +286,11 @@ public class PasswordsController {
      */
     private void setupTableColumns() {
         usernameColumn.setCellValueFactory(new PropertyValueFactory<>("username"));
-        passwordColumn.setCellValueFactory(new PropertyValueFactory<>("password"));
-        passwordColumn.setCellFactory(column -> new TableCell<PasswordEntry, String>() {
-            private boolean isRevealed = false;
+        passwordColumn.setCellValueFactory(cellData -> new SimpleObjectProperty<>(cellData.getValue()));
+        passwordColumn.setSortable(false);
+        passwordColumn.setCellFactory(column -> new TableCell<PasswordEntry, PasswordEntry>() {
+            /** The password while it is revealed, null while it is masked */
+            private String revealedPassword;
             private final Tooltip hiddenTooltip = new Tooltip("Click to reveal password");
             private final Tooltip revealedTooltip = new Tooltip("Click to hide password • Click with CTRL to copy");
 
@@ -165,9 +302,13 @@ public class PasswordsController {
                         return;
 
                     if (event.isControlDown()) {
+                        String password = revealedPassword != null ? revealedPassword : fetchPassword(getItem());
+                        if (password == null) {
+                            return;
+                        }
                         final Clipboard clipboard = Clipboard.getSystemClipboard();
                         final ClipboardContent content = new ClipboardContent();
-                        content.putString(getItem());
+                        content.putString(password);
                         clipboard.setContent(content);
 
                         Popup popup = new Popup();
@@ -211,24 +352,31 @@ public class PasswordsController {
                             Platform.runLater(() -> popup.hide());
                         }).start();
                     } else {
-                        isRevealed = !isRevealed;
-                        updateItem(getItem(), false);
+                        revealedPassword = revealedPassword == null ? fetchPassword(getItem()) : null;
+                        showPassword();
                     }
                 });
             }
 
             @Override
-            protected void updateItem(String password, boolean empty) {
-                super.updateItem(password, empty);
+            protected void updateItem(PasswordEntry entry, boolean empty) {
+                if (entry != getItem()) {
+                    // The cell is reused for another row; never show the previous secret
+                    revealedPassword = null;
+                }
+                super.updateItem(entry, empty);
 
-                if (empty || password == null) {
+                if (empty || entry == null) {
                     setText(null);
                     setTooltip(null);
                     return;
                 }
+                showPassword();
+            }
 
-                if (isRevealed) {
-                    setText(password);
+            private void showPassword() {
+                if (revealedPassword != null) {
+                    setText(revealedPassword);
                     setTooltip(revealedTooltip);
                 } else {
                     setText("•".repeat(8));
@@ -374,33 +522,247 @@ public class PasswordsController {
     private void setupButtonHandlers() {
         logoutButton.setOnAction(event -> handleLogout());
         addPasswordButton.setOnAction(event -> handleAddPassword());
+        refreshButton.setOnAction(event -> refreshPasswordEntries());
+
+        passwordTable.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+        deleteSelectedButton.disableProperty()
+                .bind(Bindings.isEmpty(passwordTable.getSelectionModel().getSelectedItems()));
+        changeCategorySelectedButton.disableProperty()
+                .bind(Bindings.isEmpty(passwordTable.getSelectionModel().getSelectedItems()));
+        deleteSelectedButton.setOnAction(event -> handleDeleteSelected());
+        changeCategorySelectedButton.setOnAction(event -> handleChangeCategorySelected());
+        trashButton.setOnAction(event -> handleShowTrash());
     }
 
     /**
-     * Sets the current user ID and loads the user's password entries and category filters.
+     * Sets the session of the logged-in user and loads the user's password
+     * entries and category filters.
      *
-     * @param userId The ID of the currently logged-in user
+     * @param session The session opened by the login
      */
-    public void setCurrentUserId(int userId) {
-        this.currentUserId = userId;
+    public void setSession(Session session) {
+        this.session = session;
+        this.currentUserId = session.getUserId();
+        writeQueue.setFailureListener(e -> {
+            if (e instanceof EntryConflictException) {
+                // Resolved by the editor that submitted the update
+                refreshPasswordEntries();
+                return;
+            }
+            showDatabaseError("Failed to save your changes: " + e.getMessage());
+            loadPasswordEntries();
+        });
         loadPasswordEntries();
         loadCategoryFilters();
     }
 
     /**
-     * Loads all password entries for the current user from the database.
+     * Loads the first page of password entries for the current user from the
+     * database. Further pages are fetched as the user scrolls.
      */
     private void loadPasswordEntries() {
         masterData.clear();
 
-        ObservableList<PasswordEntry> entries = passwordEntryDAO.getAllPasswordEntriesForUser(currentUserId);
-        masterData.addAll(entries);
+        try {
+            loadedVersion = passwordEntryDAO.getDataVersion(currentUserId);
+        } catch (DatabaseException e) {
+            showDatabaseError("Failed to load password entries: " + e.getMessage());
+            return;
+        }
+
+        masterData.addAll(writeQueue.getPendingInserts(currentUserId));
+
+        loadedAheadIds.clear();
+        pager = new PasswordEntryPager(passwordEntryDAO, currentUserId, masterData);
+        pager.setPageTransformer(page -> writeQueue.applyPending(currentUserId, page).stream()
+                .filter(entry -> !loadedAheadIds.remove(entry.getId()))
+                .toList());
+        pager.loadNextPage();
+        loadSearchMatches();
+        fillFilteredView();
+    }
+
+    /**
+     * Fetches the best matches of the current search from the database in the
+     * background and adds those the pager has not loaded yet, so a search
+     * covers the whole vault without loading it. The in-memory filter then
+     * narrows the table to the matches. Matches arriving after the search
+     * text changed or the entries were reloaded are dropped.
+     */
+    private void loadSearchMatches() {
+        if (pager == null || !pager.hasMore() || currentSearchText.isBlank()) {
+            return;
+        }
+
+        String query = currentSearchText;
+        PasswordEntryPager searchedPager = pager;
+        asyncDAO.searchEntries(currentUserId, query, SEARCH_RESULT_LIMIT).whenCompleteAsync((matches, error) -> {
+            if (!query.equals(currentSearchText) || pager != searchedPager) {
+                return;
+            }
+            if (error != null) {
+                showDatabaseError("Failed to search password entries: " + causeOf(error).getMessage());
+                return;
+            }
+            for (PasswordEntry match : writeQueue.applyPending(currentUserId, matches)) {
+                if (match.getId() > pager.getLastLoadedId() && loadedAheadIds.add(match.getId())) {
+                    masterData.add(match);
+                }
+            }
+        }, Platform::runLater);
+    }
+
+    /**
+     * Brings the loaded entries up to date by applying only the rows that were
+     * added, changed or deleted since they were loaded. Entries beyond the
+     * pager's cursor are left to the pager so they are not loaded twice.
+     */
+    private void refreshPasswordEntries() {
+        if (pager == null) {
+            loadPasswordEntries();
+            return;
+        }
+
+        PasswordEntryDelta delta;
+        try {
+            delta = passwordEntryDAO.getPasswordEntriesChangedSince(currentUserId, loadedVersion);
+        } catch (DatabaseException e) {
+            showDatabaseError("Failed to refresh password entries: " + e.getMessage());
+            return;
+        }
+        loadedVersion = delta.version();
+        if (delta.isEmpty()) {
+            return;
+        }
+        reloadCountsIfSettled();
+
+        if (!delta.deletedIds().isEmpty()) {
+            Set<Integer> deletedIds = new HashSet<>(delta.deletedIds());
+            masterData.removeIf(entry -> deletedIds.contains(entry.getId()));
+        }
+
+        if (!delta.changed().isEmpty()) {
+            Map<Integer, Integer> indexById = new HashMap<>();
+            for (int i = 0; i < masterData.size(); i++) {
+                indexById.put(masterData.get(i).getId(), i);
+            }
+            for (PasswordEntry row : writeQueue.applyPending(currentUserId, delta.changed())) {
+                Integer index = indexById.get(row.getId());
+                if (index != null) {
+                    masterData.set(index, row);
+                } else if (!pager.hasMore() || row.getId() <= pager.getLastLoadedId()) {
+                    masterData.add(row);
+                }
+            }
+        }
+        passwordTable.refresh();
+    }
+
+    /**
+     * Re-aggregates the category counts after a refresh found changes, which
+     * may come from another session. Skipped while the user's own writes are
+     * queued, as the database does not reflect them yet.
+     */
+    private void reloadCountsIfSettled() {
+        if (counts == null || writeQueue.hasPendingWrites(currentUserId)) {
+            return;
+        }
+        try {
+            categoryCounts.reload(currentUserId);
+        } catch (DatabaseException e) {
+            // The incrementally maintained counts stay in place
+        }
     }
 
     /**
-     * Handles the logout process by navigating back to the login view.
+     * Fetches the next page of password entries if the vault has not been fully
+     * loaded yet.
+     */
+    private void loadNextPage() {
+        if (pager == null || !pager.hasMore()) {
+            return;
+        }
+
+        try {
+            pager.loadNextPage();
+        } catch (DatabaseException e) {
+            showDatabaseError("Failed to load password entries: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Fetches the next page of the selected category beyond the pager's
+     * cursor in the background while the category filter leaves fewer rows
+     * visible than a single page. The page is added like search matches, so
+     * the pager skips its rows later. A search does not page through the
+     * vault; its matches are fetched by {@link #loadSearchMatches()}.
+     */
+    private void fillFilteredView() {
+        if (!currentSearchText.isBlank() || selectedCategory == null || pager == null || !pager.hasMore()
+                || filteredEntries.size() >= pager.getPageSize()) {
+            return;
+        }
+
+        int categoryId = selectedCategory.getId();
+        int afterId = pager.getLastLoadedId();
+        for (PasswordEntry entry : masterData) {
+            if (entry.getCategory() != null && entry.getCategory().getId() == categoryId) {
+                afterId = Math.max(afterId, entry.getId());
+            }
+        }
+        PasswordEntryPager filledPager = pager;
+        asyncDAO.getPasswordEntriesPageInCategory(currentUserId, categoryId, afterId, pager.getPageSize())
+                .whenCompleteAsync((page, error) -> {
+                    if (pager != filledPager || selectedCategory == null || selectedCategory.getId() != categoryId) {
+                        return;
+                    }
+                    if (error != null) {
+                        showDatabaseError("Failed to load password entries: " + causeOf(error).getMessage());
+                        return;
+                    }
+                    for (PasswordEntry entry : writeQueue.applyPending(currentUserId, page)) {
+                        if (entry.getId() > pager.getLastLoadedId() && loadedAheadIds.add(entry.getId())) {
+                            masterData.add(entry);
+                        }
+                    }
+                }, Platform::runLater);
+    }
+
+    /**
+     * Handles the logout process by ending the session and navigating back
+     * to the login view.
      */
     private void handleLogout() {
+        sessionStore.invalidate(session.getToken());
+        showLogin();
+    }
+
+    /**
+     * Checks that the session is still valid, which also keeps it from
+     * idling out. An expired session is reported and leads back to the
+     * login view.
+     *
+     * @return true if the session is valid, false if the user has to log in
+     *         again
+     */
+    private boolean requireSession() {
+        if (sessionStore.validate(session.getToken()).isPresent()) {
+            return true;
+        }
+        Alert expiredAlert = new Alert(Alert.AlertType.INFORMATION);
+        expiredAlert.setTitle("Session Expired");
+        expiredAlert.setHeaderText("Your session has expired");
+        expiredAlert.setContentText("Please log in again.");
+        expiredAlert.showAndWait();
+        showLogin();
+        return false;
+    }
+
+    /**
+     * Navigates back to the login view.
+     */
+    private void showLogin() {
+        categoryCounts.invalidateUser(currentUserId);
         try {
             FXMLLoader fxmlLoader = new FXMLLoader(
                     getClass().getResource("/com/golubovicluka/passwordmanagementsystem/view/login-view.fxml"));
@@ -418,6 +780,9 @@ public class PasswordsController {
      * Opens the add password dialog for creating a new password entry.
      */
     private void handleAddPassword() {
+        if (!requireSession()) {
+            return;
+        }
         try {
             FXMLLoader fxmlLoader = new FXMLLoader(
                     getClass().getResource(
@@ -456,14 +821,39 @@ public class PasswordsController {
     }
 
     /**
-     * Adds a new password entry to the database and updates the UI.
+     * Adds a new password entry to the UI immediately and queues the insert.
+     * The entry is removed again if the background write fails.
      *
      * @param entry The password entry to add
      */
     public void addPasswordEntry(PasswordEntry entry) {
-        if (passwordEntryDAO.addPasswordEntry(entry, currentUserId)) {
-            masterData.add(entry);
-        }
+        entry.setUserId(currentUserId);
+        masterData.add(entry);
+        categoryCounts.adjust(currentUserId, entry.getCategory(), 1);
+        writeQueue.insert(entry, currentUserId, e -> {
+            masterData.remove(entry);
+            categoryCounts.adjust(currentUserId, entry.getCategory(), -1);
+        });
+    }
+
+    /**
+     * Adds a password entry that has already been stored, e.g. together with
+     * a new category, to the UI.
+     *
+     * @param entry The stored password entry
+     */
+    public void addStoredPasswordEntry(PasswordEntry entry) {
+        masterData.add(entry);
+        categoryCounts.adjust(currentUserId, entry.getCategory(), 1);
+    }
+
+    /**
+     * Returns the session of the logged-in user.
+     *
+     * @return The current session
+     */
+    public Session getSession() {
+        return session;
     }
 
     /**
@@ -476,13 +866,40 @@ public class PasswordsController {
     }
 
     /**
-     * Loads and displays category filter buttons for the current user.
+     * Binds the category filter bar to the current user's cached categories
+     * and their entry counts.
      */
     private void loadCategoryFilters() {
-        CategoryDAO categoryDAO = new CategoryDAO();
-        List<Category> categories = categoryDAO.getCategoriesForUser(currentUserId);
+        if (categories != null) {
+            categories.removeListener(weakCategoryListener);
+        }
+        try {
+            categories = categoryDAO.getCategoriesSnapshot(currentUserId);
+        } catch (DatabaseException e) {
+            showDatabaseError("Failed to load categories: " + e.getMessage());
+            categories = FXCollections.emptyObservableList();
+        }
+        categories.addListener(weakCategoryListener);
+
+        if (counts != null) {
+            counts.removeListener(weakCountListener);
+        }
+        try {
+            counts = categoryCounts.getCounts(currentUserId);
+            counts.addListener(weakCountListener);
+        } catch (DatabaseException e) {
+            // The filter bar still works, just without counts
+            counts = null;
+        }
+        renderCategoryFilters();
+    }
 
+    /**
+     * Renders one filter button per category plus the "All" button.
+     */
+    private void renderCategoryFilters() {
         categoryFilterPane.getChildren().clear();
+        countBadges.clear();
 
         Button allButton = createCategoryButton(null);
         categoryFilterPane.getChildren().add(allButton);
@@ -491,6 +908,20 @@ public class PasswordsController {
             Button categoryButton = createCategoryButton(category);
             categoryFilterPane.getChildren().add(categoryButton);
         }
+        updateCountBadges();
+    }
+
+    /**
+     * Shows the current counts on the filter buttons. The "All" button shows
+     * the total, which sums one count per category instead of scanning entries.
+     */
+    private void updateCountBadges() {
+        if (counts == null) {
+            return;
+        }
+        int total = counts.values().stream().mapToInt(Integer::intValue).sum();
+        countBadges.forEach((categoryId, badge) -> badge.setText(
+                String.valueOf(categoryId == null ? total : counts.getOrDefault(categoryId, 0))));
     }
 
     /**
@@ -503,6 +934,14 @@ public class PasswordsController {
         Button button = new Button(category == null ? "All" : category.getName());
         button.getStyleClass().add("category-filter-button");
 
+        if (counts != null) {
+            Label badge = new Label();
+            badge.getStyleClass().add("category-count-badge");
+            button.setGraphic(badge);
+            button.setContentDisplay(ContentDisplay.RIGHT);
+            countBadges.put(category == null ? null : category.getId(), badge);
+        }
+
         button.setOnAction(e -> {
             selectedCategory = category;
             updateFilters();
@@ -532,14 +971,49 @@ public class PasswordsController {
 
             return matchesSearch && matchesCategory;
         });
+        fillFilteredView();
+    }
+
+    /**
+     * Gets the password of an entry. List rows are loaded without passwords,
+     * so it is read from the database unless the entry holds one because it
+     * was just added or edited.
+     *
+     * @param entry The password entry
+     * @return The password, or null if it could not be read
+     */
+    private String fetchPassword(PasswordEntry entry) {
+        if (!requireSession()) {
+            return null;
+        }
+        if (entry.getPassword() != null || entry.getId() <= 0) {
+            return entry.getPassword();
+        }
+        try {
+            Optional<String> password = passwordEntryDAO.fetchSecret(currentUserId, entry.getId());
+            if (password.isEmpty()) {
+                showDatabaseError("This entry no longer exists.");
+            }
+            return password.orElse(null);
+        } catch (DatabaseException e) {
+            showDatabaseError("Failed to read the password: " + e.getMessage());
+            return null;
+        }
     }
 
     /**
      * Opens the edit password dialog for modifying an existing password entry.
+     * The password is fetched first, as list rows are loaded without it, and
+     * only handed to the dialog, so the table's entry does not keep it.
      *
      * @param entry The password entry to edit
      */
     private void handleEditPassword(PasswordEntry entry) {
+        String password = fetchPassword(entry);
+        if (password == null) {
+            return;
+        }
+
         try {
             FXMLLoader fxmlLoader = new FXMLLoader(
                     getClass().getResource(
@@ -548,7 +1022,7 @@ public class PasswordsController {
 
             AddPasswordController controller = fxmlLoader.getController();
             controller.setPasswordsController(this);
-            controller.setEditMode(entry);
+            controller.setEditMode(entry, password);
 
             Stage stage = (Stage) addPasswordButton.getScene().getWindow();
             stage.setTitle("Password Management - Edit Password");
@@ -558,16 +1032,193 @@ public class PasswordsController {
         }
     }
 
+    /**
+     * Deletes all selected password entries after user confirmation.
+     * The deletes go through the write-behind queue like single deletes, which
+     * coalesces them with the entries' pending writes and removes them with
+     * one batched statement in a single transaction.
+     */
+    private void handleDeleteSelected() {
+        if (!requireSession()) {
+            return;
+        }
+        List<PasswordEntry> selected = new ArrayList<>(passwordTable.getSelectionModel().getSelectedItems());
+        if (selected.isEmpty()) {
+            return;
+        }
+
+        Alert confirmDialog = new Alert(Alert.AlertType.CONFIRMATION);
+        confirmDialog.setTitle("Confirm Delete");
+        confirmDialog.setHeaderText("Delete " + selected.size() + " Password Entries?");
+        confirmDialog.setContentText("The selected password entries are moved to the trash, "
+                + "where they can be restored until they are purged.");
+        confirmDialog.getDialogPane().getStylesheets().add(
+                getClass().getResource("/com/golubovicluka/passwordmanagementsystem/styles/style.css")
+                        .toExternalForm());
+
+        confirmDialog.showAndWait().ifPresent(response -> {
+            if (response == ButtonType.OK) {
+                passwordTable.getSelectionModel().clearSelection();
+                masterData.removeAll(selected);
+                for (PasswordEntry entry : selected) {
+                    categoryCounts.adjust(currentUserId, entry.getCategory(), -1);
+                    writeQueue.delete(entry, e -> {
+                        if (!masterData.contains(entry)) {
+                            masterData.add(entry);
+                            categoryCounts.adjust(currentUserId, entry.getCategory(), 1);
+                        }
+                    });
+                }
+            }
+        });
+    }
+
+    /**
+     * Moves all selected password entries to a category chosen by the user.
+     * The updates go through the write-behind queue, which coalesces them with
+     * the entries' pending writes and writes them in one batch in a single
+     * transaction.
+     */
+    private void handleChangeCategorySelected() {
+        if (!requireSession()) {
+            return;
+        }
+        List<PasswordEntry> selected = new ArrayList<>(passwordTable.getSelectionModel().getSelectedItems());
+        if (selected.isEmpty()) {
+            return;
+        }
+
+        Category uncategorized = new Category(0, currentUserId, "Uncategorized", null);
+        List<Category> choices = new ArrayList<>();
+        choices.add(uncategorized);
+        choices.addAll(categories);
+
+        ChoiceDialog<Category> dialog = new ChoiceDialog<>(uncategorized, choices);
+        dialog.setTitle("Change Category");
+        dialog.setHeaderText("Move " + selected.size() + " entries to category");
+        dialog.getDialogPane().getStylesheets().add(
+                getClass().getResource("/com/golubovicluka/passwordmanagementsystem/styles/style.css")
+                        .toExternalForm());
+
+        dialog.showAndWait().ifPresent(choice -> {
+            Category target = choice == uncategorized ? null : choice;
+            for (PasswordEntry entry : selected) {
+                Category previous = entry.getCategory();
+                categoryCounts.move(currentUserId, previous, target);
+                entry.setCategory(target);
+                writeQueue.update(entry, e -> {
+                    categoryCounts.move(currentUserId, entry.getCategory(), previous);
+                    entry.setCategory(previous);
+                });
+            }
+            updateFilters();
+        });
+    }
+
+    /**
+     * Loads the entries the user has deleted in the background and shows
+     * them once they arrive.
+     */
+    private void handleShowTrash() {
+        if (!requireSession()) {
+            return;
+        }
+        trashButton.setDisable(true);
+        asyncDAO.getTrashedEntries(currentUserId).whenCompleteAsync((trashed, error) -> {
+            trashButton.setDisable(false);
+            if (error != null) {
+                showDatabaseError("Failed to load the trash: " + causeOf(error).getMessage());
+            } else {
+                showTrash(trashed);
+            }
+        }, Platform::runLater);
+    }
+
+    /**
+     * Shows the entries the user has deleted and restores the selected ones.
+     * Restored entries are picked up by a delta refresh of the list.
+     *
+     * @param trashed The entries in the trash
+     */
+    private void showTrash(List<PasswordEntry> trashed) {
+        TableView<PasswordEntry> trashTable = new TableView<>(FXCollections.observableArrayList(trashed));
+        trashTable.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+        trashTable.setPlaceholder(new Label("The trash is empty"));
+        trashTable.setPrefSize(600, 300);
+
+        TableColumn<PasswordEntry, String> websiteColumn = new TableColumn<>("Website");
+        websiteColumn.setCellValueFactory(new PropertyValueFactory<>("website"));
+        websiteColumn.setPrefWidth(220);
+        TableColumn<PasswordEntry, String> usernameColumn = new TableColumn<>("Username");
+        usernameColumn.setCellValueFactory(new PropertyValueFactory<>("username"));
+        usernameColumn.setPrefWidth(200);
+        TableColumn<PasswordEntry, String> deletedColumn = new TableColumn<>("Deleted");
+        deletedColumn.setCellValueFactory(cellData -> new SimpleStringProperty(
+                cellData.getValue().getDeletedAt() != null
+                        ? TRASH_DATE_FORMAT.format(cellData.getValue().getDeletedAt())
+                        : ""));
+        deletedColumn.setPrefWidth(160);
+        trashTable.getColumns().addAll(List.of(websiteColumn, usernameColumn, deletedColumn));
+
+        ButtonType restoreType = new ButtonType("Restore Selected", ButtonBar.ButtonData.OK_DONE);
+        Dialog<ButtonType> dialog = new Dialog<>();
+        dialog.setTitle("Trash");
+        dialog.setHeaderText("Deleted entries are purged permanently after the retention period");
+        dialog.getDialogPane().setContent(trashTable);
+        dialog.getDialogPane().getButtonTypes().addAll(restoreType, ButtonType.CLOSE);
+        dialog.getDialogPane().lookupButton(restoreType).disableProperty()
+                .bind(Bindings.isEmpty(trashTable.getSelectionModel().getSelectedItems()));
+        dialog.getDialogPane().getStylesheets().add(
+                getClass().getResource("/com/golubovicluka/passwordmanagementsystem/styles/style.css")
+                        .toExternalForm());
+
+        dialog.showAndWait().filter(response -> response == restoreType).ifPresent(response -> {
+            List<PasswordEntry> restored = new ArrayList<>(trashTable.getSelectionModel().getSelectedItems());
+            asyncDAO.restorePasswordEntries(restored.stream().map(PasswordEntry::getId).toList(), currentUserId)
+                    .whenCompleteAsync((count, error) -> {
+                        if (error != null) {
+                            showDatabaseError("Failed to restore password entries: " + causeOf(error).getMessage());
+                            return;
+                        }
+                        restored.forEach(entry -> categoryCounts.adjust(currentUserId, entry.getCategory(), 1));
+                        refreshPasswordEntries();
+                    }, Platform::runLater);
+        });
+    }
+
+    /**
+     * Unwraps the exception a dependent future was completed with.
+     */
+    private static Throwable causeOf(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    /**
+     * Shows an error alert for a failed database operation.
+     *
+     * @param message The message to display
+     */
+    private void showDatabaseError(String message) {
+        Alert errorAlert = new Alert(Alert.AlertType.ERROR);
+        errorAlert.setTitle("Error");
+        errorAlert.setHeaderText("Database Error");
+        errorAlert.setContentText(message);
+        errorAlert.showAndWait();
+    }
+
     /**
      * Handles the deletion of a password entry after user confirmation.
      *
      * @param entry The password entry to delete
      */
     private void handleDeletePassword(PasswordEntry entry) {
+        if (!requireSession()) {
+            return;
+        }
         Alert confirmDialog = new Alert(Alert.AlertType.CONFIRMATION);
         confirmDialog.setTitle("Confirm Delete");
         confirmDialog.setHeaderText("Delete Password Entry?");
-        confirmDialog.setContentText("Are you sure you want to delete this password entry?");
+        confirmDialog.setContentText("The entry is moved to the trash, where it can be restored until it is purged.");
 
         Stage stage = (Stage) confirmDialog.getDialogPane().getScene().getWindow();
         stage.getIcons().clear();
@@ -579,16 +1230,15 @@ public class PasswordsController {
 
         confirmDialog.showAndWait().ifPresent(response -> {
             if (response == ButtonType.OK) {
-                try {
-                    passwordEntryDAO.deletePasswordEntry(entry.getId());
-                    masterData.remove(entry);
-                } catch (DatabaseException e) {
-                    Alert errorAlert = new Alert(Alert.AlertType.ERROR);
-                    errorAlert.setTitle("Error");
-                    errorAlert.setHeaderText("Database Error");
-                    errorAlert.setContentText("Failed to delete password entry: " + e.getMessage());
-                    errorAlert.showAndWait();
-                }
+                int index = masterData.indexOf(entry);
+                masterData.remove(entry);
+                categoryCounts.adjust(currentUserId, entry.getCategory(), -1);
+                writeQueue.delete(entry, e -> {
+                    if (!masterData.contains(entry)) {
+                        masterData.add(Math.min(Math.max(index, 0), masterData.size()), entry);
+                        categoryCounts.adjust(currentUserId, entry.getCategory(), 1);
+                    }
+                });
             }
         });
     }
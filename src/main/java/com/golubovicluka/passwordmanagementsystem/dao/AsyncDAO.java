@@ -0,0 +1,171 @@
+package com.golubovicluka.passwordmanagementsystem.dao;
+
+import com.golubovicluka.passwordmanagementsystem.model.Category;
+import com.golubovicluka.passwordmanagementsystem.model.PasswordEntry;
+import com.golubovicluka.passwordmanagementsystem.model.PasswordEntryDelta;
+import com.golubovicluka.passwordmanagementsystem.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking facade over {@link PasswordEntryDAO}, {@link CategoryDAO} and
+ * {@link UserDAO}. Every call runs the DAO method of the same name on the
+ * {@link DatabaseExecutor} and returns a future of its result; DAO exceptions
+ * complete the future exceptionally. Futures complete on a database worker,
+ * so UI code continues with e.g. {@code thenAcceptAsync(..., Platform::runLater)}.
+ *
+ * {@link PasswordEntryDAO#getAllPasswordEntriesForUser(int)} is covered by
+ * {@link #getPasswordsForUser(int)}, as the observable list belongs on the
+ * JavaFX application thread anyway.
+ * {@link CategoryDAO#getCategoriesSnapshot(int)} and
+ * {@link CategoryDAO#createCategory(int, String, String)} have no
+ * asynchronous variant: they return or change the cached observable category
+ * list, which must only be touched on the JavaFX application thread.
+ * {@link #getCategoriesForUser(int)} loads the same data off that thread.
+ */
+public class AsyncDAO {
+    private final PasswordEntryDAO passwordEntryDAO;
+    private final CategoryDAO categoryDAO;
+    private final UserDAO userDAO;
+    private final DatabaseExecutor executor;
+
+    /**
+     * Constructs a facade over new DAOs that runs on the shared executor.
+     */
+    public AsyncDAO() {
+        this(new PasswordEntryDAO(), new CategoryDAO(), new UserDAO(), DatabaseExecutor.getInstance());
+    }
+
+    /**
+     * Constructs a facade over the given DAOs.
+     *
+     * @param passwordEntryDAO The password entry DAO
+     * @param categoryDAO      The category DAO
+     * @param userDAO          The user DAO
+     * @param executor         The executor the calls run on
+     */
+    public AsyncDAO(PasswordEntryDAO passwordEntryDAO, CategoryDAO categoryDAO, UserDAO userDAO,
+            DatabaseExecutor executor) {
+        this.passwordEntryDAO = passwordEntryDAO;
+        this.categoryDAO = categoryDAO;
+        this.userDAO = userDAO;
+        this.executor = executor;
+    }
+
+    /** @see PasswordEntryDAO#getPasswordsForUser(int) */
+    public CompletableFuture<List<PasswordEntry>> getPasswordsForUser(int userId) {
+        return executor.submit(() -> passwordEntryDAO.getPasswordsForUser(userId));
+    }
+
+    /** @see PasswordEntryDAO#getPasswordEntriesPage(int, int, int) */
+    public CompletableFuture<List<PasswordEntry>> getPasswordEntriesPage(int userId, int afterId, int pageSize) {
+        return executor.submit(() -> passwordEntryDAO.getPasswordEntriesPage(userId, afterId, pageSize));
+    }
+
+    /** @see PasswordEntryDAO#getPasswordEntriesPageInCategory(int, int, int, int) */
+    public CompletableFuture<List<PasswordEntry>> getPasswordEntriesPageInCategory(int userId, int categoryId,
+            int afterId, int pageSize) {
+        return executor.submit(
+                () -> passwordEntryDAO.getPasswordEntriesPageInCategory(userId, categoryId, afterId, pageSize));
+    }
+
+    /** @see PasswordEntryDAO#searchEntries(int, String, int) */
+    public CompletableFuture<List<PasswordEntry>> searchEntries(int userId, String query, int limit) {
+        return executor.submit(() -> passwordEntryDAO.searchEntries(userId, query, limit));
+    }
+
+    /** @see PasswordEntryDAO#fetchSecret(int, int) */
+    public CompletableFuture<Optional<String>> fetchSecret(int userId, int entryId) {
+        return executor.submit(() -> passwordEntryDAO.fetchSecret(userId, entryId));
+    }
+
+    /** @see PasswordEntryDAO#addPasswordEntry(PasswordEntry, int) */
+    public CompletableFuture<Boolean> addPasswordEntry(PasswordEntry entry, int userId) {
+        return executor.submit(() -> passwordEntryDAO.addPasswordEntry(entry, userId));
+    }
+
+    /** @see PasswordEntryDAO#updatePasswordEntry(PasswordEntry, int) */
+    public CompletableFuture<Boolean> updatePasswordEntry(PasswordEntry entry, int userId) {
+        return executor.submit(() -> passwordEntryDAO.updatePasswordEntry(entry, userId));
+    }
+
+    /** @see PasswordEntryDAO#deletePasswordEntry(int, int) */
+    public CompletableFuture<Boolean> deletePasswordEntry(int entryId, int userId) {
+        return executor.submit(() -> passwordEntryDAO.deletePasswordEntry(entryId, userId));
+    }
+
+    /** @see PasswordEntryDAO#addPasswordEntries(List, int) */
+    public CompletableFuture<List<Integer>> addPasswordEntries(List<PasswordEntry> entries, int userId) {
+        return executor.submit(() -> passwordEntryDAO.addPasswordEntries(entries, userId));
+    }
+
+    /** @see PasswordEntryDAO#updatePasswordEntries(List, int) */
+    public CompletableFuture<Integer> updatePasswordEntries(List<PasswordEntry> entries, int userId) {
+        return executor.submit(() -> passwordEntryDAO.updatePasswordEntries(entries, userId));
+    }
+
+    /** @see PasswordEntryDAO#updateCategoryForEntries(List, Category, int) */
+    public CompletableFuture<Integer> updateCategoryForEntries(List<Integer> entryIds, Category category,
+            int userId) {
+        return executor.submit(() -> passwordEntryDAO.updateCategoryForEntries(entryIds, category, userId));
+    }
+
+    /** @see PasswordEntryDAO#deletePasswordEntries(List, int) */
+    public CompletableFuture<Integer> deletePasswordEntries(List<Integer> entryIds, int userId) {
+        return executor.submit(() -> passwordEntryDAO.deletePasswordEntries(entryIds, userId));
+    }
+
+    /** @see PasswordEntryDAO#getTrashedEntries(int) */
+    public CompletableFuture<List<PasswordEntry>> getTrashedEntries(int userId) {
+        return executor.submit(() -> passwordEntryDAO.getTrashedEntries(userId));
+    }
+
+    /** @see PasswordEntryDAO#restorePasswordEntries(List, int) */
+    public CompletableFuture<Integer> restorePasswordEntries(List<Integer> entryIds, int userId) {
+        return executor.submit(() -> passwordEntryDAO.restorePasswordEntries(entryIds, userId));
+    }
+
+    /** @see PasswordEntryDAO#purgeDeletedEntries(LocalDateTime, int) */
+    public CompletableFuture<Integer> purgeDeletedEntries(LocalDateTime deletedBefore, int limit) {
+        return executor.submit(() -> passwordEntryDAO.purgeDeletedEntries(deletedBefore, limit));
+    }
+
+    /** @see PasswordEntryDAO#getDataVersion(int) */
+    public CompletableFuture<Long> getDataVersion(int userId) {
+        return executor.submit(() -> passwordEntryDAO.getDataVersion(userId));
+    }
+
+    /** @see PasswordEntryDAO#getCategoryCounts(int) */
+    public CompletableFuture<Map<Integer, Integer>> getCategoryCounts(int userId) {
+        return executor.submit(() -> passwordEntryDAO.getCategoryCounts(userId));
+    }
+
+    /** @see PasswordEntryDAO#getPasswordEntriesChangedSince(int, long) */
+    public CompletableFuture<PasswordEntryDelta> getPasswordEntriesChangedSince(int userId, long sinceVersion) {
+        return executor.submit(() -> passwordEntryDAO.getPasswordEntriesChangedSince(userId, sinceVersion));
+    }
+
+    /** @see CategoryDAO#getCategoriesForUser(int) */
+    public CompletableFuture<List<Category>> getCategoriesForUser(int userId) {
+        return executor.submit(() -> categoryDAO.getCategoriesForUser(userId));
+    }
+
+    /** @see CategoryDAO#getAllCategories() */
+    public CompletableFuture<List<Category>> getAllCategories() {
+        return executor.submit(categoryDAO::getAllCategories);
+    }
+
+    /** @see UserDAO#findByUsername(String) */
+    public CompletableFuture<Optional<User>> findByUsername(String username) {
+        return executor.submit(() -> userDAO.findByUsername(username));
+    }
+
+    /** @see UserDAO#createUser(String, String) */
+    public CompletableFuture<Boolean> createUser(String username, String hashedPassword) {
+        return executor.submit(() -> userDAO.createUser(username, hashedPassword));
+    }
+}
@@ -0,0 +1,133 @@
+package com.golubovicluka.passwordmanagementsystem.dao;
+
+import com.golubovicluka.passwordmanagementsystem.model.Category;
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Per-user cache of categories shared by all {@link CategoryDAO} instances.
+ * Each cached user has a single observable list that is loaded once and then
+ * updated in place by {@link CategoryDAO#createCategory(int, String, String)},
+ * so UI controls bound to it see new categories without another query.
+ *
+ * The lists are not synchronized for concurrent modification; like the rest of
+ * the UI model they must only be changed on the JavaFX application thread.
+ * Writers on other threads, such as a committed {@link UnitOfWork} on a
+ * database worker, hand the change over with {@link #addLater(Category)}.
+ */
+public class CategoryCache {
+    private static final int MAX_USERS = 16;
+
+    private static final CategoryCache INSTANCE = new CategoryCache();
+
+    /** Backing lists per user, evicted in least-recently-used order */
+    private final Map<Integer, ObservableList<Category>> byUser = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, ObservableList<Category>> eldest) {
+            return size() > MAX_USERS;
+        }
+    };
+
+    private final Executor uiThread;
+    private final BooleanSupplier onUiThread;
+
+    /**
+     * Constructs a cache whose lists are changed on the JavaFX application
+     * thread.
+     */
+    public CategoryCache() {
+        this(Platform::runLater, Platform::isFxApplicationThread);
+    }
+
+    /**
+     * Constructs a cache whose lists are changed on the given UI thread.
+     *
+     * @param uiThread   Runs changes on the UI thread
+     * @param onUiThread Tells whether the caller is on the UI thread
+     */
+    CategoryCache(Executor uiThread, BooleanSupplier onUiThread) {
+        this.uiThread = uiThread;
+        this.onUiThread = onUiThread;
+    }
+
+    /**
+     * Gets the application-wide category cache.
+     *
+     * @return The shared cache
+     */
+    public static CategoryCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the read-only observable category list of a user, loading it
+     * with the given loader on first access.
+     *
+     * @param userId The ID of the user
+     * @param loader Loads the categories from the database on a miss
+     * @return An unmodifiable view of the cached categories
+     */
+    public synchronized ObservableList<Category> getSnapshot(int userId, Supplier<List<Category>> loader) {
+        ObservableList<Category> categories = byUser.get(userId);
+        if (categories == null) {
+            categories = FXCollections.observableArrayList(loader.get());
+            byUser.put(userId, categories);
+        }
+        return FXCollections.unmodifiableObservableList(categories);
+    }
+
+    /**
+     * Appends a newly created category to its user's list if that user is
+     * cached.
+     *
+     * @param category The category that was created
+     * @throws IllegalStateException If not called on the UI thread
+     */
+    public synchronized void add(Category category) {
+        if (!onUiThread.getAsBoolean()) {
+            throw new IllegalStateException("Categories must be added on the UI thread");
+        }
+        ObservableList<Category> categories = byUser.get(category.getUserId());
+        if (categories != null) {
+            categories.add(category);
+        }
+    }
+
+    /**
+     * Appends a newly created category to its user's list on the UI thread,
+     * right away if the caller is already on it.
+     *
+     * @param category The category that was created
+     */
+    public void addLater(Category category) {
+        if (onUiThread.getAsBoolean()) {
+            add(category);
+        } else {
+            uiThread.execute(() -> add(category));
+        }
+    }
+
+    /**
+     * Drops the cached categories of a user so the next access reloads them.
+     *
+     * @param userId The ID of the user
+     */
+    public synchronized void invalidateUser(int userId) {
+        byUser.remove(userId);
+    }
+
+    /**
+     * Drops all cached categories.
+     */
+    public synchronized void invalidateAll() {
+        byUser.clear();
+    }
+}
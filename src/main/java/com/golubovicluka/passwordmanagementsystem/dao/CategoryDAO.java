@@ -1,6 +1,10 @@
 package com.golubovicluka.passwordmanagementsystem.dao;
 
+import com.golubovicluka.passwordmanagementsystem.exception.DatabaseException;
 import com.golubovicluka.passwordmanagementsystem.model.Category;
+import javafx.collections.ObservableList;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.sql.*;
 import java.util.ArrayList;
@@ -13,32 +17,77 @@ import java.util.List;
  * and managing categories for users.
  */
 public class CategoryDAO {
+    private static final Logger logger = LoggerFactory.getLogger(CategoryDAO.class);
+
+    /** Per-user category cache kept up to date by {@link #createCategory} */
+    private final CategoryCache cache;
+
+    /**
+     * Constructs a DAO backed by the application-wide category cache.
+     */
+    public CategoryDAO() {
+        this(CategoryCache.getInstance());
+    }
+
+    /**
+     * Constructs a DAO backed by the given category cache.
+     *
+     * @param cache The cache holding each user's categories
+     */
+    public CategoryDAO(CategoryCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Returns the cached, observable list of a user's categories.
+     * The list is loaded from the database on first access and is updated in
+     * place when categories are created, so UI controls can bind to it.
+     *
+     * @param userId The ID of the user whose categories to retrieve
+     * @return A read-only observable list of the user's categories
+     * @throws DatabaseException If the categories could not be loaded; nothing
+     *                           is cached then, so the next call tries again
+     */
+    public ObservableList<Category> getCategoriesSnapshot(int userId) {
+        return cache.getSnapshot(userId, () -> loadCategoriesForUser(userId));
+    }
 
     /**
      * Retrieves all categories associated with a specific user.
+     * Served from the category cache after the first call.
      *
      * @param userId The ID of the user whose categories to retrieve
      * @return A list of Category objects belonging to the specified user
+     * @throws DatabaseException If the categories could not be loaded
      */
     public List<Category> getCategoriesForUser(int userId) {
+        return new ArrayList<>(getCategoriesSnapshot(userId));
+    }
+
+    /**
+     * Loads the categories of a user from the database.
+     *
+     * @param userId The ID of the user whose categories to load
+     * @return A list of Category objects belonging to the specified user
+     * @throws DatabaseException If there is an error loading the categories
+     */
+    private List<Category> loadCategoriesForUser(int userId) {
         List<Category> categories = new ArrayList<>();
         String query = "SELECT * FROM categories WHERE user_id = ?";
 
-        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+        try (Connection conn = DatabaseConnection.getInstance().getReadConnectionForUser(userId);
                 PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setInt(1, userId);
-            ResultSet rs = stmt.executeQuery();
-
-            while (rs.next()) {
-                categories.add(new Category(
-                        rs.getInt("category_id"),
-                        rs.getInt("user_id"),
-                        rs.getString("name"),
-                        rs.getString("description")));
+            try (ResultSet rs = stmt.executeQuery()) {
+                RowMapper<Category> mapper = RowMappers.category(rs);
+                while (rs.next()) {
+                    categories.add(mapper.mapRow(rs));
+                }
             }
         } catch (SQLException e) {
-            e.printStackTrace();
+            logger.error("Error loading categories of user {}: {}", userId, e.getMessage());
+            throw new DatabaseException("Failed to load categories", e);
         }
         return categories;
     }
@@ -52,53 +101,78 @@ public class CategoryDAO {
      * @return The newly created Category object, or null if creation failed
      */
     public Category createCategory(int userId, String name, String description) {
-        String query = "INSERT INTO categories (user_id, name, description) VALUES (?, ?, ?)";
-
-        try (Connection conn = DatabaseConnection.getInstance().getConnection();
-                PreparedStatement stmt = conn.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
-
-            stmt.setInt(1, userId);
-            stmt.setString(2, name);
-            stmt.setString(3, description);
+        DatabaseConnection database = DatabaseConnection.getInstance();
+        try (PlacementLock placement = PlacementLock.acquire(database, userId)) {
+            Connection conn = placement.connection();
+            // Sharded databases take ids from the allocator, others from auto-increment
+            int id = database.getIdAllocator().allocate(IdAllocator.CATEGORIES, 1);
+            String query = "INSERT INTO categories (user_id, name, description, row_version"
+                    + (id > 0 ? ", category_id) VALUES (?, ?, ?, ?, ?)" : ") VALUES (?, ?, ?, ?)");
+
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
+                stmt.setInt(1, userId);
+                stmt.setString(2, name);
+                stmt.setString(3, description);
+                stmt.setLong(4, DataVersions.next(conn, userId));
+                if (id > 0) {
+                    stmt.setInt(5, id);
+                }
 
-            int affectedRows = stmt.executeUpdate();
-            if (affectedRows == 0) {
-                return null;
-            }
+                Category category = null;
+                if (stmt.executeUpdate() > 0) {
+                    if (id > 0) {
+                        category = new Category(id, userId, name, description);
+                    } else {
+                        try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                            if (generatedKeys.next()) {
+                                category = new Category(generatedKeys.getInt(1), userId, name, description);
+                            }
+                        }
+                    }
+                }
+                conn.commit();
+                DatabaseConnection.getInstance().recordWrite(userId);
 
-            try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
-                if (generatedKeys.next()) {
-                    return new Category(generatedKeys.getInt(1), userId, name, description);
+                if (category != null) {
+                    Category created = category;
+                    UnitOfWork.afterCommit(() -> cache.addLater(created));
                 }
+                return category;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
             }
         } catch (SQLException e) {
-            e.printStackTrace();
+            logger.error("Error creating category for user {}: {}", userId, e.getMessage());
         }
         return null;
     }
 
     /**
-     * Retrieves all categories from the database.
+     * Retrieves all categories from the database, from every shard.
      *
      * @return A list of all Category objects in the database
      */
     public List<Category> getAllCategories() {
         List<Category> categories = new ArrayList<>();
         String query = "SELECT * FROM categories";
+        DatabaseConnection database = DatabaseConnection.getInstance();
 
-        try (Connection conn = DatabaseConnection.getInstance().getConnection();
-                PreparedStatement stmt = conn.prepareStatement(query);
-                ResultSet rs = stmt.executeQuery()) {
+        for (int shard = 0; shard < database.getShardCount(); shard++) {
+            try (Connection conn = database.getShardConnection(shard);
+                    PreparedStatement stmt = conn.prepareStatement(query);
+                    ResultSet rs = stmt.executeQuery()) {
 
-            while (rs.next()) {
-                categories.add(new Category(
-                        rs.getInt("category_id"),
-                        rs.getInt("user_id"),
-                        rs.getString("name"),
-                        rs.getString("description")));
+                RowMapper<Category> mapper = RowMappers.category(rs);
+                while (rs.next()) {
+                    categories.add(mapper.mapRow(rs));
+                }
+            } catch (SQLException e) {
+                logger.error("Error retrieving categories of shard {}: {}", shard, e.getMessage());
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
         }
 
         return categories;
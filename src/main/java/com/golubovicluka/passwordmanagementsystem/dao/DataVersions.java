@@ -0,0 +1,57 @@
+package com.golubovicluka.passwordmanagementsystem.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Access to the per-user data version counter in {@code users.data_version}.
+ * Every write to a user's entries or categories takes a new version and stamps
+ * it on the rows it writes, which lets readers fetch only what changed since
+ * the last version they have seen.
+ */
+final class DataVersions {
+
+    private DataVersions() {
+    }
+
+    /**
+     * Increments and returns the data version of a user. Must be called inside
+     * the transaction of the write it stamps: the update locks the user row
+     * until commit, so concurrent writers of the same user make their versions
+     * visible in increasing order.
+     *
+     * @param conn   The connection of the current transaction
+     * @param userId The ID of the user
+     * @return The new data version
+     * @throws SQLException If the user does not exist or the update fails
+     */
+    static long next(Connection conn, int userId) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "UPDATE users SET data_version = data_version + 1 WHERE id = ?")) {
+            stmt.setInt(1, userId);
+            if (stmt.executeUpdate() == 0) {
+                throw new SQLException("User not found: " + userId);
+            }
+        }
+        return current(conn, userId);
+    }
+
+    /**
+     * Reads the current data version of a user.
+     *
+     * @param conn   The connection to read with
+     * @param userId The ID of the user
+     * @return The current data version, 0 if the user does not exist
+     * @throws SQLException If the query fails
+     */
+    static long current(Connection conn, int userId) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT data_version FROM users WHERE id = ?")) {
+            stmt.setInt(1, userId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        }
+    }
+}
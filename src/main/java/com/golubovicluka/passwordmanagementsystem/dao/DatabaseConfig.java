@@ -0,0 +1,398 @@
+package com.golubovicluka.passwordmanagementsystem.dao;
+
+import com.zaxxer.hikari.HikariConfig;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Database and connection pool settings read from outside the application.
+ * Settings are loaded from the properties file named by the
+ * {@value #CONFIG_FILE_PROPERTY} system property, and system properties with
+ * the same keys override the file, e.g. {@code -Dpms.db.pool.maxSize=20}.
+ * Settings that are not configured keep the defaults of the selected
+ * {@link StorageBackend}.
+ */
+public class DatabaseConfig {
+
+    /** System property naming the properties file to load */
+    public static final String CONFIG_FILE_PROPERTY = "pms.config";
+
+    public static final String URL = "pms.db.url";
+    public static final String USERNAME = "pms.db.username";
+    public static final String PASSWORD = "pms.db.password";
+    public static final String POOL_MAX_SIZE = "pms.db.pool.maxSize";
+    public static final String POOL_MIN_IDLE = "pms.db.pool.minIdle";
+    public static final String POOL_IDLE_TIMEOUT_MS = "pms.db.pool.idleTimeoutMs";
+    public static final String POOL_CONNECTION_TIMEOUT_MS = "pms.db.pool.connectionTimeoutMs";
+    public static final String POOL_MAX_LIFETIME_MS = "pms.db.pool.maxLifetimeMs";
+    public static final String REPLICA_URLS = "pms.db.replica.urls";
+    public static final String READ_YOUR_WRITES_MS = "pms.db.replica.readYourWritesMs";
+    public static final String SHARD_URLS = "pms.db.shard.urls";
+    public static final String SHARD_STRATEGY = "pms.db.shard.strategy";
+    public static final String SHARD_RANGE_BOUNDS = "pms.db.shard.rangeBounds";
+    public static final String TRASH_RETENTION_DAYS = "pms.trash.retentionDays";
+    public static final String TRASH_PURGE_BATCH_SIZE = "pms.trash.purgeBatchSize";
+    public static final String TRASH_PURGE_INTERVAL_MINUTES = "pms.trash.purgeIntervalMinutes";
+    public static final String BCRYPT_TARGET_MS = "pms.auth.bcrypt.targetMs";
+    public static final String BCRYPT_MIN_COST = "pms.auth.bcrypt.minCost";
+    public static final String BCRYPT_MAX_COST = "pms.auth.bcrypt.maxCost";
+    public static final String PASSWORD_HASHER = "pms.auth.hasher";
+    public static final String PBKDF2_ITERATIONS = "pms.auth.pbkdf2.iterations";
+    public static final String ARGON2_MEMORY_KIB = "pms.auth.argon2.memoryKiB";
+    public static final String ARGON2_ITERATIONS = "pms.auth.argon2.iterations";
+    public static final String ARGON2_PARALLELISM = "pms.auth.argon2.parallelism";
+    public static final String SESSION_IDLE_TIMEOUT_MINUTES = "pms.session.idleTimeoutMinutes";
+    public static final String SESSION_MAX_LIFETIME_HOURS = "pms.session.maxLifetimeHours";
+
+    private static final long DEFAULT_READ_YOUR_WRITES_MS = 2000;
+    private static final long DEFAULT_TRASH_RETENTION_DAYS = 30;
+    private static final long DEFAULT_TRASH_PURGE_BATCH_SIZE = 500;
+    private static final long DEFAULT_TRASH_PURGE_INTERVAL_MINUTES = 15;
+    private static final long DEFAULT_BCRYPT_TARGET_MS = 250;
+    private static final long DEFAULT_BCRYPT_MIN_COST = 10;
+    private static final long DEFAULT_BCRYPT_MAX_COST = 16;
+    private static final long DEFAULT_PBKDF2_ITERATIONS = 600_000;
+    private static final long DEFAULT_ARGON2_MEMORY_KIB = 19_456;
+    private static final long DEFAULT_ARGON2_ITERATIONS = 2;
+    private static final long DEFAULT_ARGON2_PARALLELISM = 1;
+    private static final long DEFAULT_SESSION_IDLE_TIMEOUT_MINUTES = 30;
+    private static final long DEFAULT_SESSION_MAX_LIFETIME_HOURS = 12;
+
+    private final Properties properties;
+
+    /**
+     * Constructs a configuration from already merged properties.
+     *
+     * @param properties The settings
+     */
+    DatabaseConfig(Properties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Loads the configuration from the file named by
+     * {@value #CONFIG_FILE_PROPERTY}, if any, overridden by system properties.
+     *
+     * @return The merged configuration
+     * @throws IllegalStateException If the configured file cannot be read
+     */
+    public static DatabaseConfig load() {
+        String file = System.getProperty(CONFIG_FILE_PROPERTY);
+        return load(file != null && !file.isBlank() ? Paths.get(file) : null, System.getProperties());
+    }
+
+    /**
+     * Loads the configuration from a properties file and applies overrides.
+     * Only override keys starting with {@code pms.} are taken over.
+     *
+     * @param file      The properties file, or null to use only the overrides
+     * @param overrides Properties that take precedence over the file
+     * @return The merged configuration
+     * @throws IllegalStateException If the file cannot be read
+     */
+    static DatabaseConfig load(Path file, Properties overrides) {
+        Properties properties = new Properties();
+        if (file != null) {
+            try (InputStream in = Files.newInputStream(file)) {
+                properties.load(in);
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to read database configuration " + file, e);
+            }
+        }
+        for (String key : overrides.stringPropertyNames()) {
+            if (key.startsWith("pms.")) {
+                properties.setProperty(key, overrides.getProperty(key));
+            }
+        }
+        return new DatabaseConfig(properties);
+    }
+
+    /**
+     * Gets a configured value.
+     *
+     * @param key The setting key
+     * @return The trimmed value, or null if it is not configured
+     */
+    public String get(String key) {
+        String value = properties.getProperty(key);
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    /**
+     * Gets the storage backend named by {@value StorageBackend#BACKEND_PROPERTY}.
+     *
+     * @return The configured backend, MYSQL if none is configured
+     */
+    public StorageBackend getStorageBackend() {
+        return StorageBackend.fromName(get(StorageBackend.BACKEND_PROPERTY));
+    }
+
+    /**
+     * Gets the JDBC URLs of the read replicas.
+     *
+     * @return The comma-separated {@value #REPLICA_URLS} setting as a list,
+     *         empty if no replicas are configured
+     */
+    public List<String> getReplicaUrls() {
+        return getList(REPLICA_URLS);
+    }
+
+    /**
+     * Gets the JDBC URLs of the additional shards. The primary database is
+     * shard 0 and the listed databases are shards 1 to N, in order.
+     *
+     * @return The comma-separated {@value #SHARD_URLS} setting as a list,
+     *         empty if the data is not sharded
+     */
+    public List<String> getShardUrls() {
+        return getList(SHARD_URLS);
+    }
+
+    /**
+     * Gets how long reads keyed to a user go to the primary after that user
+     * wrote, so the user sees their own change even if the replicas lag.
+     *
+     * @return The read-your-writes window in milliseconds
+     * @throws IllegalArgumentException If the setting is not a number
+     */
+    public long getReadYourWritesMillis() {
+        return get(READ_YOUR_WRITES_MS) != null ? getNumber(READ_YOUR_WRITES_MS) : DEFAULT_READ_YOUR_WRITES_MS;
+    }
+
+    /**
+     * Gets how long deleted password entries stay in the trash before the
+     * purge job removes them.
+     *
+     * @return The retention period in days
+     * @throws IllegalArgumentException If the setting is not a number
+     */
+    public long getTrashRetentionDays() {
+        return get(TRASH_RETENTION_DAYS) != null ? getNumber(TRASH_RETENTION_DAYS) : DEFAULT_TRASH_RETENTION_DAYS;
+    }
+
+    /**
+     * Gets the maximum number of expired entries the purge job removes per
+     * statement.
+     *
+     * @return The purge batch size
+     * @throws IllegalArgumentException If the setting is not a number
+     */
+    public int getTrashPurgeBatchSize() {
+        return (int) (get(TRASH_PURGE_BATCH_SIZE) != null ? getNumber(TRASH_PURGE_BATCH_SIZE)
+                : DEFAULT_TRASH_PURGE_BATCH_SIZE);
+    }
+
+    /**
+     * Gets how often the purge job looks for expired entries in the trash.
+     *
+     * @return The purge interval in minutes
+     * @throws IllegalArgumentException If the setting is not a number
+     */
+    public long getTrashPurgeIntervalMinutes() {
+        return get(TRASH_PURGE_INTERVAL_MINUTES) != null ? getNumber(TRASH_PURGE_INTERVAL_MINUTES)
+                : DEFAULT_TRASH_PURGE_INTERVAL_MINUTES;
+    }
+
+    /**
+     * Gets how long hashing one password with BCrypt may take at most on this
+     * machine. The highest cost that stays within it is used for new hashes.
+     *
+     * @return The latency budget in milliseconds
+     * @throws IllegalArgumentException If the setting is not a number
+     */
+    public long getBCryptTargetMillis() {
+        return get(BCRYPT_TARGET_MS) != null ? getNumber(BCRYPT_TARGET_MS) : DEFAULT_BCRYPT_TARGET_MS;
+    }
+
+    /**
+     * Gets the lowest BCrypt cost used for new hashes, even on a machine too
+     * slow to hash at that cost within {@value #BCRYPT_TARGET_MS}.
+     *
+     * @return The minimum BCrypt cost
+     * @throws IllegalArgumentException If the setting is not a number
+     */
+    public int getBCryptMinCost() {
+        return (int) (get(BCRYPT_MIN_COST) != null ? getNumber(BCRYPT_MIN_COST) : DEFAULT_BCRYPT_MIN_COST);
+    }
+
+    /**
+     * Gets the highest BCrypt cost used for new hashes, however fast the
+     * machine is.
+     *
+     * @return The maximum BCrypt cost
+     * @throws IllegalArgumentException If the setting is not a number
+     */
+    public int getBCryptMaxCost() {
+        return (int) (get(BCRYPT_MAX_COST) != null ? getNumber(BCRYPT_MAX_COST) : DEFAULT_BCRYPT_MAX_COST);
+    }
+
+    /**
+     * Gets the name of the algorithm new password hashes are created with:
+     * {@code bcrypt}, {@code pbkdf2} or {@code argon2id}.
+     *
+     * @return The configured algorithm name, or null for the default
+     */
+    public String getPasswordHasher() {
+        return get(PASSWORD_HASHER);
+    }
+
+    /**
+     * Gets the number of PBKDF2-HMAC-SHA256 iterations of new hashes.
+     *
+     * @return The iteration count
+     * @throws IllegalArgumentException If the setting is not a number
+     */
+    public int getPbkdf2Iterations() {
+        return (int) (get(PBKDF2_ITERATIONS) != null ? getNumber(PBKDF2_ITERATIONS) : DEFAULT_PBKDF2_ITERATIONS);
+    }
+
+    /**
+     * Gets the memory one Argon2id hash uses.
+     *
+     * @return The memory cost in KiB
+     * @throws IllegalArgumentException If the setting is not a number
+     */
+    public int getArgon2MemoryKiB() {
+        return (int) (get(ARGON2_MEMORY_KIB) != null ? getNumber(ARGON2_MEMORY_KIB) : DEFAULT_ARGON2_MEMORY_KIB);
+    }
+
+    /**
+     * Gets the number of passes Argon2id makes over its memory.
+     *
+     * @return The time cost
+     * @throws IllegalArgumentException If the setting is not a number
+     */
+    public int getArgon2Iterations() {
+        return (int) (get(ARGON2_ITERATIONS) != null ? getNumber(ARGON2_ITERATIONS) : DEFAULT_ARGON2_ITERATIONS);
+    }
+
+    /**
+     * Gets the number of independent lanes Argon2id splits its memory into.
+     *
+     * @return The parallelism
+     * @throws IllegalArgumentException If the setting is not a number
+     */
+    public int getArgon2Parallelism() {
+        return (int) (get(ARGON2_PARALLELISM) != null ? getNumber(ARGON2_PARALLELISM)
+                : DEFAULT_ARGON2_PARALLELISM);
+    }
+
+    /**
+     * Gets how long a session may go unused before it expires.
+     *
+     * @return The idle timeout in minutes
+     * @throws IllegalArgumentException If the setting is not a number
+     */
+    public long getSessionIdleTimeoutMinutes() {
+        return get(SESSION_IDLE_TIMEOUT_MINUTES) != null ? getNumber(SESSION_IDLE_TIMEOUT_MINUTES)
+                : DEFAULT_SESSION_IDLE_TIMEOUT_MINUTES;
+    }
+
+    /**
+     * Gets how long a session lasts at most after login, however active it
+     * is.
+     *
+     * @return The absolute lifetime in hours
+     * @throws IllegalArgumentException If the setting is not a number
+     */
+    public long getSessionMaxLifetimeHours() {
+        return get(SESSION_MAX_LIFETIME_HOURS) != null ? getNumber(SESSION_MAX_LIFETIME_HOURS)
+                : DEFAULT_SESSION_MAX_LIFETIME_HOURS;
+    }
+
+    /**
+     * Gets the maximum size of each connection pool: {@value #POOL_MAX_SIZE}
+     * if configured, otherwise the default of the storage backend.
+     *
+     * @return The maximum number of connections per pool
+     * @throws IllegalArgumentException If the setting is not a number
+     */
+    public int getPoolMaxSize() {
+        HikariConfig config = new HikariConfig();
+        getStorageBackend().configure(config);
+        applyTo(config);
+        return config.getMaximumPoolSize();
+    }
+
+    /**
+     * Creates the router that places users on the primary and the configured
+     * shards, using {@value #SHARD_STRATEGY} ({@code hash} or {@code range})
+     * and, for range sharding, the ascending user id bounds in
+     * {@value #SHARD_RANGE_BOUNDS}.
+     *
+     * @return The shard router
+     * @throws IllegalArgumentException If the strategy or bounds are invalid
+     */
+    ShardRouter createShardRouter() {
+        int[] bounds = getList(SHARD_RANGE_BOUNDS).stream()
+                .mapToInt(bound -> {
+                    try {
+                        return Integer.parseInt(bound);
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("Invalid value for " + SHARD_RANGE_BOUNDS + ": " + bound, e);
+                    }
+                })
+                .toArray();
+        return new ShardRouter(getShardUrls().size() + 1, ShardRouter.Strategy.fromName(get(SHARD_STRATEGY)), bounds);
+    }
+
+    /**
+     * Overrides the pool settings that are configured. Call after the storage
+     * backend has applied its defaults.
+     *
+     * @param config The pool configuration to update
+     * @throws IllegalArgumentException If a numeric setting is not a number
+     */
+    void applyTo(HikariConfig config) {
+        if (get(URL) != null) {
+            config.setJdbcUrl(get(URL));
+        }
+        if (get(USERNAME) != null) {
+            config.setUsername(get(USERNAME));
+        }
+        if (properties.getProperty(PASSWORD) != null) {
+            config.setPassword(properties.getProperty(PASSWORD));
+        }
+        if (get(POOL_MAX_SIZE) != null) {
+            config.setMaximumPoolSize((int) getNumber(POOL_MAX_SIZE));
+        }
+        if (get(POOL_MIN_IDLE) != null) {
+            config.setMinimumIdle((int) getNumber(POOL_MIN_IDLE));
+        }
+        if (get(POOL_IDLE_TIMEOUT_MS) != null) {
+            config.setIdleTimeout(getNumber(POOL_IDLE_TIMEOUT_MS));
+        }
+        if (get(POOL_CONNECTION_TIMEOUT_MS) != null) {
+            config.setConnectionTimeout(getNumber(POOL_CONNECTION_TIMEOUT_MS));
+        }
+        if (get(POOL_MAX_LIFETIME_MS) != null) {
+            config.setMaxLifetime(getNumber(POOL_MAX_LIFETIME_MS));
+        }
+    }
+
+    private List<String> getList(String key) {
+        String value = get(key);
+        if (value == null) {
+            return List.of();
+        }
+        return Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(item -> !item.isEmpty())
+                .toList();
+    }
+
+    private long getNumber(String key) {
+        try {
+            return Long.parseLong(get(key));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid value for " + key + ": " + get(key), e);
+        }
+    }
+}
@@ -2,26 +2,63 @@ package com.golubovicluka.passwordmanagementsystem.dao;
 
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Singleton connection pool manager using HikariCP.
  * This class provides efficient database connection management with connection
- * pooling.
+ * pooling. Pool settings come from {@link DatabaseConfig}, and the pool is
+ * exposed over JMX both through Hikari's own MBean and through
+ * {@link PoolMetricsMXBean}.
+ *
+ * When read replicas are configured, {@link #getReadConnection(Object)} spreads
+ * reads over them while {@link #getConnection()} keeps serving writes from the
+ * primary. After {@link #recordWrite(Object)} the reads of the same key stay on
+ * the primary for a short window, so users always read their own writes.
+ *
+ * When shards are configured, each user's categories and entries live on one
+ * shard chosen by {@link ShardRouter}; {@link #getConnectionForUser(int)} and
+ * {@link #getReadConnectionForUser(int)} resolve it. The primary is shard 0
+ * and keeps the user directory.
  */
 public class DatabaseConnection {
     private static final Logger logger = LoggerFactory.getLogger(DatabaseConnection.class);
-    private static DatabaseConnection instance;
+    /** Published once fully initialized; read without locking on every call */
+    private static volatile DatabaseConnection instance;
+    private static final String POOL_NAME = "PasswordManagerConnectionPool";
+
     private HikariDataSource dataSource;
+    private StorageBackend storageBackend;
+    private final PoolMetrics poolMetrics = new PoolMetrics();
+    private ObjectName metricsObjectName;
+
+    /** Read-only pools of the replicas, empty if reads go to the primary */
+    private final List<HikariDataSource> replicaSources = new ArrayList<>();
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    /** Keys that read from the primary until the stored System.nanoTime() deadline */
+    private final Map<Object, Long> stickyUntil = new ConcurrentHashMap<>();
+    private long readYourWritesNanos;
 
-    private static final String JDBC_URL = "jdbc:mysql://localhost:3306/passwordmanagement";
-    private static final String DB_USER = "root";
-    private static final String DB_PASSWORD = "root";
-    private static final int MAX_POOL_SIZE = 10;
+    /** Pools of shards 1 to N; shard 0 is {@link #dataSource} */
+    private final List<HikariDataSource> shardSources = new ArrayList<>();
+    private ShardRouter shardRouter = ShardRouter.singleShard();
+    private final IdAllocator idAllocator = new IdAllocator(this);
 
     /**
      * Private constructor to prevent instantiation from outside.
@@ -48,39 +85,244 @@ public class DatabaseConnection {
      * Initializes the HikariCP data source with configured settings.
      */
     private void initializeDataSource() {
-        HikariConfig config = new HikariConfig();
-        config.setJdbcUrl(JDBC_URL);
-        config.setUsername(DB_USER);
-        config.setPassword(DB_PASSWORD);
-        config.setMaximumPoolSize(MAX_POOL_SIZE);
+        DatabaseConfig databaseConfig = DatabaseConfig.load();
+        storageBackend = databaseConfig.getStorageBackend();
 
-        config.setMinimumIdle(5);
+        HikariConfig config = new HikariConfig();
         config.setIdleTimeout(30000);
-        config.setPoolName("PasswordManagerConnectionPool");
-        config.addDataSourceProperty("cachePrepStmts", "true");
-        config.addDataSourceProperty("prepStmtCacheSize", "250");
-        config.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
-        config.addDataSourceProperty("useServerPrepStmts", "true");
+        config.setPoolName(POOL_NAME);
+        config.setRegisterMbeans(true);
+        config.setMetricsTrackerFactory(poolMetrics);
+        storageBackend.configure(config);
+        databaseConfig.applyTo(config);
 
+        long poolStart = System.nanoTime();
         try {
             dataSource = new HikariDataSource(config);
-            logger.info("HikariCP connection pool initialized successfully");
+            logger.info("HikariCP connection pool initialized successfully using {} (max {} connections, "
+                    + "min {} idle) in {} ms", storageBackend, config.getMaximumPoolSize(), config.getMinimumIdle(),
+                    elapsedMillis(poolStart));
         } catch (Exception e) {
             logger.error("Error initializing connection pool", e);
             throw new RuntimeException("Failed to initialize database connection pool", e);
         }
+
+        registerMetricsMBean();
+        initializeReplicas(databaseConfig, config);
+
+        long migrationStart = System.nanoTime();
+        try {
+            migrateSchema();
+        } catch (RuntimeException e) {
+            closePool();
+            throw e;
+        }
+        logger.info("Database schema checked in {} ms", elapsedMillis(migrationStart));
+
+        try {
+            initializeShards(databaseConfig, config);
+        } catch (RuntimeException e) {
+            closePool();
+            throw e;
+        }
+    }
+
+    /**
+     * Creates a read-only pool per configured replica, with the same settings
+     * as the primary pool. A replica that cannot be reached is skipped and its
+     * share of the reads goes to the primary.
+     *
+     * @param databaseConfig The configuration naming the replicas
+     * @param primaryConfig  The settings of the primary pool
+     */
+    private void initializeReplicas(DatabaseConfig databaseConfig, HikariConfig primaryConfig) {
+        readYourWritesNanos = TimeUnit.MILLISECONDS.toNanos(databaseConfig.getReadYourWritesMillis());
+        List<String> urls = databaseConfig.getReplicaUrls();
+        for (int i = 0; i < urls.size(); i++) {
+            HikariConfig config = new HikariConfig();
+            primaryConfig.copyStateTo(config);
+            config.setJdbcUrl(urls.get(i));
+            config.setPoolName(POOL_NAME + "-replica-" + (i + 1));
+            config.setReadOnly(true);
+            config.setMetricsTrackerFactory(null);
+
+            try {
+                replicaSources.add(new HikariDataSource(config));
+                logger.info("Read replica pool {} initialized", config.getPoolName());
+            } catch (Exception e) {
+                logger.warn("Could not initialize read replica {}: {}", config.getPoolName(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Creates a pool per configured shard with the same settings as the
+     * primary pool and migrates its schema. Unlike replicas, every shard must
+     * be reachable. Once sharded, new rows take their ids from
+     * {@link IdAllocator}, so ids stay unique across shards and rows keep
+     * their ids when a user is moved.
+     *
+     * @param databaseConfig The configuration naming the shards
+     * @param primaryConfig  The settings of the primary pool
+     * @throws RuntimeException If a shard cannot be initialized
+     */
+    private void initializeShards(DatabaseConfig databaseConfig, HikariConfig primaryConfig) {
+        ShardRouter router = databaseConfig.createShardRouter();
+        List<String> urls = databaseConfig.getShardUrls();
+        for (int i = 0; i < urls.size(); i++) {
+            int shard = i + 1;
+            HikariConfig config = new HikariConfig();
+            primaryConfig.copyStateTo(config);
+            config.setJdbcUrl(urls.get(i));
+            config.setPoolName(POOL_NAME + "-shard-" + shard);
+            config.setMetricsTrackerFactory(null);
+
+            HikariDataSource shardSource;
+            try {
+                shardSource = new HikariDataSource(config);
+            } catch (Exception e) {
+                logger.error("Error initializing pool of shard {}", shard, e);
+                throw new RuntimeException("Failed to initialize database shard " + shard, e);
+            }
+            shardSources.add(shardSource);
+
+            try (Connection conn = shardSource.getConnection()) {
+                new SchemaMigrator().migrate(conn);
+            } catch (SQLException e) {
+                logger.error("Error migrating shard {}", shard, e);
+                throw new RuntimeException("Failed to migrate database shard " + shard, e);
+            }
+            logger.info("Shard {} pool {} initialized", shard, config.getPoolName());
+        }
+
+        if (!shardSources.isEmpty()) {
+            shardRouter = router;
+            try {
+                idAllocator.initialize();
+            } catch (SQLException e) {
+                logger.error("Error initializing id allocation", e);
+                throw new RuntimeException("Failed to initialize id allocation across shards", e);
+            }
+        }
+    }
+
+    /**
+     * Registers the pool metrics with the platform MBean server. Failure to
+     * register only disables the JMX view.
+     */
+    private void registerMetricsMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(
+                    "com.golubovicluka.passwordmanagementsystem:type=PoolMetrics,pool=" + POOL_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(poolMetrics, name);
+                metricsObjectName = name;
+            }
+        } catch (JMException e) {
+            logger.warn("Could not register pool metrics MBean: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Brings the database schema up to date by applying pending migrations.
+     */
+    private void migrateSchema() {
+        try (Connection conn = dataSource.getConnection()) {
+            new SchemaMigrator().migrate(conn);
+        } catch (SQLException e) {
+            logger.error("Error obtaining connection for schema migration", e);
+            throw new RuntimeException("Failed to migrate database schema", e);
+        }
     }
 
     /**
      * Gets the singleton instance of the DatabaseConnection.
+     * Once the instance exists this is a single volatile read. Only the first
+     * callers synchronize, and if initialization fails the next call tries
+     * again, e.g. after the database server has been started.
      *
      * @return The singleton instance
      */
-    public static synchronized DatabaseConnection getInstance() {
-        if (instance == null) {
-            instance = new DatabaseConnection();
+    public static DatabaseConnection getInstance() {
+        DatabaseConnection current = instance;
+        if (current != null) {
+            return current;
+        }
+        synchronized (DatabaseConnection.class) {
+            if (instance == null) {
+                instance = new DatabaseConnection();
+            }
+            return instance;
+        }
+    }
+
+    /**
+     * Initializes the connection pool ahead of its first use and opens
+     * {@code minimumIdle} connections, so the first login does not pay for
+     * pool creation, schema checks and connection handshakes. Meant to run on
+     * a background thread while the login screen is shown; a concurrent
+     * {@link #getInstance()} waits for the same initialization instead of
+     * starting another one.
+     *
+     * @throws RuntimeException If the pool cannot be initialized
+     */
+    public static void warmUp() {
+        long start = System.nanoTime();
+        DatabaseConnection connection = getInstance();
+        long initMillis = elapsedMillis(start);
+
+        long connectStart = System.nanoTime();
+        int opened = connection.openIdleConnections();
+        logger.info("Connection pool warm-up finished in {} ms: initialization {} ms, {} connection(s) opened in {} ms",
+                elapsedMillis(start), initMillis, opened, elapsedMillis(connectStart));
+    }
+
+    /**
+     * Borrows {@code minimumIdle} connections at the same time and returns
+     * them, which makes the pool establish that many physical connections now
+     * rather than on demand.
+     *
+     * @return The number of connections that were borrowed
+     */
+    private int openIdleConnections() {
+        if (dataSource == null) {
+            return 0;
+        }
+
+        List<Connection> borrowed = new ArrayList<>();
+        try {
+            for (int i = 0; i < dataSource.getMinimumIdle(); i++) {
+                borrowed.add(dataSource.getConnection());
+            }
+        } catch (SQLException e) {
+            logger.warn("Could not open all idle connections during warm-up: {}", e.getMessage());
+        } finally {
+            for (Connection conn : borrowed) {
+                try {
+                    conn.close();
+                } catch (SQLException e) {
+                    logger.warn("Error returning warm-up connection: {}", e.getMessage());
+                }
+            }
+        }
+        return borrowed.size();
+    }
+
+    /**
+     * Closes the connection pool if it was ever initialized. Unlike
+     * {@code getInstance().closePool()} this does not create a pool only to
+     * close it.
+     */
+    public static void shutdown() {
+        DatabaseConnection current = instance;
+        if (current != null) {
+            current.closePool();
         }
-        return instance;
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
     }
 
     /**
@@ -93,23 +335,223 @@ public class DatabaseConnection {
     }
 
     /**
-     * Gets a connection from the connection pool.
+     * Gets the storage backend the connection pool was configured for.
+     *
+     * @return The storage backend, or null if no pool was initialized
+     */
+    public StorageBackend getStorageBackend() {
+        return storageBackend;
+    }
+
+    /**
+     * Gets Hikari's management bean of the pool, which reports the active,
+     * idle, total and pending connection counts.
+     *
+     * @return The pool MXBean, or null if no pool was initialized
+     */
+    public HikariPoolMXBean getPoolMXBean() {
+        return dataSource != null ? dataSource.getHikariPoolMXBean() : null;
+    }
+
+    /**
+     * Gets the metrics collected for the pool, including the histogram of
+     * connection acquire times.
+     *
+     * @return The pool metrics
+     */
+    public PoolMetrics getPoolMetrics() {
+        return poolMetrics;
+    }
+
+    /**
+     * Gets a connection from the connection pool, or the connection of the
+     * {@link UnitOfWork} open on this thread if it is bound to the primary.
      *
      * @return A database connection
      * @throws SQLException If a database access error occurs
      */
     public Connection getConnection() throws SQLException {
+        Connection bound = UnitOfWork.connectionFor(0);
+        return bound != null ? bound : openConnection();
+    }
+
+    /**
+     * Borrows a connection to the primary from the pool.
+     *
+     * @return A database connection
+     * @throws SQLException If a database access error occurs
+     */
+    protected Connection openConnection() throws SQLException {
         return dataSource.getConnection();
     }
 
+    /**
+     * Gets a connection for read-only queries. With replicas configured the
+     * replicas are used in turn, unless the key wrote within the
+     * read-your-writes window or the replica is unavailable; then the primary
+     * is used. Without replicas this is the same as {@link #getConnection()}.
+     *
+     * @param stickinessKey Identifies whose data is read, e.g. a user id
+     * @return A database connection
+     * @throws SQLException If a database access error occurs
+     */
+    public Connection getReadConnection(Object stickinessKey) throws SQLException {
+        // A unit of work reads its own uncommitted writes
+        if (replicaSources.isEmpty() || UnitOfWork.connectionFor(0) != null || isSticky(stickinessKey)) {
+            return getConnection();
+        }
+
+        HikariDataSource replica = replicaSources.get(
+                Math.floorMod(nextReplica.getAndIncrement(), replicaSources.size()));
+        try {
+            return replica.getConnection();
+        } catch (SQLException e) {
+            logger.warn("Read replica {} unavailable, reading from primary: {}", replica.getPoolName(),
+                    e.getMessage());
+            return getConnection();
+        }
+    }
+
+    /**
+     * Gets the number of shards, including the primary.
+     *
+     * @return The shard count, 1 if the data is not sharded
+     */
+    public int getShardCount() {
+        return shardRouter.getShardCount();
+    }
+
+    /**
+     * Gets a connection to a shard.
+     *
+     * @param shard The shard number, 0 for the primary
+     * @return A database connection
+     * @throws SQLException If a database access error occurs
+     * @throws IllegalArgumentException If the shard does not exist
+     */
+    public Connection getShardConnection(int shard) throws SQLException {
+        if (shard == 0) {
+            return getConnection();
+        }
+        if (shard < 0 || shard > shardSources.size()) {
+            throw new IllegalArgumentException("Unknown shard: " + shard);
+        }
+        Connection bound = UnitOfWork.connectionFor(shard);
+        return bound != null ? bound : shardSources.get(shard - 1).getConnection();
+    }
+
+    /**
+     * Gets a connection to the shard that stores a user's categories and
+     * entries, for writing.
+     *
+     * @param userId The ID of the user
+     * @return A database connection
+     * @throws SQLException If a database access error occurs
+     */
+    public Connection getConnectionForUser(int userId) throws SQLException {
+        return getShardConnection(getShardOf(userId));
+    }
+
+    /**
+     * Gets a connection to the shard that stores a user's categories and
+     * entries, for reading. Reads of users on the primary can be served by its
+     * replicas as described in {@link #getReadConnection(Object)}.
+     *
+     * @param userId The ID of the user
+     * @return A database connection
+     * @throws SQLException If a database access error occurs
+     */
+    public Connection getReadConnectionForUser(int userId) throws SQLException {
+        int shard = getShardOf(userId);
+        return shard == 0 ? getReadConnection(userId) : getShardConnection(shard);
+    }
+
+    /**
+     * Gets the shard that stores a user's categories and entries.
+     *
+     * @param userId The ID of the user
+     * @return The shard number, 0 for the primary
+     * @throws SQLException If the placement cannot be looked up
+     */
+    public int getShardOf(int userId) throws SQLException {
+        Integer shard = shardRouter.cachedShardFor(userId);
+        if (shard != null) {
+            return shard;
+        }
+        try (Connection directory = getConnection()) {
+            return shardRouter.loadShardFor(directory, userId);
+        }
+    }
+
+    /**
+     * Gets the allocator that hands out ids of new rows when the data is
+     * sharded.
+     *
+     * @return The id allocator
+     */
+    IdAllocator getIdAllocator() {
+        return idAllocator;
+    }
+
+    /**
+     * Gets the router that places users on shards.
+     *
+     * @return The shard router
+     */
+    ShardRouter getShardRouter() {
+        return shardRouter;
+    }
+
+    /**
+     * Records that a key wrote to the primary, so its reads stay on the
+     * primary until the replicas have had time to catch up.
+     *
+     * @param stickinessKey The key passed to {@link #getReadConnection(Object)}
+     */
+    public void recordWrite(Object stickinessKey) {
+        if (!replicaSources.isEmpty()) {
+            stickyUntil.put(stickinessKey, System.nanoTime() + readYourWritesNanos);
+        }
+    }
+
+    private boolean isSticky(Object stickinessKey) {
+        Long deadline = stickyUntil.get(stickinessKey);
+        if (deadline == null) {
+            return false;
+        }
+        if (System.nanoTime() - deadline < 0) {
+            return true;
+        }
+        stickyUntil.remove(stickinessKey, deadline);
+        return false;
+    }
+
     /**
      * Closes the connection pool when the application is shutting down.
      * This should be called when the application is terminating.
      */
     public void closePool() {
         if (dataSource != null && !dataSource.isClosed()) {
+            logger.info("Connection pool metrics: {}", poolMetrics);
             dataSource.close();
             logger.info("Connection pool closed");
         }
+        for (HikariDataSource replica : replicaSources) {
+            replica.close();
+        }
+        replicaSources.clear();
+        for (HikariDataSource shard : shardSources) {
+            shard.close();
+        }
+        shardSources.clear();
+        shardRouter = ShardRouter.singleShard();
+        if (metricsObjectName != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(metricsObjectName);
+            } catch (JMException e) {
+                logger.warn("Could not unregister pool metrics MBean: {}", e.getMessage());
+            }
+            metricsObjectName = null;
+        }
     }
 }
@@ -0,0 +1,282 @@
+package com.golubovicluka.passwordmanagementsystem.dao;
+
+import com.golubovicluka.passwordmanagementsystem.exception.DatabaseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bounded executor for blocking database calls, used by {@link AsyncDAO}.
+ *
+ * It has one worker per pooled connection, across the primary and all shard
+ * pools, so a worker never waits for a connection another worker holds, and a
+ * bounded queue in front of them: when the queue is full, new work fails fast
+ * with a {@link DatabaseException} instead of piling up. Unlike the common
+ * ForkJoinPool, blocking JDBC calls here cannot starve unrelated parallel
+ * work in the JVM.
+ *
+ * On Java 21 and later the workers are virtual threads, looked up by
+ * reflection so the code still compiles and runs on Java 17, where platform
+ * daemon threads are used instead.
+ */
+public class DatabaseExecutor implements DatabaseExecutorMXBean {
+    private static final Logger logger = LoggerFactory.getLogger(DatabaseExecutor.class);
+
+    /** Queued tasks allowed per worker before new work is rejected */
+    private static final int QUEUE_CAPACITY_PER_WORKER = 64;
+
+    private static final String OBJECT_NAME = "com.golubovicluka.passwordmanagementsystem:type=DatabaseExecutor";
+
+    private static volatile DatabaseExecutor instance;
+
+    private final ThreadPoolExecutor executor;
+    private final ArrayBlockingQueue<Runnable> queue;
+    private final boolean virtualThreads;
+    private final LatencyHistogram queueWaits = new LatencyHistogram();
+    private final LongAdder rejected = new LongAdder();
+    private final AtomicInteger largestQueueDepth = new AtomicInteger();
+    private ObjectName objectName;
+
+    /**
+     * Constructs an executor.
+     *
+     * @param workers               The number of tasks run at the same time
+     * @param queueCapacity         The number of tasks that may wait for a worker
+     * @param preferVirtualThreads  Whether to use virtual threads if the
+     *                              runtime supports them
+     */
+    DatabaseExecutor(int workers, int queueCapacity, boolean preferVirtualThreads) {
+        if (workers <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("Worker count and queue capacity must be positive");
+        }
+        ThreadFactory virtualFactory = preferVirtualThreads ? virtualThreadFactory() : null;
+        this.virtualThreads = virtualFactory != null;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.executor = new ThreadPoolExecutor(workers, workers, 60, TimeUnit.SECONDS, queue,
+                virtualFactory != null ? virtualFactory : platformThreadFactory());
+        // Idle workers are released, which matters for platform threads only
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Gets the application-wide executor, creating it on first use with one
+     * worker per connection of the configured pools.
+     *
+     * @return The shared executor
+     */
+    public static DatabaseExecutor getInstance() {
+        DatabaseExecutor result = instance;
+        if (result != null) {
+            return result;
+        }
+        synchronized (DatabaseExecutor.class) {
+            if (instance == null) {
+                DatabaseConfig config = DatabaseConfig.load();
+                int workers = config.getPoolMaxSize() * (config.getShardUrls().size() + 1);
+                DatabaseExecutor created = new DatabaseExecutor(workers, workers * QUEUE_CAPACITY_PER_WORKER, true);
+                created.registerMBean();
+                logger.info("Database executor started with {} {} workers", workers,
+                        created.virtualThreads ? "virtual" : "platform");
+                instance = created;
+            }
+            return instance;
+        }
+    }
+
+    /**
+     * Runs a blocking database call on a worker.
+     *
+     * @param work The call to run
+     * @param <T>  The result type
+     * @return A future completed with the result of the call, or exceptionally
+     *         with its exception; failed with a {@link DatabaseException} right
+     *         away if the queue is full or the executor is shut down
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> work) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        long enqueued = System.nanoTime();
+        try {
+            executor.execute(() -> {
+                queueWaits.record(System.nanoTime() - enqueued);
+                if (future.isDone()) {
+                    return;
+                }
+                try {
+                    future.complete(work.get());
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            future.completeExceptionally(new DatabaseException("Database is busy, please try again", e));
+            return future;
+        }
+        largestQueueDepth.accumulateAndGet(queue.size(), Math::max);
+        return future;
+    }
+
+    /**
+     * Runs a blocking database call without a result on a worker.
+     *
+     * @param work The call to run
+     * @return A future completed when the call has finished
+     * @see #submit(Supplier)
+     */
+    public CompletableFuture<Void> run(Runnable work) {
+        return submit(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    @Override
+    public int getWorkerCount() {
+        return executor.getMaximumPoolSize();
+    }
+
+    @Override
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    @Override
+    public int getActiveTasks() {
+        return executor.getActiveCount();
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    @Override
+    public int getQueueCapacity() {
+        return queue.size() + queue.remainingCapacity();
+    }
+
+    @Override
+    public int getLargestQueueDepth() {
+        return largestQueueDepth.get();
+    }
+
+    @Override
+    public long getCompletedTasks() {
+        return executor.getCompletedTaskCount();
+    }
+
+    @Override
+    public long getRejectedTasks() {
+        return rejected.sum();
+    }
+
+    @Override
+    public double getQueueWaitMeanMicros() {
+        return queueWaits.getMeanMicros();
+    }
+
+    @Override
+    public long getQueueWaitP95Micros() {
+        return queueWaits.getPercentileMicros(95);
+    }
+
+    @Override
+    public long getQueueWaitP99Micros() {
+        return queueWaits.getPercentileMicros(99);
+    }
+
+    /**
+     * Stops accepting work and waits briefly for running and queued calls.
+     */
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                logger.warn("Database executor still had {} queued calls at shutdown", queue.size());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (objectName != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+            } catch (JMException e) {
+                logger.warn("Could not unregister database executor MBean: {}", e.getMessage());
+            }
+            objectName = null;
+        }
+    }
+
+    /**
+     * Shuts the shared executor down if it was created.
+     */
+    public static void shutdownInstance() {
+        DatabaseExecutor current;
+        synchronized (DatabaseExecutor.class) {
+            current = instance;
+            instance = null;
+        }
+        if (current != null) {
+            current.shutdown();
+        }
+    }
+
+    /**
+     * Registers the executor metrics with the platform MBean server. Failure
+     * to register only disables the JMX view.
+     */
+    private void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(this, name);
+                objectName = name;
+            }
+        } catch (JMException e) {
+            logger.warn("Could not register database executor MBean: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Creates a factory of virtual threads through the Java 21 API.
+     *
+     * @return The factory, or null if the runtime has no virtual threads
+     */
+    private static ThreadFactory virtualThreadFactory() {
+        if (Runtime.version().feature() < 21) {
+            return null;
+        }
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, "db-worker-", 0L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            logger.warn("Virtual threads are unavailable, using platform threads: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static ThreadFactory platformThreadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "db-worker-" + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,31 @@
+package com.golubovicluka.passwordmanagementsystem.dao;
+
+/**
+ * JMX view of the {@link DatabaseExecutor} that runs the asynchronous DAO
+ * calls of {@link AsyncDAO}. A queue that keeps growing means callers submit
+ * database work faster than the connection pools can serve it.
+ */
+public interface DatabaseExecutorMXBean {
+
+    int getWorkerCount();
+
+    boolean isVirtualThreads();
+
+    int getActiveTasks();
+
+    int getQueueDepth();
+
+    int getQueueCapacity();
+
+    int getLargestQueueDepth();
+
+    long getCompletedTasks();
+
+    long getRejectedTasks();
+
+    double getQueueWaitMeanMicros();
+
+    long getQueueWaitP95Micros();
+
+    long getQueueWaitP99Micros();
+}
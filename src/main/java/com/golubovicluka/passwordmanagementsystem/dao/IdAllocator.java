@@ -0,0 +1,178 @@
+package com.golubovicluka.passwordmanagementsystem.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Hands out ids for new categories and entries when the data is sharded.
+ * Each shard's auto-increment only knows its own rows, so the counters in
+ * {@code id_allocations} on the primary keep ids unique across all shards.
+ * Ids are reserved in blocks of at least {@link #BLOCK_SIZE} on a connection
+ * of their own, which is committed right away, so most inserts take no
+ * directory connection and a {@link UnitOfWork} never holds the counter row
+ * locked. Ids of a block left over at shutdown are skipped. Without shards
+ * the auto-increment columns are used as before.
+ */
+final class IdAllocator {
+
+    static final String CATEGORIES = "categories";
+    static final String PASSWORD_ENTRIES = "password_entries";
+
+    /** Ids reserved per round trip to the directory */
+    static final int BLOCK_SIZE = 100;
+
+    /** Counter name, table and id column of every allocated id */
+    private static final String[][] SEQUENCES = {
+            { CATEGORIES, "categories", "category_id" },
+            { PASSWORD_ENTRIES, "password_entries", "id" } };
+
+    private final DatabaseConnection database;
+
+    /** Reserved ids not handed out yet, by counter */
+    private final Map<String, Block> blocks = new HashMap<>();
+
+    /**
+     * The unused part of a reserved block of ids.
+     */
+    private static final class Block {
+        private long next;
+        private final long end;
+
+        private Block(long next, long end) {
+            this.next = next;
+            this.end = end;
+        }
+    }
+
+    /**
+     * Constructs an allocator for a database.
+     *
+     * @param database The database to allocate in
+     */
+    IdAllocator(DatabaseConnection database) {
+        this.database = database;
+    }
+
+    /**
+     * Moves every counter past the highest id on any shard, including ids the
+     * auto-increment columns generated while the data was not sharded.
+     *
+     * @throws SQLException If the counters cannot be initialized
+     */
+    void initialize() throws SQLException {
+        for (String[] sequence : SEQUENCES) {
+            long maxId = 0;
+            for (int shard = 0; shard < database.getShardCount(); shard++) {
+                try (Connection conn = database.getShardConnection(shard);
+                        PreparedStatement stmt = conn.prepareStatement(
+                                "SELECT COALESCE(MAX(" + sequence[2] + "), 0) FROM " + sequence[1]);
+                        ResultSet rs = stmt.executeQuery()) {
+                    rs.next();
+                    maxId = Math.max(maxId, rs.getLong(1));
+                }
+            }
+
+            try (Connection directory = database.getConnection()) {
+                Long nextId = null;
+                try (PreparedStatement select = directory.prepareStatement(
+                        "SELECT next_id FROM id_allocations WHERE name = ?")) {
+                    select.setString(1, sequence[0]);
+                    try (ResultSet rs = select.executeQuery()) {
+                        if (rs.next()) {
+                            nextId = rs.getLong(1);
+                        }
+                    }
+                }
+                if (nextId != null && nextId > maxId) {
+                    continue;
+                }
+
+                String sql = nextId != null
+                        ? "UPDATE id_allocations SET next_id = ? WHERE name = ?"
+                        : "INSERT INTO id_allocations (next_id, name) VALUES (?, ?)";
+                try (PreparedStatement stmt = directory.prepareStatement(sql)) {
+                    stmt.setLong(1, maxId + 1);
+                    stmt.setString(2, sequence[0]);
+                    stmt.executeUpdate();
+                }
+            }
+        }
+    }
+
+    /**
+     * Hands out consecutive ids, reserving a new block first if the current
+     * one has too few left.
+     *
+     * @param name  The counter, {@link #CATEGORIES} or {@link #PASSWORD_ENTRIES}
+     * @param count The number of ids to hand out
+     * @return The first id, or 0 if the data is not sharded and the
+     *         auto-increment column must be used
+     * @throws SQLException If the ids cannot be reserved
+     */
+    synchronized int allocate(String name, int count) throws SQLException {
+        if (database.getShardCount() == 1) {
+            return 0;
+        }
+
+        Block block = blocks.get(name);
+        if (block == null || block.end - block.next < count) {
+            int size = Math.max(count, BLOCK_SIZE);
+            long first = reserve(name, size);
+            block = new Block(first, first + size);
+            blocks.put(name, block);
+        }
+        int id = (int) block.next;
+        block.next += count;
+        return id;
+    }
+
+    /**
+     * Reserves a block of consecutive ids in the directory. The block is
+     * committed on a pool connection, never on the connection of a unit of
+     * work open on this thread.
+     *
+     * @param name  The counter
+     * @param count The number of ids to reserve
+     * @return The first reserved id
+     * @throws SQLException If the ids cannot be reserved
+     */
+    private long reserve(String name, int count) throws SQLException {
+        try (Connection directory = database.openConnection()) {
+            boolean autoCommit = directory.getAutoCommit();
+            directory.setAutoCommit(false);
+            try {
+                long next;
+                try (PreparedStatement update = directory.prepareStatement(
+                        "UPDATE id_allocations SET next_id = next_id + ? WHERE name = ?")) {
+                    update.setInt(1, count);
+                    update.setString(2, name);
+                    if (update.executeUpdate() == 0) {
+                        throw new SQLException("Unknown id counter: " + name);
+                    }
+                }
+                try (PreparedStatement select = directory.prepareStatement(
+                        "SELECT next_id FROM id_allocations WHERE name = ?")) {
+                    select.setString(1, name);
+                    try (ResultSet rs = select.executeQuery()) {
+                        rs.next();
+                        next = rs.getLong(1);
+                    }
+                }
+                if (next - 1 > Integer.MAX_VALUE) {
+                    throw new SQLException("Ids of " + name + " are exhausted");
+                }
+                directory.commit();
+                return next - count;
+            } catch (SQLException | RuntimeException e) {
+                directory.rollback();
+                throw e;
+            } finally {
+                directory.setAutoCommit(autoCommit);
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.golubovicluka.passwordmanagementsystem.dao;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of durations with fixed bucket bounds, cheap enough to
+ * record every connection acquisition. Percentiles are reported as the upper
+ * bound of the bucket they fall into.
+ */
+public class LatencyHistogram {
+
+    /** Upper bucket bounds in microseconds; the last bucket is unbounded */
+    private static final long[] BOUNDS_MICROS = {
+            50, 100, 250, 500,
+            1_000, 2_500, 5_000, 10_000, 25_000, 50_000,
+            100_000, 250_000, 500_000, 1_000_000, 5_000_000 };
+
+    private final AtomicLongArray counts = new AtomicLongArray(BOUNDS_MICROS.length + 1);
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAdder samples = new LongAdder();
+
+    /**
+     * Records one duration.
+     *
+     * @param nanos The duration in nanoseconds
+     */
+    public void record(long nanos) {
+        long micros = nanos / 1_000;
+        int bucket = 0;
+        while (bucket < BOUNDS_MICROS.length && micros > BOUNDS_MICROS[bucket]) {
+            bucket++;
+        }
+        counts.incrementAndGet(bucket);
+        totalNanos.add(nanos);
+        samples.increment();
+    }
+
+    /**
+     * Gets the number of recorded durations.
+     *
+     * @return The sample count
+     */
+    public long getCount() {
+        return samples.sum();
+    }
+
+    /**
+     * Gets the mean of the recorded durations.
+     *
+     * @return The mean in microseconds, 0 if nothing was recorded
+     */
+    public double getMeanMicros() {
+        long count = samples.sum();
+        return count == 0 ? 0 : totalNanos.sum() / 1_000.0 / count;
+    }
+
+    /**
+     * Estimates a percentile of the recorded durations.
+     *
+     * @param percentile The percentile between 0 and 100
+     * @return The upper bound of the bucket containing the percentile in
+     *         microseconds, {@link Long#MAX_VALUE} for the unbounded bucket,
+     *         0 if nothing was recorded
+     */
+    public long getPercentileMicros(double percentile) {
+        long[] snapshot = getBucketCounts();
+        long total = 0;
+        for (long count : snapshot) {
+            total += count;
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        long rank = (long) Math.ceil(total * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            seen += snapshot[i];
+            if (seen >= rank && snapshot[i] > 0) {
+                return i < BOUNDS_MICROS.length ? BOUNDS_MICROS[i] : Long.MAX_VALUE;
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * Gets the upper bounds of the buckets.
+     *
+     * @return The bounds in microseconds, one fewer than there are buckets
+     */
+    public long[] getBucketBoundsMicros() {
+        return BOUNDS_MICROS.clone();
+    }
+
+    /**
+     * Gets a snapshot of the bucket counts.
+     *
+     * @return The count of each bucket, the last one being the overflow bucket
+     */
+    public long[] getBucketCounts() {
+        long[] snapshot = new long[counts.length()];
+        for (int i = 0; i < snapshot.length; i++) {
+            snapshot[i] = counts.get(i);
+        }
+        return snapshot;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d mean=%.1fus p50<=%dus p95<=%dus p99<=%dus", getCount(), getMeanMicros(),
+                getPercentileMicros(50), getPercentileMicros(95), getPercentileMicros(99));
+    }
+}
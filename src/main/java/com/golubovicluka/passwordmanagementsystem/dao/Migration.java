@@ -0,0 +1,35 @@
+package com.golubovicluka.passwordmanagementsystem.dao;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * A single versioned change to the database schema.
+ * Migrations are applied in ascending version order by {@link SchemaMigrator},
+ * and each version is applied at most once per database.
+ */
+public interface Migration {
+
+    /**
+     * Gets the version of this migration. Versions must be unique and
+     * increasing.
+     *
+     * @return the migration version
+     */
+    int getVersion();
+
+    /**
+     * Gets a short human-readable description of this migration.
+     *
+     * @return the migration description
+     */
+    String getDescription();
+
+    /**
+     * Applies this migration using the given connection.
+     *
+     * @param conn The connection to apply the migration on
+     * @throws SQLException If the migration fails
+     */
+    void apply(Connection conn) throws SQLException;
+}
@@ -0,0 +1,248 @@
+package com.golubovicluka.passwordmanagementsystem.dao;
+
+import com.golubovicluka.passwordmanagementsystem.model.PasswordEntry;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded per-user read-through cache for password entry queries.
+ * {@link PasswordEntryDAO} stores query results here keyed by user and query,
+ * and its own mutation methods invalidate the affected users. Users are evicted
+ * in least-recently-used order once either the user limit or the total row
+ * limit is exceeded.
+ *
+ * Entries are copied on the way in and on the way out, so callers can modify
+ * the returned objects without corrupting the cache.
+ *
+ * Writes made by other sessions or processes do not pass through this cache.
+ * Each user's results are therefore tagged with the data version last read for
+ * that user, see {@link #checkVersion(int, long)}; a different version drops
+ * them, so they are loaded again.
+ */
+public class PasswordEntryCache {
+    private static final int DEFAULT_MAX_USERS = 16;
+    private static final int DEFAULT_MAX_ROWS = 50_000;
+
+    private static final PasswordEntryCache INSTANCE = new PasswordEntryCache(DEFAULT_MAX_USERS, DEFAULT_MAX_ROWS);
+
+    private final int maxUsers;
+    private final int maxRows;
+
+    /** Cached query results per user, in access order */
+    private final LinkedHashMap<Integer, Map<String, List<PasswordEntry>>> byUser = new LinkedHashMap<>(16, 0.75f,
+            true);
+
+    /** Data version of each user's cached results, as last read from the database */
+    private final Map<Integer, Long> versions = new HashMap<>();
+
+    private int cachedRows = 0;
+
+    /** Incremented on every invalidation, used to discard loads that raced with a write */
+    private long generation = 0;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    /**
+     * Snapshot of the cache counters.
+     *
+     * @param hits          Number of lookups served from the cache
+     * @param misses        Number of lookups that went to the database
+     * @param evictions     Number of users evicted to stay within the bounds
+     * @param invalidations Number of invalidations caused by writes
+     * @param cachedUsers   Number of users currently cached
+     * @param cachedRows    Number of rows currently cached
+     */
+    public record CacheStats(long hits, long misses, long evictions, long invalidations, int cachedUsers,
+            int cachedRows) {
+
+        /**
+         * Gets the fraction of lookups served from the cache.
+         *
+         * @return The hit rate between 0 and 1
+         */
+        public double hitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+    }
+
+    /**
+     * Constructs a cache with explicit bounds.
+     *
+     * @param maxUsers The maximum number of users kept in the cache
+     * @param maxRows  The maximum number of rows kept across all users
+     */
+    public PasswordEntryCache(int maxUsers, int maxRows) {
+        this.maxUsers = maxUsers;
+        this.maxRows = maxRows;
+    }
+
+    /**
+     * Gets the application-wide cache shared by all DAO instances.
+     *
+     * @return The shared cache
+     */
+    public static PasswordEntryCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Looks up a cached query result.
+     *
+     * @param userId The ID of the user the query belongs to
+     * @param key    The query key
+     * @return Copies of the cached rows, or null on a miss
+     */
+    public synchronized List<PasswordEntry> get(int userId, String key) {
+        Map<String, List<PasswordEntry>> queries = byUser.get(userId);
+        List<PasswordEntry> rows = queries != null ? queries.get(key) : null;
+        if (rows == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return copyOf(rows);
+    }
+
+    /**
+     * Gets the current invalidation generation. Pass it to
+     * {@link #put(int, String, List, long)} so a result loaded before a
+     * concurrent write is not cached.
+     *
+     * @return The current generation
+     */
+    public synchronized long currentGeneration() {
+        return generation;
+    }
+
+    /**
+     * Stores a query result unless the cache was invalidated since it was
+     * loaded.
+     *
+     * @param userId           The ID of the user the query belongs to
+     * @param key              The query key
+     * @param rows             The rows returned by the query
+     * @param loadedGeneration The generation read before the query ran
+     */
+    public synchronized void put(int userId, String key, List<PasswordEntry> rows, long loadedGeneration) {
+        if (loadedGeneration != generation || rows.size() > maxRows) {
+            return;
+        }
+
+        Map<String, List<PasswordEntry>> queries = byUser.computeIfAbsent(userId, id -> new HashMap<>());
+        List<PasswordEntry> previous = queries.put(key, copyOf(rows));
+        cachedRows += rows.size() - (previous != null ? previous.size() : 0);
+        evictIfNeeded();
+    }
+
+    /**
+     * Compares the data version just read for a user with the version the
+     * user's cached results belong to and drops them if they differ, e.g.
+     * because another session committed changes. Results cached before any
+     * version was recorded are dropped as well.
+     *
+     * @param userId      The ID of the user
+     * @param dataVersion The user's current data version
+     */
+    public synchronized void checkVersion(int userId, long dataVersion) {
+        Long cachedVersion = versions.put(userId, dataVersion);
+        if ((cachedVersion == null || cachedVersion != dataVersion) && byUser.containsKey(userId)) {
+            invalidateUser(userId);
+            versions.put(userId, dataVersion);
+        }
+    }
+
+    /**
+     * Removes all cached results of a user.
+     *
+     * @param userId The ID of the user
+     */
+    public synchronized void invalidateUser(int userId) {
+        generation++;
+        invalidations.increment();
+        removeUser(userId);
+    }
+
+    /**
+     * Removes all cached results that contain one of the given entries. Used
+     * when a write only knows entry ids. The ids are looked up in a set, so
+     * the scan stays linear in the number of cached rows.
+     *
+     * @param entryIds The IDs of the modified entries
+     */
+    public synchronized void invalidateEntries(List<Integer> entryIds) {
+        generation++;
+        invalidations.increment();
+
+        Set<Integer> ids = new HashSet<>(entryIds);
+        List<Integer> affectedUsers = new ArrayList<>();
+        for (Map.Entry<Integer, Map<String, List<PasswordEntry>>> user : byUser.entrySet()) {
+            boolean affected = user.getValue().values().stream()
+                    .flatMap(List::stream)
+                    .anyMatch(entry -> ids.contains(entry.getId()));
+            if (affected) {
+                affectedUsers.add(user.getKey());
+            }
+        }
+        affectedUsers.forEach(this::removeUser);
+    }
+
+    /**
+     * Removes all cached results.
+     */
+    public synchronized void invalidateAll() {
+        generation++;
+        invalidations.increment();
+        byUser.clear();
+        versions.clear();
+        cachedRows = 0;
+    }
+
+    /**
+     * Gets a snapshot of the cache counters.
+     *
+     * @return The current statistics
+     */
+    public synchronized CacheStats getStats() {
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), invalidations.sum(), byUser.size(),
+                cachedRows);
+    }
+
+    private void removeUser(int userId) {
+        versions.remove(userId);
+        Map<String, List<PasswordEntry>> removed = byUser.remove(userId);
+        if (removed != null) {
+            cachedRows -= removed.values().stream().mapToInt(List::size).sum();
+        }
+    }
+
+    private void evictIfNeeded() {
+        Iterator<Map.Entry<Integer, Map<String, List<PasswordEntry>>>> eldest = byUser.entrySet().iterator();
+        while ((byUser.size() > maxUsers || cachedRows > maxRows) && eldest.hasNext()) {
+            Map.Entry<Integer, Map<String, List<PasswordEntry>>> user = eldest.next();
+            cachedRows -= user.getValue().values().stream().mapToInt(List::size).sum();
+            versions.remove(user.getKey());
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    private static List<PasswordEntry> copyOf(List<PasswordEntry> rows) {
+        List<PasswordEntry> copy = new ArrayList<>(rows.size());
+        for (PasswordEntry row : rows) {
+            copy.add(new PasswordEntry(row));
+        }
+        return copy;
+    }
+}
@@ -1,16 +1,25 @@
 package com.golubovicluka.passwordmanagementsystem.dao;
 
 import com.golubovicluka.passwordmanagementsystem.exception.DatabaseException;
+import com.golubovicluka.passwordmanagementsystem.exception.EntryConflictException;
 import com.golubovicluka.passwordmanagementsystem.model.PasswordEntry;
 import com.golubovicluka.passwordmanagementsystem.model.Category;
+import com.golubovicluka.passwordmanagementsystem.model.PasswordEntryDelta;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.*;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
 
 /**
  * Data Access Object for PasswordEntry entities.
@@ -21,6 +30,44 @@ import java.util.List;
 public class PasswordEntryDAO {
     private static final Logger logger = LoggerFactory.getLogger(PasswordEntryDAO.class);
 
+    /** Default number of rows fetched per page by the keyset pagination API */
+    public static final int DEFAULT_PAGE_SIZE = 200;
+
+    /** Maximum number of statements sent to the database in one JDBC batch */
+    public static final int BATCH_SIZE = 500;
+
+    /** Key of uncategorized entries in {@link #getCategoryCounts(int)}, never a real category ID */
+    public static final int UNCATEGORIZED = 0;
+
+    private static final String ALL_ENTRIES_KEY = "all";
+
+    /**
+     * Columns of the list queries: everything the passwords table shows, but
+     * not the password itself, which is read with {@link #fetchSecret(int, int)}
+     * only when it is revealed, copied or edited.
+     */
+    private static final String LIST_COLUMNS = "pe.id, pe.user_id, pe.website, pe.username, pe.category_id, "
+            + "pe.row_version, pe.deleted_at, c.name AS category_name, c.description AS category_description ";
+
+    /** Read-through cache invalidated by the mutation methods of this DAO */
+    private final PasswordEntryCache cache;
+
+    /**
+     * Constructs a DAO backed by the application-wide entry cache.
+     */
+    public PasswordEntryDAO() {
+        this(PasswordEntryCache.getInstance());
+    }
+
+    /**
+     * Constructs a DAO backed by the given entry cache.
+     *
+     * @param cache The cache used for read-through lookups
+     */
+    public PasswordEntryDAO(PasswordEntryCache cache) {
+        this.cache = cache;
+    }
+
     /**
      * Retrieves all password entries for a specific user as an ObservableList.
      * This method is specifically designed for JavaFX UI binding.
@@ -32,62 +79,244 @@ public class PasswordEntryDAO {
      *                           entries
      */
     public ObservableList<PasswordEntry> getAllPasswordEntriesForUser(int userId) {
-        ObservableList<PasswordEntry> entries = FXCollections.observableArrayList();
-        String query = "SELECT pe.*, c.category_id, c.name AS category_name, c.description AS category_description " +
+        return FXCollections.observableArrayList(getPasswordsForUser(userId));
+    }
+
+    /**
+     * Retrieves all password entries for a specific user as a standard List.
+     * Results are served from the entry cache when possible. Like all list
+     * queries of this DAO, the entries are loaded without their password.
+     *
+     * @param userId The ID of the user whose password entries to retrieve
+     * @return A List of PasswordEntry objects belonging to the specified user
+     * @throws DatabaseException If there is an error retrieving the password
+     *                           entries
+     */
+    public List<PasswordEntry> getPasswordsForUser(int userId) {
+        List<PasswordEntry> cached = cache.get(userId, ALL_ENTRIES_KEY);
+        if (cached != null) {
+            return cached;
+        }
+
+        long generation = cache.currentGeneration();
+        List<PasswordEntry> entries = new ArrayList<>();
+        String query = "SELECT " + LIST_COLUMNS +
                 "FROM password_entries pe " +
                 "LEFT JOIN categories c ON pe.category_id = c.category_id " +
-                "WHERE pe.user_id = ?";
+                "WHERE pe.user_id = ? AND pe.deleted_at IS NULL";
 
-        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+        try (Connection conn = DatabaseConnection.getInstance().getReadConnectionForUser(userId);
                 PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setInt(1, userId);
-            ResultSet rs = stmt.executeQuery();
-
-            while (rs.next()) {
-                entries.add(mapResultSetToPasswordEntry(rs, userId));
+            try (ResultSet rs = stmt.executeQuery()) {
+                RowMapper<PasswordEntry> mapper = RowMappers.passwordEntry(rs);
+                while (rs.next()) {
+                    entries.add(mapper.mapRow(rs));
+                }
             }
         } catch (SQLException e) {
             logger.error("Error retrieving password entries for user {}: {}", userId, e.getMessage());
             throw new DatabaseException("Failed to retrieve password entries", e);
         }
+        cache.put(userId, ALL_ENTRIES_KEY, entries, generation);
         return entries;
     }
 
     /**
-     * Retrieves all password entries for a specific user as a standard List.
+     * Retrieves one page of password entries for a specific user using keyset
+     * pagination. Entries are ordered by id and only rows with an id greater
+     * than {@code afterId} are returned, so the cost of fetching a page does
+     * not grow with its position in the vault.
      *
-     * @param userId The ID of the user whose password entries to retrieve
-     * @return A List of PasswordEntry objects belonging to the specified user
-     * @throws DatabaseException If there is an error retrieving the password
-     *                           entries
+     * @param userId   The ID of the user whose password entries to retrieve
+     * @param afterId  The id of the last entry of the previous page, or 0 for
+     *                 the first page
+     * @param pageSize The maximum number of entries to return
+     * @return A List of at most {@code pageSize} PasswordEntry objects
+     * @throws DatabaseException If there is an error retrieving the page
      */
-    public List<PasswordEntry> getPasswordsForUser(int userId) {
-        List<PasswordEntry> passwords = new ArrayList<>();
-        String query = "SELECT p.*, c.name as category_name, " +
-                "c.category_id, c.description as category_description " +
-                "FROM password_entries p " +
-                "LEFT JOIN categories c ON p.category_id = c.category_id " +
-                "WHERE p.user_id = ?";
-
-        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+    public List<PasswordEntry> getPasswordEntriesPage(int userId, int afterId, int pageSize) {
+        return loadPage(userId, null, afterId, pageSize);
+    }
+
+    /**
+     * Retrieves one page of a user's password entries in one category using
+     * keyset pagination, like {@link #getPasswordEntriesPage(int, int, int)}.
+     * The index on {@code (user_id, deleted_at, category_id)} serves both the
+     * filter and the id order, so a sparse category does not scan the vault.
+     *
+     * @param userId     The ID of the user whose password entries to retrieve
+     * @param categoryId The ID of the category
+     * @param afterId    The id of the last entry of the previous page, or 0 for
+     *                   the first page
+     * @param pageSize   The maximum number of entries to return
+     * @return A List of at most {@code pageSize} PasswordEntry objects
+     * @throws DatabaseException If there is an error retrieving the page
+     */
+    public List<PasswordEntry> getPasswordEntriesPageInCategory(int userId, int categoryId, int afterId,
+            int pageSize) {
+        return loadPage(userId, categoryId, afterId, pageSize);
+    }
+
+    /**
+     * Runs a keyset page query, optionally restricted to one category, and
+     * caches the page.
+     */
+    private List<PasswordEntry> loadPage(int userId, Integer categoryId, int afterId, int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+
+        String cacheKey = (categoryId != null ? "category:" + categoryId + ":" : "")
+                + "page:" + afterId + ":" + pageSize;
+        List<PasswordEntry> cached = cache.get(userId, cacheKey);
+        if (cached != null) {
+            return cached;
+        }
+
+        long generation = cache.currentGeneration();
+        List<PasswordEntry> page = new ArrayList<>(pageSize);
+        String query = "SELECT " + LIST_COLUMNS +
+                "FROM password_entries pe " +
+                "LEFT JOIN categories c ON pe.category_id = c.category_id " +
+                "WHERE pe.user_id = ? AND pe.deleted_at IS NULL " +
+                (categoryId != null ? "AND pe.category_id = ? " : "") +
+                "AND pe.id > ? " +
+                "ORDER BY pe.id " +
+                "LIMIT ?";
+
+        try (Connection conn = DatabaseConnection.getInstance().getReadConnectionForUser(userId);
                 PreparedStatement stmt = conn.prepareStatement(query)) {
 
-            stmt.setInt(1, userId);
-            ResultSet rs = stmt.executeQuery();
+            int index = 1;
+            stmt.setInt(index++, userId);
+            if (categoryId != null) {
+                stmt.setInt(index++, categoryId);
+            }
+            stmt.setInt(index++, afterId);
+            stmt.setInt(index, pageSize);
+            stmt.setFetchSize(pageSize);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                RowMapper<PasswordEntry> mapper = RowMappers.passwordEntry(rs);
+                while (rs.next()) {
+                    page.add(mapper.mapRow(rs));
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error retrieving password entry page after {} for user {}: {}", afterId, userId,
+                    e.getMessage());
+            throw new DatabaseException("Failed to retrieve password entries", e);
+        }
+        cache.put(userId, cacheKey, page, generation);
+        return page;
+    }
+
+    /**
+     * Searches the password entries of a user whose website or username
+     * contains the query, ignoring case. Queries of at least
+     * {@value SearchTokens#GRAM_LENGTH} characters are answered from the
+     * trigram index, so the cost depends on the number of candidates rather
+     * than on the size of the vault; shorter queries fall back to scanning
+     * the user's entries in the database. Entries whose website starts with
+     * the query come first, then other website matches, then username
+     * matches.
+     *
+     * @param userId The ID of the user whose entries to search
+     * @param query  The text to search for
+     * @param limit  The maximum number of entries to return
+     * @return At most {@code limit} matching entries, best matches first;
+     *         empty for a blank query
+     * @throws DatabaseException If there is an error searching the entries
+     */
+    public List<PasswordEntry> searchEntries(int userId, String query, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        String normalized = SearchTokens.normalize(query);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+
+        List<Integer> tokens = new ArrayList<>(SearchTokens.tokensOf(normalized));
+        String candidates = tokens.isEmpty() ? "" :
+                "AND pe.id IN (SELECT t.entry_id FROM password_entry_search_tokens t " +
+                "WHERE t.user_id = ? AND t.token IN (" + String.join(", ", Collections.nCopies(tokens.size(), "?")) +
+                ") GROUP BY t.entry_id HAVING COUNT(*) = ?) ";
+        String sql = "SELECT " + LIST_COLUMNS +
+                "FROM password_entries pe " +
+                "LEFT JOIN categories c ON pe.category_id = c.category_id " +
+                "WHERE pe.user_id = ? AND pe.deleted_at IS NULL " + candidates +
+                "AND (LOWER(pe.website) LIKE ? ESCAPE '!' OR LOWER(pe.username) LIKE ? ESCAPE '!') " +
+                "ORDER BY CASE WHEN LOWER(pe.website) LIKE ? ESCAPE '!' THEN 0 " +
+                "WHEN LOWER(pe.website) LIKE ? ESCAPE '!' THEN 1 ELSE 2 END, pe.website, pe.id " +
+                "LIMIT ?";
+        String escaped = normalized.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+
+        List<PasswordEntry> matches = new ArrayList<>();
+        try (Connection conn = DatabaseConnection.getInstance().getReadConnectionForUser(userId);
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            int index = 1;
+            stmt.setInt(index++, userId);
+            if (!tokens.isEmpty()) {
+                stmt.setInt(index++, userId);
+                for (int token : tokens) {
+                    stmt.setInt(index++, token);
+                }
+                stmt.setInt(index++, tokens.size());
+            }
+            stmt.setString(index++, "%" + escaped + "%");
+            stmt.setString(index++, "%" + escaped + "%");
+            stmt.setString(index++, escaped + "%");
+            stmt.setString(index++, "%" + escaped + "%");
+            stmt.setInt(index, limit);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                RowMapper<PasswordEntry> mapper = RowMappers.passwordEntry(rs);
+                while (rs.next()) {
+                    matches.add(mapper.mapRow(rs));
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error searching password entries of user {}: {}", userId, e.getMessage());
+            throw new DatabaseException("Failed to search password entries", e);
+        }
+        return matches;
+    }
+
+    /**
+     * Reads the password of a single entry. The list queries leave passwords
+     * out, so this is called when a password is revealed, copied or edited.
+     * The password is read from the primary database of the user's shard and
+     * is never cached. Entries of other users are not found.
+     *
+     * @param userId  The ID of the user who owns the entry
+     * @param entryId The ID of the password entry
+     * @return The password, or empty if the user has no such entry or it is in
+     *         the trash
+     * @throws DatabaseException If there is an error reading the password
+     */
+    public Optional<String> fetchSecret(int userId, int entryId) {
+        String query = "SELECT password FROM password_entries WHERE id = ? AND user_id = ? AND deleted_at IS NULL";
 
-            while (rs.next()) {
-                passwords.add(mapResultSetToPasswordEntry(rs, userId));
+        try (Connection conn = DatabaseConnection.getInstance().getConnectionForUser(userId);
+                PreparedStatement stmt = conn.prepareStatement(query)) {
+            stmt.setInt(1, entryId);
+            stmt.setInt(2, userId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? Optional.of(rs.getString(1)) : Optional.empty();
             }
         } catch (SQLException e) {
-            logger.error("Error retrieving passwords for user {}: {}", userId, e.getMessage());
-            throw new DatabaseException("Failed to retrieve passwords", e);
+            logger.error("Error reading password of entry {}: {}", entryId, e.getMessage());
+            throw new DatabaseException("Failed to read password", e);
         }
-        return passwords;
     }
 
     /**
      * Adds a new password entry to the database for a specific user.
+     * The generated id is written back to the entry.
      *
      * @param entry  The PasswordEntry object to add
      * @param userId The ID of the user who owns this password entry
@@ -95,107 +324,776 @@ public class PasswordEntryDAO {
      * @throws DatabaseException If there is an error adding the password entry
      */
     public boolean addPasswordEntry(PasswordEntry entry, int userId) {
-        String query = "INSERT INTO password_entries (user_id, website, username, password, category_id) VALUES (?, ?, ?, ?, ?)";
+        return !addPasswordEntries(List.of(entry), userId).isEmpty();
+    }
 
-        try (Connection conn = DatabaseConnection.getInstance().getConnection();
-                PreparedStatement stmt = conn.prepareStatement(query)) {
+    /**
+     * Updates an existing password entry of a user in the database.
+     *
+     * @param entry  The PasswordEntry object with updated information
+     * @param userId The ID of the user who owns the password entry
+     * @return true if the password entry was successfully updated, false otherwise
+     * @throws EntryConflictException If the entry was changed by someone else
+     *                                since it was read
+     * @throws DatabaseException      If there is an error updating the password
+     *                                entry
+     */
+    public boolean updatePasswordEntry(PasswordEntry entry, int userId) {
+        return updatePasswordEntries(List.of(entry), userId) > 0;
+    }
 
-            stmt.setInt(1, userId);
-            stmt.setString(2, entry.getWebsite());
-            stmt.setString(3, entry.getUsername());
-            stmt.setString(4, entry.getPassword());
+    /**
+     * Moves a password entry of a user to the trash.
+     *
+     * @param entryId The ID of the password entry to delete
+     * @param userId  The ID of the user who owns the password entry
+     * @return true if the password entry was successfully deleted, false otherwise
+     * @throws DatabaseException If there is an error deleting the password entry
+     */
+    public boolean deletePasswordEntry(int entryId, int userId) {
+        return deletePasswordEntries(List.of(entryId), userId) > 0;
+    }
+
+    /**
+     * Adds several password entries for a specific user in a single transaction.
+     * Inserts are sent as JDBC batches of at most {@link #BATCH_SIZE} rows and the
+     * generated ids are written back to the given entries.
+     *
+     * @param entries The PasswordEntry objects to add
+     * @param userId  The ID of the user who owns the password entries
+     * @return The generated ids, in the same order as {@code entries}
+     * @throws DatabaseException If any insert fails; no entry is added in that
+     *                           case
+     */
+    public List<Integer> addPasswordEntries(List<PasswordEntry> entries, int userId) {
+        List<Integer> generatedIds = new ArrayList<>(entries.size());
+        if (entries.isEmpty()) {
+            return generatedIds;
+        }
+        DatabaseConnection database = DatabaseConnection.getInstance();
+        try (PlacementLock placement = PlacementLock.acquire(database, userId)) {
+            Connection conn = placement.connection();
+            // Sharded databases take ids from the allocator, others from auto-increment
+            int firstId = database.getIdAllocator().allocate(IdAllocator.PASSWORD_ENTRIES, entries.size());
+            String query = "INSERT INTO password_entries (user_id, website, username, password, category_id, row_version"
+                    + (firstId > 0 ? ", id) VALUES (?, ?, ?, ?, ?, ?, ?)" : ") VALUES (?, ?, ?, ?, ?, ?)");
+
+            runInTransaction(conn, () -> {
+                long version = DataVersions.next(conn, userId);
+                try (PreparedStatement stmt = conn.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
+                    for (int start = 0; start < entries.size(); start += BATCH_SIZE) {
+                        List<PasswordEntry> chunk = entries.subList(start, Math.min(start + BATCH_SIZE, entries.size()));
+                        for (int i = 0; i < chunk.size(); i++) {
+                            PasswordEntry entry = chunk.get(i);
+                            stmt.setInt(1, userId);
+                            stmt.setString(2, entry.getWebsite());
+                            stmt.setString(3, entry.getUsername());
+                            stmt.setString(4, entry.getPassword());
+                            setCategoryParameter(stmt, 5, entry.getCategory());
+                            stmt.setLong(6, version);
+                            if (firstId > 0) {
+                                stmt.setInt(7, firstId + start + i);
+                            }
+                            stmt.addBatch();
+                        }
+                        stmt.executeBatch();
+
+                        if (firstId > 0) {
+                            for (int i = 0; i < chunk.size(); i++) {
+                                assignId(chunk.get(i), firstId + start + i, userId, version, generatedIds);
+                            }
+                        } else {
+                            try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                                int index = 0;
+                                while (generatedKeys.next() && index < chunk.size()) {
+                                    assignId(chunk.get(index++), generatedKeys.getInt(1), userId, version,
+                                            generatedIds);
+                                }
+                            }
+                        }
+                    }
+                }
+                SearchTokens.index(conn, entries, PasswordEntry::getUserId);
+            });
+        } catch (SQLException e) {
+            logger.error("Error adding {} password entries for user {}: {}", entries.size(), userId, e.getMessage());
+            throw new DatabaseException("Failed to add password entries", e);
+        } finally {
+            UnitOfWork.afterCommit(() -> cache.invalidateUser(userId));
+            DatabaseConnection.getInstance().recordWrite(userId);
+        }
+        return generatedIds;
+    }
+
+    /**
+     * Writes the id and version of a newly inserted row back to its entry.
+     */
+    private static void assignId(PasswordEntry entry, int id, int userId, long version, List<Integer> generatedIds) {
+        entry.setId(id);
+        entry.setRowVersion(version);
+        entry.setUserId(userId);
+        generatedIds.add(id);
+    }
+
+    /**
+     * Updates several password entries of a user in a single transaction
+     * using JDBC batches of at most {@link #BATCH_SIZE} statements. Entries
+     * of other users are not changed.
+     *
+     * Each update is a compare-and-set on the entry's row version: it only
+     * applies if the stored row still has the version the entry was read
+     * with, so no row lock is held while a user edits. On success the new
+     * versions are written back to the given entries. Entries without a
+     * password, as returned by the list queries, keep their stored password.
+     *
+     * @param entries The PasswordEntry objects with updated information
+     * @param userId  The ID of the user who owns the password entries
+     * @return The number of rows that were updated
+     * @throws EntryConflictException If any entry was changed by someone else
+     *                                since it was read; no entry is changed
+     *                                in that case
+     * @throws DatabaseException      If any update fails; no entry is changed
+     *                                in that case
+     */
+    public int updatePasswordEntries(List<PasswordEntry> entries, int userId) {
+        if (entries.isEmpty()) {
+            return 0;
+        }
+        String query = "UPDATE password_entries SET website = ?, username = ?, password = COALESCE(?, password), "
+                + "category_id = ?, "
+                + "row_version = ?, updated_at = CURRENT_TIMESTAMP WHERE id = ? AND user_id = ? AND row_version = ?";
 
-            if (entry.getCategory() != null) {
-                stmt.setInt(5, entry.getCategory().getId());
-            } else {
-                stmt.setNull(5, java.sql.Types.INTEGER);
+        Map<Integer, Long> committedVersions = new HashMap<>();
+        try {
+            int total = writeForUser(userId, conn -> {
+                Map<Integer, Integer> owners = findOwners(conn, userId,
+                        entries.stream().map(PasswordEntry::getId).toList(), false);
+                Map<Integer, Long> versions = stampVersions(conn, owners);
+                List<PasswordEntry> existing = entries.stream()
+                        .filter(entry -> versions.containsKey(entry.getId()))
+                        .toList();
+                int updated = 0;
+                List<Integer> conflicts = new ArrayList<>();
+                try (PreparedStatement stmt = conn.prepareStatement(query)) {
+                    for (int start = 0; start < existing.size(); start += BATCH_SIZE) {
+                        List<PasswordEntry> chunk = existing.subList(start, Math.min(start + BATCH_SIZE, existing.size()));
+                        for (PasswordEntry entry : chunk) {
+                            stmt.setString(1, entry.getWebsite());
+                            stmt.setString(2, entry.getUsername());
+                            stmt.setString(3, entry.getPassword());
+                            setCategoryParameter(stmt, 4, entry.getCategory());
+                            stmt.setLong(5, versions.get(entry.getId()));
+                            stmt.setInt(6, entry.getId());
+                            stmt.setInt(7, userId);
+                            stmt.setLong(8, entry.getRowVersion());
+                            stmt.addBatch();
+                        }
+                        int[] counts = stmt.executeBatch();
+                        for (int i = 0; i < counts.length; i++) {
+                            if (counts[i] == 0) {
+                                conflicts.add(chunk.get(i).getId());
+                            }
+                        }
+                        updated += countAffectedRows(counts);
+                    }
+                }
+
+                if (!conflicts.isEmpty()) {
+                    Map<Integer, PasswordEntry> current = new HashMap<>();
+                    conflicts.forEach(id -> current.put(id, null));
+                    for (int start = 0; start < conflicts.size(); start += BATCH_SIZE) {
+                        findEntries(conn, conflicts.subList(start, Math.min(start + BATCH_SIZE, conflicts.size())))
+                                .forEach(entry -> current.put(entry.getId(), entry));
+                    }
+                    logger.warn("Rejected update of password entries {} changed by another session", conflicts);
+                    throw new EntryConflictException(
+                            conflicts.size() + " password entries were changed by someone else", current);
+                }
+                SearchTokens.index(conn, existing, entry -> owners.get(entry.getId()));
+                committedVersions.putAll(versions);
+                return updated;
+            });
+            for (PasswordEntry entry : entries) {
+                Long version = committedVersions.get(entry.getId());
+                if (version != null) {
+                    entry.setRowVersion(version);
+                }
             }
+            return total;
+        } catch (SQLException e) {
+            logger.error("Error updating {} password entries of user {}: {}", entries.size(), userId,
+                    e.getMessage());
+            throw new DatabaseException("Failed to update password entries", e);
+        } finally {
+            UnitOfWork.afterCommit(() -> cache.invalidateUser(userId));
+            DatabaseConnection.getInstance().recordWrite(userId);
+        }
+    }
+
+    /**
+     * Moves several password entries of a user to the same category in a
+     * single transaction. Entries of other users are not changed.
+     *
+     * @param entryIds The IDs of the password entries to move
+     * @param category The target category, or null to remove the category
+     * @param userId   The ID of the user who owns the password entries
+     * @return The number of rows that were updated
+     * @throws DatabaseException If any update fails; no entry is changed in that
+     *                           case
+     */
+    public int updateCategoryForEntries(List<Integer> entryIds, Category category, int userId) {
+        if (entryIds.isEmpty()) {
+            return 0;
+        }
+        String query = "UPDATE password_entries SET category_id = ?, row_version = ?, updated_at = CURRENT_TIMESTAMP "
+                + "WHERE id = ? AND user_id = ?";
 
-            return stmt.executeUpdate() > 0;
+        try {
+            return writeForUser(userId, conn -> {
+                Map<Integer, Integer> owners = findOwners(conn, userId, entryIds, false);
+                Map<Integer, Long> versions = stampVersions(conn, owners);
+                List<Integer> existing = new ArrayList<>(versions.keySet());
+                int updated = 0;
+                try (PreparedStatement stmt = conn.prepareStatement(query)) {
+                    for (int start = 0; start < existing.size(); start += BATCH_SIZE) {
+                        for (int entryId : existing.subList(start, Math.min(start + BATCH_SIZE, existing.size()))) {
+                            setCategoryParameter(stmt, 1, category);
+                            stmt.setLong(2, versions.get(entryId));
+                            stmt.setInt(3, entryId);
+                            stmt.setInt(4, userId);
+                            stmt.addBatch();
+                        }
+                        updated += countAffectedRows(stmt.executeBatch());
+                    }
+                }
+                return updated;
+            });
         } catch (SQLException e) {
-            logger.error("Error adding password entry for user {}: {}", userId, e.getMessage());
-            throw new DatabaseException("Failed to add password entry", e);
+            logger.error("Error changing category of {} password entries of user {}: {}", entryIds.size(), userId,
+                    e.getMessage());
+            throw new DatabaseException("Failed to change category of password entries", e);
+        } finally {
+            UnitOfWork.afterCommit(() -> cache.invalidateUser(userId));
+            DatabaseConnection.getInstance().recordWrite(userId);
         }
     }
 
     /**
-     * Updates an existing password entry in the database.
+     * Moves several password entries of a user to the trash in a single
+     * transaction using JDBC batches of at most {@link #BATCH_SIZE}
+     * statements. Entries of other users are not changed. The rows
+     * are only marked as deleted, which is cheaper than removing them and
+     * keeps them recoverable with {@link #restorePasswordEntries(List, int)} until
+     * {@link #purgeDeletedEntries(LocalDateTime, int)} removes them for good.
      *
-     * @param entry The PasswordEntry object with updated information
-     * @return true if the password entry was successfully updated, false otherwise
-     * @throws DatabaseException If there is an error updating the password entry
+     * @param entryIds The IDs of the password entries to delete
+     * @param userId   The ID of the user who owns the password entries
+     * @return The number of entries that were moved to the trash
+     * @throws DatabaseException If any delete fails; no entry is removed in that
+     *                           case
      */
-    public boolean updatePasswordEntry(PasswordEntry entry) {
-        String query = "UPDATE password_entries SET website = ?, username = ?, password = ?, category_id = ? WHERE id = ?";
+    public int deletePasswordEntries(List<Integer> entryIds, int userId) {
+        if (entryIds.isEmpty()) {
+            return 0;
+        }
+        String query = "UPDATE password_entries SET deleted_at = CURRENT_TIMESTAMP, row_version = ?, "
+                + "updated_at = CURRENT_TIMESTAMP WHERE id = ? AND user_id = ?";
+        String tombstoneQuery = "INSERT INTO password_entry_tombstones (entry_id, user_id, row_version) VALUES (?, ?, ?)";
 
-        try (Connection conn = DatabaseConnection.getInstance().getConnection();
-                PreparedStatement stmt = conn.prepareStatement(query)) {
+        try {
+            return writeForUser(userId, conn -> {
+                Map<Integer, Integer> owners = findOwners(conn, userId, entryIds, false);
+                Map<Integer, Long> versions = stampVersions(conn, owners);
+                List<Integer> existing = new ArrayList<>(owners.keySet());
+                int deleted = 0;
+                try (PreparedStatement stmt = conn.prepareStatement(query);
+                        PreparedStatement tombstone = conn.prepareStatement(tombstoneQuery)) {
+                    for (int start = 0; start < existing.size(); start += BATCH_SIZE) {
+                        for (int entryId : existing.subList(start, Math.min(start + BATCH_SIZE, existing.size()))) {
+                            tombstone.setInt(1, entryId);
+                            tombstone.setInt(2, userId);
+                            tombstone.setLong(3, versions.get(entryId));
+                            tombstone.addBatch();
+                            stmt.setLong(1, versions.get(entryId));
+                            stmt.setInt(2, entryId);
+                            stmt.setInt(3, userId);
+                            stmt.addBatch();
+                        }
+                        tombstone.executeBatch();
+                        deleted += countAffectedRows(stmt.executeBatch());
+                    }
+                }
+                return deleted;
+            });
+        } catch (SQLException e) {
+            logger.error("Error deleting {} password entries of user {}: {}", entryIds.size(), userId,
+                    e.getMessage());
+            throw new DatabaseException("Failed to delete password entries", e);
+        } finally {
+            UnitOfWork.afterCommit(() -> cache.invalidateUser(userId));
+            DatabaseConnection.getInstance().recordWrite(userId);
+        }
+    }
+
+    /**
+     * Retrieves the password entries a user has moved to the trash, most
+     * recently deleted first.
+     *
+     * @param userId The ID of the user whose trash to retrieve
+     * @return The trashed entries, with their deletion time set
+     * @throws DatabaseException If there is an error retrieving the entries
+     */
+    public List<PasswordEntry> getTrashedEntries(int userId) {
+        List<PasswordEntry> entries = new ArrayList<>();
+        String query = "SELECT " + LIST_COLUMNS +
+                "FROM password_entries pe " +
+                "LEFT JOIN categories c ON pe.category_id = c.category_id " +
+                "WHERE pe.user_id = ? AND pe.deleted_at IS NOT NULL " +
+                "ORDER BY pe.deleted_at DESC, pe.id DESC";
 
-            stmt.setString(1, entry.getWebsite());
-            stmt.setString(2, entry.getUsername());
-            stmt.setString(3, entry.getPassword());
+        try (Connection conn = DatabaseConnection.getInstance().getReadConnectionForUser(userId);
+                PreparedStatement stmt = conn.prepareStatement(query)) {
 
-            if (entry.getCategory() != null) {
-                stmt.setInt(4, entry.getCategory().getId());
-            } else {
-                stmt.setNull(4, Types.INTEGER);
+            stmt.setInt(1, userId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                RowMapper<PasswordEntry> mapper = RowMappers.passwordEntry(rs);
+                while (rs.next()) {
+                    entries.add(mapper.mapRow(rs));
+                }
             }
+        } catch (SQLException e) {
+            logger.error("Error retrieving trashed password entries for user {}: {}", userId, e.getMessage());
+            throw new DatabaseException("Failed to retrieve trashed password entries", e);
+        }
+        return entries;
+    }
 
-            stmt.setInt(5, entry.getId());
+    /**
+     * Moves several password entries of a user back from the trash in a
+     * single transaction. Entries of other users are not changed. Restored
+     * entries get a new row version, so delta reads report them as changed.
+     *
+     * @param entryIds The IDs of the trashed password entries to restore
+     * @param userId   The ID of the user who owns the password entries
+     * @return The number of entries that were restored
+     * @throws DatabaseException If any restore fails; no entry is restored in
+     *                           that case
+     */
+    public int restorePasswordEntries(List<Integer> entryIds, int userId) {
+        if (entryIds.isEmpty()) {
+            return 0;
+        }
+        String query = "UPDATE password_entries SET deleted_at = NULL, row_version = ?, "
+                + "updated_at = CURRENT_TIMESTAMP WHERE id = ? AND user_id = ?";
+        String tombstoneQuery = "DELETE FROM password_entry_tombstones WHERE entry_id = ? AND user_id = ?";
 
-            return stmt.executeUpdate() > 0;
+        try {
+            return writeForUser(userId, conn -> {
+                Map<Integer, Integer> owners = findOwners(conn, userId, entryIds, true);
+                Map<Integer, Long> versions = stampVersions(conn, owners);
+                List<Integer> trashed = new ArrayList<>(owners.keySet());
+                int restored = 0;
+                try (PreparedStatement stmt = conn.prepareStatement(query);
+                        PreparedStatement tombstone = conn.prepareStatement(tombstoneQuery)) {
+                    for (int start = 0; start < trashed.size(); start += BATCH_SIZE) {
+                        for (int entryId : trashed.subList(start, Math.min(start + BATCH_SIZE, trashed.size()))) {
+                            tombstone.setInt(1, entryId);
+                            tombstone.setInt(2, userId);
+                            tombstone.addBatch();
+                            stmt.setLong(1, versions.get(entryId));
+                            stmt.setInt(2, entryId);
+                            stmt.setInt(3, userId);
+                            stmt.addBatch();
+                        }
+                        tombstone.executeBatch();
+                        restored += countAffectedRows(stmt.executeBatch());
+                    }
+                }
+                return restored;
+            });
         } catch (SQLException e) {
-            logger.error("Error updating password entry {}: {}", entry.getId(), e.getMessage());
-            throw new DatabaseException("Failed to update password entry", e);
+            logger.error("Error restoring {} password entries of user {}: {}", entryIds.size(), userId,
+                    e.getMessage());
+            throw new DatabaseException("Failed to restore password entries", e);
+        } finally {
+            UnitOfWork.afterCommit(() -> cache.invalidateUser(userId));
+            DatabaseConnection.getInstance().recordWrite(userId);
         }
     }
 
     /**
-     * Deletes a password entry from the database.
+     * Permanently removes password entries that were moved to the trash
+     * before the given time. At most {@code limit} rows are removed per call,
+     * oldest first, so each call holds its locks only briefly; callers repeat
+     * the call until it returns less than {@code limit}. The tombstones of
+     * the removed entries are kept for delta reads.
      *
-     * @param entryId The ID of the password entry to delete
-     * @return true if the password entry was successfully deleted, false otherwise
-     * @throws DatabaseException If there is an error deleting the password entry
+     * @param deletedBefore Entries deleted before this time are removed
+     * @param limit         The maximum number of entries to remove
+     * @return The number of entries that were removed
+     * @throws DatabaseException If the purge fails; the current batch is kept
+     *                           in that case
+     */
+    public int purgeDeletedEntries(LocalDateTime deletedBefore, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        String selectQuery = "SELECT id FROM password_entries WHERE deleted_at < ? ORDER BY deleted_at LIMIT ?";
+
+        int[] remaining = { limit };
+        try {
+            return writeOnEachShard(conn -> {
+                if (remaining[0] == 0) {
+                    return 0;
+                }
+                List<Integer> expired = new ArrayList<>();
+                try (PreparedStatement stmt = conn.prepareStatement(selectQuery)) {
+                    stmt.setTimestamp(1, Timestamp.valueOf(deletedBefore));
+                    stmt.setInt(2, remaining[0]);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            expired.add(rs.getInt(1));
+                        }
+                    }
+                }
+                if (expired.isEmpty()) {
+                    return 0;
+                }
+
+                String deleteQuery = "DELETE FROM password_entries WHERE deleted_at IS NOT NULL AND id IN ("
+                        + String.join(", ", Collections.nCopies(expired.size(), "?")) + ")";
+                try (PreparedStatement stmt = conn.prepareStatement(deleteQuery)) {
+                    for (int i = 0; i < expired.size(); i++) {
+                        stmt.setInt(i + 1, expired.get(i));
+                    }
+                    int purged = stmt.executeUpdate();
+                    remaining[0] -= purged;
+                    return purged;
+                }
+            });
+        } catch (SQLException e) {
+            logger.error("Error purging deleted password entries: {}", e.getMessage());
+            throw new DatabaseException("Failed to purge deleted password entries", e);
+        }
+    }
+
+    /**
+     * Retrieves the current data version of a user. Read it before loading
+     * entries and pass it to {@link #getPasswordEntriesChangedSince(int, long)}
+     * later to fetch only what changed in between. Cached results of the user
+     * that belong to another version are dropped, so pages loaded afterwards
+     * include changes committed by other sessions.
+     *
+     * @param userId The ID of the user
+     * @return The user's current data version
+     * @throws DatabaseException If there is an error reading the version
+     */
+    public long getDataVersion(int userId) {
+        try (Connection conn = DatabaseConnection.getInstance().getReadConnectionForUser(userId)) {
+            long version = DataVersions.current(conn, userId);
+            cache.checkVersion(userId, version);
+            return version;
+        } catch (SQLException e) {
+            logger.error("Error reading data version of user {}: {}", userId, e.getMessage());
+            throw new DatabaseException("Failed to read data version", e);
+        }
+    }
+
+    /**
+     * Counts the live password entries of a user per category. The counts are
+     * aggregated by the database over the covering index on
+     * {@code (user_id, deleted_at, category_id)}, so no entry rows are read.
+     *
+     * @param userId The ID of the user
+     * @return The number of entries per category ID, with uncategorized entries
+     *         counted under {@link #UNCATEGORIZED}; categories without entries
+     *         are absent
+     * @throws DatabaseException If there is an error counting the entries
      */
-    public boolean deletePasswordEntry(int entryId) {
-        String query = "DELETE FROM password_entries WHERE id = ?";
+    public Map<Integer, Integer> getCategoryCounts(int userId) {
+        String query = "SELECT category_id, COUNT(*) FROM password_entries " +
+                "WHERE user_id = ? AND deleted_at IS NULL GROUP BY category_id";
 
-        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+        try (Connection conn = DatabaseConnection.getInstance().getReadConnectionForUser(userId);
                 PreparedStatement stmt = conn.prepareStatement(query)) {
+            stmt.setInt(1, userId);
+            Map<Integer, Integer> counts = new HashMap<>();
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    int categoryId = rs.getInt(1);
+                    counts.merge(rs.wasNull() ? UNCATEGORIZED : categoryId, rs.getInt(2), Integer::sum);
+                }
+            }
+            return counts;
+        } catch (SQLException e) {
+            logger.error("Error counting password entries of user {}: {}", userId, e.getMessage());
+            throw new DatabaseException("Failed to count password entries", e);
+        }
+    }
 
-            stmt.setInt(1, entryId);
-            return stmt.executeUpdate() > 0;
+    /**
+     * Retrieves the password entries of a user that were added, modified or
+     * deleted after a given data version. The cost depends on the number of
+     * changes, not on the size of the vault. Rows written concurrently may be
+     * reported again by the next call, so callers should apply the delta by id.
+     *
+     * @param userId       The ID of the user whose changes to retrieve
+     * @param sinceVersion The data version the caller is up to date with
+     * @return The changed entries, the ids of deleted entries and the new
+     *         version to continue from
+     * @throws DatabaseException If there is an error retrieving the changes
+     */
+    public PasswordEntryDelta getPasswordEntriesChangedSince(int userId, long sinceVersion) {
+        String query = "SELECT " + LIST_COLUMNS +
+                "FROM password_entries pe " +
+                "LEFT JOIN categories c ON pe.category_id = c.category_id " +
+                "WHERE pe.user_id = ? AND pe.row_version > ? AND pe.deleted_at IS NULL " +
+                "ORDER BY pe.id";
+        String tombstoneQuery = "SELECT entry_id FROM password_entry_tombstones WHERE user_id = ? AND row_version > ?";
+
+        try (Connection conn = DatabaseConnection.getInstance().getReadConnectionForUser(userId)) {
+            long version = DataVersions.current(conn, userId);
+            cache.checkVersion(userId, version);
+            if (version <= sinceVersion) {
+                return new PasswordEntryDelta(List.of(), List.of(), sinceVersion);
+            }
+
+            List<PasswordEntry> changed = new ArrayList<>();
+            try (PreparedStatement stmt = conn.prepareStatement(query)) {
+                stmt.setInt(1, userId);
+                stmt.setLong(2, sinceVersion);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    RowMapper<PasswordEntry> mapper = RowMappers.passwordEntry(rs);
+                    while (rs.next()) {
+                        changed.add(mapper.mapRow(rs));
+                    }
+                }
+            }
+
+            List<Integer> deletedIds = new ArrayList<>();
+            try (PreparedStatement stmt = conn.prepareStatement(tombstoneQuery)) {
+                stmt.setInt(1, userId);
+                stmt.setLong(2, sinceVersion);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        deletedIds.add(rs.getInt(1));
+                    }
+                }
+            }
+            return new PasswordEntryDelta(changed, deletedIds, version);
         } catch (SQLException e) {
-            logger.error("Error deleting password entry {}: {}", entryId, e.getMessage());
-            throw new DatabaseException("Failed to delete password entry", e);
+            logger.error("Error retrieving changes since version {} for user {}: {}", sinceVersion, userId,
+                    e.getMessage());
+            throw new DatabaseException("Failed to retrieve password entry changes", e);
         }
     }
 
     /**
-     * Maps a database result set to a PasswordEntry object.
+     * Reads password entries by id with their categories and passwords.
+     * Entries in the trash are treated as deleted.
      *
-     * @param rs     The ResultSet containing password entry data
-     * @param userId The ID of the user who owns this password entry
-     * @return A PasswordEntry object populated with data from the ResultSet
-     * @throws SQLException If there is an error accessing the ResultSet
-     */
-    private PasswordEntry mapResultSetToPasswordEntry(ResultSet rs, int userId) throws SQLException {
-        Category category = null;
-        if (rs.getObject("category_id") != null) {
-            category = new Category(
-                    rs.getInt("category_id"),
-                    userId,
-                    rs.getString("category_name"),
-                    rs.getString("category_description"));
-        }
-
-        return new PasswordEntry(
-                rs.getInt("id"),
-                rs.getInt("user_id"),
-                rs.getString("website"),
-                rs.getString("username"),
-                rs.getString("password"),
-                category,
-                null);
+     * @param conn     The connection to read with
+     * @param entryIds The IDs of the entries, at most {@link #BATCH_SIZE}
+     * @return The entries that exist
+     * @throws SQLException If the query fails
+     */
+    private List<PasswordEntry> findEntries(Connection conn, List<Integer> entryIds) throws SQLException {
+        String query = "SELECT pe.*, c.category_id, c.name AS category_name, c.description AS category_description " +
+                "FROM password_entries pe " +
+                "LEFT JOIN categories c ON pe.category_id = c.category_id " +
+                "WHERE pe.id IN (" + String.join(", ", Collections.nCopies(entryIds.size(), "?")) + ") " +
+                "AND pe.deleted_at IS NULL";
+
+        List<PasswordEntry> entries = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement(query)) {
+            for (int i = 0; i < entryIds.size(); i++) {
+                stmt.setInt(i + 1, entryIds.get(i));
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                RowMapper<PasswordEntry> mapper = RowMappers.passwordEntry(rs);
+                while (rs.next()) {
+                    entries.add(mapper.mapRow(rs));
+                }
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Looks up which of the given password entries belong to a user. IDs of
+     * entries that do not exist, belong to another user or are not in the
+     * requested state are left out.
+     *
+     * @param conn     The connection of the current transaction
+     * @param userId   The ID of the user the entries must belong to
+     * @param entryIds The IDs of the entries
+     * @param trashed  Whether to look for entries in the trash instead of live
+     *                 entries
+     * @return The owning user id of each matching entry, keyed by entry id
+     * @throws SQLException If the query fails
+     */
+    private Map<Integer, Integer> findOwners(Connection conn, int userId, List<Integer> entryIds, boolean trashed)
+            throws SQLException {
+        Map<Integer, Integer> owners = new LinkedHashMap<>();
+        for (int start = 0; start < entryIds.size(); start += BATCH_SIZE) {
+            List<Integer> chunk = entryIds.subList(start, Math.min(start + BATCH_SIZE, entryIds.size()));
+            String query = "SELECT id, user_id FROM password_entries WHERE id IN ("
+                    + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ") AND user_id = ? AND deleted_at IS "
+                    + (trashed ? "NOT NULL" : "NULL");
+            try (PreparedStatement stmt = conn.prepareStatement(query)) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    stmt.setInt(i + 1, chunk.get(i));
+                }
+                stmt.setInt(chunk.size() + 1, userId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        owners.put(rs.getInt(1), rs.getInt(2));
+                    }
+                }
+            }
+        }
+        return owners;
+    }
+
+    /**
+     * Takes one new data version per owning user for a write to the given
+     * entries.
+     *
+     * @param conn   The connection of the current transaction
+     * @param owners The owning user id of each entry, keyed by entry id
+     * @return The version to stamp on each entry, keyed by entry id
+     * @throws SQLException If a version cannot be taken
+     */
+    private Map<Integer, Long> stampVersions(Connection conn, Map<Integer, Integer> owners) throws SQLException {
+        Map<Integer, Long> userVersions = new HashMap<>();
+        for (int userId : new TreeSet<>(owners.values())) {
+            userVersions.put(userId, DataVersions.next(conn, userId));
+        }
+
+        Map<Integer, Long> versions = new LinkedHashMap<>();
+        owners.forEach((entryId, userId) -> versions.put(entryId, userVersions.get(userId)));
+        return versions;
+    }
+
+    /**
+     * Returns statistics of the entry cache used by this DAO.
+     *
+     * @return The cache hit, miss and eviction counters
+     */
+    public PasswordEntryCache.CacheStats getCacheStats() {
+        return cache.getStats();
+    }
+
+    /**
+     * A write that runs inside a transaction on one shard.
+     */
+    @FunctionalInterface
+    private interface ShardWork {
+        int execute(Connection conn) throws SQLException;
+    }
+
+    /**
+     * Runs a write to a user's entries in one transaction on the user's
+     * shard. Holds the user's placement lock, so the user's data does not move
+     * to another shard in between.
+     *
+     * @param userId The ID of the user whose entries are written
+     * @param work   The statements to execute
+     * @return The row count returned by the work
+     * @throws SQLException If the work fails
+     */
+    private int writeForUser(int userId, ShardWork work) throws SQLException {
+        try (PlacementLock placement = PlacementLock.acquire(DatabaseConnection.getInstance(), userId)) {
+            Connection conn = placement.connection();
+            int[] count = new int[1];
+            runInTransaction(conn, () -> count[0] = work.execute(conn));
+            return count[0];
+        }
+    }
+
+    /**
+     * Runs a write addressed by entry id on every shard, each in its own
+     * transaction. Entry ids are unique across shards, so the work only
+     * touches the shard that holds an entry. A user being moved meanwhile may
+     * keep the affected rows on the target shard until the next run.
+     *
+     * @param work The statements to execute on each shard
+     * @return The sum of the row counts returned by the work
+     * @throws SQLException If the work fails on a shard
+     */
+    private int writeOnEachShard(ShardWork work) throws SQLException {
+        DatabaseConnection database = DatabaseConnection.getInstance();
+        int total = 0;
+        for (int shard = 0; shard < database.getShardCount(); shard++) {
+            try (Connection conn = database.getShardConnection(shard)) {
+                int[] count = new int[1];
+                runInTransaction(conn, () -> count[0] = work.execute(conn));
+                total += count[0];
+            }
+        }
+        return total;
+    }
+
+    /**
+     * A unit of JDBC work that runs inside a transaction.
+     */
+    @FunctionalInterface
+    private interface TransactionWork {
+        void execute() throws SQLException;
+    }
+
+    /**
+     * Runs the given work with auto-commit disabled and commits once at the end.
+     * The transaction is rolled back if the work throws, and the original
+     * auto-commit mode is restored before the connection goes back to the pool.
+     *
+     * @param conn The connection to run the transaction on
+     * @param work The statements to execute
+     * @throws SQLException If the work or the commit fails
+     */
+    private void runInTransaction(Connection conn, TransactionWork work) throws SQLException {
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            work.execute();
+            conn.commit();
+        } catch (SQLException | RuntimeException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    /**
+     * Sums the update counts returned by {@link PreparedStatement#executeBatch()}.
+     * Drivers that cannot report per-statement counts return
+     * {@link Statement#SUCCESS_NO_INFO}, which is counted as one row.
+     *
+     * @param counts The update counts of a batch
+     * @return The total number of affected rows
+     */
+    private int countAffectedRows(int[] counts) {
+        int total = 0;
+        for (int count : counts) {
+            total += count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(count, 0);
+        }
+        return total;
+    }
+
+    /**
+     * Binds a category id parameter, or SQL NULL if there is no category.
+     *
+     * @param stmt     The statement to bind the parameter on
+     * @param index    The parameter index
+     * @param category The category, or null
+     * @throws SQLException If the parameter cannot be set
+     */
+    private void setCategoryParameter(PreparedStatement stmt, int index, Category category) throws SQLException {
+        if (category != null) {
+            stmt.setInt(index, category.getId());
+        } else {
+            stmt.setNull(index, Types.INTEGER);
+        }
     }
 }
\ No newline at end of file
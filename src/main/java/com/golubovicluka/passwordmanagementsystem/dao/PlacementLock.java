@@ -0,0 +1,196 @@
+package com.golubovicluka.passwordmanagementsystem.dao;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Keeps a user on one shard while their data is written:
+ *
+ * <pre>{@code
+ * try (PlacementLock placement = PlacementLock.acquire(database, userId)) {
+ *     Connection conn = placement.connection();
+ *     ...
+ * }
+ * }</pre>
+ *
+ * When the data is sharded, acquiring the lock locks the user's row in the
+ * directory on the primary and reads the user's placement in the same
+ * transaction, so a write always goes to the shard the directory names, even
+ * if another process moved the user since this process cached the placement.
+ * {@link ShardRebalancer} holds the same row lock while it moves a user, so
+ * it waits for running writes and holds back new ones in every process.
+ * Without shards no lock is taken, since users cannot move.
+ *
+ * For users on the primary, {@link #connection()} is the directory
+ * connection itself, so the write and the lock share one transaction and the
+ * lock is released when the write commits. Locks taken again for the same
+ * user on the same thread share the first one. While a {@link UnitOfWork} is
+ * open, locks are released when the unit closes instead, so the placement
+ * cannot change before the unit commits.
+ */
+final class PlacementLock implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(PlacementLock.class);
+
+    /** Locks held by the current thread, by user id */
+    private static final ThreadLocal<Map<Integer, PlacementLock>> HELD = ThreadLocal.withInitial(HashMap::new);
+
+    private final DatabaseConnection database;
+    private final int userId;
+    private final int shard;
+    private final PlacementLock outer;
+    private final Connection directory;
+    private final boolean ownsDirectory;
+    private Connection connection;
+
+    private PlacementLock(DatabaseConnection database, int userId, int shard, PlacementLock outer,
+            Connection directory, boolean ownsDirectory) {
+        this.database = database;
+        this.userId = userId;
+        this.shard = shard;
+        this.outer = outer;
+        this.directory = directory;
+        this.ownsDirectory = ownsDirectory;
+    }
+
+    /**
+     * Locks a user's placement and resolves their shard.
+     *
+     * @param database The database the user's data is written to
+     * @param userId   The ID of the user
+     * @return The held lock
+     * @throws SQLException If the user cannot be locked or looked up
+     */
+    static PlacementLock acquire(DatabaseConnection database, int userId) throws SQLException {
+        PlacementLock held = HELD.get().get(userId);
+        if (held != null) {
+            return new PlacementLock(database, userId, held.shard, held, null, false);
+        }
+        if (database.getShardCount() == 1) {
+            return new PlacementLock(database, userId, 0, null, null, false);
+        }
+
+        // Inside a unit of work on the primary the lock joins the unit's transaction
+        boolean bound = UnitOfWork.connectionFor(0) != null;
+        Connection directory = database.getConnection();
+        try {
+            if (!bound) {
+                directory.setAutoCommit(false);
+            }
+            int shard = database.getShardRouter().lockShardFor(directory, userId);
+            PlacementLock lock = new PlacementLock(database, userId, shard, null, directory, !bound);
+            HELD.get().put(userId, lock);
+            return lock;
+        } catch (SQLException | RuntimeException e) {
+            if (!bound) {
+                directory.rollback();
+                directory.setAutoCommit(true);
+                directory.close();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Gets the shard the user's data is on while the lock is held.
+     *
+     * @return The shard number, 0 for the primary
+     */
+    int shard() {
+        return shard;
+    }
+
+    /**
+     * Gets the locked directory connection, e.g. to record a new placement.
+     *
+     * @return The directory connection, or null if no directory lock is held
+     *         by this lock
+     */
+    Connection directory() {
+        return directory;
+    }
+
+    /**
+     * Gets a connection to the user's shard. It belongs to the lock and must
+     * not be closed by the caller.
+     *
+     * @return The connection, the view of the bound connection if a unit of
+     *         work is open on the shard
+     * @throws SQLException If no connection can be obtained
+     */
+    Connection connection() throws SQLException {
+        Connection bound = UnitOfWork.connectionFor(shard);
+        if (bound != null) {
+            return bound;
+        }
+        if (outer != null) {
+            return outer.connection();
+        }
+        if (connection == null) {
+            connection = shard == 0 && directory != null ? directory : database.getShardConnection(shard);
+        }
+        return connection;
+    }
+
+    /**
+     * Commits the directory transaction, e.g. after recording a new placement,
+     * and releases the row lock with it.
+     *
+     * @throws SQLException If the commit fails
+     */
+    void commit() throws SQLException {
+        if (ownsDirectory) {
+            directory.commit();
+        }
+    }
+
+    /**
+     * Releases the lock, or hands it to the unit of work open on this thread.
+     * Uncommitted directory changes are rolled back.
+     */
+    @Override
+    public void close() {
+        if (outer != null) {
+            return;
+        }
+        if (!UnitOfWork.releaseOnClose(this)) {
+            release();
+        }
+    }
+
+    /**
+     * Releases the lock and returns its connections to the pool.
+     */
+    void release() {
+        if (HELD.get().get(userId) == this) {
+            HELD.get().remove(userId);
+        }
+        if (connection != null && connection != directory) {
+            closeQuietly(connection);
+        }
+        if (ownsDirectory) {
+            try {
+                if (!directory.getAutoCommit()) {
+                    directory.rollback();
+                    directory.setAutoCommit(true);
+                }
+            } catch (SQLException e) {
+                logger.warn("Error releasing placement lock of user {}: {}", userId, e.getMessage());
+            } finally {
+                closeQuietly(directory);
+            }
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            logger.warn("Error returning placement lock connection: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.golubovicluka.passwordmanagementsystem.dao;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics tracker for the HikariCP pool. Hikari reports every connection
+ * acquisition, usage and timeout here; the pool gauges (active, idle and
+ * pending) are read from Hikari's {@link PoolStats}.
+ */
+public class PoolMetrics implements MetricsTrackerFactory, PoolMetricsMXBean {
+
+    private final LatencyHistogram acquireTimes = new LatencyHistogram();
+    private final LatencyHistogram usageTimes = new LatencyHistogram();
+    private final LongAdder timeouts = new LongAdder();
+    private volatile PoolStats poolStats;
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        this.poolStats = poolStats;
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                acquireTimes.record(elapsedAcquiredNanos);
+            }
+
+            @Override
+            public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+                usageTimes.record(elapsedBorrowedMillis * 1_000_000);
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                timeouts.increment();
+            }
+        };
+    }
+
+    /**
+     * Gets the histogram of the time callers waited for a connection.
+     *
+     * @return The acquire-time histogram
+     */
+    public LatencyHistogram getAcquireTimes() {
+        return acquireTimes;
+    }
+
+    /**
+     * Gets the histogram of how long connections were held by callers.
+     *
+     * @return The usage-time histogram
+     */
+    public LatencyHistogram getUsageTimes() {
+        return usageTimes;
+    }
+
+    @Override
+    public int getActiveConnections() {
+        PoolStats stats = poolStats;
+        return stats != null ? stats.getActiveConnections() : 0;
+    }
+
+    @Override
+    public int getIdleConnections() {
+        PoolStats stats = poolStats;
+        return stats != null ? stats.getIdleConnections() : 0;
+    }
+
+    @Override
+    public int getPendingThreads() {
+        PoolStats stats = poolStats;
+        return stats != null ? stats.getPendingThreads() : 0;
+    }
+
+    @Override
+    public int getTotalConnections() {
+        PoolStats stats = poolStats;
+        return stats != null ? stats.getTotalConnections() : 0;
+    }
+
+    @Override
+    public long getAcquireCount() {
+        return acquireTimes.getCount();
+    }
+
+    @Override
+    public double getAcquireMeanMicros() {
+        return acquireTimes.getMeanMicros();
+    }
+
+    @Override
+    public long getAcquireP50Micros() {
+        return acquireTimes.getPercentileMicros(50);
+    }
+
+    @Override
+    public long getAcquireP95Micros() {
+        return acquireTimes.getPercentileMicros(95);
+    }
+
+    @Override
+    public long getAcquireP99Micros() {
+        return acquireTimes.getPercentileMicros(99);
+    }
+
+    @Override
+    public long[] getAcquireHistogramBoundsMicros() {
+        return acquireTimes.getBucketBoundsMicros();
+    }
+
+    @Override
+    public long[] getAcquireHistogramCounts() {
+        return acquireTimes.getBucketCounts();
+    }
+
+    @Override
+    public long getUsageP95Micros() {
+        return usageTimes.getPercentileMicros(95);
+    }
+
+    @Override
+    public long getConnectionTimeouts() {
+        return timeouts.sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("active=%d idle=%d pending=%d total=%d timeouts=%d acquire[%s]",
+                getActiveConnections(), getIdleConnections(), getPendingThreads(), getTotalConnections(),
+                getConnectionTimeouts(), acquireTimes);
+    }
+}
@@ -0,0 +1,35 @@
+package com.golubovicluka.passwordmanagementsystem.dao;
+
+/**
+ * JMX view of the connection pool metrics collected by {@link PoolMetrics}.
+ * Registered next to Hikari's own pool MBean so both can be watched in a JMX
+ * console while the application runs.
+ */
+public interface PoolMetricsMXBean {
+
+    int getActiveConnections();
+
+    int getIdleConnections();
+
+    int getPendingThreads();
+
+    int getTotalConnections();
+
+    long getAcquireCount();
+
+    double getAcquireMeanMicros();
+
+    long getAcquireP50Micros();
+
+    long getAcquireP95Micros();
+
+    long getAcquireP99Micros();
+
+    long[] getAcquireHistogramBoundsMicros();
+
+    long[] getAcquireHistogramCounts();
+
+    long getUsageP95Micros();
+
+    long getConnectionTimeouts();
+}
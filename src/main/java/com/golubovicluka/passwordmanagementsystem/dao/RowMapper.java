@@ -0,0 +1,24 @@
+package com.golubovicluka.passwordmanagementsystem.dao;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps the current row of a ResultSet to an object.
+ * Implementations created by {@link RowMappers} have their column indexes
+ * resolved once per statement, so mapping a row only reads by index.
+ *
+ * @param <T> the type of object produced for each row
+ */
+@FunctionalInterface
+public interface RowMapper<T> {
+
+    /**
+     * Maps the row the result set is currently positioned on.
+     *
+     * @param rs The result set, positioned on a row
+     * @return The mapped object
+     * @throws SQLException If a column cannot be read
+     */
+    T mapRow(ResultSet rs) throws SQLException;
+}
@@ -0,0 +1,147 @@
+package com.golubovicluka.passwordmanagementsystem.dao;
+
+import com.golubovicluka.passwordmanagementsystem.model.Category;
+import com.golubovicluka.passwordmanagementsystem.model.PasswordEntry;
+import com.golubovicluka.passwordmanagementsystem.model.User;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Factory for the row mappers used by the DAOs.
+ * Each factory method reads the {@link ResultSetMetaData} of a result set once,
+ * resolves the column indexes it needs, and returns a mapper that reads every
+ * row by index with primitive getters. Resolving labels per row, as
+ * {@code rs.getInt("id")} does, costs a lookup for every column of every row.
+ */
+public final class RowMappers {
+
+    private RowMappers() {
+    }
+
+    /**
+     * Column label to index lookup built from result set metadata.
+     * Labels are matched case-insensitively and the first column wins when a
+     * label occurs more than once, which matches JDBC's lookup by name.
+     */
+    static final class ColumnIndex {
+        private final Map<String, Integer> indexes = new HashMap<>();
+
+        ColumnIndex(ResultSetMetaData metaData) throws SQLException {
+            for (int i = metaData.getColumnCount(); i >= 1; i--) {
+                indexes.put(metaData.getColumnLabel(i).toLowerCase(Locale.ROOT), i);
+            }
+        }
+
+        int require(String label) throws SQLException {
+            Integer index = indexes.get(label);
+            if (index == null) {
+                throw new SQLException("Column not found in result set: " + label);
+            }
+            return index;
+        }
+
+        int optional(String label) {
+            Integer index = indexes.get(label);
+            return index != null ? index : 0;
+        }
+    }
+
+    /**
+     * Creates a mapper for password entry rows joined with their category,
+     * as selected by {@link PasswordEntryDAO}. The password column is
+     * optional; entries read without it have a null password.
+     *
+     * @param rs The result set the mapper will read from
+     * @return A mapper with resolved column indexes
+     * @throws SQLException If a required column is missing
+     */
+    public static RowMapper<PasswordEntry> passwordEntry(ResultSet rs) throws SQLException {
+        ColumnIndex columns = new ColumnIndex(rs.getMetaData());
+        int id = columns.require("id");
+        int userId = columns.require("user_id");
+        int website = columns.require("website");
+        int username = columns.require("username");
+        int password = columns.optional("password");
+        int categoryId = columns.require("category_id");
+        int categoryName = columns.require("category_name");
+        int categoryDescription = columns.require("category_description");
+        int rowVersion = columns.require("row_version");
+        int deletedAt = columns.require("deleted_at");
+
+        return row -> {
+            int ownerId = row.getInt(userId);
+            Category category = null;
+            int categoryIdValue = row.getInt(categoryId);
+            if (!row.wasNull()) {
+                category = new Category(categoryIdValue, ownerId, row.getString(categoryName),
+                        row.getString(categoryDescription));
+            }
+
+            PasswordEntry entry = new PasswordEntry(
+                    row.getInt(id),
+                    ownerId,
+                    row.getString(website),
+                    row.getString(username),
+                    password > 0 ? row.getString(password) : null,
+                    category,
+                    null);
+            entry.setRowVersion(row.getLong(rowVersion));
+            Timestamp deleted = row.getTimestamp(deletedAt);
+            if (deleted != null) {
+                entry.setDeletedAt(deleted.toLocalDateTime());
+            }
+            return entry;
+        };
+    }
+
+    /**
+     * Creates a mapper for rows of the categories table.
+     *
+     * @param rs The result set the mapper will read from
+     * @return A mapper with resolved column indexes
+     * @throws SQLException If a required column is missing
+     */
+    public static RowMapper<Category> category(ResultSet rs) throws SQLException {
+        ColumnIndex columns = new ColumnIndex(rs.getMetaData());
+        int categoryId = columns.require("category_id");
+        int userId = columns.require("user_id");
+        int name = columns.require("name");
+        int description = columns.require("description");
+
+        return row -> new Category(
+                row.getInt(categoryId),
+                row.getInt(userId),
+                row.getString(name),
+                row.getString(description));
+    }
+
+    /**
+     * Creates a mapper for rows of the users table.
+     *
+     * @param rs The result set the mapper will read from
+     * @return A mapper with resolved column indexes
+     * @throws SQLException If a required column is missing
+     */
+    public static RowMapper<User> user(ResultSet rs) throws SQLException {
+        ColumnIndex columns = new ColumnIndex(rs.getMetaData());
+        int id = columns.require("id");
+        int username = columns.require("username");
+        int passwordHash = columns.require("password_hash");
+        int createdAt = columns.require("created_at");
+
+        return row -> {
+            Timestamp created = row.getTimestamp(createdAt);
+            return new User(
+                    row.getInt(id),
+                    row.getString(username),
+                    row.getString(passwordHash),
+                    created != null ? created.toLocalDateTime() : null);
+        };
+    }
+}
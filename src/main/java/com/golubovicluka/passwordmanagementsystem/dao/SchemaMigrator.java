@@ -0,0 +1,225 @@
+package com.golubovicluka.passwordmanagementsystem.dao;
+
+import com.golubovicluka.passwordmanagementsystem.exception.DatabaseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Applies versioned schema migrations at startup.
+ * Applied versions are recorded in the {@code schema_version} table, so each
+ * migration runs exactly once per database and existing installs can be
+ * evolved in place.
+ */
+public class SchemaMigrator {
+    private static final Logger logger = LoggerFactory.getLogger(SchemaMigrator.class);
+
+    private static final String MIGRATION_PATH = "/com/golubovicluka/passwordmanagementsystem/db/migration/";
+
+    private final List<Migration> migrations;
+
+    /**
+     * Constructs a migrator with the migrations shipped with the application.
+     */
+    public SchemaMigrator() {
+        this(defaultMigrations());
+    }
+
+    /**
+     * Constructs a migrator with a custom list of migrations.
+     *
+     * @param migrations The migrations to apply
+     */
+    public SchemaMigrator(List<Migration> migrations) {
+        this.migrations = new ArrayList<>(migrations);
+        this.migrations.sort(Comparator.comparingInt(Migration::getVersion));
+    }
+
+    /**
+     * Returns the migrations shipped with the application, in version order.
+     *
+     * @return The built-in migrations
+     */
+    static List<Migration> defaultMigrations() {
+        List<Migration> migrations = new ArrayList<>();
+        migrations.add(new SqlMigration(1, "baseline", "V1__baseline.sql"));
+        migrations.add(new SqlMigration(2, "password entry user indexes", "V2__password_entries_user_indexes.sql"));
+        migrations.add(new SqlMigration(3, "category user index", "V3__categories_user_index.sql"));
+        migrations.add(new SqlMigration(4, "row versions and entry tombstones", "V4__row_versions.sql"));
+        migrations.add(new SqlMigration(5, "user shard directory", "V5__user_shards.sql"));
+        migrations.add(new SqlMigration(6, "soft-deleted password entries", "V6__soft_delete.sql"));
+        migrations.add(new SearchTokenMigration());
+        migrations.add(new SqlMigration(8, "category count index", "V8__category_counts_index.sql"));
+        return migrations;
+    }
+
+    /**
+     * Applies every migration that has not been recorded yet.
+     *
+     * @param conn The connection to migrate
+     * @return The number of migrations that were applied
+     * @throws DatabaseException If a migration fails
+     */
+    public int migrate(Connection conn) {
+        try {
+            createVersionTable(conn);
+            Set<Integer> applied = getAppliedVersions(conn);
+
+            int count = 0;
+            for (Migration migration : migrations) {
+                if (!applied.contains(migration.getVersion())) {
+                    applyMigration(conn, migration);
+                    count++;
+                }
+            }
+
+            if (count > 0) {
+                logger.info("Applied {} schema migration(s)", count);
+            }
+            return count;
+        } catch (SQLException e) {
+            logger.error("Error migrating database schema: {}", e.getMessage());
+            throw new DatabaseException("Failed to migrate database schema", e);
+        }
+    }
+
+    /**
+     * Creates the table that records applied migration versions.
+     *
+     * @param conn The connection to use
+     * @throws SQLException If the table cannot be created
+     */
+    private void createVersionTable(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE IF NOT EXISTS schema_version ("
+                    + "version INT PRIMARY KEY,"
+                    + "description VARCHAR(255) NOT NULL,"
+                    + "applied_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP"
+                    + ")");
+        }
+    }
+
+    /**
+     * Reads the versions that have already been applied.
+     *
+     * @param conn The connection to use
+     * @return The set of applied versions
+     * @throws SQLException If the versions cannot be read
+     */
+    private Set<Integer> getAppliedVersions(Connection conn) throws SQLException {
+        Set<Integer> versions = new HashSet<>();
+        try (Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery("SELECT version FROM schema_version")) {
+            while (rs.next()) {
+                versions.add(rs.getInt(1));
+            }
+        }
+        return versions;
+    }
+
+    /**
+     * Applies a single migration and records its version in the same
+     * transaction where the database supports transactional DDL.
+     *
+     * @param conn      The connection to use
+     * @param migration The migration to apply
+     * @throws SQLException If the migration fails
+     */
+    private void applyMigration(Connection conn, Migration migration) throws SQLException {
+        logger.info("Applying schema migration V{}: {}", migration.getVersion(), migration.getDescription());
+
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            migration.apply(conn);
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "INSERT INTO schema_version (version, description) VALUES (?, ?)")) {
+                stmt.setInt(1, migration.getVersion());
+                stmt.setString(2, migration.getDescription());
+                stmt.executeUpdate();
+            }
+            conn.commit();
+        } catch (SQLException | RuntimeException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    /**
+     * A migration backed by a SQL script on the classpath.
+     * Statements are separated by semicolons and lines starting with
+     * {@code --} are treated as comments.
+     */
+    private static final class SqlMigration implements Migration {
+        private final int version;
+        private final String description;
+        private final String resource;
+
+        SqlMigration(int version, String description, String resource) {
+            this.version = version;
+            this.description = description;
+            this.resource = resource;
+        }
+
+        @Override
+        public int getVersion() {
+            return version;
+        }
+
+        @Override
+        public String getDescription() {
+            return description;
+        }
+
+        @Override
+        public void apply(Connection conn) throws SQLException {
+            try (Statement stmt = conn.createStatement()) {
+                for (String sql : readStatements()) {
+                    stmt.execute(sql);
+                }
+            }
+        }
+
+        private List<String> readStatements() {
+            String script;
+            try (InputStream in = SchemaMigrator.class.getResourceAsStream(MIGRATION_PATH + resource)) {
+                if (in == null) {
+                    throw new DatabaseException("Migration script not found: " + resource);
+                }
+                script = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                throw new DatabaseException("Failed to read migration script " + resource, e);
+            }
+
+            StringBuilder withoutComments = new StringBuilder();
+            for (String line : script.split("\\R")) {
+                if (!line.trim().startsWith("--")) {
+                    withoutComments.append(line).append('\n');
+                }
+            }
+
+            List<String> statements = new ArrayList<>();
+            for (String statement : withoutComments.toString().split(";")) {
+                if (!statement.isBlank()) {
+                    statements.add(statement.trim());
+                }
+            }
+            return statements;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.golubovicluka.passwordmanagementsystem.dao;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Creates the trigram search index of password entries and fills it from the
+ * existing entries. The tokens are computed in Java, so this migration cannot
+ * be a SQL script.
+ */
+final class SearchTokenMigration implements Migration {
+
+    @Override
+    public int getVersion() {
+        return 7;
+    }
+
+    @Override
+    public String getDescription() {
+        return "password entry search tokens";
+    }
+
+    @Override
+    public void apply(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            // The primary key leads with (user_id, token), which is the lookup of every search
+            stmt.execute("CREATE TABLE IF NOT EXISTS password_entry_search_tokens ("
+                    + "user_id INT NOT NULL,"
+                    + "token INT NOT NULL,"
+                    + "entry_id INT NOT NULL,"
+                    + "PRIMARY KEY (user_id, token, entry_id),"
+                    + "FOREIGN KEY (entry_id) REFERENCES password_entries(id) ON DELETE CASCADE"
+                    + ")");
+            stmt.execute("CREATE INDEX idx_search_tokens_entry ON password_entry_search_tokens (entry_id)");
+        }
+        SearchTokens.rebuild(conn, null);
+    }
+}
@@ -0,0 +1,160 @@
+package com.golubovicluka.passwordmanagementsystem.dao;
+
+import com.golubovicluka.passwordmanagementsystem.model.PasswordEntry;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.ToIntFunction;
+
+/**
+ * Maintains the trigram index in {@code password_entry_search_tokens} that
+ * backs {@link PasswordEntryDAO#searchEntries(int, String, int)}.
+ *
+ * Every entry is indexed with the hashes of all three-character sequences of
+ * its lower-cased website and username. A substring query can only match
+ * entries that carry every trigram of the query, so the index narrows a
+ * search to a few candidates that are then checked with {@code LIKE}. Hash
+ * collisions only add candidates and never hide a match. The index is
+ * derived data: it is written together with the entries and can be rebuilt
+ * from them at any time.
+ */
+final class SearchTokens {
+
+    /** Number of characters per indexed sequence */
+    static final int GRAM_LENGTH = 3;
+
+    private static final String INSERT_QUERY =
+            "INSERT INTO password_entry_search_tokens (entry_id, user_id, token) VALUES (?, ?, ?)";
+
+    private SearchTokens() {
+    }
+
+    /**
+     * Normalizes text the way it is indexed and searched.
+     *
+     * @param text The text, may be null
+     * @return The trimmed, lower-cased text, empty for null
+     */
+    static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Computes the tokens of the given values.
+     *
+     * @param values The texts to tokenize, null values are skipped
+     * @return The hashes of all trigrams of the normalized values
+     */
+    static Set<Integer> tokensOf(String... values) {
+        Set<Integer> tokens = new HashSet<>();
+        for (String value : values) {
+            int[] codePoints = normalize(value).codePoints().toArray();
+            for (int i = 0; i + GRAM_LENGTH <= codePoints.length; i++) {
+                tokens.add(new String(codePoints, i, GRAM_LENGTH).hashCode());
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Replaces the tokens of the given entries with tokens of their current
+     * website and username. Must run in the transaction that writes the
+     * entries.
+     *
+     * @param conn    The connection of the current transaction
+     * @param entries Stored entries with their id set
+     * @param ownerOf Gives the owning user id of an entry
+     * @throws SQLException If the tokens cannot be written
+     */
+    static void index(Connection conn, List<PasswordEntry> entries, ToIntFunction<PasswordEntry> ownerOf)
+            throws SQLException {
+        for (int start = 0; start < entries.size(); start += PasswordEntryDAO.BATCH_SIZE) {
+            List<PasswordEntry> chunk = entries.subList(start,
+                    Math.min(start + PasswordEntryDAO.BATCH_SIZE, entries.size()));
+            try (PreparedStatement delete = conn.prepareStatement(
+                    "DELETE FROM password_entry_search_tokens WHERE entry_id IN ("
+                            + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")")) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    delete.setInt(i + 1, chunk.get(i).getId());
+                }
+                delete.executeUpdate();
+            }
+
+            try (PreparedStatement insert = conn.prepareStatement(INSERT_QUERY)) {
+                int batched = 0;
+                for (PasswordEntry entry : chunk) {
+                    batched = addTokens(insert, entry.getId(), ownerOf.applyAsInt(entry), entry.getWebsite(),
+                            entry.getUsername(), batched);
+                }
+                insert.executeBatch();
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the tokens of entries from the stored rows, e.g. after the
+     * rows were copied to another shard or when the index is first created.
+     *
+     * @param conn   The connection to rebuild on, inside a transaction
+     * @param userId The ID of the user whose entries to index, or null for
+     *               all entries
+     * @return The number of entries that were indexed
+     * @throws SQLException If the tokens cannot be written
+     */
+    static int rebuild(Connection conn, Integer userId) throws SQLException {
+        String where = userId != null ? " WHERE user_id = ?" : "";
+        try (PreparedStatement delete = conn.prepareStatement("DELETE FROM password_entry_search_tokens" + where)) {
+            if (userId != null) {
+                delete.setInt(1, userId);
+            }
+            delete.executeUpdate();
+        }
+
+        int indexed = 0;
+        try (PreparedStatement select = conn.prepareStatement(
+                "SELECT id, user_id, website, username FROM password_entries" + where);
+                PreparedStatement insert = conn.prepareStatement(INSERT_QUERY)) {
+            if (userId != null) {
+                select.setInt(1, userId);
+            }
+            try (ResultSet rs = select.executeQuery()) {
+                int batched = 0;
+                while (rs.next()) {
+                    batched = addTokens(insert, rs.getInt(1), rs.getInt(2), rs.getString(3), rs.getString(4),
+                            batched);
+                    indexed++;
+                }
+            }
+            insert.executeBatch();
+        }
+        return indexed;
+    }
+
+    /**
+     * Adds the token rows of one entry to the insert batch, sending the batch
+     * whenever it reaches {@link PasswordEntryDAO#BATCH_SIZE} rows.
+     *
+     * @return The number of rows left in the batch
+     */
+    private static int addTokens(PreparedStatement insert, int entryId, int userId, String website,
+            String username, int batched) throws SQLException {
+        for (int token : tokensOf(website, username)) {
+            insert.setInt(1, entryId);
+            insert.setInt(2, userId);
+            insert.setInt(3, token);
+            insert.addBatch();
+            if (++batched == PasswordEntryDAO.BATCH_SIZE) {
+                insert.executeBatch();
+                batched = 0;
+            }
+        }
+        return batched;
+    }
+}
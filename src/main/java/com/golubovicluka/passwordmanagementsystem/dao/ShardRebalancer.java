@@ -0,0 +1,313 @@
+package com.golubovicluka.passwordmanagementsystem.dao;
+
+import com.golubovicluka.passwordmanagementsystem.exception.DatabaseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Moves users between shards.
+ * A move copies the user's categories, entries and tombstones to the target
+ * shard with their ids and versions, rebuilds the user's search index there,
+ * switches the placement in the directory and then deletes the rows from the
+ * source shard.
+ *
+ * The move holds the user's {@link PlacementLock}, a row lock in the
+ * directory that every write to the user's data takes, so writes of every
+ * process wait for the switch and then go to the target shard. Reads are not
+ * fenced: a process that cached the old placement reads from the source for
+ * up to {@link ShardRouter#PLACEMENT_TTL_NANOS} and, once the source rows are
+ * deleted, sees no data for the user until then. Moves can run from the
+ * command line next to running instances, e.g. with
+ * {@code java ... com.golubovicluka.passwordmanagementsystem.dao.ShardRebalancer <userId> <shard>}.
+ */
+public class ShardRebalancer {
+    private static final Logger logger = LoggerFactory.getLogger(ShardRebalancer.class);
+
+    /** User data tables, parents first so that foreign keys are satisfied while copying */
+    private static final List<String> USER_TABLES = List.of(
+            "categories", "password_entries", "password_entry_tombstones");
+
+    /** User tables derived from the copied rows, rebuilt on the target instead of copied */
+    private static final List<String> DERIVED_TABLES = List.of("password_entry_search_tokens");
+
+    private final DatabaseConnection database;
+
+    /**
+     * Constructs a rebalancer for the application's database.
+     */
+    public ShardRebalancer() {
+        this(DatabaseConnection.getInstance());
+    }
+
+    /**
+     * Constructs a rebalancer for the given database.
+     *
+     * @param database The sharded database
+     */
+    ShardRebalancer(DatabaseConnection database) {
+        this.database = database;
+    }
+
+    /**
+     * Moves a user's data to another shard.
+     *
+     * @param userId      The ID of the user to move
+     * @param targetShard The shard to move the user to, 0 for the primary
+     * @return The number of rows moved, 0 if the user already is on the target
+     * @throws IllegalArgumentException If the target shard does not exist
+     * @throws DatabaseException        If the move fails; the user's data stays
+     *                                  on the source shard in that case, unless
+     *                                  the message says the user was moved and
+     *                                  only the source rows are left over
+     */
+    public int moveUser(int userId, int targetShard) {
+        if (targetShard < 0 || targetShard >= database.getShardCount()) {
+            throw new IllegalArgumentException("Unknown shard: " + targetShard);
+        }
+
+        long start = System.nanoTime();
+        int sourceShard;
+        int moved;
+        try (PlacementLock placement = PlacementLock.acquire(database, userId)) {
+            sourceShard = placement.shard();
+            if (sourceShard == targetShard) {
+                return 0;
+            }
+            moved = switchShard(placement, userId, sourceShard, targetShard);
+        } catch (SQLException e) {
+            logger.error("Error moving user {} to shard {}: {}", userId, targetShard, e.getMessage());
+            throw new DatabaseException("Failed to move user to shard " + targetShard, e);
+        }
+        database.recordWrite(userId);
+
+        if (sourceShard != 0) {
+            removeLeftovers(userId, sourceShard, targetShard);
+        }
+        logger.info("Moved {} rows of user {} from shard {} to shard {} in {} ms", moved, userId, sourceShard,
+                targetShard, (System.nanoTime() - start) / 1_000_000);
+        return moved;
+    }
+
+    /**
+     * Copies a user's rows to the target shard and records the new placement
+     * while the placement lock is held. The copy to the primary, the removal
+     * from the primary and the placement share the directory transaction; a
+     * copy to another shard commits first, replacing whatever an earlier,
+     * failed move left there.
+     *
+     * @return The number of rows copied
+     * @throws SQLException If the copy or the switch fails
+     */
+    private int switchShard(PlacementLock placement, int userId, int sourceShard, int targetShard)
+            throws SQLException {
+        Connection directory = placement.directory();
+        Connection source = sourceShard == 0 ? directory : database.getShardConnection(sourceShard);
+        try {
+            int copied;
+            if (targetShard == 0) {
+                copied = copyUser(source, directory, userId, targetShard);
+            } else {
+                try (Connection target = database.getShardConnection(targetShard)) {
+                    target.setAutoCommit(false);
+                    try {
+                        copied = copyUser(source, target, userId, targetShard);
+                        target.commit();
+                    } catch (SQLException | RuntimeException e) {
+                        target.rollback();
+                        throw e;
+                    } finally {
+                        target.setAutoCommit(true);
+                    }
+                }
+            }
+
+            database.getShardRouter().assign(directory, userId, targetShard);
+            if (sourceShard == 0) {
+                deleteUser(directory, userId, false);
+            }
+            placement.commit();
+            return copied;
+        } finally {
+            if (source != directory) {
+                source.close();
+            }
+        }
+    }
+
+    /**
+     * Deletes a moved user's rows from a source shard other than the primary.
+     * The placement is locked and checked again first, so rows of a user that
+     * was moved back meanwhile are kept.
+     *
+     * @throws DatabaseException If the rows cannot be deleted; they are not
+     *                           read anymore and are replaced if the user is
+     *                           moved back
+     */
+    private void removeLeftovers(int userId, int sourceShard, int targetShard) {
+        try (PlacementLock placement = PlacementLock.acquire(database, userId);
+                Connection source = database.getShardConnection(sourceShard)) {
+            if (placement.shard() == sourceShard) {
+                return;
+            }
+            source.setAutoCommit(false);
+            try {
+                deleteUser(source, userId, true);
+                source.commit();
+            } catch (SQLException | RuntimeException e) {
+                source.rollback();
+                throw e;
+            } finally {
+                source.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            logger.error("User {} was moved to shard {} but its rows could not be removed from shard {}: {}",
+                    userId, targetShard, sourceShard, e.getMessage());
+            throw new DatabaseException("User was moved to shard " + targetShard
+                    + " but its rows could not be removed from shard " + sourceShard, e);
+        }
+    }
+
+    /**
+     * Copies a user's rows from the source to the target in the target's
+     * current transaction, replacing whatever the target holds for the user.
+     *
+     * @param source      A connection to the shard that stores the user's data
+     * @param target      A connection to the shard to copy to
+     * @param userId      The ID of the user
+     * @param targetShard The shard to copy to
+     * @return The number of rows copied
+     * @throws SQLException If the copy fails
+     */
+    private int copyUser(Connection source, Connection target, int userId, int targetShard) throws SQLException {
+        deleteUser(target, userId, false);
+        copyUserRow(source, target, userId, targetShard);
+
+        int copied = 0;
+        for (String table : USER_TABLES) {
+            copied += copyRows(source, target, table, userId);
+        }
+        SearchTokens.rebuild(target, userId);
+        return copied;
+    }
+
+    /**
+     * Carries the user's data version over to the target shard, so delta reads
+     * continue from the same version after the move.
+     */
+    private void copyUserRow(Connection source, Connection target, int userId, int targetShard)
+            throws SQLException {
+        long dataVersion = DataVersions.current(source, userId);
+        if (targetShard == 0) {
+            try (PreparedStatement stmt = target.prepareStatement(
+                    "UPDATE users SET data_version = ? WHERE id = ?")) {
+                stmt.setLong(1, dataVersion);
+                stmt.setInt(2, userId);
+                stmt.executeUpdate();
+            }
+            return;
+        }
+
+        String username;
+        try (PreparedStatement stmt = source.prepareStatement("SELECT username FROM users WHERE id = ?")) {
+            stmt.setInt(1, userId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) {
+                    throw new SQLException("User not found: " + userId);
+                }
+                username = rs.getString(1);
+            }
+        }
+        try (PreparedStatement stmt = target.prepareStatement("DELETE FROM users WHERE id = ?")) {
+            stmt.setInt(1, userId);
+            stmt.executeUpdate();
+        }
+        UserDAO.insertShardUser(target, userId, username, dataVersion);
+    }
+
+    /**
+     * Copies the rows of one table that belong to a user, column by column.
+     *
+     * @return The number of rows copied
+     */
+    private int copyRows(Connection source, Connection target, String table, int userId) throws SQLException {
+        try (PreparedStatement select = source.prepareStatement("SELECT * FROM " + table + " WHERE user_id = ?")) {
+            select.setInt(1, userId);
+            try (ResultSet rs = select.executeQuery()) {
+                ResultSetMetaData metaData = rs.getMetaData();
+                List<String> columns = new ArrayList<>(metaData.getColumnCount());
+                for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                    columns.add(metaData.getColumnLabel(i));
+                }
+                String insert = "INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES ("
+                        + String.join(", ", Collections.nCopies(columns.size(), "?")) + ")";
+
+                int copied = 0;
+                try (PreparedStatement stmt = target.prepareStatement(insert)) {
+                    while (rs.next()) {
+                        for (int i = 1; i <= columns.size(); i++) {
+                            stmt.setObject(i, rs.getObject(i));
+                        }
+                        stmt.addBatch();
+                        if (++copied % PasswordEntryDAO.BATCH_SIZE == 0) {
+                            stmt.executeBatch();
+                        }
+                    }
+                    stmt.executeBatch();
+                }
+                return copied;
+            }
+        }
+    }
+
+    /**
+     * Deletes a user's rows from a shard, children first.
+     *
+     * @param conn           A connection to the shard
+     * @param userId         The ID of the user
+     * @param deleteUserRow  Whether to delete the shard's user row too; never
+     *                       set for the primary, which keeps the directory
+     */
+    private void deleteUser(Connection conn, int userId, boolean deleteUserRow) throws SQLException {
+        List<String> tables = new ArrayList<>(USER_TABLES);
+        tables.addAll(DERIVED_TABLES);
+        Collections.reverse(tables);
+        if (deleteUserRow) {
+            tables.add("users");
+        }
+        for (String table : tables) {
+            String column = table.equals("users") ? "id" : "user_id";
+            try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM " + table + " WHERE " + column + " = ?")) {
+                stmt.setInt(1, userId);
+                stmt.executeUpdate();
+            }
+        }
+    }
+
+    /**
+     * Moves one user from the command line, with the same configuration as
+     * the application.
+     *
+     * @param args The user id and the target shard
+     */
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.err.println("Usage: ShardRebalancer <userId> <targetShard>");
+            System.exit(2);
+        }
+        try {
+            int moved = new ShardRebalancer().moveUser(Integer.parseInt(args[0]), Integer.parseInt(args[1]));
+            System.out.println("Moved " + moved + " rows");
+        } finally {
+            DatabaseConnection.shutdown();
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.golubovicluka.passwordmanagementsystem.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Maps users to the shard that stores their categories and password entries.
+ * Shard 0 is the primary database; it also holds the {@code users} directory
+ * and the {@code user_shards} table that records where each user lives.
+ *
+ * New users are placed with the configured {@link Strategy} and the placement
+ * is recorded, so adding shards or moving a user with {@link ShardRebalancer}
+ * never changes where existing data is looked up. Users without a recorded
+ * placement live on shard 0, which is where all data was kept before
+ * sharding was configured.
+ *
+ * Placements are cached for {@link #PLACEMENT_TTL_NANOS}, so reads notice a
+ * move made by another process within that time. Writes do not rely on the
+ * cache: they hold a {@link PlacementLock}, which locks the user in the
+ * directory and reads the placement again.
+ */
+final class ShardRouter {
+
+    /**
+     * How new users are spread over the shards.
+     */
+    enum Strategy {
+        /** Spreads user ids evenly over all shards */
+        HASH,
+        /** Fills shards by ascending user id ranges */
+        RANGE;
+
+        /**
+         * Parses a strategy name.
+         *
+         * @param name The strategy name, may be null
+         * @return The named strategy, HASH if the name is null
+         * @throws IllegalArgumentException If the name is not a known strategy
+         */
+        static Strategy fromName(String name) {
+            if (name == null) {
+                return HASH;
+            }
+            try {
+                return valueOf(name.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown shard strategy: " + name, e);
+            }
+        }
+    }
+
+    /** How long a placement read from the directory is used for reads */
+    static final long PLACEMENT_TTL_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private final int shardCount;
+    private final Strategy strategy;
+    private final int[] rangeBounds;
+
+    /** Recorded placements, loaded from the directory on first use */
+    private final Map<Integer, Placement> placements = new ConcurrentHashMap<>();
+
+    /**
+     * A user's shard and when it was read from the directory.
+     */
+    private record Placement(int shard, long loadedAt) {
+    }
+
+    /**
+     * Constructs a router over the given number of shards.
+     *
+     * @param shardCount  The number of shards, including the primary
+     * @param strategy    How new users are placed
+     * @param rangeBounds For RANGE, the exclusive upper user id bound of every
+     *                    shard but the last, in ascending order
+     * @throws IllegalArgumentException If the range bounds do not match the
+     *                                  shard count
+     */
+    ShardRouter(int shardCount, Strategy strategy, int[] rangeBounds) {
+        if (strategy == Strategy.RANGE && rangeBounds.length != shardCount - 1) {
+            throw new IllegalArgumentException("Range sharding over " + shardCount + " shards needs "
+                    + (shardCount - 1) + " range bounds, got " + rangeBounds.length);
+        }
+        this.shardCount = shardCount;
+        this.strategy = strategy;
+        this.rangeBounds = rangeBounds.clone();
+        Arrays.sort(this.rangeBounds);
+    }
+
+    /**
+     * Constructs a router for an unsharded database.
+     *
+     * @return A router that maps every user to shard 0
+     */
+    static ShardRouter singleShard() {
+        return new ShardRouter(1, Strategy.HASH, new int[0]);
+    }
+
+    /**
+     * Gets the number of shards, including the primary.
+     *
+     * @return The shard count
+     */
+    int getShardCount() {
+        return shardCount;
+    }
+
+    /**
+     * Chooses the shard of a new user with the configured strategy.
+     *
+     * @param userId The ID of the new user
+     * @return The shard to store the user's data on
+     */
+    int placeNewUser(int userId) {
+        if (shardCount == 1) {
+            return 0;
+        }
+        if (strategy == Strategy.RANGE) {
+            int shard = 0;
+            while (shard < rangeBounds.length && userId >= rangeBounds[shard]) {
+                shard++;
+            }
+            return shard;
+        }
+        // Murmur3 finalizer, so that consecutive ids do not fill shards in turn
+        int hash = userId;
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return Math.floorMod(hash, shardCount);
+    }
+
+    /**
+     * Gets the recorded shard of a user if it has been looked up recently.
+     *
+     * @param userId The ID of the user
+     * @return The shard, 0 when unsharded, or null if it must be looked up
+     */
+    Integer cachedShardFor(int userId) {
+        if (shardCount == 1) {
+            return 0;
+        }
+        Placement placement = placements.get(userId);
+        if (placement == null || System.nanoTime() - placement.loadedAt() > PLACEMENT_TTL_NANOS) {
+            return null;
+        }
+        return placement.shard();
+    }
+
+    /**
+     * Looks up the recorded shard of a user in the directory.
+     *
+     * @param directory A connection to shard 0
+     * @param userId    The ID of the user
+     * @return The shard of the user, 0 if no placement is recorded
+     * @throws SQLException If the lookup fails
+     */
+    int loadShardFor(Connection directory, int userId) throws SQLException {
+        try (PreparedStatement stmt = directory.prepareStatement(
+                "SELECT shard_id FROM user_shards WHERE user_id = ?")) {
+            stmt.setInt(1, userId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                int shard = rs.next() ? rs.getInt(1) : 0;
+                placements.put(userId, new Placement(shard, System.nanoTime()));
+                return shard;
+            }
+        }
+    }
+
+    /**
+     * Locks a user in the directory and looks up the recorded shard. The lock
+     * is held until the directory transaction ends, and every process takes
+     * it before it writes the user's data or moves the user.
+     *
+     * @param directory A connection to shard 0 with auto-commit disabled
+     * @param userId    The ID of the user
+     * @return The shard of the user, 0 if no placement is recorded
+     * @throws SQLException If the user does not exist or cannot be locked
+     */
+    int lockShardFor(Connection directory, int userId) throws SQLException {
+        try (PreparedStatement stmt = directory.prepareStatement("SELECT id FROM users WHERE id = ? FOR UPDATE")) {
+            stmt.setInt(1, userId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) {
+                    throw new SQLException("User not found: " + userId);
+                }
+            }
+        }
+        return loadShardFor(directory, userId);
+    }
+
+    /**
+     * Records the shard of a user in the directory.
+     *
+     * @param directory A connection to shard 0
+     * @param userId    The ID of the user
+     * @param shard     The shard that now stores the user's data
+     * @throws SQLException If the placement cannot be written
+     */
+    void assign(Connection directory, int userId, int shard) throws SQLException {
+        try (PreparedStatement update = directory.prepareStatement(
+                "UPDATE user_shards SET shard_id = ? WHERE user_id = ?")) {
+            update.setInt(1, shard);
+            update.setInt(2, userId);
+            if (update.executeUpdate() == 0) {
+                try (PreparedStatement insert = directory.prepareStatement(
+                        "INSERT INTO user_shards (user_id, shard_id) VALUES (?, ?)")) {
+                    insert.setInt(1, userId);
+                    insert.setInt(2, shard);
+                    insert.executeUpdate();
+                }
+            }
+        }
+        placements.put(userId, new Placement(shard, System.nanoTime()));
+    }
+}
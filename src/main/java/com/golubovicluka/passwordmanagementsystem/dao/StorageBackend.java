@@ -0,0 +1,131 @@
+package com.golubovicluka.passwordmanagementsystem.dao;
+
+import com.zaxxer.hikari.HikariConfig;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+
+/**
+ * The database engines the application can store its data in.
+ * {@link DatabaseConnection} asks the selected backend to configure its
+ * connection pool; the DAOs and schema migrations are the same for all of
+ * them.
+ *
+ * The backend is selected with the {@value #BACKEND_PROPERTY} setting of
+ * {@link DatabaseConfig}, e.g. {@code -Dpms.storage.backend=h2}. MySQL is used
+ * when it is not set.
+ */
+public enum StorageBackend {
+
+    /**
+     * A MySQL server, suited for shared multi-user installs.
+     */
+    MYSQL {
+        @Override
+        void configure(HikariConfig config) {
+            config.setJdbcUrl("jdbc:mysql://localhost:3306/passwordmanagement");
+            config.setUsername("root");
+            config.setPassword("root");
+            config.setMaximumPoolSize(10);
+            config.setMinimumIdle(5);
+
+            config.addDataSourceProperty("cachePrepStmts", "true");
+            config.addDataSourceProperty("prepStmtCacheSize", "250");
+            config.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+            config.addDataSourceProperty("useServerPrepStmts", "true");
+            config.addDataSourceProperty("rewriteBatchedStatements", "true");
+        }
+    },
+
+    /**
+     * An embedded H2 database stored in a local file, for single-user installs
+     * that should not need a database server. Queries run in-process, so there
+     * is no network round trip and no server to start.
+     */
+    H2_FILE {
+        @Override
+        void configure(HikariConfig config) {
+            config.setJdbcUrl(h2FileUrl(dataDirectory()));
+            config.setUsername("sa");
+            config.setPassword("");
+
+            // An embedded database gains nothing from many connections; a few
+            // cover the UI thread, the write-behind queue and background loads.
+            config.setMaximumPoolSize(4);
+            config.setMinimumIdle(1);
+        }
+    };
+
+    /** Setting that selects the backend */
+    public static final String BACKEND_PROPERTY = "pms.storage.backend";
+
+    /** System property that overrides the directory of the embedded database */
+    public static final String DATA_DIRECTORY_PROPERTY = "pms.storage.dir";
+
+    /** Page cache of the embedded database in KB, large enough to keep a typical vault in memory */
+    private static final int H2_CACHE_SIZE_KB = 65536;
+
+    /** Delay before committed changes are written to the file, in milliseconds */
+    private static final int H2_WRITE_DELAY_MILLIS = 500;
+
+    /**
+     * Applies the connection settings of this backend to a pool configuration.
+     *
+     * @param config The pool configuration to fill in
+     */
+    abstract void configure(HikariConfig config);
+
+    /**
+     * Parses a backend name. Besides the enum constant names, {@code h2} is
+     * accepted for {@link #H2_FILE}.
+     *
+     * @param name The backend name, may be null
+     * @return The named backend, MYSQL if the name is null or blank
+     * @throws IllegalArgumentException If the name is not a known backend
+     */
+    public static StorageBackend fromName(String name) {
+        if (name == null || name.isBlank()) {
+            return MYSQL;
+        }
+        String normalized = name.trim().toUpperCase(Locale.ROOT).replace('-', '_');
+        if (normalized.equals("H2")) {
+            return H2_FILE;
+        }
+        try {
+            return valueOf(normalized);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown storage backend: " + name, e);
+        }
+    }
+
+    /**
+     * Builds the JDBC URL of the embedded database stored in a directory.
+     * MySQL compatibility mode and lower-case identifiers let the MySQL SQL in
+     * the DAOs and migrations run unchanged.
+     *
+     * @param directory The directory holding the database file
+     * @return The H2 JDBC URL
+     */
+    static String h2FileUrl(Path directory) {
+        return "jdbc:h2:file:" + directory.resolve("vault").toAbsolutePath()
+                + ";MODE=MySQL"
+                + ";DATABASE_TO_LOWER=TRUE"
+                + ";CACHE_SIZE=" + H2_CACHE_SIZE_KB
+                + ";WRITE_DELAY=" + H2_WRITE_DELAY_MILLIS;
+    }
+
+    /**
+     * Gets the directory of the embedded database.
+     *
+     * @return The directory from {@value #DATA_DIRECTORY_PROPERTY}, or
+     *         {@code ~/.passwordmanager}
+     */
+    static Path dataDirectory() {
+        String directory = System.getProperty(DATA_DIRECTORY_PROPERTY);
+        if (directory != null && !directory.isBlank()) {
+            return Paths.get(directory);
+        }
+        return Paths.get(System.getProperty("user.home"), ".passwordmanager");
+    }
+}
@@ -0,0 +1,256 @@
+package com.golubovicluka.passwordmanagementsystem.dao;
+
+import com.golubovicluka.passwordmanagementsystem.exception.DatabaseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binds one connection and one transaction to the current thread, so several
+ * DAO calls share a single pool checkout and commit once:
+ *
+ * <pre>{@code
+ * try (UnitOfWork unit = UnitOfWork.beginForUser(userId)) {
+ *     Category category = categoryDAO.createCategory(userId, name, description);
+ *     passwordEntryDAO.addPasswordEntry(entry, userId);
+ *     unit.commit();
+ * }
+ * }</pre>
+ *
+ * While a unit is open, {@link DatabaseConnection} hands every request for a
+ * connection to the unit's shard out as a view of the bound connection. The
+ * view ignores {@code close()}, {@code setAutoCommit()} and {@code commit()},
+ * so the DAOs run unchanged inside the unit's transaction; a DAO that calls
+ * {@code rollback()} marks the unit rollback-only. Closing a unit that was not
+ * committed rolls it back. Connections to other shards are not affected.
+ *
+ * A unit begun for a user holds the user's {@link PlacementLock} until it is
+ * closed, so the user's data cannot move to another shard before the
+ * transaction commits; placement locks that DAOs take inside the unit are
+ * held until then as well. Side effects
+ * that must only happen once the data is committed, such as cache updates,
+ * are registered with {@link #afterCommit(Runnable)}.
+ */
+public final class UnitOfWork implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(UnitOfWork.class);
+
+    private static final ThreadLocal<UnitOfWork> CURRENT = new ThreadLocal<>();
+
+    private final int shard;
+    private final Connection connection;
+    private final Connection view;
+    private final PlacementLock placement;
+    private final List<PlacementLock> heldPlacements = new ArrayList<>();
+    private final List<Runnable> afterCommit = new ArrayList<>();
+    private boolean rollbackOnly = false;
+    private boolean committed = false;
+
+    private UnitOfWork(int shard, Connection connection, PlacementLock placement) {
+        this.shard = shard;
+        this.connection = connection;
+        this.placement = placement;
+        this.view = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "close", "commit", "setAutoCommit" -> {
+                            return null;
+                        }
+                        case "rollback" -> {
+                            if (args == null) {
+                                rollbackOnly = true;
+                                return null;
+                            }
+                        }
+                        case "unwrap" -> {
+                            if (args[0] == Connection.class) {
+                                return proxy;
+                            }
+                        }
+                        default -> {
+                        }
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    /**
+     * Begins a unit of work on the primary database, which holds the user
+     * directory.
+     *
+     * @return The open unit
+     * @throws DatabaseException     If no connection can be obtained
+     * @throws IllegalStateException If a unit is already open on this thread
+     */
+    public static UnitOfWork begin() {
+        return begin(null);
+    }
+
+    /**
+     * Begins a unit of work on the shard that stores a user's categories and
+     * entries.
+     *
+     * @param userId The ID of the user
+     * @return The open unit
+     * @throws DatabaseException     If no connection can be obtained
+     * @throws IllegalStateException If a unit is already open on this thread
+     */
+    public static UnitOfWork beginForUser(int userId) {
+        return begin(userId);
+    }
+
+    private static UnitOfWork begin(Integer userId) {
+        if (CURRENT.get() != null) {
+            throw new IllegalStateException("A unit of work is already open on this thread");
+        }
+        DatabaseConnection database = DatabaseConnection.getInstance();
+        PlacementLock placement = null;
+        Connection connection = null;
+        try {
+            int shard = 0;
+            if (userId != null) {
+                placement = PlacementLock.acquire(database, userId);
+                shard = placement.shard();
+                connection = placement.connection();
+            } else {
+                connection = database.getShardConnection(0);
+            }
+            connection.setAutoCommit(false);
+            UnitOfWork unit = new UnitOfWork(shard, connection, placement);
+            CURRENT.set(unit);
+            return unit;
+        } catch (SQLException e) {
+            if (placement != null) {
+                placement.release();
+            } else {
+                closeQuietly(connection);
+            }
+            logger.error("Error beginning unit of work: {}", e.getMessage());
+            throw new DatabaseException("Failed to begin unit of work", e);
+        }
+    }
+
+    /**
+     * Gets the connection view of the unit open on this thread, if it is bound
+     * to the given shard.
+     *
+     * @param shard The shard a connection is requested for
+     * @return The view of the bound connection, or null if the caller should
+     *         borrow one from the pool
+     */
+    static Connection connectionFor(int shard) {
+        UnitOfWork unit = CURRENT.get();
+        return unit != null && unit.shard == shard ? unit.view : null;
+    }
+
+    /**
+     * Runs an action once the unit open on this thread commits, or right away
+     * if no unit is open. The action is dropped if the unit rolls back. It
+     * runs outside the unit, so connections it requests come from the pool.
+     *
+     * @param action The action to run after the commit
+     */
+    public static void afterCommit(Runnable action) {
+        UnitOfWork unit = CURRENT.get();
+        if (unit != null) {
+            unit.afterCommit.add(action);
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Keeps a placement lock taken inside the unit open on this thread until
+     * the unit is closed.
+     *
+     * @param lock The lock the caller is done with
+     * @return true if the unit took the lock over, false if no unit is open
+     */
+    static boolean releaseOnClose(PlacementLock lock) {
+        UnitOfWork unit = CURRENT.get();
+        if (unit == null) {
+            return false;
+        }
+        unit.heldPlacements.add(lock);
+        return true;
+    }
+
+    /**
+     * Commits all work done in this unit and runs the after-commit actions.
+     *
+     * @throws DatabaseException If a DAO call in the unit failed and rolled
+     *                           back, or if the commit fails
+     */
+    public void commit() {
+        if (committed) {
+            throw new IllegalStateException("Unit of work is already committed");
+        }
+        if (rollbackOnly) {
+            throw new DatabaseException("Unit of work was rolled back by a failed operation");
+        }
+        try {
+            connection.commit();
+            committed = true;
+        } catch (SQLException e) {
+            logger.error("Error committing unit of work: {}", e.getMessage());
+            throw new DatabaseException("Failed to commit unit of work", e);
+        }
+        CURRENT.remove();
+        try {
+            for (Runnable action : afterCommit) {
+                action.run();
+            }
+        } finally {
+            afterCommit.clear();
+            CURRENT.set(this);
+        }
+    }
+
+    /**
+     * Rolls back the unit unless it was committed, returns its connection to
+     * the pool and releases the placement locks it holds.
+     */
+    @Override
+    public void close() {
+        if (CURRENT.get() == this) {
+            CURRENT.remove();
+        }
+        try {
+            if (!committed) {
+                connection.rollback();
+            }
+            connection.setAutoCommit(true);
+        } catch (SQLException e) {
+            logger.warn("Error rolling back unit of work: {}", e.getMessage());
+        } finally {
+            if (placement != null) {
+                placement.release();
+            } else {
+                closeQuietly(connection);
+            }
+            for (int i = heldPlacements.size() - 1; i >= 0; i--) {
+                heldPlacements.get(i).release();
+            }
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            logger.warn("Error returning unit of work connection: {}", e.getMessage());
+        }
+    }
+}
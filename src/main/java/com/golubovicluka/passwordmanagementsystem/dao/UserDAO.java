@@ -20,19 +20,14 @@ public class UserDAO {
     public Optional<User> findByUsername(String username) {
         String query = "SELECT * FROM users WHERE username = ?";
 
-        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+        try (Connection conn = DatabaseConnection.getInstance().getReadConnection(stickinessKey(username));
                 PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setString(1, username);
-            ResultSet rs = stmt.executeQuery();
-
-            if (rs.next()) {
-                User user = new User(
-                        rs.getInt("id"),
-                        rs.getString("username"),
-                        rs.getString("password_hash"),
-                        rs.getTimestamp("created_at").toLocalDateTime());
-                return Optional.of(user);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return Optional.of(RowMappers.user(rs).mapRow(rs));
+                }
             }
         } catch (SQLException e) {
             e.printStackTrace();
@@ -41,7 +36,9 @@ public class UserDAO {
     }
 
     /**
-     * Creates a new user in the database.
+     * Creates a new user in the database. The user is added to the directory
+     * on the primary and, when the data is sharded, placed on a shard once
+     * the directory row is committed.
      * 
      * @param username       The username for the new user
      * @param hashedPassword The hashed password for the new user
@@ -51,12 +48,21 @@ public class UserDAO {
         String sql = "INSERT INTO users (username, password_hash) VALUES (?, ?)";
 
         try (Connection conn = DatabaseConnection.getInstance().getConnection();
-                PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
 
             pstmt.setString(1, username);
             pstmt.setString(2, hashedPassword);
 
-            return pstmt.executeUpdate() > 0;
+            if (pstmt.executeUpdate() == 0) {
+                return false;
+            }
+            DatabaseConnection.getInstance().recordWrite(stickinessKey(username));
+            try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                if (generatedKeys.next()) {
+                    placeOnShard(generatedKeys.getInt(1), username);
+                }
+            }
+            return true;
         } catch (SQLIntegrityConstraintViolationException e) {
             return false;
         } catch (SQLException e) {
@@ -64,4 +70,110 @@ public class UserDAO {
             return false;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Replaces the password hash of a user, e.g. with a hash of the same
+     * password at a higher cost. The hash is only replaced if it is still the
+     * one the caller read, so a concurrent password change is not undone.
+     *
+     * @param userId  The ID of the user
+     * @param oldHash The hash the caller verified the password against
+     * @param newHash The new hash
+     * @return true if the hash was replaced, false otherwise
+     */
+    public boolean updatePasswordHash(int userId, String oldHash, String newHash) {
+        String sql = "UPDATE users SET password_hash = ? WHERE id = ? AND password_hash = ?";
+
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+                PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, newHash);
+            pstmt.setInt(2, userId);
+            pstmt.setString(3, oldHash);
+            return pstmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Places a new user on the shard chosen by the shard router. The shard's
+     * user row and the placement are written after the unit of work that
+     * creates the user commits, so a rolled back registration leaves nothing
+     * behind. If placing fails the shard's row is removed again and the user
+     * stays on the primary, which works just as well.
+     *
+     * @param userId   The ID of the new user
+     * @param username The username of the new user
+     */
+    private void placeOnShard(int userId, String username) {
+        DatabaseConnection database = DatabaseConnection.getInstance();
+        ShardRouter router = database.getShardRouter();
+        int shard = router.placeNewUser(userId);
+        if (shard == 0) {
+            return;
+        }
+
+        UnitOfWork.afterCommit(() -> {
+            try (Connection conn = database.getShardConnection(shard)) {
+                insertShardUser(conn, userId, username, 0);
+                try (Connection directory = database.getConnection()) {
+                    router.assign(directory, userId, shard);
+                } catch (SQLException e) {
+                    deleteShardUser(conn, userId);
+                    throw e;
+                }
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        });
+    }
+
+    /**
+     * Removes a shard's row of a user that could not be placed on the shard.
+     *
+     * @param shard  A connection to the shard
+     * @param userId The ID of the user
+     * @throws SQLException If the row cannot be deleted
+     */
+    private static void deleteShardUser(Connection shard, int userId) throws SQLException {
+        try (PreparedStatement stmt = shard.prepareStatement("DELETE FROM users WHERE id = ?")) {
+            stmt.setInt(1, userId);
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Inserts the row a shard needs for a user's categories and entries and
+     * their data version. Logins always use the directory on the primary, so
+     * the row has no usable password hash.
+     *
+     * @param shard       A connection to the shard
+     * @param userId      The ID of the user in the directory
+     * @param username    The username
+     * @param dataVersion The data version to start from
+     * @throws SQLException If the row cannot be inserted
+     */
+    static void insertShardUser(Connection shard, int userId, String username, long dataVersion)
+            throws SQLException {
+        try (PreparedStatement stmt = shard.prepareStatement(
+                "INSERT INTO users (id, username, password_hash, data_version) VALUES (?, ?, '!', ?)")) {
+            stmt.setInt(1, userId);
+            stmt.setString(2, username);
+            stmt.setLong(3, dataVersion);
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Gets the key that keeps the reads of a username on the primary database
+     * right after the user was created, e.g. the login following registration.
+     *
+     * @param username The username
+     * @return The read-your-writes key of the username
+     */
+    private static String stickinessKey(String username) {
+        return "username:" + username;
+    }
+}
@@ -0,0 +1,48 @@
+package com.golubovicluka.passwordmanagementsystem.exception;
+
+import com.golubovicluka.passwordmanagementsystem.model.PasswordEntry;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Thrown when password entries were changed by someone else since they were
+ * read, so an update would overwrite changes it has not seen. Carries the
+ * current state of the conflicting entries for resolving the conflict.
+ */
+public class EntryConflictException extends DatabaseException {
+    private final Map<Integer, PasswordEntry> currentEntries;
+
+    /**
+     * @param message        The detail message
+     * @param currentEntries The stored state of each conflicting entry keyed by
+     *                       id, with a null value for entries that were deleted
+     */
+    public EntryConflictException(String message, Map<Integer, PasswordEntry> currentEntries) {
+        super(message);
+        this.currentEntries = Collections.unmodifiableMap(currentEntries);
+    }
+
+    /**
+     * Checks whether an entry is one of the conflicting entries. Other entries
+     * written in the same batch were rolled back without a conflict of their
+     * own and can be written again as they are.
+     *
+     * @param entryId The ID of the entry
+     * @return true if the entry was changed by someone else
+     */
+    public boolean isConflicting(int entryId) {
+        return currentEntries.containsKey(entryId);
+    }
+
+    /**
+     * Gets the stored state of a conflicting entry.
+     *
+     * @param entryId The ID of the entry
+     * @return The entry as currently stored, or null if it was deleted or is
+     *         not conflicting
+     */
+    public PasswordEntry getCurrentEntry(int entryId) {
+        return currentEntries.get(entryId);
+    }
+}
@@ -1,5 +1,7 @@
 package com.golubovicluka.passwordmanagementsystem.model;
 
+import java.time.LocalDateTime;
+
 /**
  * Represents a password entry in the password management system.
  * This class corresponds to the 'password_entries' table in the database and
@@ -16,6 +18,8 @@ public class PasswordEntry {
     private Category category;
     private String favicon;
     private String title;
+    private long rowVersion;
+    private LocalDateTime deletedAt;
 
     /**
      * Constructor for creating a new password entry with basic information
@@ -52,6 +56,20 @@ public class PasswordEntry {
         this.favicon = favicon;
     }
 
+    /**
+     * Copy constructor creating a detached snapshot of another password entry.
+     * The category reference is shared, all other fields are copied.
+     *
+     * @param other the password entry to copy
+     */
+    public PasswordEntry(PasswordEntry other) {
+        this(other.id, other.userId, other.website, other.username, other.password, other.category, other.favicon);
+        this.websiteUrl = other.websiteUrl;
+        this.title = other.title;
+        this.rowVersion = other.rowVersion;
+        this.deletedAt = other.deletedAt;
+    }
+
     /**
      * Gets the username associated with this password entry
      *
@@ -213,4 +231,43 @@ public class PasswordEntry {
     public void setUserId(int userId) {
         this.userId = userId;
     }
-}
\ No newline at end of file
+
+    /**
+     * Gets the version of the stored row this entry was read from or last
+     * written as. Updates only succeed while the stored row still has this
+     * version.
+     *
+     * @return the row version, 0 for an entry that was never stored
+     */
+    public long getRowVersion() {
+        return rowVersion;
+    }
+
+    /**
+     * Sets the version of the stored row this entry corresponds to
+     *
+     * @param rowVersion the row version to set
+     */
+    public void setRowVersion(long rowVersion) {
+        this.rowVersion = rowVersion;
+    }
+
+    /**
+     * Gets when this entry was moved to the trash
+     *
+     * @return the deletion time, or null if the entry is not in the trash
+     */
+    public LocalDateTime getDeletedAt() {
+        return deletedAt;
+    }
+
+    /**
+     * Sets when this entry was moved to the trash
+     *
+     * @param deletedAt the deletion time, or null if the entry is not in the
+     *                  trash
+     */
+    public void setDeletedAt(LocalDateTime deletedAt) {
+        this.deletedAt = deletedAt;
+    }
+}
@@ -0,0 +1,23 @@
+package com.golubovicluka.passwordmanagementsystem.model;
+
+import java.util.List;
+
+/**
+ * The changes to a user's password entries since a known data version.
+ *
+ * @param changed    Entries that were added or modified, in id order
+ * @param deletedIds IDs of entries that were deleted
+ * @param version    The data version the delta brings the caller up to; pass
+ *                   it as the starting version of the next delta read
+ */
+public record PasswordEntryDelta(List<PasswordEntry> changed, List<Integer> deletedIds, long version) {
+
+    /**
+     * Returns whether nothing changed since the requested version.
+     *
+     * @return true if there are neither changed nor deleted entries
+     */
+    public boolean isEmpty() {
+        return changed.isEmpty() && deletedIds.isEmpty();
+    }
+}
@@ -0,0 +1,124 @@
+package com.golubovicluka.passwordmanagementsystem.service;
+
+import org.bouncycastle.crypto.generators.Argon2BytesGenerator;
+import org.bouncycastle.crypto.params.Argon2Parameters;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Argon2id hashes in the PHC string format,
+ * {@code $argon2id$v=19$m=<KiB>,t=<passes>,p=<lanes>$<salt>$<hash>}, computed
+ * with BouncyCastle. The memory cost makes guessing on GPUs expensive; note
+ * that every concurrent login holds that much memory while it hashes, which
+ * the {@link AuthExecutor} bounds to one hash per core.
+ */
+public class Argon2PasswordHasher implements PasswordHasher {
+    public static final String NAME = "argon2id";
+
+    private static final String PREFIX = "$argon2id$v=19$";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BYTES = 32;
+
+    private final int memoryKiB;
+    private final int iterations;
+    private final int parallelism;
+    private final SecureRandom random = new SecureRandom();
+
+    /**
+     * Constructs an Argon2id hasher.
+     *
+     * @param memoryKiB   The memory cost of new hashes in KiB
+     * @param iterations  The number of passes over the memory
+     * @param parallelism The number of lanes the memory is split into
+     * @throws IllegalArgumentException If a parameter is out of range
+     */
+    public Argon2PasswordHasher(int memoryKiB, int iterations, int parallelism) {
+        if (parallelism <= 0 || iterations <= 0 || memoryKiB < 8 * parallelism) {
+            throw new IllegalArgumentException(
+                    "Argon2 needs positive passes and lanes and at least 8 KiB of memory per lane");
+        }
+        this.memoryKiB = memoryKiB;
+        this.iterations = iterations;
+        this.parallelism = parallelism;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public String hash(String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        Base64.Encoder encoder = Base64.getEncoder().withoutPadding();
+        return PREFIX + "m=" + memoryKiB + ",t=" + iterations + ",p=" + parallelism + "$"
+                + encoder.encodeToString(salt) + "$"
+                + encoder.encodeToString(derive(password, salt, memoryKiB, iterations, parallelism, HASH_BYTES));
+    }
+
+    @Override
+    public boolean supports(String hash) {
+        return hash != null && hash.startsWith(PREFIX);
+    }
+
+    @Override
+    public boolean verify(String password, String hash) {
+        String[] parts = hash.substring(PREFIX.length()).split("\\$");
+        int[] params = parameters(parts);
+        if (params == null || parts.length != 3) {
+            return false;
+        }
+        try {
+            byte[] salt = Base64.getDecoder().decode(parts[1]);
+            byte[] expected = Base64.getDecoder().decode(parts[2]);
+            return MessageDigest.isEqual(expected,
+                    derive(password, salt, params[0], params[1], params[2], expected.length));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public boolean needsRehash(String hash) {
+        int[] params = parameters(hash.substring(PREFIX.length()).split("\\$"));
+        return params == null || params[0] < memoryKiB || params[1] < iterations || params[2] < parallelism;
+    }
+
+    /**
+     * Reads {@code m=..,t=..,p=..} from the first part of a hash.
+     *
+     * @return The memory, passes and lanes, or null if they cannot be read
+     */
+    private static int[] parameters(String[] parts) {
+        String[] values = parts[0].split(",");
+        if (values.length != 3 || !values[0].startsWith("m=") || !values[1].startsWith("t=")
+                || !values[2].startsWith("p=")) {
+            return null;
+        }
+        try {
+            return new int[] { Integer.parseInt(values[0].substring(2)), Integer.parseInt(values[1].substring(2)),
+                    Integer.parseInt(values[2].substring(2)) };
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static byte[] derive(String password, byte[] salt, int memoryKiB, int iterations, int parallelism,
+            int length) {
+        Argon2BytesGenerator generator = new Argon2BytesGenerator();
+        generator.init(new Argon2Parameters.Builder(Argon2Parameters.ARGON2_id)
+                .withVersion(Argon2Parameters.ARGON2_VERSION_13)
+                .withSalt(salt)
+                .withMemoryAsKB(memoryKiB)
+                .withIterations(iterations)
+                .withParallelism(parallelism)
+                .build());
+        byte[] result = new byte[length];
+        generator.generateBytes(password.getBytes(StandardCharsets.UTF_8), result);
+        return result;
+    }
+}
@@ -0,0 +1,234 @@
+package com.golubovicluka.passwordmanagementsystem.service;
+
+import com.golubovicluka.passwordmanagementsystem.dao.LatencyHistogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bounded executor for the CPU-heavy password hashing of logins.
+ *
+ * It has one worker per available core and a short queue in front of them.
+ * When the queue is full, a new task fails right away with a
+ * {@link RejectedExecutionException}, which {@link AuthService} reports as
+ * {@link LoginResult.Status#TRY_AGAIN}: a burst of logins then costs a few
+ * retries instead of an ever-growing backlog that keeps every core busy and
+ * starves the rest of the application.
+ */
+public class AuthExecutor implements AuthExecutorMXBean {
+    private static final Logger logger = LoggerFactory.getLogger(AuthExecutor.class);
+
+    /** Queued hashes allowed per worker before new logins are rejected */
+    private static final int QUEUE_CAPACITY_PER_WORKER = 4;
+
+    private static final String OBJECT_NAME = "com.golubovicluka.passwordmanagementsystem:type=AuthExecutor";
+
+    private static volatile AuthExecutor instance;
+
+    private final ThreadPoolExecutor executor;
+    private final ArrayBlockingQueue<Runnable> queue;
+    private final LatencyHistogram queueWaits = new LatencyHistogram();
+    private final LatencyHistogram hashTimes = new LatencyHistogram();
+    private final LongAdder rejected = new LongAdder();
+    private ObjectName objectName;
+
+    /**
+     * Constructs an executor.
+     *
+     * @param workers       The number of hashes computed at the same time
+     * @param queueCapacity The number of hashes that may wait for a worker
+     */
+    AuthExecutor(int workers, int queueCapacity) {
+        if (workers <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("Worker count and queue capacity must be positive");
+        }
+        AtomicInteger counter = new AtomicInteger();
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.executor = new ThreadPoolExecutor(workers, workers, 60, TimeUnit.SECONDS, queue, runnable -> {
+            Thread thread = new Thread(runnable, "auth-worker-" + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Gets the application-wide executor, creating it on first use with one
+     * worker per available core.
+     *
+     * @return The shared executor
+     */
+    public static AuthExecutor getInstance() {
+        AuthExecutor result = instance;
+        if (result != null) {
+            return result;
+        }
+        synchronized (AuthExecutor.class) {
+            if (instance == null) {
+                int workers = Runtime.getRuntime().availableProcessors();
+                AuthExecutor created = new AuthExecutor(workers, workers * QUEUE_CAPACITY_PER_WORKER);
+                created.registerMBean();
+                logger.info("Authentication executor started with {} workers", workers);
+                instance = created;
+            }
+            return instance;
+        }
+    }
+
+    /**
+     * Runs a hashing task on a worker. Its run time is recorded as hash time.
+     *
+     * @param work The task to run
+     * @param <T>  The result type
+     * @return A future completed with the result of the task, or exceptionally
+     *         with its exception; failed with a
+     *         {@link RejectedExecutionException} right away if the queue is
+     *         full or the executor is shut down
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> work) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        long enqueued = System.nanoTime();
+        try {
+            executor.execute(() -> {
+                long started = System.nanoTime();
+                queueWaits.record(started - enqueued);
+                try {
+                    future.complete(work.get());
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                } finally {
+                    hashTimes.record(System.nanoTime() - started);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    @Override
+    public int getWorkerCount() {
+        return executor.getMaximumPoolSize();
+    }
+
+    @Override
+    public int getActiveTasks() {
+        return executor.getActiveCount();
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    @Override
+    public int getQueueCapacity() {
+        return queue.size() + queue.remainingCapacity();
+    }
+
+    @Override
+    public long getCompletedTasks() {
+        return executor.getCompletedTaskCount();
+    }
+
+    @Override
+    public long getRejectedTasks() {
+        return rejected.sum();
+    }
+
+    @Override
+    public double getQueueWaitMeanMicros() {
+        return queueWaits.getMeanMicros();
+    }
+
+    @Override
+    public long getQueueWaitP95Micros() {
+        return queueWaits.getPercentileMicros(95);
+    }
+
+    @Override
+    public long getQueueWaitP99Micros() {
+        return queueWaits.getPercentileMicros(99);
+    }
+
+    @Override
+    public double getHashTimeMeanMicros() {
+        return hashTimes.getMeanMicros();
+    }
+
+    @Override
+    public long getHashTimeP95Micros() {
+        return hashTimes.getPercentileMicros(95);
+    }
+
+    @Override
+    public long getHashTimeP99Micros() {
+        return hashTimes.getPercentileMicros(99);
+    }
+
+    /**
+     * Stops accepting logins and waits briefly for the running ones.
+     */
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                logger.warn("Authentication executor still had {} queued logins at shutdown", queue.size());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (objectName != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+            } catch (JMException e) {
+                logger.warn("Could not unregister authentication executor MBean: {}", e.getMessage());
+            }
+            objectName = null;
+        }
+    }
+
+    /**
+     * Shuts the shared executor down if it was created.
+     */
+    public static void shutdownInstance() {
+        AuthExecutor current;
+        synchronized (AuthExecutor.class) {
+            current = instance;
+            instance = null;
+        }
+        if (current != null) {
+            current.shutdown();
+        }
+    }
+
+    /**
+     * Registers the executor metrics with the platform MBean server. Failure
+     * to register only disables the JMX view.
+     */
+    private void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(this, name);
+                objectName = name;
+            }
+        } catch (JMException e) {
+            logger.warn("Could not register authentication executor MBean: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.golubovicluka.passwordmanagementsystem.service;
+
+/**
+ * JMX view of the {@link AuthExecutor} that runs password hashing for logins.
+ * Rejected tasks are logins that were asked to try again because every core
+ * was already busy hashing and the queue was full.
+ */
+public interface AuthExecutorMXBean {
+
+    int getWorkerCount();
+
+    int getActiveTasks();
+
+    int getQueueDepth();
+
+    int getQueueCapacity();
+
+    long getCompletedTasks();
+
+    long getRejectedTasks();
+
+    double getQueueWaitMeanMicros();
+
+    long getQueueWaitP95Micros();
+
+    long getQueueWaitP99Micros();
+
+    double getHashTimeMeanMicros();
+
+    long getHashTimeP95Micros();
+
+    long getHashTimeP99Micros();
+}
@@ -1,104 +1,298 @@
 package com.golubovicluka.passwordmanagementsystem.service;
 
+import com.golubovicluka.passwordmanagementsystem.dao.DatabaseExecutor;
+import com.golubovicluka.passwordmanagementsystem.dao.UnitOfWork;
 import com.golubovicluka.passwordmanagementsystem.dao.UserDAO;
 import com.golubovicluka.passwordmanagementsystem.model.User;
-import org.springframework.security.crypto.bcrypt.BCrypt;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Service class responsible for handling user authentication and registration
  * operations.
  * This class provides methods for user validation, password hashing, and user
  * registration.
- * It uses BCrypt for secure password hashing and implements asynchronous
+ * It hashes passwords with the configured {@link PasswordHasher}, BCrypt by
+ * default, and implements asynchronous
  * operations for
  * better performance.
  */
 public class AuthService {
+    private static final Logger logger = LoggerFactory.getLogger(AuthService.class);
+
     private final UserDAO userDAO;
-    private User authenticatedUser;
+    private final DatabaseExecutor databaseExecutor;
+    private final PasswordHashers passwordHashers;
+    private final AuthExecutor authExecutor;
+    private final LoginThrottle loginThrottle;
+    private final SessionStore sessionStore;
 
     /**
      * Constructs a new AuthService instance.
      * Initializes the UserDAO for database operations.
      */
     public AuthService() {
-        this.userDAO = new UserDAO();
+        this(new UserDAO());
     }
 
     public AuthService(UserDAO userDAO) {
+        this(userDAO, DatabaseExecutor.getInstance());
+    }
+
+    /**
+     * Constructs an AuthService that looks users up on the given executor.
+     *
+     * @param userDAO          The user DAO
+     * @param databaseExecutor The executor the blocking lookups run on
+     */
+    public AuthService(UserDAO userDAO, DatabaseExecutor databaseExecutor) {
+        this(userDAO, databaseExecutor, PasswordHashers.getInstance());
+    }
+
+    /**
+     * Constructs an AuthService that hashes passwords with the given
+     * algorithms.
+     *
+     * @param userDAO          The user DAO
+     * @param databaseExecutor The executor the blocking lookups run on
+     * @param passwordHashers  The algorithms passwords are hashed with
+     */
+    public AuthService(UserDAO userDAO, DatabaseExecutor databaseExecutor, PasswordHashers passwordHashers) {
+        this(userDAO, databaseExecutor, passwordHashers, AuthExecutor.getInstance());
+    }
+
+    /**
+     * Constructs an AuthService that checks passwords on the given executor.
+     *
+     * @param userDAO          The user DAO
+     * @param databaseExecutor The executor the blocking lookups run on
+     * @param passwordHashers  The algorithms passwords are hashed with
+     * @param authExecutor     The executor the password checks run on
+     */
+    public AuthService(UserDAO userDAO, DatabaseExecutor databaseExecutor, PasswordHashers passwordHashers,
+            AuthExecutor authExecutor) {
+        this(userDAO, databaseExecutor, passwordHashers, authExecutor, LoginThrottle.getInstance());
+    }
+
+    /**
+     * Constructs an AuthService that throttles failed logins with the given
+     * throttle.
+     *
+     * @param userDAO          The user DAO
+     * @param databaseExecutor The executor the blocking lookups run on
+     * @param passwordHashers  The algorithms passwords are hashed with
+     * @param authExecutor     The executor the password checks run on
+     * @param loginThrottle    The throttle checked before every login
+     */
+    public AuthService(UserDAO userDAO, DatabaseExecutor databaseExecutor, PasswordHashers passwordHashers,
+            AuthExecutor authExecutor, LoginThrottle loginThrottle) {
+        this(userDAO, databaseExecutor, passwordHashers, authExecutor, loginThrottle, SessionStore.getInstance());
+    }
+
+    /**
+     * Constructs an AuthService that opens sessions in the given store.
+     *
+     * @param userDAO          The user DAO
+     * @param databaseExecutor The executor the blocking lookups run on
+     * @param passwordHashers  The algorithms passwords are hashed with
+     * @param authExecutor     The executor the password checks run on
+     * @param loginThrottle    The throttle checked before every login
+     * @param sessionStore     The store successful logins open sessions in
+     */
+    public AuthService(UserDAO userDAO, DatabaseExecutor databaseExecutor, PasswordHashers passwordHashers,
+            AuthExecutor authExecutor, LoginThrottle loginThrottle, SessionStore sessionStore) {
         this.userDAO = userDAO;
+        this.databaseExecutor = databaseExecutor;
+        this.passwordHashers = passwordHashers;
+        this.authExecutor = authExecutor;
+        this.loginThrottle = loginThrottle;
+        this.sessionStore = sessionStore;
     }
 
     /**
      * Validates user credentials asynchronously.
      * This method checks if the provided username exists and if the password
      * matches
-     * the stored hash.
+     * the stored hash, see {@link #authenticate(String, String)}.
      *
      * @param username The username to validate
      * @param password The plain text password to verify
      * @return A CompletableFuture containing the User object if authentication is
      *         successful,
-     *         or null if authentication fails
+     *         or null if authentication fails or has to be retried
      */
     public CompletableFuture<User> validateUser(String username, String password) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                User user = userDAO.findByUsername(username)
-                        .filter(u -> BCrypt.checkpw(password, u.getPasswordHash()))
-                        .orElse(null);
-
-                if (user != null) {
-                    this.authenticatedUser = user;
-                    return user;
-                }
-                return null;
-            } catch (Exception e) {
-                e.printStackTrace();
+        return authenticate(username, password).thenApply(LoginResult::user);
+    }
+
+    /**
+     * Checks user credentials of a login made on this machine asynchronously.
+     *
+     * @param username The username to check
+     * @param password The plain text password to verify
+     * @return A CompletableFuture with the outcome; it does not complete
+     *         exceptionally
+     * @see #authenticate(String, String, String)
+     */
+    public CompletableFuture<LoginResult> authenticate(String username, String password) {
+        return authenticate(username, password, LoginThrottle.LOCAL_CLIENT);
+    }
+
+    /**
+     * Checks user credentials asynchronously. The {@link LoginThrottle} is
+     * consulted first: a username or client with too many recent failures is
+     * answered with {@link LoginResult.Status#THROTTLED} without any database
+     * or hashing work. Otherwise the lookup runs on the bounded
+     * {@link DatabaseExecutor} and the password check on the bounded
+     * {@link AuthExecutor}, not on the common ForkJoinPool. If either
+     * executor is saturated, the attempt is not queued but answered with
+     * {@link LoginResult.Status#TRY_AGAIN}. A successful login opens a
+     * {@link Session} in the {@link SessionStore}, and a stored hash of
+     * another algorithm or with weaker parameters than configured is replaced.
+     *
+     * @param username The username to check
+     * @param password The plain text password to verify
+     * @param client   The client the login comes from
+     * @return A CompletableFuture with the outcome; it does not complete
+     *         exceptionally
+     */
+    public CompletableFuture<LoginResult> authenticate(String username, String password, String client) {
+        long retryAfter = loginThrottle.retryAfterMillis(username, client);
+        if (retryAfter > 0) {
+            return CompletableFuture.completedFuture(LoginResult.throttled(retryAfter));
+        }
+        return databaseExecutor.submit(() -> userDAO.findByUsername(username))
+                .thenCompose(found -> found
+                        .map(user -> verify(user, password))
+                        .orElseGet(() -> CompletableFuture.completedFuture(
+                                LoginResult.of(LoginResult.Status.INVALID_CREDENTIALS))))
+                .exceptionally(this::failureResult)
+                .thenApply(result -> {
+                    if (result.status() == LoginResult.Status.INVALID_CREDENTIALS) {
+                        loginThrottle.recordFailure(username, client);
+                    } else if (result.isSuccess()) {
+                        loginThrottle.recordSuccess(username);
+                    }
+                    return result;
+                });
+    }
+
+    /**
+     * Checks a password against a user's stored hash on the auth executor,
+     * computing a stronger hash in the same task if the stored one is weaker
+     * than the target cost.
+     *
+     * @param user     The user found for the username
+     * @param password The plain text password to verify
+     * @return A future with the outcome
+     */
+    private CompletableFuture<LoginResult> verify(User user, String password) {
+        String storedHash = user.getPasswordHash();
+        return authExecutor.submit(() -> {
+            if (!passwordHashers.verify(password, storedHash)) {
                 return null;
             }
+            return passwordHashers.needsRehash(storedHash) ? passwordHashers.hash(password) : storedHash;
+        }).thenCompose(hash -> {
+            if (hash == null) {
+                return CompletableFuture.completedFuture(LoginResult.of(LoginResult.Status.INVALID_CREDENTIALS));
+            }
+            Session session = sessionStore.create(user);
+            if (hash.equals(storedHash)) {
+                return CompletableFuture.completedFuture(LoginResult.success(user, session));
+            }
+            return databaseExecutor.run(() -> storeUpgradedHash(user, storedHash, hash))
+                    .handle((ignored, e) -> LoginResult.success(user, session));
         });
     }
 
     /**
-     * Retrieves the currently authenticated user.
+     * Replaces an outdated stored hash of a verified password. A failed
+     * upgrade is retried on the next login.
      *
-     * @return The authenticated User object, or null if no user is authenticated
+     * @param user    The user whose password was verified
+     * @param oldHash The hash the password was verified against
+     * @param newHash The hash made with the preferred algorithm
      */
-    public User getAuthenticatedUser() {
-        return authenticatedUser;
+    private void storeUpgradedHash(User user, String oldHash, String newHash) {
+        if (userDAO.updatePasswordHash(user.getId(), oldHash, newHash)) {
+            user.setPasswordHash(newHash);
+            logger.info("Upgraded the password hash of user {} to {}", user.getId(),
+                    passwordHashers.getPreferred().getName());
+        }
     }
 
     /**
-     * Hashes a plain text password using BCrypt.
-     * This method generates a salt and creates a secure hash of the password.
+     * Maps a failed login attempt to its outcome.
+     *
+     * @param failure The exception the attempt failed with
+     * @return TRY_AGAIN if an executor rejected the attempt, ERROR otherwise
+     */
+    private LoginResult failureResult(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RejectedExecutionException) {
+                logger.warn("Login rejected, authentication is saturated");
+                return LoginResult.of(LoginResult.Status.TRY_AGAIN);
+            }
+        }
+        logger.error("Login failed: {}", failure.getMessage());
+        return LoginResult.of(LoginResult.Status.ERROR);
+    }
+
+    /**
+     * Looks up the session of a token, without checking the password again.
+     *
+     * @param token The session token returned by a successful login
+     * @return The session, or empty if it does not exist or has expired
+     */
+    public Optional<Session> getSession(String token) {
+        return sessionStore.validate(token);
+    }
+
+    /**
+     * Ends the session of a token.
+     *
+     * @param token The session token returned by a successful login
+     */
+    public void logout(String token) {
+        sessionStore.invalidate(token);
+    }
+
+    /**
+     * Hashes a plain text password with the preferred algorithm.
+     * This method generates a salt and creates a secure hash of the password
+     * that records the algorithm and its parameters.
      *
      * @param plainTextPassword The password to hash
-     * @return The BCrypt hash of the password
+     * @return The hash of the password
      */
     public String hashPassword(String plainTextPassword) {
-        return BCrypt.hashpw(plainTextPassword, BCrypt.gensalt());
+        return passwordHashers.hash(plainTextPassword);
     }
 
     /**
      * Registers a new user in the system.
      * This method hashes the provided password and creates a new user record
-     * in the database.
+     * in the database. The username check and the insert share one
+     * connection and transaction.
      *
      * @param username The username for the new user
      * @param password The plain text password for the new user
      * @return true if registration is successful, false otherwise
      */
     public boolean registerUser(String username, String password) {
-        try {
-            if (userDAO.findByUsername(username).isPresent()) {
+        // Hashed before the unit of work, so no connection is held while it runs
+        String hashedPassword = passwordHashers.hash(password);
+        try (UnitOfWork unit = UnitOfWork.begin()) {
+            if (userDAO.findByUsername(username).isPresent() || !userDAO.createUser(username, hashedPassword)) {
                 return false;
             }
-
-            String hashedPassword = BCrypt.hashpw(password, BCrypt.gensalt());
-            return userDAO.createUser(username, hashedPassword);
+            unit.commit();
+            return true;
         } catch (Exception e) {
             e.printStackTrace();
             return false;
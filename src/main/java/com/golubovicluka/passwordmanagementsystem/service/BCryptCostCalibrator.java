@@ -0,0 +1,173 @@
+package com.golubovicluka.passwordmanagementsystem.service;
+
+import com.golubovicluka.passwordmanagementsystem.dao.DatabaseConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Picks the BCrypt cost for new password hashes from the speed of the
+ * running machine.
+ *
+ * {@link #calibrate()} times one hash at the minimum cost and, since every
+ * step of the cost doubles the work, chooses the highest cost whose estimated
+ * time stays within the configured latency budget. Until calibration has
+ * run, the minimum cost is used. Hashes stored with a lower cost than the
+ * chosen one are upgraded when their user logs in, see
+ * {@link #needsRehash(String)}.
+ */
+public class BCryptCostCalibrator {
+    private static final Logger logger = LoggerFactory.getLogger(BCryptCostCalibrator.class);
+
+    /** Cost range supported by the BCrypt implementation */
+    static final int LOWEST_COST = 4;
+    static final int HIGHEST_COST = 31;
+
+    /** Timed hashes at the minimum cost; the fastest one is taken */
+    private static final int SAMPLES = 3;
+
+    private static final String SAMPLE_PASSWORD = "calibration-sample";
+
+    private static volatile BCryptCostCalibrator instance;
+
+    private final long targetNanos;
+    private final int minCost;
+    private final int maxCost;
+    private volatile int targetCost;
+
+    /**
+     * Constructs an uncalibrated calibrator whose target cost is the minimum
+     * cost.
+     *
+     * @param targetMillis The time one hash may take at most
+     * @param minCost      The lowest cost ever chosen
+     * @param maxCost      The highest cost ever chosen
+     * @throws IllegalArgumentException If the cost range is invalid
+     */
+    BCryptCostCalibrator(long targetMillis, int minCost, int maxCost) {
+        if (minCost < LOWEST_COST || maxCost > HIGHEST_COST || minCost > maxCost) {
+            throw new IllegalArgumentException(
+                    "BCrypt costs must satisfy " + LOWEST_COST + " <= min <= max <= " + HIGHEST_COST);
+        }
+        this.targetNanos = TimeUnit.MILLISECONDS.toNanos(targetMillis);
+        this.minCost = minCost;
+        this.maxCost = maxCost;
+        this.targetCost = minCost;
+    }
+
+    /**
+     * Returns the calibrator configured by {@link DatabaseConfig}.
+     *
+     * @return The shared calibrator
+     * @throws IllegalArgumentException If a BCrypt setting is invalid
+     */
+    public static BCryptCostCalibrator getInstance() {
+        if (instance == null) {
+            synchronized (BCryptCostCalibrator.class) {
+                if (instance == null) {
+                    DatabaseConfig config = DatabaseConfig.load();
+                    instance = new BCryptCostCalibrator(config.getBCryptTargetMillis(),
+                            config.getBCryptMinCost(), config.getBCryptMaxCost());
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Times BCrypt on this machine and sets the target cost. Takes a few
+     * hashes at the minimum cost, so call it off the FX thread.
+     *
+     * @return The chosen cost
+     */
+    public int calibrate() {
+        // Warms up the implementation, so the samples do not measure the JIT
+        BCrypt.hashpw(SAMPLE_PASSWORD, BCrypt.gensalt(LOWEST_COST));
+
+        long fastest = Long.MAX_VALUE;
+        String salt = BCrypt.gensalt(minCost);
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            BCrypt.hashpw(SAMPLE_PASSWORD, salt);
+            fastest = Math.min(fastest, System.nanoTime() - start);
+        }
+
+        targetCost = chooseCost(fastest);
+        if (targetCost == minCost && fastest > targetNanos) {
+            logger.warn("BCrypt at the minimum cost {} takes {} ms, over the budget of {} ms", minCost,
+                    TimeUnit.NANOSECONDS.toMillis(fastest), TimeUnit.NANOSECONDS.toMillis(targetNanos));
+        } else {
+            logger.info("BCrypt cost {} chosen ({} ms at cost {})", targetCost,
+                    TimeUnit.NANOSECONDS.toMillis(fastest), minCost);
+        }
+        return targetCost;
+    }
+
+    /**
+     * Chooses the highest cost whose estimated hashing time is within the
+     * budget.
+     *
+     * @param nanosAtMinCost The time one hash takes at the minimum cost
+     * @return The cost, between the minimum and maximum cost
+     */
+    int chooseCost(long nanosAtMinCost) {
+        int cost = minCost;
+        long estimate = nanosAtMinCost;
+        while (cost < maxCost && estimate * 2 <= targetNanos) {
+            estimate *= 2;
+            cost++;
+        }
+        return cost;
+    }
+
+    /**
+     * Gets the cost new hashes are created with.
+     *
+     * @return The calibrated cost, or the minimum cost before calibration
+     */
+    public int getTargetCost() {
+        return targetCost;
+    }
+
+    /**
+     * Hashes a password at the target cost.
+     *
+     * @param plainTextPassword The password to hash
+     * @return The BCrypt hash
+     */
+    public String hash(String plainTextPassword) {
+        return BCrypt.hashpw(plainTextPassword, BCrypt.gensalt(targetCost));
+    }
+
+    /**
+     * Tells whether a stored hash should be replaced by one at the target
+     * cost.
+     *
+     * @param hash A stored BCrypt hash
+     * @return true if the hash uses a lower cost than the target cost
+     */
+    public boolean needsRehash(String hash) {
+        int cost = costOf(hash);
+        return cost >= 0 && cost < targetCost;
+    }
+
+    /**
+     * Reads the cost of a BCrypt hash such as {@code $2a$10$...}.
+     *
+     * @param hash The hash
+     * @return The cost, or -1 if the text is not a BCrypt hash
+     */
+    static int costOf(String hash) {
+        if (hash == null || hash.length() < 7 || hash.charAt(0) != '$' || hash.charAt(3) != '$'
+                || hash.charAt(6) != '$') {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(hash.substring(4, 6));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.golubovicluka.passwordmanagementsystem.service;
+
+import org.springframework.security.crypto.bcrypt.BCrypt;
+
+/**
+ * BCrypt hashes in the usual {@code $2a$<cost>$<salt+hash>} form, at the
+ * cost chosen by a {@link BCryptCostCalibrator}.
+ */
+public class BCryptPasswordHasher implements PasswordHasher {
+    public static final String NAME = "bcrypt";
+
+    private final BCryptCostCalibrator costCalibrator;
+
+    /**
+     * Constructs a BCrypt hasher.
+     *
+     * @param costCalibrator The calibrator that sets the cost of new hashes
+     */
+    public BCryptPasswordHasher(BCryptCostCalibrator costCalibrator) {
+        this.costCalibrator = costCalibrator;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public String hash(String password) {
+        return costCalibrator.hash(password);
+    }
+
+    @Override
+    public boolean supports(String hash) {
+        return BCryptCostCalibrator.costOf(hash) >= 0 && hash.startsWith("$2");
+    }
+
+    @Override
+    public boolean verify(String password, String hash) {
+        try {
+            return BCrypt.checkpw(password, hash);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public boolean needsRehash(String hash) {
+        return costCalibrator.needsRehash(hash);
+    }
+}
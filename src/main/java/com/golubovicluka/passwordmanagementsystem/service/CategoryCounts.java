@@ -0,0 +1,153 @@
+package com.golubovicluka.passwordmanagementsystem.service;
+
+import com.golubovicluka.passwordmanagementsystem.dao.PasswordEntryDAO;
+import com.golubovicluka.passwordmanagementsystem.model.Category;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableMap;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-user number of password entries in each category, shown on the
+ * category filter buttons.
+ *
+ * The counts of a user are aggregated once by
+ * {@link PasswordEntryDAO#getCategoryCounts(int)} and then kept current by
+ * the controllers, which adjust them for every entry they add, move or
+ * delete. Changes still waiting in the {@link PasswordEntryWriteQueue} are
+ * therefore already counted, and no view has to scan entries to show them.
+ * Uncategorized entries are counted under
+ * {@link PasswordEntryDAO#UNCATEGORIZED}.
+ *
+ * Like the rest of the UI model, the counts must only be changed on the
+ * JavaFX application thread.
+ */
+public class CategoryCounts {
+    private static final int MAX_USERS = 16;
+
+    private static final CategoryCounts INSTANCE = new CategoryCounts(new PasswordEntryDAO());
+
+    private final PasswordEntryDAO passwordEntryDAO;
+
+    /** Backing maps per user, evicted in least-recently-used order */
+    private final Map<Integer, ObservableMap<Integer, Integer>> byUser = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, ObservableMap<Integer, Integer>> eldest) {
+            return size() > MAX_USERS;
+        }
+    };
+
+    /**
+     * Constructs an empty count cache.
+     *
+     * @param passwordEntryDAO The DAO the counts are aggregated with
+     */
+    CategoryCounts(PasswordEntryDAO passwordEntryDAO) {
+        this.passwordEntryDAO = passwordEntryDAO;
+    }
+
+    /**
+     * Gets the application-wide category counts.
+     *
+     * @return The shared counts
+     */
+    public static CategoryCounts getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the observable counts of a user, aggregating them from the
+     * database on first access.
+     *
+     * @param userId The ID of the user
+     * @return An unmodifiable view of the counts per category ID
+     * @throws com.golubovicluka.passwordmanagementsystem.exception.DatabaseException
+     *         If the counts have to be loaded and cannot be
+     */
+    public synchronized ObservableMap<Integer, Integer> getCounts(int userId) {
+        ObservableMap<Integer, Integer> counts = byUser.get(userId);
+        if (counts == null) {
+            counts = FXCollections.observableHashMap();
+            counts.putAll(passwordEntryDAO.getCategoryCounts(userId));
+            byUser.put(userId, counts);
+        }
+        return FXCollections.unmodifiableObservableMap(counts);
+    }
+
+    /**
+     * Replaces the counts of a cached user with freshly aggregated ones, e.g.
+     * after entries were changed in another session. Only call this while the
+     * user has no pending writes, as those are not in the database yet.
+     *
+     * @param userId The ID of the user
+     * @throws com.golubovicluka.passwordmanagementsystem.exception.DatabaseException
+     *         If the counts cannot be loaded
+     */
+    public synchronized void reload(int userId) {
+        ObservableMap<Integer, Integer> counts = byUser.get(userId);
+        if (counts == null) {
+            return;
+        }
+        Map<Integer, Integer> current = passwordEntryDAO.getCategoryCounts(userId);
+        counts.keySet().retainAll(current.keySet());
+        current.forEach((categoryId, count) -> {
+            if (!count.equals(counts.get(categoryId))) {
+                counts.put(categoryId, count);
+            }
+        });
+    }
+
+    /**
+     * Adds to the count of a category if the user is cached.
+     *
+     * @param userId   The ID of the user
+     * @param category The category, or null for uncategorized entries
+     * @param delta    The number of entries added, negative for removed ones
+     */
+    public synchronized void adjust(int userId, Category category, int delta) {
+        ObservableMap<Integer, Integer> counts = byUser.get(userId);
+        if (counts == null || delta == 0) {
+            return;
+        }
+        int count = counts.getOrDefault(keyOf(category), 0) + delta;
+        if (count > 0) {
+            counts.put(keyOf(category), count);
+        } else {
+            counts.remove(keyOf(category));
+        }
+    }
+
+    /**
+     * Moves one entry from one category to another.
+     *
+     * @param userId The ID of the user
+     * @param from   The previous category, or null if it was uncategorized
+     * @param to     The new category, or null if it is now uncategorized
+     */
+    public void move(int userId, Category from, Category to) {
+        if (keyOf(from) != keyOf(to)) {
+            adjust(userId, from, -1);
+            adjust(userId, to, 1);
+        }
+    }
+
+    /**
+     * Drops the counts of a user so the next access aggregates them again.
+     *
+     * @param userId The ID of the user
+     */
+    public synchronized void invalidateUser(int userId) {
+        byUser.remove(userId);
+    }
+
+    /**
+     * Returns the key a category is counted under.
+     *
+     * @param category The category, or null for uncategorized entries
+     * @return The category ID, or {@link PasswordEntryDAO#UNCATEGORIZED}
+     */
+    public static int keyOf(Category category) {
+        return category != null ? category.getId() : PasswordEntryDAO.UNCATEGORIZED;
+    }
+}
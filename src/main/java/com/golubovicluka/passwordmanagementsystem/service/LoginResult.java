@@ -0,0 +1,52 @@
+package com.golubovicluka.passwordmanagementsystem.service;
+
+import com.golubovicluka.passwordmanagementsystem.model.User;
+
+/**
+ * The outcome of a login attempt.
+ *
+ * @param status           The outcome
+ * @param user             The authenticated user if the status is
+ *                         {@link Status#SUCCESS}, otherwise null
+ * @param session          The session opened for the user if the status is
+ *                         {@link Status#SUCCESS}, otherwise null
+ * @param retryAfterMillis How long to wait before the next attempt if the
+ *                         status is {@link Status#THROTTLED}, otherwise 0
+ */
+public record LoginResult(Status status, User user, Session session, long retryAfterMillis) {
+
+    /** Outcomes of a login attempt */
+    public enum Status {
+        /** The credentials are valid */
+        SUCCESS,
+        /** The username does not exist or the password does not match */
+        INVALID_CREDENTIALS,
+        /** The server is too busy to check the credentials now */
+        TRY_AGAIN,
+        /** Too many failed logins for the username or client; not checked */
+        THROTTLED,
+        /** The credentials could not be checked, e.g. the database is down */
+        ERROR
+    }
+
+    static LoginResult success(User user, Session session) {
+        return new LoginResult(Status.SUCCESS, user, session, 0);
+    }
+
+    static LoginResult of(Status status) {
+        return new LoginResult(status, null, null, 0);
+    }
+
+    static LoginResult throttled(long retryAfterMillis) {
+        return new LoginResult(Status.THROTTLED, null, null, retryAfterMillis);
+    }
+
+    /**
+     * Returns whether the login succeeded.
+     *
+     * @return true if the status is {@link Status#SUCCESS}
+     */
+    public boolean isSuccess() {
+        return status == Status.SUCCESS;
+    }
+}
@@ -0,0 +1,214 @@
+package com.golubovicluka.passwordmanagementsystem.service;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * In-memory throttle of failed logins, checked before a login touches the
+ * database or BCrypt, so guessing passwords costs a map lookup instead of a
+ * hash.
+ *
+ * Failures are counted per username and per client in a sliding window,
+ * approximated from the counts of the current and the previous fixed window.
+ * Once a key reaches its limit, it is blocked for a backoff that doubles with
+ * every further failure, up to a maximum. A successful login clears the
+ * username's failures; a client's failures only expire, so one valid account
+ * does not unlock guessing at others.
+ *
+ * The counters are split over lock stripes by key hash, so concurrent logins
+ * for different keys rarely contend.
+ */
+public class LoginThrottle {
+
+    /** Client key of logins made on this machine */
+    public static final String LOCAL_CLIENT = "local";
+
+    private static final int STRIPES = 16;
+
+    /** Keys a stripe holds before idle ones are dropped */
+    private static final int SWEEP_THRESHOLD = 1024;
+
+    private static final int DEFAULT_USERNAME_LIMIT = 5;
+    private static final int DEFAULT_CLIENT_LIMIT = 50;
+    private static final long DEFAULT_WINDOW_MILLIS = TimeUnit.MINUTES.toMillis(15);
+    private static final long DEFAULT_BASE_BACKOFF_MILLIS = TimeUnit.SECONDS.toMillis(1);
+    private static final long DEFAULT_MAX_BACKOFF_MILLIS = TimeUnit.MINUTES.toMillis(15);
+
+    private static final LoginThrottle INSTANCE = new LoginThrottle(DEFAULT_USERNAME_LIMIT, DEFAULT_CLIENT_LIMIT,
+            DEFAULT_WINDOW_MILLIS, DEFAULT_BASE_BACKOFF_MILLIS, DEFAULT_MAX_BACKOFF_MILLIS, System::currentTimeMillis);
+
+    private final int usernameLimit;
+    private final int clientLimit;
+    private final long windowMillis;
+    private final long baseBackoffMillis;
+    private final long maxBackoffMillis;
+    private final LongSupplier clock;
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    /**
+     * Constructs a throttle.
+     *
+     * @param usernameLimit     Failures per window after which a username is
+     *                          blocked
+     * @param clientLimit       Failures per window after which a client is
+     *                          blocked
+     * @param windowMillis      The length of the sliding window
+     * @param baseBackoffMillis The first block; each further failure doubles it
+     * @param maxBackoffMillis  The longest block
+     * @param clock             The current time in milliseconds
+     */
+    LoginThrottle(int usernameLimit, int clientLimit, long windowMillis, long baseBackoffMillis,
+            long maxBackoffMillis, LongSupplier clock) {
+        if (usernameLimit <= 0 || clientLimit <= 0 || windowMillis <= 0) {
+            throw new IllegalArgumentException("Throttle limits and window must be positive");
+        }
+        this.usernameLimit = usernameLimit;
+        this.clientLimit = clientLimit;
+        this.windowMillis = windowMillis;
+        this.baseBackoffMillis = baseBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.clock = clock;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Gets the throttle shared by all logins of the application.
+     *
+     * @return The shared throttle
+     */
+    public static LoginThrottle getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Tells how long a login must wait before it may be checked.
+     *
+     * @param username The username of the login
+     * @param client   The client the login comes from
+     * @return The remaining block in milliseconds, 0 if the login may proceed
+     */
+    public long retryAfterMillis(String username, String client) {
+        long now = clock.getAsLong();
+        return Math.max(blockedFor(usernameKey(username), now), blockedFor(clientKey(client), now));
+    }
+
+    /**
+     * Records a login with a wrong password or an unknown username.
+     *
+     * @param username The username of the login
+     * @param client   The client the login comes from
+     */
+    public void recordFailure(String username, String client) {
+        long now = clock.getAsLong();
+        fail(usernameKey(username), usernameLimit, now);
+        fail(clientKey(client), clientLimit, now);
+    }
+
+    /**
+     * Records a successful login, which clears the failures of the username.
+     *
+     * @param username The username of the login
+     */
+    public void recordSuccess(String username) {
+        String key = usernameKey(username);
+        Stripe stripe = stripeOf(key);
+        synchronized (stripe) {
+            stripe.counters.remove(key);
+        }
+    }
+
+    private long blockedFor(String key, long now) {
+        Stripe stripe = stripeOf(key);
+        synchronized (stripe) {
+            Counter counter = stripe.counters.get(key);
+            return counter != null ? Math.max(0, counter.blockedUntil - now) : 0;
+        }
+    }
+
+    private void fail(String key, int limit, long now) {
+        Stripe stripe = stripeOf(key);
+        synchronized (stripe) {
+            if (stripe.counters.size() >= SWEEP_THRESHOLD) {
+                sweep(stripe, now);
+            }
+            Counter counter = stripe.counters.computeIfAbsent(key, k -> new Counter(now));
+            counter.roll(now, windowMillis);
+            counter.current++;
+            int failures = counter.estimate(now, windowMillis);
+            if (failures >= limit) {
+                int doublings = Math.min(failures - limit, 30);
+                long backoff = Math.min(baseBackoffMillis << doublings, maxBackoffMillis);
+                counter.blockedUntil = now + backoff;
+            }
+        }
+    }
+
+    /**
+     * Drops the counters of a stripe that are no longer blocked and whose
+     * failures have left the window.
+     */
+    private void sweep(Stripe stripe, long now) {
+        Iterator<Counter> counters = stripe.counters.values().iterator();
+        while (counters.hasNext()) {
+            Counter counter = counters.next();
+            if (counter.blockedUntil <= now && now - counter.windowStart >= 2 * windowMillis) {
+                counters.remove();
+            }
+        }
+    }
+
+    private Stripe stripeOf(String key) {
+        return stripes[(key.hashCode() & 0x7fffffff) % STRIPES];
+    }
+
+    /** Usernames are compared without case, as the MySQL collation does */
+    private static String usernameKey(String username) {
+        return "u:" + (username == null ? "" : username.toLowerCase(Locale.ROOT));
+    }
+
+    private static String clientKey(String client) {
+        return "c:" + (client == null ? LOCAL_CLIENT : client);
+    }
+
+    private static final class Stripe {
+        private final Map<String, Counter> counters = new HashMap<>();
+    }
+
+    /** Failure counts of the current and previous window of one key */
+    private static final class Counter {
+        private long windowStart;
+        private int current;
+        private int previous;
+        private long blockedUntil;
+
+        private Counter(long now) {
+            this.windowStart = now;
+        }
+
+        /** Moves to the window that contains now */
+        private void roll(long now, long windowMillis) {
+            long elapsed = now - windowStart;
+            if (elapsed < windowMillis) {
+                return;
+            }
+            previous = elapsed < 2 * windowMillis ? current : 0;
+            current = 0;
+            windowStart += (elapsed / windowMillis) * windowMillis;
+        }
+
+        /**
+         * Estimates the failures in the window ending now, weighting the
+         * previous window by how much of it still overlaps.
+         */
+        private int estimate(long now, long windowMillis) {
+            double overlap = 1.0 - (double) (now - windowStart) / windowMillis;
+            return current + (int) Math.round(previous * overlap);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.golubovicluka.passwordmanagementsystem.service;
+
+import com.golubovicluka.passwordmanagementsystem.dao.PasswordEntryDAO;
+import com.golubovicluka.passwordmanagementsystem.model.PasswordEntry;
+import javafx.collections.ObservableList;
+
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+/**
+ * Lazily fills an ObservableList of password entries one page at a time.
+ * The pager keeps a keyset cursor (the id of the last loaded entry) and asks
+ * the DAO for the next page only when the UI needs more rows, so opening a
+ * vault costs a single page query regardless of how many entries it holds.
+ */
+public class PasswordEntryPager {
+    private final PasswordEntryDAO passwordEntryDAO;
+    private final int userId;
+    private final int pageSize;
+    private final ObservableList<PasswordEntry> entries;
+
+    /** Id of the last entry that was loaded, used as the keyset cursor */
+    private int lastLoadedId = 0;
+
+    /** Whether the last page returned fewer rows than requested */
+    private boolean exhausted = false;
+
+    /** Applied to every page before it is appended, e.g. to overlay unsaved changes */
+    private UnaryOperator<List<PasswordEntry>> pageTransformer = UnaryOperator.identity();
+
+    /**
+     * Constructs a pager using the default page size.
+     *
+     * @param passwordEntryDAO The DAO used to fetch pages
+     * @param userId           The ID of the user whose entries are paged
+     * @param entries          The list that loaded pages are appended to
+     */
+    public PasswordEntryPager(PasswordEntryDAO passwordEntryDAO, int userId, ObservableList<PasswordEntry> entries) {
+        this(passwordEntryDAO, userId, entries, PasswordEntryDAO.DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * Constructs a pager with an explicit page size.
+     *
+     * @param passwordEntryDAO The DAO used to fetch pages
+     * @param userId           The ID of the user whose entries are paged
+     * @param entries          The list that loaded pages are appended to
+     * @param pageSize         The number of entries fetched per page
+     */
+    public PasswordEntryPager(PasswordEntryDAO passwordEntryDAO, int userId, ObservableList<PasswordEntry> entries,
+            int pageSize) {
+        this.passwordEntryDAO = passwordEntryDAO;
+        this.userId = userId;
+        this.entries = entries;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Sets a function applied to every fetched page before it is appended.
+     * The keyset cursor is always taken from the untransformed page.
+     *
+     * @param pageTransformer The function to apply to each page
+     */
+    public void setPageTransformer(UnaryOperator<List<PasswordEntry>> pageTransformer) {
+        this.pageTransformer = pageTransformer;
+    }
+
+    /**
+     * Fetches the next page and appends it to the backing list.
+     *
+     * @return The number of entries that were appended, 0 once the vault is
+     *         fully loaded
+     */
+    public int loadNextPage() {
+        if (exhausted) {
+            return 0;
+        }
+
+        List<PasswordEntry> page = passwordEntryDAO.getPasswordEntriesPage(userId, lastLoadedId, pageSize);
+        if (page.size() < pageSize) {
+            exhausted = true;
+        }
+        if (!page.isEmpty()) {
+            lastLoadedId = page.get(page.size() - 1).getId();
+            entries.addAll(pageTransformer.apply(page));
+        }
+        return page.size();
+    }
+
+    /**
+     * Returns whether more pages may be available in the database.
+     *
+     * @return true if the vault has not been fully loaded yet
+     */
+    public boolean hasMore() {
+        return !exhausted;
+    }
+
+    /**
+     * Returns the id of the last loaded entry.
+     *
+     * @return The keyset cursor of the pager
+     */
+    public int getLastLoadedId() {
+        return lastLoadedId;
+    }
+
+    /**
+     * Returns the number of entries requested per page.
+     *
+     * @return The page size
+     */
+    public int getPageSize() {
+        return pageSize;
+    }
+}
@@ -0,0 +1,418 @@
+package com.golubovicluka.passwordmanagementsystem.service;
+
+import com.golubovicluka.passwordmanagementsystem.dao.PasswordEntryDAO;
+import com.golubovicluka.passwordmanagementsystem.exception.DatabaseException;
+import com.golubovicluka.passwordmanagementsystem.model.PasswordEntry;
+import javafx.application.Platform;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Write-behind queue in front of {@link PasswordEntryDAO}.
+ * Controllers apply changes to their in-memory model immediately and enqueue
+ * the matching write here. Writes are flushed on a background thread shortly
+ * after they are enqueued, so the JavaFX thread never waits for the database.
+ *
+ * Repeated changes to the same entry are coalesced before they are flushed:
+ * an insert followed by updates is written as a single insert, several updates
+ * become the last one, and an insert followed by a delete is dropped entirely.
+ * When a flush fails, the rollback callbacks of the affected writes and the
+ * registered failure listener are invoked on the callback executor, which is
+ * the JavaFX application thread by default. The ids and row versions of
+ * committed writes are carried over to the UI's entries on the same executor,
+ * so the writer thread never changes objects the UI is showing.
+ */
+public class PasswordEntryWriteQueue {
+    private static final Logger logger = LoggerFactory.getLogger(PasswordEntryWriteQueue.class);
+
+    /** Delay between the first enqueued write and the flush, used to coalesce bursts */
+    private static final long FLUSH_DELAY_MILLIS = 50;
+
+    private static final PasswordEntryWriteQueue INSTANCE = new PasswordEntryWriteQueue(new PasswordEntryDAO(),
+            Platform::runLater, FLUSH_DELAY_MILLIS);
+
+    private enum Kind {
+        INSERT, UPDATE, DELETE
+    }
+
+    /**
+     * A write waiting to be flushed. {@code entry} is the live object owned by
+     * the UI, {@code snapshot} is the detached copy that is written.
+     */
+    private static final class PendingWrite {
+        private Kind kind;
+        private final PasswordEntry entry;
+        private PasswordEntry snapshot;
+        private final int userId;
+        private final List<Consumer<DatabaseException>> rollbacks = new ArrayList<>();
+
+        private PendingWrite(Kind kind, PasswordEntry entry, int userId) {
+            this.kind = kind;
+            this.entry = entry;
+            this.snapshot = new PasswordEntry(entry);
+            this.userId = userId;
+        }
+    }
+
+    private final PasswordEntryDAO passwordEntryDAO;
+    private final Executor callbackExecutor;
+    private final long flushDelayMillis;
+    private final ScheduledExecutorService writer;
+
+    /** Pending writes keyed by entry id, or by the entry itself while it has no id */
+    private final Map<Object, PendingWrite> pending = new LinkedHashMap<>();
+
+    /** Writes taken by the current flush and not yet committed */
+    private final List<PendingWrite> inFlight = new ArrayList<>();
+
+    /**
+     * Committed state of UI entries whose id and row version the callback
+     * executor has not carried over yet, used for writes enqueued meanwhile
+     */
+    private final Map<PasswordEntry, PasswordEntry> uncarried = new IdentityHashMap<>();
+
+    private boolean flushScheduled = false;
+    private Consumer<DatabaseException> failureListener;
+
+    /**
+     * Constructs a write queue.
+     *
+     * @param passwordEntryDAO The DAO the writes are flushed to
+     * @param callbackExecutor The executor failure callbacks are run on
+     * @param flushDelayMillis The delay before enqueued writes are flushed
+     */
+    PasswordEntryWriteQueue(PasswordEntryDAO passwordEntryDAO, Executor callbackExecutor, long flushDelayMillis) {
+        this.passwordEntryDAO = passwordEntryDAO;
+        this.callbackExecutor = callbackExecutor;
+        this.flushDelayMillis = flushDelayMillis;
+        this.writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "password-entry-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Gets the application-wide write queue.
+     *
+     * @return The shared write queue
+     */
+    public static PasswordEntryWriteQueue getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Registers the listener notified once per failed flush, after the rollback
+     * callbacks of the affected writes have run. Replaces any previous listener.
+     *
+     * @param listener The listener, or null to remove it
+     */
+    public synchronized void setFailureListener(Consumer<DatabaseException> listener) {
+        this.failureListener = listener;
+    }
+
+    /**
+     * Enqueues the insertion of a new password entry. The generated id is
+     * written back to {@code entry} once the insert is flushed.
+     *
+     * @param entry      The new password entry, already shown in the UI
+     * @param userId     The ID of the user who owns the entry
+     * @param onRollback Called if the insert fails
+     */
+    public void insert(PasswordEntry entry, int userId, Consumer<DatabaseException> onRollback) {
+        enqueue(Kind.INSERT, entry, userId, onRollback);
+    }
+
+    /**
+     * Enqueues an update of an existing password entry with its current state.
+     *
+     * @param entry      The modified password entry
+     * @param onRollback Called if the update fails
+     */
+    public void update(PasswordEntry entry, Consumer<DatabaseException> onRollback) {
+        enqueue(Kind.UPDATE, entry, entry.getUserId(), onRollback);
+    }
+
+    /**
+     * Enqueues the deletion of a password entry.
+     *
+     * @param entry      The password entry, already removed from the UI
+     * @param onRollback Called if the delete fails
+     */
+    public void delete(PasswordEntry entry, Consumer<DatabaseException> onRollback) {
+        enqueue(Kind.DELETE, entry, entry.getUserId(), onRollback);
+    }
+
+    /**
+     * Adds a write to the queue, coalescing it with a pending write for the same
+     * entry, and schedules a flush if none is scheduled.
+     */
+    private synchronized void enqueue(Kind kind, PasswordEntry entry, int userId,
+            Consumer<DatabaseException> onRollback) {
+        Object key = keyFor(entry);
+        PendingWrite existing = pending.get(key);
+
+        if (existing == null) {
+            PendingWrite write = new PendingWrite(kind, entry, userId);
+            carryCommitted(write);
+            write.rollbacks.add(onRollback);
+            pending.put(key, write);
+        } else if (kind == Kind.DELETE && existing.kind == Kind.INSERT) {
+            pending.remove(key);
+        } else {
+            if (kind == Kind.DELETE) {
+                existing.kind = Kind.DELETE;
+            }
+            existing.snapshot = new PasswordEntry(entry);
+            carryCommitted(existing);
+            existing.rollbacks.add(onRollback);
+        }
+
+        if (!flushScheduled) {
+            flushScheduled = true;
+            writer.schedule(this::flush, flushDelayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private Object keyFor(PasswordEntry entry) {
+        PasswordEntry committed = uncarried.get(entry);
+        int id = committed != null ? committed.getId() : entry.getId();
+        return id > 0 ? (Object) id : entry;
+    }
+
+    /**
+     * Gives a write's snapshot the id and row version of the entry's last
+     * committed write if the UI's entry does not have them yet.
+     */
+    private void carryCommitted(PendingWrite write) {
+        PasswordEntry committed = uncarried.get(write.entry);
+        if (committed != null) {
+            write.snapshot.setId(committed.getId());
+            write.snapshot.setRowVersion(committed.getRowVersion());
+        }
+    }
+
+    /**
+     * Applies pending and in-flight writes of a user to rows read from the
+     * database, so a reload shows the user's own unflushed changes.
+     *
+     * @param userId The ID of the user the rows belong to
+     * @param rows   Rows as read from the database
+     * @return The rows with pending updates applied and pending deletes removed
+     */
+    public synchronized List<PasswordEntry> applyPending(int userId, List<PasswordEntry> rows) {
+        Map<Integer, PendingWrite> byId = new HashMap<>();
+        for (PendingWrite write : writesOf(userId)) {
+            int id = write.snapshot.getId();
+            if (id > 0) {
+                byId.put(id, write);
+            }
+        }
+        if (byId.isEmpty()) {
+            return rows;
+        }
+
+        List<PasswordEntry> result = new ArrayList<>(rows.size());
+        for (PasswordEntry row : rows) {
+            PendingWrite write = byId.get(row.getId());
+            if (write == null) {
+                result.add(row);
+            } else if (write.kind != Kind.DELETE) {
+                result.add(new PasswordEntry(write.snapshot));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns copies of the entries a user has inserted that are not committed
+     * yet.
+     *
+     * @param userId The ID of the user
+     * @return The uncommitted new entries
+     */
+    public synchronized List<PasswordEntry> getPendingInserts(int userId) {
+        List<PasswordEntry> inserts = new ArrayList<>();
+        for (PendingWrite write : writesOf(userId)) {
+            if (write.kind == Kind.INSERT && write.snapshot.getId() == 0) {
+                inserts.add(new PasswordEntry(write.snapshot));
+            }
+        }
+        return inserts;
+    }
+
+    /**
+     * Tells whether a user has writes that are queued or being flushed, i.e.
+     * whether the database may not reflect all of the user's changes yet.
+     *
+     * @param userId The ID of the user
+     * @return true if the user has uncommitted writes
+     */
+    public synchronized boolean hasPendingWrites(int userId) {
+        return !writesOf(userId).isEmpty();
+    }
+
+    private List<PendingWrite> writesOf(int userId) {
+        List<PendingWrite> writes = new ArrayList<>();
+        for (PendingWrite write : inFlight) {
+            if (write.userId == userId) {
+                writes.add(write);
+            }
+        }
+        for (PendingWrite write : pending.values()) {
+            if (write.userId == userId) {
+                writes.add(write);
+            }
+        }
+        return writes;
+    }
+
+    /**
+     * Flushes all pending writes immediately and waits for them to complete.
+     * Used at shutdown so no accepted change is lost.
+     *
+     * @param timeout The maximum time to wait
+     * @param unit    The unit of the timeout
+     * @return true if all writes were flushed in time
+     */
+    public boolean flushNow(long timeout, TimeUnit unit) {
+        try {
+            writer.submit(this::flush).get(timeout, unit);
+            return true;
+        } catch (Exception e) {
+            logger.warn("Write-behind queue did not flush in time: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Writes all pending changes using the DAO's batch operations. Inserts,
+     * updates and deletes are each written in one transaction per user.
+     * Runs on the writer thread only.
+     */
+    private void flush() {
+        synchronized (this) {
+            flushScheduled = false;
+            inFlight.addAll(pending.values());
+            pending.clear();
+        }
+
+        try {
+            flushInFlight();
+        } finally {
+            synchronized (this) {
+                inFlight.clear();
+            }
+        }
+    }
+
+    private void flushInFlight() {
+        Map<Integer, List<PendingWrite>> insertsByUser = new LinkedHashMap<>();
+        Map<Integer, List<PendingWrite>> updatesByUser = new LinkedHashMap<>();
+        Map<Integer, List<PendingWrite>> deletesByUser = new LinkedHashMap<>();
+        for (PendingWrite write : inFlight) {
+            Map<Integer, List<PendingWrite>> byUser = switch (write.kind) {
+                case INSERT -> insertsByUser;
+                case UPDATE -> updatesByUser;
+                case DELETE -> deletesByUser;
+            };
+            byUser.computeIfAbsent(write.userId, id -> new ArrayList<>()).add(write);
+        }
+
+        insertsByUser.forEach((userId, inserts) -> execute(inserts, () -> {
+            passwordEntryDAO.addPasswordEntries(inserts.stream().map(write -> write.snapshot).toList(), userId);
+            inserts.forEach(this::committed);
+        }));
+        updatesByUser.forEach((userId, updates) -> execute(updates, () -> {
+            passwordEntryDAO.updatePasswordEntries(updates.stream().map(write -> write.snapshot).toList(), userId);
+            updates.forEach(this::committed);
+        }));
+        deletesByUser.forEach((userId, deletes) -> execute(deletes, () -> passwordEntryDAO.deletePasswordEntries(
+                deletes.stream()
+                        .map(write -> write.snapshot.getId())
+                        .filter(id -> id > 0)
+                        .toList(),
+                userId)));
+    }
+
+    /**
+     * Carries the id and row version of a committed write over to a newer
+     * pending write of the same entry right away, and to the UI's entry on the
+     * callback executor, so the next update is checked against the version
+     * this write produced.
+     */
+    private synchronized void committed(PendingWrite write) {
+        PasswordEntry entry = write.entry;
+        PasswordEntry committed = write.snapshot;
+        for (PendingWrite next : pending.values()) {
+            if (next.entry == entry) {
+                next.snapshot.setId(committed.getId());
+                next.snapshot.setRowVersion(committed.getRowVersion());
+            }
+        }
+        uncarried.put(entry, committed);
+        callbackExecutor.execute(() -> {
+            entry.setId(committed.getId());
+            entry.setRowVersion(committed.getRowVersion());
+            synchronized (this) {
+                if (uncarried.get(entry) == committed) {
+                    uncarried.remove(entry);
+                }
+            }
+        });
+    }
+
+    /**
+     * Executes one group of writes and reports a failure to their rollback
+     * callbacks and the failure listener. Unexpected exceptions are reported as
+     * a {@link DatabaseException}, so every failed write is rolled back.
+     */
+    private void execute(List<PendingWrite> writes, Runnable operation) {
+        if (writes.isEmpty()) {
+            return;
+        }
+
+        try {
+            operation.run();
+        } catch (RuntimeException failure) {
+            DatabaseException e = failure instanceof DatabaseException databaseException
+                    ? databaseException
+                    : new DatabaseException("Failed to write password entries", failure);
+            logger.error("Write-behind flush of {} change(s) failed: {}", writes.size(), e.getMessage());
+            Consumer<DatabaseException> listener;
+            synchronized (this) {
+                listener = failureListener;
+            }
+            callbackExecutor.execute(() -> {
+                for (PendingWrite write : writes) {
+                    for (int i = write.rollbacks.size() - 1; i >= 0; i--) {
+                        write.rollbacks.get(i).accept(e);
+                    }
+                }
+                if (listener != null) {
+                    listener.accept(e);
+                }
+            });
+        }
+    }
+
+    /**
+     * Flushes outstanding writes and stops the writer thread.
+     */
+    public void shutdown() {
+        flushNow(5, TimeUnit.SECONDS);
+        writer.shutdown();
+    }
+}
@@ -0,0 +1,54 @@
+package com.golubovicluka.passwordmanagementsystem.service;
+
+/**
+ * A password hashing algorithm. Every hash it creates names the algorithm and
+ * carries the parameters and salt it was made with, so it can be verified
+ * after the configured parameters have changed and recognized among the
+ * hashes of other algorithms.
+ *
+ * @see PasswordHashers
+ */
+public interface PasswordHasher {
+
+    /**
+     * Gets the name the algorithm is configured by.
+     *
+     * @return The algorithm name, e.g. {@code argon2id}
+     */
+    String getName();
+
+    /**
+     * Hashes a password with a new random salt and the configured parameters.
+     *
+     * @param password The plain text password
+     * @return The self-describing hash
+     */
+    String hash(String password);
+
+    /**
+     * Tells whether a stored hash was created by this algorithm.
+     *
+     * @param hash A stored hash
+     * @return true if this hasher can verify the hash
+     */
+    boolean supports(String hash);
+
+    /**
+     * Checks a password against a hash this algorithm created, using the
+     * parameters stored in the hash.
+     *
+     * @param password The plain text password
+     * @param hash     A hash for which {@link #supports(String)} is true
+     * @return true if the password matches
+     */
+    boolean verify(String password, String hash);
+
+    /**
+     * Tells whether a hash this algorithm created uses weaker parameters than
+     * the configured ones.
+     *
+     * @param hash A hash for which {@link #supports(String)} is true
+     * @return true if the password should be hashed again
+     */
+    boolean needsRehash(String hash);
+}
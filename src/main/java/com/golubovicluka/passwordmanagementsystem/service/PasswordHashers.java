@@ -0,0 +1,135 @@
+package com.golubovicluka.passwordmanagementsystem.service;
+
+import com.golubovicluka.passwordmanagementsystem.dao.DatabaseConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The password hashing algorithms the application knows, one of which is
+ * preferred for new hashes.
+ *
+ * Stored hashes of every known algorithm can be verified, so changing
+ * {@value DatabaseConfig#PASSWORD_HASHER} or the parameters of an algorithm
+ * does not lock anyone out: {@link #needsRehash(String)} reports hashes made
+ * with another algorithm or weaker parameters, and {@link AuthService}
+ * replaces them with a preferred hash on the user's next login.
+ */
+public class PasswordHashers {
+
+    private static volatile PasswordHashers instance;
+
+    private final PasswordHasher preferred;
+    private final List<PasswordHasher> known;
+
+    /**
+     * Constructs the set of known algorithms.
+     *
+     * @param preferred The algorithm new hashes are created with
+     * @param others    Further algorithms whose stored hashes are verified
+     */
+    PasswordHashers(PasswordHasher preferred, PasswordHasher... others) {
+        this.preferred = preferred;
+        this.known = new ArrayList<>();
+        known.add(preferred);
+        known.addAll(List.of(others));
+    }
+
+    /**
+     * Gets the algorithms configured by {@link DatabaseConfig}.
+     *
+     * @return The shared set of algorithms
+     * @throws IllegalArgumentException If a password hashing setting is
+     *                                  invalid
+     */
+    public static PasswordHashers getInstance() {
+        if (instance == null) {
+            synchronized (PasswordHashers.class) {
+                if (instance == null) {
+                    instance = fromConfig(DatabaseConfig.load(), BCryptCostCalibrator.getInstance());
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Creates the BCrypt, PBKDF2 and Argon2id hashers with the parameters of
+     * a configuration and prefers the configured one, BCrypt by default.
+     *
+     * @param config         The application configuration
+     * @param costCalibrator The calibrator that sets the BCrypt cost
+     * @return The set of algorithms
+     * @throws IllegalArgumentException If the algorithm name or a parameter is
+     *                                  invalid
+     */
+    static PasswordHashers fromConfig(DatabaseConfig config, BCryptCostCalibrator costCalibrator) {
+        List<PasswordHasher> hashers = List.of(
+                new BCryptPasswordHasher(costCalibrator),
+                new Pbkdf2PasswordHasher(config.getPbkdf2Iterations()),
+                new Argon2PasswordHasher(config.getArgon2MemoryKiB(), config.getArgon2Iterations(),
+                        config.getArgon2Parallelism()));
+        String name = config.getPasswordHasher() != null ? config.getPasswordHasher() : BCryptPasswordHasher.NAME;
+        PasswordHasher preferred = hashers.stream()
+                .filter(hasher -> hasher.getName().equalsIgnoreCase(name))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "Invalid value for " + DatabaseConfig.PASSWORD_HASHER + ": " + name));
+        return new PasswordHashers(preferred, hashers.stream()
+                .filter(hasher -> hasher != preferred)
+                .toArray(PasswordHasher[]::new));
+    }
+
+    /**
+     * Gets the algorithm new hashes are created with.
+     *
+     * @return The preferred hasher
+     */
+    public PasswordHasher getPreferred() {
+        return preferred;
+    }
+
+    /**
+     * Hashes a password with the preferred algorithm.
+     *
+     * @param password The plain text password
+     * @return The self-describing hash
+     */
+    public String hash(String password) {
+        return preferred.hash(password);
+    }
+
+    /**
+     * Checks a password against a stored hash of any known algorithm.
+     *
+     * @param password The plain text password
+     * @param hash     The stored hash
+     * @return true if the password matches, false if it does not or the hash
+     *         is of no known algorithm
+     */
+    public boolean verify(String password, String hash) {
+        PasswordHasher hasher = hasherOf(hash);
+        return hasher != null && hasher.verify(password, hash);
+    }
+
+    /**
+     * Tells whether a stored hash should be replaced by a preferred hash.
+     *
+     * @param hash The stored hash
+     * @return true if the hash was made by another algorithm or with weaker
+     *         parameters than configured
+     */
+    public boolean needsRehash(String hash) {
+        PasswordHasher hasher = hasherOf(hash);
+        return hasher != preferred || hasher.needsRehash(hash);
+    }
+
+    private PasswordHasher hasherOf(String hash) {
+        for (PasswordHasher hasher : known) {
+            if (hasher.supports(hash)) {
+                return hasher;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,95 @@
+package com.golubovicluka.passwordmanagementsystem.service;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * PBKDF2-HMAC-SHA256 hashes in the PHC string format,
+ * {@code $pbkdf2-sha256$i=<iterations>$<salt>$<hash>} with unpadded Base64.
+ * Uses only the JDK, which makes it the choice where FIPS-validated
+ * primitives are required; it is not memory-hard.
+ */
+public class Pbkdf2PasswordHasher implements PasswordHasher {
+    public static final String NAME = "pbkdf2";
+
+    private static final String PREFIX = "$pbkdf2-sha256$";
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BYTES = 32;
+
+    private final int iterations;
+    private final SecureRandom random = new SecureRandom();
+
+    /**
+     * Constructs a PBKDF2 hasher.
+     *
+     * @param iterations The iteration count of new hashes
+     * @throws IllegalArgumentException If the iteration count is not positive
+     */
+    public Pbkdf2PasswordHasher(int iterations) {
+        if (iterations <= 0) {
+            throw new IllegalArgumentException("PBKDF2 iterations must be positive");
+        }
+        this.iterations = iterations;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public String hash(String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        Base64.Encoder encoder = Base64.getEncoder().withoutPadding();
+        return PREFIX + "i=" + iterations + "$" + encoder.encodeToString(salt) + "$"
+                + encoder.encodeToString(derive(password, salt, iterations, HASH_BYTES));
+    }
+
+    @Override
+    public boolean supports(String hash) {
+        return hash != null && hash.startsWith(PREFIX);
+    }
+
+    @Override
+    public boolean verify(String password, String hash) {
+        String[] parts = hash.substring(PREFIX.length()).split("\\$");
+        if (parts.length != 3 || !parts[0].startsWith("i=")) {
+            return false;
+        }
+        try {
+            int storedIterations = Integer.parseInt(parts[0].substring(2));
+            byte[] salt = Base64.getDecoder().decode(parts[1]);
+            byte[] expected = Base64.getDecoder().decode(parts[2]);
+            return MessageDigest.isEqual(expected, derive(password, salt, storedIterations, expected.length));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public boolean needsRehash(String hash) {
+        String[] parts = hash.substring(PREFIX.length()).split("\\$");
+        try {
+            return Integer.parseInt(parts[0].substring(2)) < iterations;
+        } catch (RuntimeException e) {
+            return true;
+        }
+    }
+
+    private static byte[] derive(String password, byte[] salt, int iterations, int length) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, length * 8);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("PBKDF2 is not available", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
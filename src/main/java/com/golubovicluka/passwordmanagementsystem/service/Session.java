@@ -0,0 +1,52 @@
+package com.golubovicluka.passwordmanagementsystem.service;
+
+/**
+ * A logged-in user, identified by an opaque token issued by the
+ * {@link SessionStore}. The token is the only thing a front end keeps; the
+ * user is looked up from it on every operation.
+ */
+public final class Session {
+    private final String token;
+    private final int userId;
+    private final String username;
+    private final long createdAtMillis;
+    private volatile long lastAccessMillis;
+
+    Session(String token, int userId, String username, long createdAtMillis) {
+        this.token = token;
+        this.userId = userId;
+        this.username = username;
+        this.createdAtMillis = createdAtMillis;
+        this.lastAccessMillis = createdAtMillis;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public long getCreatedAtMillis() {
+        return createdAtMillis;
+    }
+
+    public long getLastAccessMillis() {
+        return lastAccessMillis;
+    }
+
+    void touch(long nowMillis) {
+        lastAccessMillis = nowMillis;
+    }
+
+    @Override
+    public String toString() {
+        // The token is a credential and must not end up in logs
+        return "Session{userId=" + userId + ", username='" + username + "'}";
+    }
+}
@@ -0,0 +1,200 @@
+package com.golubovicluka.passwordmanagementsystem.service;
+
+import com.golubovicluka.passwordmanagementsystem.dao.DatabaseConfig;
+import com.golubovicluka.passwordmanagementsystem.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Thread-safe store of the sessions of logged-in users.
+ *
+ * A successful login creates a {@link Session} with a random, opaque token.
+ * Later operations present the token and are checked with one hash lookup in
+ * {@link #validate(String)}, without touching the database or BCrypt. A
+ * session expires when it has not been used for the idle timeout or when it
+ * reaches its absolute lifetime, whichever comes first. Expired sessions are
+ * rejected as soon as they are presented and removed by a background sweep.
+ */
+public class SessionStore {
+    private static final Logger logger = LoggerFactory.getLogger(SessionStore.class);
+
+    /** Random bytes per token, encoded as URL-safe Base64 */
+    private static final int TOKEN_BYTES = 32;
+
+    private static final long SWEEP_INTERVAL_SECONDS = 60;
+
+    private static volatile SessionStore instance;
+
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private final SecureRandom random = new SecureRandom();
+    private final long idleTimeoutMillis;
+    private final long maxLifetimeMillis;
+    private final LongSupplier clock;
+    private ScheduledExecutorService sweeper;
+
+    /**
+     * Constructs a session store.
+     *
+     * @param idleTimeout The time a session may go unused
+     * @param maxLifetime The time a session lasts at most after login
+     * @param clock       The current time in milliseconds
+     */
+    SessionStore(Duration idleTimeout, Duration maxLifetime, LongSupplier clock) {
+        if (idleTimeout.isNegative() || idleTimeout.isZero() || maxLifetime.isNegative() || maxLifetime.isZero()) {
+            throw new IllegalArgumentException("Session timeouts must be positive");
+        }
+        this.idleTimeoutMillis = idleTimeout.toMillis();
+        this.maxLifetimeMillis = maxLifetime.toMillis();
+        this.clock = clock;
+    }
+
+    /**
+     * Gets the session store of the application, with the timeouts of
+     * {@link DatabaseConfig}.
+     *
+     * @return The shared session store
+     * @throws IllegalArgumentException If a session setting is invalid
+     */
+    public static SessionStore getInstance() {
+        if (instance == null) {
+            synchronized (SessionStore.class) {
+                if (instance == null) {
+                    DatabaseConfig config = DatabaseConfig.load();
+                    instance = new SessionStore(Duration.ofMinutes(config.getSessionIdleTimeoutMinutes()),
+                            Duration.ofHours(config.getSessionMaxLifetimeHours()), System::currentTimeMillis);
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Opens a session for a user whose credentials were verified.
+     *
+     * @param user The authenticated user
+     * @return The new session
+     */
+    public Session create(User user) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        Session session = new Session(token, user.getId(), user.getUsername(), clock.getAsLong());
+        sessions.put(token, session);
+        return session;
+    }
+
+    /**
+     * Looks a session up by its token and marks it as used.
+     *
+     * @param token The session token, may be null
+     * @return The session, or empty if the token is unknown or the session
+     *         has expired
+     */
+    public Optional<Session> validate(String token) {
+        if (token == null) {
+            return Optional.empty();
+        }
+        Session session = sessions.get(token);
+        if (session == null) {
+            return Optional.empty();
+        }
+        long now = clock.getAsLong();
+        if (isExpired(session, now)) {
+            sessions.remove(token, session);
+            return Optional.empty();
+        }
+        session.touch(now);
+        return Optional.of(session);
+    }
+
+    /**
+     * Ends a session, e.g. on logout. Unknown tokens are ignored.
+     *
+     * @param token The session token, may be null
+     */
+    public void invalidate(String token) {
+        if (token != null) {
+            sessions.remove(token);
+        }
+    }
+
+    /**
+     * Ends all sessions of a user, e.g. after the password changed.
+     *
+     * @param userId The ID of the user
+     * @return The number of sessions ended
+     */
+    public int invalidateUser(int userId) {
+        int before = sessions.size();
+        sessions.values().removeIf(session -> session.getUserId() == userId);
+        return before - sessions.size();
+    }
+
+    /**
+     * Removes all expired sessions.
+     *
+     * @return The number of sessions removed
+     */
+    int sweep() {
+        long now = clock.getAsLong();
+        int before = sessions.size();
+        sessions.values().removeIf(session -> isExpired(session, now));
+        return before - sessions.size();
+    }
+
+    /**
+     * Gets the number of sessions held, including expired ones the sweep has
+     * not removed yet.
+     *
+     * @return The number of sessions
+     */
+    public int size() {
+        return sessions.size();
+    }
+
+    private boolean isExpired(Session session, long now) {
+        return now - session.getLastAccessMillis() >= idleTimeoutMillis
+                || now - session.getCreatedAtMillis() >= maxLifetimeMillis;
+    }
+
+    /**
+     * Starts removing expired sessions in the background once a minute.
+     */
+    public synchronized void start() {
+        if (sweeper != null) {
+            return;
+        }
+        sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "session-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleWithFixedDelay(() -> {
+            int removed = sweep();
+            if (removed > 0) {
+                logger.debug("Removed {} expired sessions", removed);
+            }
+        }, SWEEP_INTERVAL_SECONDS, SWEEP_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stops the background sweep.
+     */
+    public synchronized void shutdown() {
+        if (sweeper != null) {
+            sweeper.shutdown();
+            sweeper = null;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.golubovicluka.passwordmanagementsystem.service;
+
+import com.golubovicluka.passwordmanagementsystem.dao.DatabaseConfig;
+import com.golubovicluka.passwordmanagementsystem.dao.DatabaseConnection;
+import com.golubovicluka.passwordmanagementsystem.dao.PasswordEntryDAO;
+import com.golubovicluka.passwordmanagementsystem.dao.PoolMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Background job that permanently removes password entries which have been
+ * in the trash for longer than the retention period.
+ *
+ * Every run removes expired rows in bounded batches through
+ * {@link PasswordEntryDAO#purgeDeletedEntries(LocalDateTime, int)} with a
+ * short pause in between, and only while the database is idle: as soon as
+ * the connection pool has borrowed connections or waiting threads, the run
+ * stops and the rest is left for the next one.
+ */
+public class TrashPurgeJob {
+    private static final Logger logger = LoggerFactory.getLogger(TrashPurgeJob.class);
+
+    /** Pause between two batches of one run, which leaves room for user requests */
+    private static final long PAUSE_BETWEEN_BATCHES_MILLIS = 200;
+
+    private final PasswordEntryDAO passwordEntryDAO;
+    private final Duration retention;
+    private final int batchSize;
+    private final long intervalMillis;
+    private final BooleanSupplier databaseIdle;
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Constructs a purge job.
+     *
+     * @param passwordEntryDAO The DAO the expired entries are removed with
+     * @param retention        How long deleted entries stay in the trash
+     * @param batchSize        The maximum number of entries removed per batch
+     * @param intervalMillis   The delay between two runs
+     * @param databaseIdle     Tells whether the database is idle enough for a
+     *                         batch
+     */
+    TrashPurgeJob(PasswordEntryDAO passwordEntryDAO, Duration retention, int batchSize, long intervalMillis,
+            BooleanSupplier databaseIdle) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Purge batch size must be positive");
+        }
+        this.passwordEntryDAO = passwordEntryDAO;
+        this.retention = retention;
+        this.batchSize = batchSize;
+        this.intervalMillis = intervalMillis;
+        this.databaseIdle = databaseIdle;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "trash-purge");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+
+    /**
+     * Creates a purge job with the retention period, batch size and interval
+     * of the given configuration.
+     *
+     * @param config The application configuration
+     * @return The purge job, not started yet
+     * @throws IllegalArgumentException If a trash setting is invalid
+     */
+    public static TrashPurgeJob fromConfig(DatabaseConfig config) {
+        return new TrashPurgeJob(new PasswordEntryDAO(), Duration.ofDays(config.getTrashRetentionDays()),
+                config.getTrashPurgeBatchSize(), TimeUnit.MINUTES.toMillis(config.getTrashPurgeIntervalMinutes()),
+                TrashPurgeJob::isPoolIdle);
+    }
+
+    /**
+     * Schedules the runs. The first run starts one interval from now, so it
+     * does not compete with loading the vault after login.
+     */
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::run, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void run() {
+        try {
+            int purged = purgeExpired();
+            if (purged > 0) {
+                logger.info("Purged {} password entries from the trash", purged);
+            }
+        } catch (RuntimeException e) {
+            // A failed run must not cancel the following ones
+            logger.warn("Trash purge failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Removes expired entries batch by batch until none are left or the
+     * database is busy.
+     *
+     * @return The number of entries removed
+     * @throws com.golubovicluka.passwordmanagementsystem.exception.DatabaseException
+     *         If a batch fails
+     */
+    int purgeExpired() {
+        LocalDateTime deletedBefore = LocalDateTime.now().minus(retention);
+        int total = 0;
+        while (databaseIdle.getAsBoolean()) {
+            int purged = passwordEntryDAO.purgeDeletedEntries(deletedBefore, batchSize);
+            total += purged;
+            if (purged < batchSize) {
+                return total;
+            }
+            try {
+                Thread.sleep(PAUSE_BETWEEN_BATCHES_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return total;
+            }
+        }
+        logger.debug("Trash purge paused after {} entries because the database is busy", total);
+        return total;
+    }
+
+    /**
+     * Tells whether no connection of the primary pool is in use or awaited.
+     */
+    private static boolean isPoolIdle() {
+        PoolMetrics metrics = DatabaseConnection.getInstance().getPoolMetrics();
+        return metrics == null || (metrics.getActiveConnections() == 0 && metrics.getPendingThreads() == 0);
+    }
+
+    /**
+     * Stops scheduling runs. A running batch is allowed to finish.
+     */
+    public void shutdown() {
+        scheduler.shutdown();
+    }
+}
@@ -9,6 +9,7 @@ module com.golubovicluka.passwordmanagementsystem {
     requires org.kordamp.ikonli.javafx;
     requires org.kordamp.bootstrapfx.core;
     requires java.sql;
+    requires java.management;
     requires com.fasterxml.jackson.databind;
     requires spring.security.crypto;
     requires javafx.base;
@@ -16,6 +17,7 @@ module com.golubovicluka.passwordmanagementsystem {
     requires org.slf4j;
     requires org.jsoup;
     requires com.zaxxer.hikari;
+    requires org.bouncycastle.provider;
 
     opens com.golubovicluka.passwordmanagementsystem to javafx.fxml;
     opens com.golubovicluka.passwordmanagementsystem.controller to javafx.fxml;
@@ -26,4 +28,5 @@ module com.golubovicluka.passwordmanagementsystem {
     exports com.golubovicluka.passwordmanagementsystem.controller;
     exports com.golubovicluka.passwordmanagementsystem.model;
     exports com.golubovicluka.passwordmanagementsystem.service;
+    exports com.golubovicluka.passwordmanagementsystem.dao to java.management;
 }
@@ -0,0 +1,5 @@
+-- Per-user list and search queries filter on user_id and sort or match on website.
+CREATE INDEX idx_password_entries_user_website ON password_entries (user_id, website);
+
+-- Category filtering narrows a user's entries by category_id.
+CREATE INDEX idx_password_entries_user_category ON password_entries (user_id, category_id);
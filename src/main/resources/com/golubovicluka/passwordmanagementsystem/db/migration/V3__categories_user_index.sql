@@ -0,0 +1,2 @@
+-- Category lists are always loaded per user and shown by name.
+CREATE INDEX idx_categories_user_name ON categories (user_id, name);
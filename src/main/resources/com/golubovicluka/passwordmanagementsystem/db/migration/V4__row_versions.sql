@@ -0,0 +1,21 @@
+-- Every write of a user's entries or categories takes the next value of the
+-- user's data_version and stamps it on the written rows. Bumping the counter
+-- locks the user row, so versions become visible in commit order and a reader
+-- can ask for everything after the last version it has seen.
+ALTER TABLE users ADD COLUMN data_version BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE password_entries ADD COLUMN row_version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE password_entries ADD COLUMN updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP;
+CREATE INDEX idx_password_entries_user_version ON password_entries (user_id, row_version);
+
+ALTER TABLE categories ADD COLUMN row_version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE categories ADD COLUMN updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP;
+
+-- Deleted entries leave a tombstone so delta reads can report the deletion.
+CREATE TABLE IF NOT EXISTS password_entry_tombstones (
+    entry_id INT PRIMARY KEY,
+    user_id INT NOT NULL,
+    row_version BIGINT NOT NULL,
+    deleted_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+CREATE INDEX idx_entry_tombstones_user_version ON password_entry_tombstones (user_id, row_version);
@@ -0,0 +1,15 @@
+-- Records which shard stores a user's categories and entries. Only used on
+-- the primary database; users without a row live on the primary.
+CREATE TABLE IF NOT EXISTS user_shards (
+    user_id INT PRIMARY KEY,
+    shard_id INT NOT NULL,
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+-- Once the data is sharded, ids of new categories and entries are taken in
+-- blocks from these counters instead of each shard's auto-increment, so they
+-- stay unique across shards.
+CREATE TABLE IF NOT EXISTS id_allocations (
+    name VARCHAR(64) PRIMARY KEY,
+    next_id BIGINT NOT NULL
+);
@@ -0,0 +1,5 @@
+-- Deleting an entry only stamps deleted_at, which keeps the row recoverable
+-- from the trash and keeps the delete cheap. Rows that stayed in the trash
+-- past the retention period are removed in small batches by the purge job.
+ALTER TABLE password_entries ADD COLUMN deleted_at TIMESTAMP NULL;
+CREATE INDEX idx_password_entries_deleted_at ON password_entries (deleted_at);
@@ -0,0 +1,3 @@
+-- Covers the per-category counts of the filter bar: the live rows of a user
+-- are one index range, grouped by category without reading the table.
+CREATE INDEX idx_password_entries_user_live_category ON password_entries (user_id, deleted_at, category_id);
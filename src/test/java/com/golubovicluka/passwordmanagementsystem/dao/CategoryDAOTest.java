@@ -0,0 +1,142 @@
+package com.golubovicluka.passwordmanagementsystem.dao;
+
+import com.golubovicluka.passwordmanagementsystem.exception.DatabaseException;
+import com.golubovicluka.passwordmanagementsystem.model.Category;
+import javafx.collections.ObservableList;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CategoryDAOTest {
+
+    private CategoryDAO categoryDAO;
+    private TestDatabaseConnection testConnection;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        testConnection = TestDatabaseConnection.getInstance();
+        TestDatabaseConnection.setupForTesting();
+
+        try (Connection conn = testConnection.getConnection();
+                Statement stmt = conn.createStatement()) {
+
+            dropTables(stmt);
+            stmt.execute("CREATE TABLE users ("
+                    + "id INT AUTO_INCREMENT PRIMARY KEY,"
+                    + "username VARCHAR(50) UNIQUE NOT NULL,"
+                    + "password_hash VARCHAR(255) NOT NULL,"
+                    + "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,"
+                    + "data_version BIGINT NOT NULL DEFAULT 0"
+                    + ")");
+            stmt.execute("CREATE TABLE categories ("
+                    + "category_id INT AUTO_INCREMENT PRIMARY KEY,"
+                    + "user_id INT NOT NULL,"
+                    + "name VARCHAR(255) NOT NULL,"
+                    + "description TEXT,"
+                    + "row_version BIGINT NOT NULL DEFAULT 0,"
+                    + "updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP"
+                    + ")");
+            stmt.execute("INSERT INTO users (username, password_hash) VALUES ('owner', 'hash')");
+            stmt.execute("INSERT INTO categories (user_id, name, description) VALUES (1, 'Work', 'Work accounts')");
+        }
+
+        categoryDAO = new CategoryDAO(new CategoryCache(Runnable::run, () -> true));
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        try (Connection conn = testConnection.getConnection();
+                Statement stmt = conn.createStatement()) {
+            dropTables(stmt);
+        }
+    }
+
+    private void dropTables(Statement stmt) throws SQLException {
+        stmt.execute("DROP TABLE IF EXISTS categories");
+        stmt.execute("DROP TABLE IF EXISTS users");
+    }
+
+    @Test
+    void getCategoriesSnapshot_ShouldNotQueryAgainAfterFirstLoad() throws SQLException {
+        ObservableList<Category> first = categoryDAO.getCategoriesSnapshot(1);
+
+        try (Connection conn = testConnection.getConnection();
+                Statement stmt = conn.createStatement()) {
+            stmt.execute("INSERT INTO categories (user_id, name) VALUES (1, 'Inserted behind the cache')");
+        }
+
+        assertEquals(1, first.size());
+        assertEquals(1, categoryDAO.getCategoriesForUser(1).size());
+    }
+
+    @Test
+    void getCategoriesSnapshot_WhenLoadFails_ShouldThrowAndNotCacheTheFailure() throws SQLException {
+        try (Connection conn = testConnection.getConnection();
+                Statement stmt = conn.createStatement()) {
+            stmt.execute("ALTER TABLE categories RENAME TO categories_unavailable");
+        }
+
+        assertThrows(DatabaseException.class, () -> categoryDAO.getCategoriesSnapshot(1));
+
+        try (Connection conn = testConnection.getConnection();
+                Statement stmt = conn.createStatement()) {
+            stmt.execute("ALTER TABLE categories_unavailable RENAME TO categories");
+        }
+        assertEquals(1, categoryDAO.getCategoriesSnapshot(1).size());
+    }
+
+    @Test
+    void createCategory_ShouldUpdateSnapshotInPlace() {
+        ObservableList<Category> snapshot = categoryDAO.getCategoriesSnapshot(1);
+
+        Category created = categoryDAO.createCategory(1, "Personal", "Personal accounts");
+
+        assertNotNull(created);
+        assertEquals(2, snapshot.size());
+        assertEquals("Personal", snapshot.get(1).getName());
+    }
+
+    @Test
+    void getCategoriesSnapshot_ShouldBeReadOnly() {
+        ObservableList<Category> snapshot = categoryDAO.getCategoriesSnapshot(1);
+
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.add(new Category()));
+    }
+
+    @Test
+    void add_WhenCalledOffTheUiThread_ShouldThrow() {
+        CategoryCache cache = new CategoryCache(Runnable::run, () -> false);
+        ObservableList<Category> snapshot = cache.getSnapshot(1, List::of);
+
+        assertThrows(IllegalStateException.class, () -> cache.add(new Category(2, 1, "Personal", null)));
+        assertTrue(snapshot.isEmpty());
+    }
+
+    @Test
+    void createCategory_WhenCalledOffTheUiThread_ShouldUpdateSnapshotOnTheUiThread() {
+        List<Runnable> uiTasks = new ArrayList<>();
+        AtomicBoolean onUiThread = new AtomicBoolean();
+        categoryDAO = new CategoryDAO(new CategoryCache(uiTasks::add, onUiThread::get));
+        ObservableList<Category> snapshot = categoryDAO.getCategoriesSnapshot(1);
+
+        categoryDAO.createCategory(1, "Personal", "Personal accounts");
+
+        assertEquals(1, snapshot.size());
+        assertEquals(1, uiTasks.size());
+
+        onUiThread.set(true);
+        uiTasks.forEach(Runnable::run);
+
+        assertEquals(2, snapshot.size());
+        assertEquals("Personal", snapshot.get(1).getName());
+    }
+}
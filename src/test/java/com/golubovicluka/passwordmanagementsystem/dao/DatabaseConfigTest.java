@@ -0,0 +1,66 @@
+package com.golubovicluka.passwordmanagementsystem.dao;
+
+import com.zaxxer.hikari.HikariConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DatabaseConfigTest {
+
+    @TempDir
+    Path configDirectory;
+
+    private Path writeConfig(String content) throws IOException {
+        Path file = configDirectory.resolve("database.properties");
+        Files.writeString(file, content);
+        return file;
+    }
+
+    @Test
+    void load_WhenPropertyAlsoInFile_ShouldPreferSystemProperty() throws IOException {
+        Path file = writeConfig("pms.db.pool.maxSize=4\npms.db.pool.minIdle=2\n");
+        Properties overrides = new Properties();
+        overrides.setProperty("pms.db.pool.maxSize", "20");
+        overrides.setProperty("user.home", "/ignored");
+
+        DatabaseConfig config = DatabaseConfig.load(file, overrides);
+
+        assertEquals("20", config.get(DatabaseConfig.POOL_MAX_SIZE));
+        assertEquals("2", config.get(DatabaseConfig.POOL_MIN_IDLE));
+        assertNull(config.get("user.home"));
+    }
+
+    @Test
+    void applyTo_ShouldOverrideOnlyConfiguredSettings() throws IOException {
+        Path file = writeConfig("pms.storage.backend=h2\npms.db.username=vault\npms.db.pool.maxSize=3\n"
+                + "pms.db.pool.connectionTimeoutMs=1500\n");
+        DatabaseConfig config = DatabaseConfig.load(file, new Properties());
+        HikariConfig hikariConfig = new HikariConfig();
+        config.getStorageBackend().configure(hikariConfig);
+
+        config.applyTo(hikariConfig);
+
+        assertEquals(StorageBackend.H2_FILE, config.getStorageBackend());
+        assertEquals("vault", hikariConfig.getUsername());
+        assertEquals(3, hikariConfig.getMaximumPoolSize());
+        assertEquals(1, hikariConfig.getMinimumIdle());
+        assertEquals(1500, hikariConfig.getConnectionTimeout());
+    }
+
+    @Test
+    void applyTo_WhenNumberIsInvalid_ShouldNameTheSetting() {
+        Properties overrides = new Properties();
+        overrides.setProperty("pms.db.pool.maxSize", "ten");
+        DatabaseConfig config = DatabaseConfig.load(null, overrides);
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> config.applyTo(new HikariConfig()));
+        assertTrue(e.getMessage().contains("pms.db.pool.maxSize"));
+    }
+}
@@ -0,0 +1,78 @@
+package com.golubovicluka.passwordmanagementsystem.dao;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DatabaseConnectionTest {
+
+    @TempDir
+    Path dataDirectory;
+
+    @BeforeEach
+    void setUp() {
+        System.setProperty(StorageBackend.BACKEND_PROPERTY, "h2");
+        System.setProperty(StorageBackend.DATA_DIRECTORY_PROPERTY, dataDirectory.toString());
+        DatabaseConnection.setInstance(null);
+    }
+
+    @AfterEach
+    void tearDown() {
+        DatabaseConnection.shutdown();
+        System.clearProperty(StorageBackend.BACKEND_PROPERTY);
+        System.clearProperty(StorageBackend.DATA_DIRECTORY_PROPERTY);
+        System.clearProperty(DatabaseConfig.REPLICA_URLS);
+        TestDatabaseConnection.setupForTesting();
+    }
+
+    @Test
+    void warmUp_ShouldInitializePoolAndOpenIdleConnections() {
+        DatabaseConnection.warmUp();
+
+        DatabaseConnection connection = DatabaseConnection.getInstance();
+        assertEquals(StorageBackend.H2_FILE, connection.getStorageBackend());
+        assertTrue(connection.getPoolMXBean().getTotalConnections() >= 1);
+        assertTrue(connection.getPoolMetrics().getAcquireCount() >= 1);
+    }
+
+    @Test
+    void getInstance_ShouldReturnSameInstanceAcrossThreads() throws InterruptedException {
+        DatabaseConnection[] seen = new DatabaseConnection[2];
+        Thread first = new Thread(() -> seen[0] = DatabaseConnection.getInstance());
+        Thread second = new Thread(() -> seen[1] = DatabaseConnection.getInstance());
+
+        first.start();
+        second.start();
+        first.join();
+        second.join();
+
+        assertNotNull(seen[0]);
+        assertSame(seen[0], seen[1]);
+    }
+
+    @Test
+    void getReadConnection_WhenReplicaConfigured_ShouldReadFromReplicaUntilKeyWrites() throws SQLException {
+        System.setProperty(DatabaseConfig.REPLICA_URLS, "jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1");
+        DatabaseConnection connection = DatabaseConnection.getInstance();
+
+        try (Connection conn = connection.getReadConnection(1)) {
+            assertTrue(conn.getMetaData().getURL().contains("mem:replica"));
+        }
+
+        connection.recordWrite(1);
+
+        try (Connection conn = connection.getReadConnection(1)) {
+            assertFalse(conn.getMetaData().getURL().contains("mem:replica"));
+        }
+        try (Connection conn = connection.getReadConnection(2)) {
+            assertTrue(conn.getMetaData().getURL().contains("mem:replica"));
+        }
+    }
+}
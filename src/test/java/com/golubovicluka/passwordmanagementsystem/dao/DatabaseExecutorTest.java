@@ -0,0 +1,88 @@
+package com.golubovicluka.passwordmanagementsystem.dao;
+
+import com.golubovicluka.passwordmanagementsystem.exception.DatabaseException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DatabaseExecutorTest {
+
+    private DatabaseExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void submit_ShouldCompleteWithResultOrException() throws Exception {
+        executor = new DatabaseExecutor(2, 4, false);
+
+        assertEquals(42, executor.submit(() -> 42).get(5, TimeUnit.SECONDS));
+        CompletableFuture<Object> failed = executor.submit(() -> {
+            throw new DatabaseException("down");
+        });
+        ExecutionException e = assertThrows(ExecutionException.class, () -> failed.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(DatabaseException.class, e.getCause());
+        assertFalse(executor.isVirtualThreads());
+    }
+
+    @Test
+    void submit_WhenQueueIsFull_ShouldFailFastAndCountRejection() throws Exception {
+        executor = new DatabaseExecutor(1, 1, false);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+
+        CompletableFuture<Void> running = executor.run(() -> {
+            started.countDown();
+            awaitQuietly(release);
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Integer> queued = executor.submit(() -> 1);
+        CompletableFuture<Integer> rejected = executor.submit(() -> 2);
+
+        assertEquals(1, executor.getQueueDepth());
+        assertEquals(1, executor.getActiveTasks());
+        assertTrue(rejected.isCompletedExceptionally());
+        assertEquals(1, executor.getRejectedTasks());
+
+        release.countDown();
+        running.get(5, TimeUnit.SECONDS);
+        assertEquals(1, queued.get(5, TimeUnit.SECONDS));
+        assertEquals(1, executor.getLargestQueueDepth());
+    }
+
+    @Test
+    void constructor_WhenVirtualThreadsPreferred_ShouldUseThemOnlyWhereSupported() throws Exception {
+        executor = new DatabaseExecutor(1, 1, true);
+
+        boolean virtual = executor.submit(() -> isVirtual(Thread.currentThread())).get(5, TimeUnit.SECONDS);
+
+        assertEquals(Runtime.version().feature() >= 21, executor.isVirtualThreads());
+        assertEquals(executor.isVirtualThreads(), virtual);
+    }
+
+    private static boolean isVirtual(Thread thread) {
+        try {
+            return (boolean) Thread.class.getMethod("isVirtual").invoke(thread);
+        } catch (ReflectiveOperationException e) {
+            return false;
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.golubovicluka.passwordmanagementsystem.dao;
+
+import com.golubovicluka.passwordmanagementsystem.model.PasswordEntry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordEntryCacheTest {
+
+    private List<PasswordEntry> rows(int userId, int count) {
+        return IntStream.rangeClosed(1, count)
+                .mapToObj(id -> new PasswordEntry(userId * 100 + id, userId, "site.com", "user", "Secret123", null,
+                        null))
+                .toList();
+    }
+
+    @Test
+    void put_WhenUserLimitExceeded_ShouldEvictLeastRecentlyUsedUser() {
+        PasswordEntryCache cache = new PasswordEntryCache(2, 1_000);
+        cache.put(1, "all", rows(1, 1), cache.currentGeneration());
+        cache.put(2, "all", rows(2, 1), cache.currentGeneration());
+        cache.get(1, "all");
+
+        cache.put(3, "all", rows(3, 1), cache.currentGeneration());
+
+        assertNotNull(cache.get(1, "all"));
+        assertNull(cache.get(2, "all"));
+        assertEquals(1, cache.getStats().evictions());
+    }
+
+    @Test
+    void put_WhenRowLimitExceeded_ShouldEvictUntilWithinBound() {
+        PasswordEntryCache cache = new PasswordEntryCache(10, 5);
+        cache.put(1, "all", rows(1, 3), cache.currentGeneration());
+
+        cache.put(2, "all", rows(2, 3), cache.currentGeneration());
+
+        assertNull(cache.get(1, "all"));
+        assertEquals(3, cache.getStats().cachedRows());
+    }
+
+    @Test
+    void put_WhenInvalidatedDuringLoad_ShouldNotCacheStaleRows() {
+        PasswordEntryCache cache = new PasswordEntryCache(10, 1_000);
+        long generation = cache.currentGeneration();
+
+        cache.invalidateUser(1);
+        cache.put(1, "all", rows(1, 2), generation);
+
+        assertNull(cache.get(1, "all"));
+    }
+
+    @Test
+    void get_ShouldReturnCopiesThatDoNotAffectCache() {
+        PasswordEntryCache cache = new PasswordEntryCache(10, 1_000);
+        cache.put(1, "all", rows(1, 1), cache.currentGeneration());
+
+        cache.get(1, "all").get(0).setWebsite("changed.com");
+
+        assertEquals("site.com", cache.get(1, "all").get(0).getWebsite());
+    }
+
+    @Test
+    void checkVersion_WhenVersionChanged_ShouldDropCachedResultsOfUser() {
+        PasswordEntryCache cache = new PasswordEntryCache(10, 1_000);
+        cache.checkVersion(1, 5);
+        cache.put(1, "all", rows(1, 1), cache.currentGeneration());
+        cache.put(2, "all", rows(2, 1), cache.currentGeneration());
+
+        cache.checkVersion(1, 5);
+        assertNotNull(cache.get(1, "all"));
+
+        cache.checkVersion(1, 6);
+        assertNull(cache.get(1, "all"));
+        assertNotNull(cache.get(2, "all"));
+    }
+
+    @Test
+    void checkVersion_WhenNoVersionRecorded_ShouldDropCachedResults() {
+        PasswordEntryCache cache = new PasswordEntryCache(10, 1_000);
+        cache.put(1, "all", rows(1, 1), cache.currentGeneration());
+
+        cache.checkVersion(1, 0);
+
+        assertNull(cache.get(1, "all"));
+    }
+}
@@ -0,0 +1,471 @@
+package com.golubovicluka.passwordmanagementsystem.dao;
+
+import com.golubovicluka.passwordmanagementsystem.exception.DatabaseException;
+import com.golubovicluka.passwordmanagementsystem.exception.EntryConflictException;
+import com.golubovicluka.passwordmanagementsystem.model.Category;
+import com.golubovicluka.passwordmanagementsystem.model.PasswordEntry;
+import com.golubovicluka.passwordmanagementsystem.model.PasswordEntryDelta;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordEntryDAOTest {
+
+    private PasswordEntryDAO passwordEntryDAO;
+    private TestDatabaseConnection testConnection;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        testConnection = TestDatabaseConnection.getInstance();
+        TestDatabaseConnection.setupForTesting();
+
+        try (Connection conn = testConnection.getConnection();
+                Statement stmt = conn.createStatement()) {
+
+            dropTables(stmt);
+            stmt.execute("CREATE TABLE users ("
+                    + "id INT AUTO_INCREMENT PRIMARY KEY,"
+                    + "username VARCHAR(50) UNIQUE NOT NULL,"
+                    + "password_hash VARCHAR(255) NOT NULL,"
+                    + "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,"
+                    + "data_version BIGINT NOT NULL DEFAULT 0"
+                    + ")");
+            stmt.execute("CREATE TABLE categories ("
+                    + "category_id INT AUTO_INCREMENT PRIMARY KEY,"
+                    + "user_id INT NOT NULL,"
+                    + "name VARCHAR(255) NOT NULL,"
+                    + "description TEXT,"
+                    + "row_version BIGINT NOT NULL DEFAULT 0,"
+                    + "updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP"
+                    + ")");
+            stmt.execute("CREATE TABLE password_entries ("
+                    + "id INT AUTO_INCREMENT PRIMARY KEY,"
+                    + "user_id INT NOT NULL,"
+                    + "website VARCHAR(255) NOT NULL,"
+                    + "username VARCHAR(255) NOT NULL,"
+                    + "password VARCHAR(255) NOT NULL,"
+                    + "category_id INT,"
+                    + "row_version BIGINT NOT NULL DEFAULT 0,"
+                    + "updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,"
+                    + "deleted_at TIMESTAMP NULL"
+                    + ")");
+            stmt.execute("CREATE TABLE password_entry_tombstones ("
+                    + "entry_id INT PRIMARY KEY,"
+                    + "user_id INT NOT NULL,"
+                    + "row_version BIGINT NOT NULL,"
+                    + "deleted_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP"
+                    + ")");
+            new SearchTokenMigration().apply(conn);
+
+            stmt.execute("INSERT INTO users (username, password_hash) VALUES ('owner', 'hash'), ('other', 'hash')");
+            stmt.execute("INSERT INTO categories (user_id, name, description) VALUES (1, 'Work', 'Work accounts')");
+        }
+
+        passwordEntryDAO = new PasswordEntryDAO(new PasswordEntryCache(16, 50_000));
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        try (Connection conn = testConnection.getConnection();
+                Statement stmt = conn.createStatement()) {
+            dropTables(stmt);
+        }
+    }
+
+    private void dropTables(Statement stmt) throws SQLException {
+        stmt.execute("DROP TABLE IF EXISTS password_entry_search_tokens");
+        stmt.execute("DROP TABLE IF EXISTS password_entry_tombstones");
+        stmt.execute("DROP TABLE IF EXISTS password_entries");
+        stmt.execute("DROP TABLE IF EXISTS categories");
+        stmt.execute("DROP TABLE IF EXISTS users");
+    }
+
+    private void insertEntries(int userId, int count) throws SQLException {
+        try (Connection conn = testConnection.getConnection();
+                Statement stmt = conn.createStatement()) {
+            for (int i = 0; i < count; i++) {
+                stmt.execute("INSERT INTO password_entries (user_id, website, username, password, category_id) "
+                        + "VALUES (" + userId + ", 'site" + i + ".com', 'user" + i + "', 'Secret" + i + "', "
+                        + (i % 2 == 0 ? "1" : "NULL") + ")");
+            }
+        }
+    }
+
+    @Test
+    void getPasswordEntriesPage_ShouldReturnAtMostPageSizeEntriesInIdOrder() throws SQLException {
+        insertEntries(1, 5);
+
+        List<PasswordEntry> page = passwordEntryDAO.getPasswordEntriesPage(1, 0, 3);
+
+        assertEquals(3, page.size());
+        assertTrue(page.get(0).getId() < page.get(1).getId());
+        assertTrue(page.get(1).getId() < page.get(2).getId());
+        assertEquals("Work", page.get(0).getCategory().getName());
+        assertNull(page.get(1).getCategory());
+    }
+
+    @Test
+    void getPasswordEntriesPage_ShouldSeekPastCursor() throws SQLException {
+        insertEntries(1, 5);
+
+        List<PasswordEntry> first = passwordEntryDAO.getPasswordEntriesPage(1, 0, 3);
+        List<PasswordEntry> second = passwordEntryDAO.getPasswordEntriesPage(1, first.get(2).getId(), 3);
+
+        assertEquals(2, second.size());
+        assertTrue(second.get(0).getId() > first.get(2).getId());
+        assertTrue(passwordEntryDAO.getPasswordEntriesPage(1, second.get(1).getId(), 3).isEmpty());
+    }
+
+    @Test
+    void getPasswordEntriesPageInCategory_ShouldSeekPastCursorWithinCategory() throws SQLException {
+        insertEntries(1, 5);
+
+        List<PasswordEntry> first = passwordEntryDAO.getPasswordEntriesPageInCategory(1, 1, 0, 2);
+        List<PasswordEntry> second = passwordEntryDAO.getPasswordEntriesPageInCategory(1, 1, first.get(1).getId(), 2);
+
+        assertEquals(List.of("site0.com", "site2.com"), first.stream().map(PasswordEntry::getWebsite).toList());
+        assertEquals(List.of("site4.com"), second.stream().map(PasswordEntry::getWebsite).toList());
+        assertTrue(passwordEntryDAO.getPasswordEntriesPageInCategory(2, 1, 0, 10).isEmpty());
+    }
+
+    @Test
+    void getPasswordEntriesPage_ShouldOnlyReturnEntriesOfUser() throws SQLException {
+        insertEntries(1, 2);
+        insertEntries(2, 3);
+
+        List<PasswordEntry> page = passwordEntryDAO.getPasswordEntriesPage(2, 0, 10);
+
+        assertEquals(3, page.size());
+        assertTrue(page.stream().allMatch(entry -> entry.getUserId() == 2));
+    }
+
+    @Test
+    void addPasswordEntries_ShouldInsertAllAndReturnGeneratedIds() {
+        List<PasswordEntry> entries = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            entries.add(new PasswordEntry("user" + i, "Secret" + i, "site" + i + ".com"));
+        }
+
+        List<Integer> ids = passwordEntryDAO.addPasswordEntries(entries, 1);
+
+        assertEquals(3, ids.size());
+        assertEquals(ids.get(0), entries.get(0).getId());
+        assertEquals(3, passwordEntryDAO.getPasswordsForUser(1).size());
+    }
+
+    @Test
+    void updateCategoryForEntries_ShouldMoveAllEntries() throws SQLException {
+        insertEntries(1, 4);
+        List<Integer> ids = passwordEntryDAO.getPasswordsForUser(1).stream().map(PasswordEntry::getId).toList();
+
+        int updated = passwordEntryDAO.updateCategoryForEntries(ids, new Category(1, 1, "Work", null), 1);
+
+        assertEquals(4, updated);
+        assertTrue(passwordEntryDAO.getPasswordsForUser(1).stream()
+                .allMatch(entry -> entry.getCategory() != null && entry.getCategory().getId() == 1));
+    }
+
+    @Test
+    void deletePasswordEntries_ShouldRemoveOnlyGivenEntries() throws SQLException {
+        insertEntries(1, 4);
+        List<PasswordEntry> entries = passwordEntryDAO.getPasswordsForUser(1);
+
+        int deleted = passwordEntryDAO.deletePasswordEntries(List.of(entries.get(0).getId(), entries.get(1).getId()), 1);
+
+        assertEquals(2, deleted);
+        assertEquals(2, passwordEntryDAO.getPasswordsForUser(1).size());
+    }
+
+    @Test
+    void deletePasswordEntries_ShouldMoveEntriesToTrashUntilRestored() throws SQLException {
+        insertEntries(1, 3);
+        List<PasswordEntry> entries = passwordEntryDAO.getPasswordsForUser(1);
+        int deletedId = entries.get(0).getId();
+
+        passwordEntryDAO.deletePasswordEntry(deletedId, 1);
+
+        assertEquals(2, passwordEntryDAO.getPasswordsForUser(1).size());
+        List<PasswordEntry> trash = passwordEntryDAO.getTrashedEntries(1);
+        assertEquals(1, trash.size());
+        assertEquals(deletedId, trash.get(0).getId());
+        assertNotNull(trash.get(0).getDeletedAt());
+
+        long version = passwordEntryDAO.getDataVersion(1);
+        assertEquals(1, passwordEntryDAO.restorePasswordEntries(List.of(deletedId), 1));
+
+        assertEquals(3, passwordEntryDAO.getPasswordsForUser(1).size());
+        assertTrue(passwordEntryDAO.getTrashedEntries(1).isEmpty());
+        PasswordEntryDelta delta = passwordEntryDAO.getPasswordEntriesChangedSince(1, version);
+        assertEquals(deletedId, delta.changed().get(0).getId());
+        assertTrue(delta.deletedIds().isEmpty());
+    }
+
+    @Test
+    void purgeDeletedEntries_ShouldRemoveOnlyExpiredEntriesUpToLimit() throws SQLException {
+        insertEntries(1, 4);
+        List<Integer> ids = passwordEntryDAO.getPasswordsForUser(1).stream().map(PasswordEntry::getId).toList();
+        passwordEntryDAO.deletePasswordEntries(ids.subList(0, 3), 1);
+        try (Connection conn = testConnection.getConnection();
+                Statement stmt = conn.createStatement()) {
+            stmt.execute("UPDATE password_entries SET deleted_at = DATEADD('DAY', -40, CURRENT_TIMESTAMP) "
+                    + "WHERE id IN (" + ids.get(0) + ", " + ids.get(1) + ")");
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(30);
+
+        assertEquals(1, passwordEntryDAO.purgeDeletedEntries(cutoff, 1));
+        assertEquals(1, passwordEntryDAO.purgeDeletedEntries(cutoff, 1));
+        assertEquals(0, passwordEntryDAO.purgeDeletedEntries(cutoff, 1));
+
+        assertEquals(List.of(ids.get(2)),
+                passwordEntryDAO.getTrashedEntries(1).stream().map(PasswordEntry::getId).toList());
+        assertEquals(1, passwordEntryDAO.getPasswordsForUser(1).size());
+    }
+
+    @Test
+    void getCategoryCounts_ShouldCountLiveEntriesPerCategoryOfUserOnly() throws SQLException {
+        insertEntries(1, 5);
+        insertEntries(2, 3);
+        List<Integer> ids = passwordEntryDAO.getPasswordsForUser(1).stream().map(PasswordEntry::getId).toList();
+        passwordEntryDAO.deletePasswordEntries(List.of(ids.get(0)), 1);
+
+        Map<Integer, Integer> counts = passwordEntryDAO.getCategoryCounts(1);
+
+        assertEquals(Map.of(1, 2, PasswordEntryDAO.UNCATEGORIZED, 2), counts);
+        assertTrue(passwordEntryDAO.getCategoryCounts(3).isEmpty());
+    }
+
+    @Test
+    void updatePasswordEntries_WhenOneStatementFails_ShouldRollBackAll() throws SQLException {
+        insertEntries(1, 2);
+        List<PasswordEntry> entries = passwordEntryDAO.getPasswordsForUser(1);
+        entries.get(0).setWebsite("changed.com");
+        entries.get(1).setWebsite(null);
+
+        assertThrows(DatabaseException.class,
+                () -> passwordEntryDAO.updatePasswordEntries(entries, 1));
+
+        assertTrue(passwordEntryDAO.getPasswordsForUser(1).stream()
+                .noneMatch(entry -> "changed.com".equals(entry.getWebsite())));
+    }
+
+    @Test
+    void updatePasswordEntry_WhenVersionIsStale_ShouldThrowConflictWithCurrentEntry() throws SQLException {
+        insertEntries(1, 1);
+        PasswordEntry mine = passwordEntryDAO.getPasswordsForUser(1).get(0);
+        PasswordEntry theirs = new PasswordEntry(mine);
+        theirs.setWebsite("theirs.com");
+        passwordEntryDAO.updatePasswordEntry(theirs, 1);
+
+        mine.setWebsite("mine.com");
+        EntryConflictException conflict = assertThrows(EntryConflictException.class,
+                () -> passwordEntryDAO.updatePasswordEntry(mine, 1));
+
+        assertTrue(conflict.isConflicting(mine.getId()));
+        assertEquals("theirs.com", conflict.getCurrentEntry(mine.getId()).getWebsite());
+        assertEquals(theirs.getRowVersion(), conflict.getCurrentEntry(mine.getId()).getRowVersion());
+        assertEquals("theirs.com", passwordEntryDAO.getPasswordsForUser(1).get(0).getWebsite());
+    }
+
+    @Test
+    void updatePasswordEntries_WhenVersionsMatch_ShouldAdvanceRowVersions() throws SQLException {
+        insertEntries(1, 2);
+        List<PasswordEntry> entries = passwordEntryDAO.getPasswordsForUser(1);
+        long before = entries.get(0).getRowVersion();
+        entries.forEach(entry -> entry.setWebsite("changed.com"));
+
+        passwordEntryDAO.updatePasswordEntries(entries, 1);
+
+        assertTrue(entries.get(0).getRowVersion() > before);
+        entries.get(0).setUsername("again");
+        assertEquals(1, passwordEntryDAO.updatePasswordEntries(List.of(entries.get(0)), 1));
+    }
+
+    @Test
+    void searchEntries_ShouldReturnSubstringMatchesOfUserBestFirst() {
+        passwordEntryDAO.addPasswordEntries(List.of(
+                new PasswordEntry("alice", "Secret1", "mail.example.com"),
+                new PasswordEntry("bob", "Secret2", "example.org"),
+                new PasswordEntry("example_user", "Secret3", "shop.com"),
+                new PasswordEntry("carol", "Secret4", "news.com")), 1);
+        passwordEntryDAO.addPasswordEntry(new PasswordEntry("dave", "Secret5", "example.net"), 2);
+
+        List<String> websites = passwordEntryDAO.searchEntries(1, "EXAMPLE", 10).stream()
+                .map(PasswordEntry::getWebsite)
+                .toList();
+
+        assertEquals(List.of("example.org", "mail.example.com", "shop.com"), websites);
+        assertEquals(1, passwordEntryDAO.searchEntries(1, "EXAMPLE", 1).size());
+        assertTrue(passwordEntryDAO.searchEntries(1, "xyz", 10).isEmpty());
+    }
+
+    @Test
+    void searchEntries_ShouldFollowUpdatesDeletesAndShortQueries() {
+        PasswordEntry entry = new PasswordEntry("alice", "Secret1", "github.com");
+        passwordEntryDAO.addPasswordEntry(entry, 1);
+        passwordEntryDAO.addPasswordEntry(new PasswordEntry("a_b", "Secret2", "gitlab.com"), 1);
+
+        entry.setWebsite("bitbucket.org");
+        passwordEntryDAO.updatePasswordEntry(entry, 1);
+
+        assertTrue(passwordEntryDAO.searchEntries(1, "github", 10).isEmpty());
+        assertEquals(entry.getId(), passwordEntryDAO.searchEntries(1, "bucket", 10).get(0).getId());
+        assertEquals(1, passwordEntryDAO.searchEntries(1, "_", 10).size());
+
+        passwordEntryDAO.deletePasswordEntry(entry.getId(), 1);
+        assertTrue(passwordEntryDAO.searchEntries(1, "bucket", 10).isEmpty());
+    }
+
+    @Test
+    void searchEntries_WhenIndexIsRebuilt_ShouldFindExistingEntries() throws SQLException {
+        insertEntries(1, 3);
+        try (Connection conn = testConnection.getConnection()) {
+            assertEquals(3, SearchTokens.rebuild(conn, null));
+        }
+
+        List<PasswordEntry> matches = passwordEntryDAO.searchEntries(1, "site1.c", 10);
+
+        assertEquals(1, matches.size());
+        assertEquals("site1.com", matches.get(0).getWebsite());
+    }
+
+    @Test
+    void getPasswordsForUser_ShouldLeaveOutPasswordsUntilFetched() throws SQLException {
+        insertEntries(1, 2);
+
+        List<PasswordEntry> entries = passwordEntryDAO.getPasswordsForUser(1);
+
+        assertTrue(entries.stream().allMatch(entry -> entry.getPassword() == null));
+        assertEquals("Secret0", passwordEntryDAO.fetchSecret(1, entries.get(0).getId()).orElseThrow());
+        passwordEntryDAO.deletePasswordEntry(entries.get(1).getId(), 1);
+        assertTrue(passwordEntryDAO.fetchSecret(1, entries.get(1).getId()).isEmpty());
+    }
+
+    @Test
+    void fetchSecret_WhenEntryBelongsToAnotherUser_ShouldBeEmpty() throws SQLException {
+        insertEntries(1, 1);
+        PasswordEntry entry = passwordEntryDAO.getPasswordsForUser(1).get(0);
+
+        assertTrue(passwordEntryDAO.fetchSecret(2, entry.getId()).isEmpty());
+    }
+
+    @Test
+    void bulkWrites_WhenEntriesBelongToAnotherUser_ShouldNotChangeThem() throws SQLException {
+        insertEntries(1, 2);
+        List<PasswordEntry> entries = passwordEntryDAO.getPasswordsForUser(1);
+        List<Integer> ids = entries.stream().map(PasswordEntry::getId).toList();
+        entries.forEach(entry -> entry.setWebsite("changed.com"));
+
+        assertEquals(0, passwordEntryDAO.updatePasswordEntries(entries, 2));
+        assertEquals(0, passwordEntryDAO.updateCategoryForEntries(ids, new Category(1, 1, "Work", null), 2));
+        assertEquals(0, passwordEntryDAO.deletePasswordEntries(ids, 2));
+        passwordEntryDAO.deletePasswordEntries(ids, 1);
+        assertEquals(0, passwordEntryDAO.restorePasswordEntries(ids, 2));
+
+        assertTrue(passwordEntryDAO.getPasswordsForUser(1).isEmpty());
+        List<PasswordEntry> trash = passwordEntryDAO.getTrashedEntries(1);
+        assertEquals(2, trash.size());
+        assertTrue(trash.stream().noneMatch(entry -> "changed.com".equals(entry.getWebsite())));
+    }
+
+    @Test
+    void updatePasswordEntry_WhenPasswordNotLoaded_ShouldKeepStoredPassword() throws SQLException {
+        insertEntries(1, 1);
+        PasswordEntry entry = passwordEntryDAO.getPasswordsForUser(1).get(0);
+
+        entry.setWebsite("changed.com");
+        passwordEntryDAO.updatePasswordEntry(entry, 1);
+
+        assertEquals("Secret0", passwordEntryDAO.fetchSecret(1, entry.getId()).orElseThrow());
+    }
+
+    @Test
+    void getPasswordsForUser_WhenCalledTwice_ShouldServeSecondReadFromCache() throws SQLException {
+        insertEntries(1, 3);
+
+        passwordEntryDAO.getPasswordsForUser(1);
+        List<PasswordEntry> second = passwordEntryDAO.getPasswordsForUser(1);
+
+        assertEquals(3, second.size());
+        assertEquals(1, passwordEntryDAO.getCacheStats().hits());
+        assertEquals(1, passwordEntryDAO.getCacheStats().misses());
+    }
+
+    @Test
+    void addPasswordEntry_ShouldInvalidateCachedEntriesOfUser() throws SQLException {
+        insertEntries(1, 2);
+        passwordEntryDAO.getPasswordsForUser(1);
+
+        passwordEntryDAO.addPasswordEntry(new PasswordEntry("new", "Secret123", "new.com"), 1);
+
+        assertEquals(3, passwordEntryDAO.getPasswordsForUser(1).size());
+    }
+
+    @Test
+    void deletePasswordEntry_ShouldInvalidateCachedPages() throws SQLException {
+        insertEntries(1, 2);
+        List<PasswordEntry> page = passwordEntryDAO.getPasswordEntriesPage(1, 0, 10);
+
+        passwordEntryDAO.deletePasswordEntry(page.get(0).getId(), 1);
+
+        assertEquals(1, passwordEntryDAO.getPasswordEntriesPage(1, 0, 10).size());
+    }
+
+    @Test
+    void getDataVersion_WhenAnotherSessionCommitted_ShouldDropCachedPages() throws SQLException {
+        insertEntries(1, 2);
+        passwordEntryDAO.getDataVersion(1);
+        passwordEntryDAO.getPasswordEntriesPage(1, 0, 10);
+
+        insertEntries(1, 1);
+        try (Connection conn = testConnection.getConnection();
+                Statement stmt = conn.createStatement()) {
+            stmt.execute("UPDATE users SET data_version = data_version + 1 WHERE id = 1");
+        }
+        passwordEntryDAO.getDataVersion(1);
+
+        assertEquals(3, passwordEntryDAO.getPasswordEntriesPage(1, 0, 10).size());
+    }
+
+    @Test
+    void getPasswordEntriesChangedSince_ShouldReturnOnlyLaterChangesAndDeletes() throws SQLException {
+        insertEntries(1, 3);
+        List<PasswordEntry> entries = passwordEntryDAO.getPasswordsForUser(1);
+        long baseline = passwordEntryDAO.getDataVersion(1);
+
+        entries.get(0).setWebsite("changed.com");
+        passwordEntryDAO.updatePasswordEntry(entries.get(0), 1);
+        passwordEntryDAO.deletePasswordEntry(entries.get(1).getId(), 1);
+        passwordEntryDAO.addPasswordEntry(new PasswordEntry("new", "Secret123", "new.com"), 1);
+
+        PasswordEntryDelta delta = passwordEntryDAO.getPasswordEntriesChangedSince(1, baseline);
+
+        assertEquals(2, delta.changed().size());
+        assertEquals("changed.com", delta.changed().get(0).getWebsite());
+        assertEquals("new.com", delta.changed().get(1).getWebsite());
+        assertEquals(List.of(entries.get(1).getId()), delta.deletedIds());
+        assertEquals(baseline + 3, delta.version());
+    }
+
+    @Test
+    void getPasswordEntriesChangedSince_WhenUpToDate_ShouldBeEmpty() throws SQLException {
+        insertEntries(1, 2);
+        passwordEntryDAO.addPasswordEntry(new PasswordEntry("new", "Secret123", "new.com"), 1);
+        long version = passwordEntryDAO.getDataVersion(1);
+
+        passwordEntryDAO.addPasswordEntry(new PasswordEntry("other", "Secret123", "other.com"), 2);
+
+        PasswordEntryDelta delta = passwordEntryDAO.getPasswordEntriesChangedSince(1, version);
+        assertTrue(delta.isEmpty());
+        assertEquals(version, delta.version());
+    }
+}
@@ -0,0 +1,49 @@
+package com.golubovicluka.passwordmanagementsystem.dao;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PoolMetricsTest {
+
+    @Test
+    void create_ShouldRecordAcquisitionsAndReadPoolGauges() throws SQLException {
+        PoolMetrics metrics = new PoolMetrics();
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:h2:mem:poolmetrics;DB_CLOSE_DELAY=-1");
+        config.setMaximumPoolSize(2);
+        config.setMetricsTrackerFactory(metrics);
+
+        try (HikariDataSource dataSource = new HikariDataSource(config)) {
+            try (Connection first = dataSource.getConnection();
+                    Connection second = dataSource.getConnection()) {
+                assertNotSame(first, second);
+                assertEquals(2, metrics.getActiveConnections());
+            }
+
+            assertEquals(2, metrics.getAcquireCount());
+            assertEquals(2, Arrays.stream(metrics.getAcquireHistogramCounts()).sum());
+            assertTrue(metrics.getAcquireP99Micros() > 0);
+        }
+    }
+
+    @Test
+    void latencyHistogram_ShouldReportBucketUpperBoundAsPercentile() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 99; i++) {
+            histogram.record(40_000);
+        }
+        histogram.record(3_000_000);
+
+        assertEquals(50, histogram.getPercentileMicros(50));
+        assertEquals(50, histogram.getPercentileMicros(99));
+        assertEquals(5_000, histogram.getPercentileMicros(100));
+        assertEquals(100, histogram.getCount());
+    }
+}
@@ -0,0 +1,150 @@
+package com.golubovicluka.passwordmanagementsystem.dao;
+
+import com.golubovicluka.passwordmanagementsystem.model.Category;
+import com.golubovicluka.passwordmanagementsystem.model.PasswordEntry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares mapping password entry rows by column label on every row with the
+ * precompiled mappers from {@link RowMappers}. Both benchmarks run the same
+ * query against an in-memory H2 database, so the difference is the mapping
+ * cost. Results are reported per result set; divide by {@code rows} for the
+ * per-row cost.
+ *
+ * Run with {@code mvn -P benchmark test-compile exec:exec}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RowMapperBenchmark {
+    private static final String QUERY = """
+            SELECT pe.*, c.name as category_name, c.description as category_description
+            FROM password_entries pe
+            LEFT JOIN categories c ON pe.category_id = c.category_id
+            WHERE pe.user_id = ?
+            """;
+
+    @Param({ "1000", "10000", "100000" })
+    private int rows;
+
+    private Connection connection;
+    private PreparedStatement statement;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1");
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("DROP TABLE IF EXISTS password_entries");
+            stmt.execute("DROP TABLE IF EXISTS categories");
+            stmt.execute("CREATE TABLE categories ("
+                    + "category_id INT AUTO_INCREMENT PRIMARY KEY,"
+                    + "user_id INT NOT NULL,"
+                    + "name VARCHAR(255) NOT NULL,"
+                    + "description TEXT"
+                    + ")");
+            stmt.execute("CREATE TABLE password_entries ("
+                    + "id INT AUTO_INCREMENT PRIMARY KEY,"
+                    + "user_id INT NOT NULL,"
+                    + "website VARCHAR(255) NOT NULL,"
+                    + "username VARCHAR(255) NOT NULL,"
+                    + "password VARCHAR(255) NOT NULL,"
+                    + "category_id INT,"
+                    + "row_version BIGINT NOT NULL DEFAULT 0,"
+                    + "deleted_at TIMESTAMP NULL"
+                    + ")");
+            stmt.execute("INSERT INTO categories (user_id, name, description) VALUES (1, 'Work', 'Work accounts')");
+        }
+
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO password_entries (user_id, website, username, password, category_id) "
+                        + "VALUES (1, ?, ?, ?, ?)")) {
+            for (int i = 0; i < rows; i++) {
+                insert.setString(1, "site" + i + ".com");
+                insert.setString(2, "user" + i);
+                insert.setString(3, "Secret" + i);
+                if (i % 2 == 0) {
+                    insert.setInt(4, 1);
+                } else {
+                    insert.setNull(4, Types.INTEGER);
+                }
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+
+        statement = connection.prepareStatement(QUERY);
+        statement.setInt(1, 1);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        statement.close();
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("DROP TABLE password_entries");
+            stmt.execute("DROP TABLE categories");
+        }
+        connection.close();
+    }
+
+    /**
+     * Baseline: the per-row lookups by label that the DAOs used before.
+     */
+    @Benchmark
+    public void mapByLabel(Blackhole blackhole) throws SQLException {
+        try (ResultSet rs = statement.executeQuery()) {
+            while (rs.next()) {
+                Category category = null;
+                if (rs.getObject("category_id") != null) {
+                    category = new Category(
+                            rs.getInt("category_id"),
+                            rs.getInt("user_id"),
+                            rs.getString("category_name"),
+                            rs.getString("category_description"));
+                }
+                blackhole.consume(new PasswordEntry(
+                        rs.getInt("id"),
+                        rs.getInt("user_id"),
+                        rs.getString("website"),
+                        rs.getString("username"),
+                        rs.getString("password"),
+                        category,
+                        null));
+            }
+        }
+    }
+
+    @Benchmark
+    public void mapByResolvedIndex(Blackhole blackhole) throws SQLException {
+        try (ResultSet rs = statement.executeQuery()) {
+            RowMapper<PasswordEntry> mapper = RowMappers.passwordEntry(rs);
+            while (rs.next()) {
+                blackhole.consume(mapper.mapRow(rs));
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.golubovicluka.passwordmanagementsystem.dao;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SchemaMigratorTest {
+
+    private TestDatabaseConnection testConnection;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        testConnection = TestDatabaseConnection.getInstance();
+        dropTables();
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        dropTables();
+    }
+
+    private void dropTables() throws SQLException {
+        try (Connection conn = testConnection.getConnection();
+                Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP TABLE IF EXISTS password_entry_search_tokens");
+            stmt.execute("DROP TABLE IF EXISTS password_entry_tombstones");
+            stmt.execute("DROP TABLE IF EXISTS password_entries");
+            stmt.execute("DROP TABLE IF EXISTS categories");
+            stmt.execute("DROP TABLE IF EXISTS user_shards");
+            stmt.execute("DROP TABLE IF EXISTS id_allocations");
+            stmt.execute("DROP TABLE IF EXISTS users");
+            stmt.execute("DROP TABLE IF EXISTS schema_version");
+        }
+    }
+
+    private Set<String> indexNames(Connection conn, String table) throws SQLException {
+        Set<String> names = new HashSet<>();
+        try (ResultSet rs = conn.getMetaData().getIndexInfo(null, null, table, false, false)) {
+            while (rs.next()) {
+                String name = rs.getString("INDEX_NAME");
+                if (name != null) {
+                    names.add(name.toLowerCase());
+                }
+            }
+        }
+        return names;
+    }
+
+    @Test
+    void migrate_OnEmptyDatabase_ShouldCreateTablesAndIndexes() throws SQLException {
+        try (Connection conn = testConnection.getConnection()) {
+            int applied = new SchemaMigrator().migrate(conn);
+
+            assertEquals(SchemaMigrator.defaultMigrations().size(), applied);
+            assertTrue(indexNames(conn, "PASSWORD_ENTRIES").contains("idx_password_entries_user_website"));
+            assertTrue(indexNames(conn, "PASSWORD_ENTRIES").contains("idx_password_entries_user_category"));
+            assertTrue(indexNames(conn, "CATEGORIES").contains("idx_categories_user_name"));
+        }
+    }
+
+    @Test
+    void migrate_WhenRunTwice_ShouldApplyEachVersionOnce() throws SQLException {
+        try (Connection conn = testConnection.getConnection()) {
+            new SchemaMigrator().migrate(conn);
+            int appliedAgain = new SchemaMigrator().migrate(conn);
+
+            assertEquals(0, appliedAgain);
+            try (Statement stmt = conn.createStatement();
+                    ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM schema_version")) {
+                assertTrue(rs.next());
+                assertEquals(SchemaMigrator.defaultMigrations().size(), rs.getInt(1));
+            }
+        }
+    }
+
+    @Test
+    void migrate_OnExistingTables_ShouldOnlyAddIndexes() throws SQLException {
+        try (Connection conn = testConnection.getConnection();
+                Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE users (id INT AUTO_INCREMENT PRIMARY KEY, username VARCHAR(255) NOT NULL UNIQUE,"
+                    + " password_hash VARCHAR(255) NOT NULL, created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+            stmt.execute("INSERT INTO users (username, password_hash) VALUES ('existing', 'hash')");
+
+            new SchemaMigrator().migrate(conn);
+
+            try (ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM users")) {
+                assertTrue(rs.next());
+                assertEquals(1, rs.getInt(1));
+            }
+        }
+    }
+}
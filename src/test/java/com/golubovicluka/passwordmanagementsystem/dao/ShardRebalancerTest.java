@@ -0,0 +1,170 @@
+package com.golubovicluka.passwordmanagementsystem.dao;
+
+import com.golubovicluka.passwordmanagementsystem.model.Category;
+import com.golubovicluka.passwordmanagementsystem.model.PasswordEntry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardRebalancerTest {
+
+    @TempDir
+    Path dataDirectory;
+
+    private UserDAO userDAO;
+    private CategoryDAO categoryDAO;
+
+    @BeforeEach
+    void setUp() {
+        System.setProperty(StorageBackend.BACKEND_PROPERTY, "h2");
+        System.setProperty(StorageBackend.DATA_DIRECTORY_PROPERTY, dataDirectory.toString());
+        System.setProperty(DatabaseConfig.SHARD_URLS, StorageBackend.h2FileUrl(dataDirectory.resolve("shard1")));
+        System.setProperty(DatabaseConfig.SHARD_STRATEGY, "range");
+        System.setProperty(DatabaseConfig.SHARD_RANGE_BOUNDS, "2");
+        DatabaseConnection.setInstance(null);
+
+        userDAO = new UserDAO();
+        categoryDAO = new CategoryDAO(new CategoryCache(Runnable::run, () -> true));
+    }
+
+    @AfterEach
+    void tearDown() {
+        DatabaseConnection.shutdown();
+        System.clearProperty(StorageBackend.BACKEND_PROPERTY);
+        System.clearProperty(StorageBackend.DATA_DIRECTORY_PROPERTY);
+        System.clearProperty(DatabaseConfig.SHARD_URLS);
+        System.clearProperty(DatabaseConfig.SHARD_STRATEGY);
+        System.clearProperty(DatabaseConfig.SHARD_RANGE_BOUNDS);
+        TestDatabaseConnection.setupForTesting();
+    }
+
+    private PasswordEntryDAO newEntryDAO() {
+        return new PasswordEntryDAO(new PasswordEntryCache(10, 1000));
+    }
+
+    @Test
+    void createUser_ShouldPlaceUsersByRangeAndKeepIdsUniqueAcrossShards() throws Exception {
+        assertTrue(userDAO.createUser("first", "hash"));
+        assertTrue(userDAO.createUser("second", "hash"));
+        int first = userDAO.findByUsername("first").orElseThrow().getId();
+        int second = userDAO.findByUsername("second").orElseThrow().getId();
+
+        DatabaseConnection database = DatabaseConnection.getInstance();
+        assertEquals(2, database.getShardCount());
+        assertEquals(0, database.getShardOf(first));
+        assertEquals(1, database.getShardOf(second));
+
+        PasswordEntryDAO entryDAO = newEntryDAO();
+        List<Integer> firstIds = entryDAO.addPasswordEntries(
+                List.of(new PasswordEntry("a", "Secret1", "a.com"), new PasswordEntry("b", "Secret2", "b.com")), first);
+        List<Integer> secondIds = entryDAO.addPasswordEntries(
+                List.of(new PasswordEntry("c", "Secret3", "c.com")), second);
+
+        assertTrue(secondIds.get(0) > firstIds.get(1));
+        assertEquals(2, entryDAO.getPasswordsForUser(first).size());
+        assertEquals(1, entryDAO.getPasswordsForUser(second).size());
+        assertEquals(1, entryDAO.deletePasswordEntries(List.of(secondIds.get(0)), second));
+        assertTrue(newEntryDAO().getPasswordsForUser(second).isEmpty());
+    }
+
+    @Test
+    void createUser_WhenUnitRollsBack_ShouldLeaveNothingOnShard() throws Exception {
+        assertTrue(userDAO.createUser("first", "hash"));
+        UnitOfWork unit = UnitOfWork.begin();
+        assertTrue(userDAO.createUser("second", "hash"));
+        unit.close();
+
+        assertTrue(userDAO.findByUsername("second").isEmpty());
+        assertEquals(0, count(DatabaseConnection.getInstance().getShardConnection(1), "users"));
+        assertEquals(0, count(DatabaseConnection.getInstance().getConnection(), "user_shards"));
+    }
+
+    @Test
+    void createUser_WhenUnitCommits_ShouldPlaceUserAfterCommit() throws Exception {
+        assertTrue(userDAO.createUser("first", "hash"));
+        try (UnitOfWork unit = UnitOfWork.begin()) {
+            assertTrue(userDAO.createUser("second", "hash"));
+            assertEquals(0, count(DatabaseConnection.getInstance().getShardConnection(1), "users"));
+            unit.commit();
+        }
+
+        int second = userDAO.findByUsername("second").orElseThrow().getId();
+        assertEquals(1, DatabaseConnection.getInstance().getShardOf(second));
+        assertEquals(1, count(DatabaseConnection.getInstance().getShardConnection(1), "users"));
+    }
+
+    private int count(Connection conn, String table) throws Exception {
+        try (conn;
+                Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM " + table)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    @Test
+    void moveUser_ShouldMoveRowsAndKeepIdsAndVersions() throws Exception {
+        assertTrue(userDAO.createUser("owner", "hash"));
+        int userId = userDAO.findByUsername("owner").orElseThrow().getId();
+        Category category = categoryDAO.createCategory(userId, "Work", "Work accounts");
+        PasswordEntry entry = new PasswordEntry("me", "Secret1", "site.com");
+        entry.setCategory(category);
+        newEntryDAO().addPasswordEntry(entry, userId);
+        newEntryDAO().deletePasswordEntry(newEntryDAO().addPasswordEntries(
+                List.of(new PasswordEntry("old", "Secret2", "old.com")), userId).get(0), userId);
+        long version = newEntryDAO().getDataVersion(userId);
+
+        int moved = new ShardRebalancer().moveUser(userId, 1);
+
+        // Category, live entry, trashed entry and its tombstone
+        assertEquals(4, moved);
+        assertEquals(1, DatabaseConnection.getInstance().getShardOf(userId));
+        List<PasswordEntry> entries = newEntryDAO().getPasswordsForUser(userId);
+        assertEquals(1, entries.size());
+        assertEquals(entry.getId(), entries.get(0).getId());
+        assertEquals("Work", entries.get(0).getCategory().getName());
+        assertEquals(version, newEntryDAO().getDataVersion(userId));
+        assertEquals(1, newEntryDAO().getPasswordEntriesChangedSince(userId, 0).deletedIds().size());
+        assertEquals(1, newEntryDAO().getTrashedEntries(userId).size());
+
+        assertEquals(4, new ShardRebalancer().moveUser(userId, 0));
+        assertEquals(0, DatabaseConnection.getInstance().getShardOf(userId));
+        assertEquals(1, newEntryDAO().getPasswordsForUser(userId).size());
+    }
+
+    @Test
+    void addPasswordEntry_WhenPlacementChangedElsewhere_ShouldWriteToRecordedShard() throws Exception {
+        assertTrue(userDAO.createUser("first", "hash"));
+        assertTrue(userDAO.createUser("second", "hash"));
+        int second = userDAO.findByUsername("second").orElseThrow().getId();
+        PasswordEntryDAO entryDAO = newEntryDAO();
+        entryDAO.addPasswordEntry(new PasswordEntry("a", "Secret1", "a.com"), second);
+        assertEquals(1, DatabaseConnection.getInstance().getShardOf(second));
+
+        // Another process moves the user while this one has the old placement cached
+        try (Connection directory = DatabaseConnection.getInstance().getConnection();
+                Statement stmt = directory.createStatement()) {
+            stmt.executeUpdate("UPDATE user_shards SET shard_id = 0 WHERE user_id = " + second);
+        }
+        entryDAO.addPasswordEntry(new PasswordEntry("b", "Secret2", "b.com"), second);
+
+        assertEquals(0, DatabaseConnection.getInstance().getShardOf(second));
+        try (Connection primary = DatabaseConnection.getInstance().getConnection();
+                Statement stmt = primary.createStatement();
+                ResultSet rs = stmt.executeQuery(
+                        "SELECT website FROM password_entries WHERE user_id = " + second)) {
+            assertTrue(rs.next());
+            assertEquals("b.com", rs.getString(1));
+            assertFalse(rs.next());
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.golubovicluka.passwordmanagementsystem.dao;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardRouterTest {
+
+    @Test
+    void placeNewUser_WithRangeStrategy_ShouldFollowBounds() {
+        ShardRouter router = new ShardRouter(3, ShardRouter.Strategy.RANGE, new int[] { 100, 200 });
+
+        assertEquals(0, router.placeNewUser(1));
+        assertEquals(0, router.placeNewUser(99));
+        assertEquals(1, router.placeNewUser(100));
+        assertEquals(2, router.placeNewUser(200));
+        assertEquals(2, router.placeNewUser(5000));
+    }
+
+    @Test
+    void placeNewUser_WithHashStrategy_ShouldUseEveryShardForConsecutiveIds() {
+        ShardRouter router = new ShardRouter(4, ShardRouter.Strategy.HASH, new int[0]);
+
+        Set<Integer> shards = new HashSet<>();
+        for (int userId = 1; userId <= 100; userId++) {
+            int shard = router.placeNewUser(userId);
+            assertEquals(shard, router.placeNewUser(userId));
+            shards.add(shard);
+        }
+        assertEquals(Set.of(0, 1, 2, 3), shards);
+    }
+
+    @Test
+    void constructor_WhenRangeBoundsDoNotMatchShards_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new ShardRouter(3, ShardRouter.Strategy.RANGE, new int[] { 100 }));
+    }
+}
@@ -0,0 +1,62 @@
+package com.golubovicluka.passwordmanagementsystem.dao;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StorageBackendTest {
+
+    @TempDir
+    Path dataDirectory;
+
+    @Test
+    void fromName_WhenNotSet_ShouldDefaultToMySql() {
+        assertEquals(StorageBackend.MYSQL, StorageBackend.fromName(null));
+        assertEquals(StorageBackend.MYSQL, StorageBackend.fromName(" "));
+    }
+
+    @Test
+    void fromName_ShouldAcceptShortAndEnumNames() {
+        assertEquals(StorageBackend.H2_FILE, StorageBackend.fromName("h2"));
+        assertEquals(StorageBackend.H2_FILE, StorageBackend.fromName("h2-file"));
+        assertEquals(StorageBackend.MYSQL, StorageBackend.fromName("MySQL"));
+        assertThrows(IllegalArgumentException.class, () -> StorageBackend.fromName("oracle"));
+    }
+
+    @Test
+    void h2File_ShouldPersistMigratedSchemaInDataDirectory() throws SQLException {
+        HikariConfig config = new HikariConfig();
+        StorageBackend.H2_FILE.configure(config);
+        config.setJdbcUrl(StorageBackend.h2FileUrl(dataDirectory));
+
+        try (HikariDataSource dataSource = new HikariDataSource(config);
+                Connection conn = dataSource.getConnection()) {
+            new SchemaMigrator().migrate(conn);
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("INSERT INTO users (username, password_hash) VALUES ('owner', 'hash')");
+            }
+        }
+
+        assertTrue(Files.exists(dataDirectory.resolve("vault.mv.db")));
+
+        try (HikariDataSource dataSource = new HikariDataSource(config);
+                Connection conn = dataSource.getConnection()) {
+            assertEquals(0, new SchemaMigrator().migrate(conn));
+            try (Statement stmt = conn.createStatement();
+                    ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM users")) {
+                assertTrue(rs.next());
+                assertEquals(1, rs.getInt(1));
+            }
+        }
+    }
+}
@@ -49,7 +49,7 @@ public class TestDatabaseConnection extends DatabaseConnection {
      * @throws SQLException If a database access error occurs
      */
     @Override
-    public Connection getConnection() throws SQLException {
+    protected Connection openConnection() throws SQLException {
         return DriverManager.getConnection("jdbc:h2:mem:testdb;DB_CLOSE_DELAY=-1");
     }
 }
\ No newline at end of file
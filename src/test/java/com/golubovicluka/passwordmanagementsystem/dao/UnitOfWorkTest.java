@@ -0,0 +1,149 @@
+package com.golubovicluka.passwordmanagementsystem.dao;
+
+import com.golubovicluka.passwordmanagementsystem.exception.DatabaseException;
+import com.golubovicluka.passwordmanagementsystem.model.Category;
+import com.golubovicluka.passwordmanagementsystem.model.PasswordEntry;
+import javafx.collections.ObservableList;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UnitOfWorkTest {
+
+    private TestDatabaseConnection testConnection;
+    private CategoryDAO categoryDAO;
+    private PasswordEntryDAO passwordEntryDAO;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        testConnection = TestDatabaseConnection.getInstance();
+        TestDatabaseConnection.setupForTesting();
+
+        try (Connection conn = testConnection.getConnection();
+                Statement stmt = conn.createStatement()) {
+
+            dropTables(stmt);
+            stmt.execute("CREATE TABLE users ("
+                    + "id INT AUTO_INCREMENT PRIMARY KEY,"
+                    + "username VARCHAR(50) UNIQUE NOT NULL,"
+                    + "password_hash VARCHAR(255) NOT NULL,"
+                    + "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,"
+                    + "data_version BIGINT NOT NULL DEFAULT 0"
+                    + ")");
+            stmt.execute("CREATE TABLE categories ("
+                    + "category_id INT AUTO_INCREMENT PRIMARY KEY,"
+                    + "user_id INT NOT NULL,"
+                    + "name VARCHAR(255) NOT NULL,"
+                    + "description TEXT,"
+                    + "row_version BIGINT NOT NULL DEFAULT 0,"
+                    + "updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP"
+                    + ")");
+            stmt.execute("CREATE TABLE password_entries ("
+                    + "id INT AUTO_INCREMENT PRIMARY KEY,"
+                    + "user_id INT NOT NULL,"
+                    + "website VARCHAR(255) NOT NULL,"
+                    + "username VARCHAR(255) NOT NULL,"
+                    + "password VARCHAR(255) NOT NULL,"
+                    + "category_id INT,"
+                    + "row_version BIGINT NOT NULL DEFAULT 0,"
+                    + "updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,"
+                    + "deleted_at TIMESTAMP NULL"
+                    + ")");
+            new SearchTokenMigration().apply(conn);
+            stmt.execute("INSERT INTO users (username, password_hash) VALUES ('owner', 'hash')");
+        }
+
+        categoryDAO = new CategoryDAO(new CategoryCache(Runnable::run, () -> true));
+        passwordEntryDAO = new PasswordEntryDAO(new PasswordEntryCache(16, 50_000));
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        try (Connection conn = testConnection.getConnection();
+                Statement stmt = conn.createStatement()) {
+            dropTables(stmt);
+        }
+    }
+
+    private void dropTables(Statement stmt) throws SQLException {
+        stmt.execute("DROP TABLE IF EXISTS password_entry_search_tokens");
+        stmt.execute("DROP TABLE IF EXISTS password_entries");
+        stmt.execute("DROP TABLE IF EXISTS categories");
+        stmt.execute("DROP TABLE IF EXISTS users");
+    }
+
+    /** Counts rows over a connection of its own, which does not see uncommitted work */
+    private int count(String table) throws SQLException {
+        try (Connection conn = testConnection.openConnection();
+                Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM " + table)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    @Test
+    void commit_ShouldStoreCategoryAndEntryTogetherAndThenUpdateCache() throws SQLException {
+        ObservableList<Category> snapshot = categoryDAO.getCategoriesSnapshot(1);
+        PasswordEntry entry = new PasswordEntry("user", "Secret1!", "site.com");
+
+        try (UnitOfWork unit = UnitOfWork.beginForUser(1)) {
+            Category category = categoryDAO.createCategory(1, "Work", null);
+            entry.setCategory(category);
+            passwordEntryDAO.addPasswordEntry(entry, 1);
+
+            assertEquals(0, count("categories"));
+            assertTrue(snapshot.isEmpty());
+            unit.commit();
+        }
+
+        assertEquals(1, count("categories"));
+        assertEquals(1, count("password_entries"));
+        assertEquals(1, snapshot.size());
+        assertEquals("Work", passwordEntryDAO.getPasswordsForUser(1).get(0).getCategory().getName());
+    }
+
+    @Test
+    void close_WithoutCommit_ShouldRollBackAllWork() throws SQLException {
+        ObservableList<Category> snapshot = categoryDAO.getCategoriesSnapshot(1);
+
+        UnitOfWork unit = UnitOfWork.beginForUser(1);
+        categoryDAO.createCategory(1, "Work", null);
+        passwordEntryDAO.addPasswordEntry(new PasswordEntry("user", "Secret1!", "site.com"), 1);
+        unit.close();
+
+        assertEquals(0, count("categories"));
+        assertEquals(0, count("password_entries"));
+        assertTrue(snapshot.isEmpty());
+    }
+
+    @Test
+    void commit_WhenAnOperationFailed_ShouldRollBackEarlierWork() throws SQLException {
+        try (UnitOfWork unit = UnitOfWork.beginForUser(1)) {
+            categoryDAO.createCategory(1, "Work", null);
+            assertThrows(DatabaseException.class,
+                    () -> passwordEntryDAO.addPasswordEntry(new PasswordEntry("user", "Secret1!", null), 1));
+
+            assertThrows(DatabaseException.class, unit::commit);
+        }
+
+        assertEquals(0, count("categories"));
+    }
+
+    @Test
+    void begin_WhenUnitAlreadyOpen_ShouldFail() {
+        UnitOfWork unit = UnitOfWork.begin();
+        try {
+            assertThrows(IllegalStateException.class, UnitOfWork::begin);
+        } finally {
+            unit.close();
+        }
+    }
+}
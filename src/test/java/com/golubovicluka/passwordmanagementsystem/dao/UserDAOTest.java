@@ -81,4 +81,13 @@ class UserDAOTest {
 
         assertFalse(result);
     }
-}
\ No newline at end of file
+
+    @Test
+    void updatePasswordHash_ShouldOnlyReplaceTheExpectedHash() {
+        int userId = userDAO.findByUsername("testUser").orElseThrow().getId();
+
+        assertFalse(userDAO.updatePasswordHash(userId, "staleHash", "newHash"));
+        assertTrue(userDAO.updatePasswordHash(userId, "hashedPassword", "newHash"));
+        assertEquals("newHash", userDAO.findByUsername("testUser").orElseThrow().getPasswordHash());
+    }
+}
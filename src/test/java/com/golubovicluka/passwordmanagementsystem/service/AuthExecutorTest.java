@@ -0,0 +1,67 @@
+package com.golubovicluka.passwordmanagementsystem.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuthExecutorTest {
+
+    private AuthExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void submit_ShouldCompleteWithResultAndRecordHashTime() throws Exception {
+        executor = new AuthExecutor(1, 1);
+
+        assertEquals("hash", executor.submit(() -> "hash").get(5, TimeUnit.SECONDS));
+        assertTrue(executor.getHashTimeMeanMicros() >= 0);
+        assertTrue(executor.getHashTimeP99Micros() > 0);
+        assertEquals(0, executor.getRejectedTasks());
+    }
+
+    @Test
+    void submit_WhenQueueIsFull_ShouldRejectRightAway() throws Exception {
+        executor = new AuthExecutor(1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+
+        CompletableFuture<Boolean> running = executor.submit(() -> {
+            started.countDown();
+            return awaitQuietly(release);
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Integer> queued = executor.submit(() -> 1);
+        CompletableFuture<Integer> rejected = executor.submit(() -> 2);
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> rejected.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(RejectedExecutionException.class, e.getCause());
+        assertEquals(1, executor.getRejectedTasks());
+        assertEquals(1, executor.getQueueDepth());
+
+        release.countDown();
+        assertTrue(running.get(5, TimeUnit.SECONDS));
+        assertEquals(1, queued.get(5, TimeUnit.SECONDS));
+    }
+
+    private static boolean awaitQuietly(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.golubovicluka.passwordmanagementsystem.service;
 
+import com.golubovicluka.passwordmanagementsystem.dao.DatabaseExecutor;
 import com.golubovicluka.passwordmanagementsystem.dao.TestDatabaseConnection;
 import com.golubovicluka.passwordmanagementsystem.dao.UserDAO;
 import com.golubovicluka.passwordmanagementsystem.model.User;
@@ -11,9 +12,15 @@ import org.springframework.security.crypto.bcrypt.BCrypt;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 
 class AuthServiceTest {
 
@@ -64,6 +71,19 @@ class AuthServiceTest {
         assertEquals(VALID_USERNAME, result.getUsername());
     }
 
+    @Test
+    void authenticate_WithValidCredentials_ShouldOpenSessionUntilLogout() throws Exception {
+        authService.registerUser(VALID_USERNAME, VALID_PASSWORD);
+
+        LoginResult result = authService.authenticate(VALID_USERNAME, VALID_PASSWORD).get(5, TimeUnit.SECONDS);
+
+        assertTrue(result.isSuccess());
+        String token = result.session().getToken();
+        assertEquals(result.user().getId(), authService.getSession(token).orElseThrow().getUserId());
+        authService.logout(token);
+        assertTrue(authService.getSession(token).isEmpty());
+    }
+
     @Test
     void validateUser_WithInvalidPassword_ShouldReturnNull() throws ExecutionException, InterruptedException {
         authService.registerUser(VALID_USERNAME, VALID_PASSWORD);
@@ -99,4 +119,93 @@ class AuthServiceTest {
         assertTrue(hash.startsWith("$2a$"));
         assertTrue(BCrypt.checkpw(VALID_PASSWORD, hash));
     }
-}
\ No newline at end of file
+
+    @Test
+    void validateUser_WhenStoredHashIsBelowTargetCost_ShouldUpgradeIt() throws ExecutionException, InterruptedException {
+        UserDAO userDAO = new UserDAO();
+        userDAO.createUser(VALID_USERNAME, BCrypt.hashpw(VALID_PASSWORD, BCrypt.gensalt(4)));
+        AuthService service = new AuthService(userDAO, DatabaseExecutor.getInstance(),
+                new PasswordHashers(new BCryptPasswordHasher(new BCryptCostCalibrator(250, 5, 5))));
+
+        User result = service.validateUser(VALID_USERNAME, VALID_PASSWORD).get();
+
+        assertNotNull(result);
+        String stored = userDAO.findByUsername(VALID_USERNAME).orElseThrow().getPasswordHash();
+        assertTrue(stored.startsWith("$2a$05$"));
+        assertEquals(stored, result.getPasswordHash());
+        assertTrue(BCrypt.checkpw(VALID_PASSWORD, stored));
+    }
+
+    @Test
+    void authenticate_WithInvalidPassword_ShouldReportInvalidCredentials() throws Exception {
+        authService.registerUser(VALID_USERNAME, VALID_PASSWORD);
+
+        LoginResult result = authService.authenticate(VALID_USERNAME, INVALID_PASSWORD).get(5, TimeUnit.SECONDS);
+
+        assertEquals(LoginResult.Status.INVALID_CREDENTIALS, result.status());
+        assertNull(result.user());
+    }
+
+    @Test
+    void authenticate_WhenAuthExecutorIsSaturated_ShouldAskToTryAgain() throws Exception {
+        authService.registerUser(VALID_USERNAME, VALID_PASSWORD);
+        AuthExecutor saturated = new AuthExecutor(1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        try {
+            saturated.submit(() -> {
+                started.countDown();
+                try {
+                    return release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    return false;
+                }
+            });
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            CompletableFuture<Integer> queued = saturated.submit(() -> 1);
+            AuthService service = new AuthService(new UserDAO(), DatabaseExecutor.getInstance(),
+                    new PasswordHashers(new BCryptPasswordHasher(new BCryptCostCalibrator(250, 4, 4))), saturated);
+
+            LoginResult result = service.authenticate(VALID_USERNAME, VALID_PASSWORD).get(5, TimeUnit.SECONDS);
+
+            assertEquals(LoginResult.Status.TRY_AGAIN, result.status());
+            assertEquals(1, saturated.getRejectedTasks());
+            release.countDown();
+            assertEquals(1, queued.get(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            saturated.shutdown();
+        }
+    }
+
+    @Test
+    void authenticate_AfterTooManyFailures_ShouldRefuseWithoutLookup() throws Exception {
+        UserDAO userDAO = mock(UserDAO.class);
+        AuthService service = new AuthService(userDAO, DatabaseExecutor.getInstance(),
+                new PasswordHashers(new BCryptPasswordHasher(new BCryptCostCalibrator(250, 4, 4))),
+                AuthExecutor.getInstance(),
+                new LoginThrottle(1, 10, 60_000, 60_000, 60_000, System::currentTimeMillis));
+        service.authenticate("guessed", INVALID_PASSWORD).get(5, TimeUnit.SECONDS);
+
+        LoginResult result = service.authenticate("guessed", VALID_PASSWORD).get(5, TimeUnit.SECONDS);
+
+        assertEquals(LoginResult.Status.THROTTLED, result.status());
+        assertTrue(result.retryAfterMillis() > 0);
+        verify(userDAO).findByUsername(anyString());
+    }
+
+    @Test
+    void validateUser_WhenAnotherAlgorithmIsPreferred_ShouldMigrateHashOnLogin() throws Exception {
+        UserDAO userDAO = new UserDAO();
+        userDAO.createUser(VALID_USERNAME, BCrypt.hashpw(VALID_PASSWORD, BCrypt.gensalt(4)));
+        AuthService service = new AuthService(userDAO, DatabaseExecutor.getInstance(),
+                new PasswordHashers(new Argon2PasswordHasher(64, 1, 2),
+                        new BCryptPasswordHasher(new BCryptCostCalibrator(250, 4, 4))));
+
+        assertNotNull(service.validateUser(VALID_USERNAME, VALID_PASSWORD).get(5, TimeUnit.SECONDS));
+
+        String stored = userDAO.findByUsername(VALID_USERNAME).orElseThrow().getPasswordHash();
+        assertTrue(stored.startsWith("$argon2id$v=19$m=64,t=1,p=2$"));
+        assertNotNull(service.validateUser(VALID_USERNAME, VALID_PASSWORD).get(5, TimeUnit.SECONDS));
+    }
+}
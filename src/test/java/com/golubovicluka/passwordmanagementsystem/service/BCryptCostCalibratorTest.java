@@ -0,0 +1,37 @@
+package com.golubovicluka.passwordmanagementsystem.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BCryptCostCalibratorTest {
+
+    @Test
+    void chooseCost_ShouldPickHighestCostWithinBudgetAndStayInRange() {
+        BCryptCostCalibrator calibrator = new BCryptCostCalibrator(250, 10, 14);
+
+        assertEquals(12, calibrator.chooseCost(TimeUnit.MILLISECONDS.toNanos(60)));
+        assertEquals(10, calibrator.chooseCost(TimeUnit.MILLISECONDS.toNanos(400)));
+        assertEquals(14, calibrator.chooseCost(TimeUnit.MILLISECONDS.toNanos(1)));
+    }
+
+    @Test
+    void needsRehash_ShouldCompareStoredCostWithTargetCost() {
+        BCryptCostCalibrator calibrator = new BCryptCostCalibrator(250, 5, 14);
+
+        assertEquals(5, calibrator.getTargetCost());
+        assertTrue(calibrator.needsRehash(BCrypt.hashpw("secret", BCrypt.gensalt(4))));
+        assertFalse(calibrator.needsRehash(calibrator.hash("secret")));
+        assertFalse(calibrator.needsRehash("not a hash"));
+        assertTrue(calibrator.hash("secret").startsWith("$2a$05$"));
+    }
+
+    @Test
+    void constructor_WhenCostRangeIsInvalid_ShouldFail() {
+        assertThrows(IllegalArgumentException.class, () -> new BCryptCostCalibrator(250, 3, 10));
+        assertThrows(IllegalArgumentException.class, () -> new BCryptCostCalibrator(250, 12, 10));
+    }
+}
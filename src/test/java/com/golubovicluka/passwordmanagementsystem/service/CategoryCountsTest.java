@@ -0,0 +1,55 @@
+package com.golubovicluka.passwordmanagementsystem.service;
+
+import com.golubovicluka.passwordmanagementsystem.dao.PasswordEntryDAO;
+import com.golubovicluka.passwordmanagementsystem.model.Category;
+import javafx.collections.ObservableMap;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CategoryCountsTest {
+
+    private PasswordEntryDAO passwordEntryDAO;
+    private CategoryCounts categoryCounts;
+    private final Category work = new Category(7, 1, "Work", null);
+
+    @BeforeEach
+    void setUp() {
+        passwordEntryDAO = mock(PasswordEntryDAO.class);
+        when(passwordEntryDAO.getCategoryCounts(1)).thenReturn(Map.of(7, 2, PasswordEntryDAO.UNCATEGORIZED, 1));
+        categoryCounts = new CategoryCounts(passwordEntryDAO);
+    }
+
+    @Test
+    void adjustAndMove_ShouldUpdateCountsWithoutQueryingAgain() {
+        ObservableMap<Integer, Integer> counts = categoryCounts.getCounts(1);
+
+        categoryCounts.adjust(1, null, 1);
+        categoryCounts.move(1, work, null);
+        categoryCounts.move(1, work, null);
+
+        assertEquals(Map.of(PasswordEntryDAO.UNCATEGORIZED, 4), counts);
+        verify(passwordEntryDAO, times(1)).getCategoryCounts(1);
+    }
+
+    @Test
+    void adjust_WhenUserNotCached_ShouldDoNothing() {
+        categoryCounts.adjust(2, work, 1);
+
+        verifyNoInteractions(passwordEntryDAO);
+    }
+
+    @Test
+    void reload_ShouldReplaceCountsInPlace() {
+        ObservableMap<Integer, Integer> counts = categoryCounts.getCounts(1);
+        when(passwordEntryDAO.getCategoryCounts(1)).thenReturn(Map.of(7, 5));
+
+        categoryCounts.reload(1);
+
+        assertEquals(Map.of(7, 5), counts);
+    }
+}
@@ -0,0 +1,73 @@
+package com.golubovicluka.passwordmanagementsystem.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoginThrottleTest {
+
+    private static final long WINDOW = 60_000;
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private LoginThrottle throttle;
+
+    @BeforeEach
+    void setUp() {
+        throttle = new LoginThrottle(3, 10, WINDOW, 1_000, 8_000, now::get);
+    }
+
+    @Test
+    void recordFailure_WhenLimitIsReached_ShouldBlockWithDoublingBackoff() {
+        throttle.recordFailure("alice", "client");
+        throttle.recordFailure("Alice", "client");
+        assertEquals(0, throttle.retryAfterMillis("alice", "client"));
+
+        throttle.recordFailure("alice", "client");
+        assertEquals(1_000, throttle.retryAfterMillis("ALICE", "client"));
+
+        now.addAndGet(1_000);
+        assertEquals(0, throttle.retryAfterMillis("alice", "client"));
+        throttle.recordFailure("alice", "client");
+        assertEquals(2_000, throttle.retryAfterMillis("alice", "client"));
+
+        now.addAndGet(2_000);
+        for (int i = 0; i < 5; i++) {
+            throttle.recordFailure("alice", "client");
+        }
+        assertEquals(8_000, throttle.retryAfterMillis("alice", "client"));
+        assertEquals(0, throttle.retryAfterMillis("bob", "other"));
+    }
+
+    @Test
+    void recordSuccess_ShouldClearUsernameButNotClientFailures() {
+        for (int i = 0; i < 10; i++) {
+            throttle.recordFailure("user" + i, "client");
+        }
+        throttle.recordFailure("alice", "other");
+        throttle.recordFailure("alice", "other");
+
+        throttle.recordSuccess("alice");
+        throttle.recordFailure("alice", "other");
+
+        assertEquals(0, throttle.retryAfterMillis("alice", "other"));
+        assertTrue(throttle.retryAfterMillis("bob", "client") > 0);
+    }
+
+    @Test
+    void recordFailure_ShouldForgetFailuresOnceTheyLeaveTheWindow() {
+        throttle.recordFailure("alice", "client");
+        throttle.recordFailure("alice", "client");
+
+        now.addAndGet(WINDOW + WINDOW / 2);
+        throttle.recordFailure("alice", "client");
+        assertEquals(0, throttle.retryAfterMillis("alice", "client"));
+
+        now.addAndGet(2 * WINDOW);
+        throttle.recordFailure("alice", "client");
+        throttle.recordFailure("alice", "client");
+        assertEquals(0, throttle.retryAfterMillis("alice", "client"));
+    }
+}
@@ -0,0 +1,159 @@
+package com.golubovicluka.passwordmanagementsystem.service;
+
+import com.golubovicluka.passwordmanagementsystem.dao.PasswordEntryDAO;
+import com.golubovicluka.passwordmanagementsystem.exception.DatabaseException;
+import com.golubovicluka.passwordmanagementsystem.model.PasswordEntry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class PasswordEntryWriteQueueTest {
+
+    private PasswordEntryDAO passwordEntryDAO;
+    private PasswordEntryWriteQueue writeQueue;
+
+    @BeforeEach
+    void setUp() {
+        passwordEntryDAO = mock(PasswordEntryDAO.class);
+        writeQueue = new PasswordEntryWriteQueue(passwordEntryDAO, Runnable::run, TimeUnit.HOURS.toMillis(1));
+    }
+
+    private PasswordEntry existingEntry(int id) {
+        return new PasswordEntry(id, 1, "site.com", "user", "Secret123", null, null);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void update_WhenRepeated_ShouldFlushOnlyLatestState() {
+        PasswordEntry entry = existingEntry(7);
+
+        entry.setWebsite("first.com");
+        writeQueue.update(entry, e -> {
+        });
+        entry.setWebsite("second.com");
+        writeQueue.update(entry, e -> {
+        });
+        writeQueue.flushNow(5, TimeUnit.SECONDS);
+
+        ArgumentCaptor<List<PasswordEntry>> captor = ArgumentCaptor.forClass(List.class);
+        verify(passwordEntryDAO, times(1)).updatePasswordEntries(captor.capture(), eq(1));
+        assertEquals(1, captor.getValue().size());
+        assertEquals("second.com", captor.getValue().get(0).getWebsite());
+    }
+
+    @Test
+    void insertThenDelete_ShouldNotTouchDatabase() {
+        PasswordEntry entry = new PasswordEntry("user", "Secret123", "site.com");
+
+        writeQueue.insert(entry, 1, e -> {
+        });
+        writeQueue.delete(entry, e -> {
+        });
+        writeQueue.flushNow(5, TimeUnit.SECONDS);
+
+        verify(passwordEntryDAO, never()).addPasswordEntries(anyList(), anyInt());
+        verify(passwordEntryDAO, never()).deletePasswordEntries(anyList(), anyInt());
+    }
+
+    @Test
+    void insert_ShouldWriteGeneratedIdBackToEntry() {
+        PasswordEntry entry = new PasswordEntry("user", "Secret123", "site.com");
+        when(passwordEntryDAO.addPasswordEntries(anyList(), eq(1))).thenAnswer(invocation -> {
+            List<PasswordEntry> inserted = invocation.getArgument(0);
+            inserted.get(0).setId(42);
+            return List.of(42);
+        });
+
+        writeQueue.insert(entry, 1, e -> {
+        });
+        writeQueue.flushNow(5, TimeUnit.SECONDS);
+
+        assertEquals(42, entry.getId());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void insert_ShouldCarryGeneratedIdOverOnCallbackExecutor() {
+        List<Runnable> callbacks = new ArrayList<>();
+        writeQueue = new PasswordEntryWriteQueue(passwordEntryDAO, callbacks::add, TimeUnit.HOURS.toMillis(1));
+        PasswordEntry entry = new PasswordEntry("user", "Secret123", "site.com");
+        when(passwordEntryDAO.addPasswordEntries(anyList(), eq(1))).thenAnswer(invocation -> {
+            List<PasswordEntry> inserted = invocation.getArgument(0);
+            inserted.get(0).setId(42);
+            return List.of(42);
+        });
+
+        writeQueue.insert(entry, 1, e -> {
+        });
+        writeQueue.flushNow(5, TimeUnit.SECONDS);
+        entry.setWebsite("changed.com");
+        writeQueue.update(entry, e -> {
+        });
+        writeQueue.flushNow(5, TimeUnit.SECONDS);
+
+        assertEquals(0, entry.getId());
+        ArgumentCaptor<List<PasswordEntry>> captor = ArgumentCaptor.forClass(List.class);
+        verify(passwordEntryDAO).updatePasswordEntries(captor.capture(), anyInt());
+        assertEquals(42, captor.getValue().get(0).getId());
+
+        callbacks.forEach(Runnable::run);
+        assertEquals(42, entry.getId());
+    }
+
+    @Test
+    void update_WhenFlushThrowsUnexpectedException_ShouldRollBackAndClearInFlight() {
+        PasswordEntry entry = existingEntry(5);
+        when(passwordEntryDAO.updatePasswordEntries(anyList(), eq(1))).thenThrow(new IllegalStateException("broken"));
+        AtomicBoolean rolledBack = new AtomicBoolean();
+
+        writeQueue.update(entry, e -> rolledBack.set(true));
+        writeQueue.flushNow(5, TimeUnit.SECONDS);
+
+        assertTrue(rolledBack.get());
+        assertFalse(writeQueue.hasPendingWrites(1));
+    }
+
+    @Test
+    void delete_WhenFlushFails_ShouldInvokeRollbackAndListener() {
+        PasswordEntry entry = existingEntry(3);
+        when(passwordEntryDAO.deletePasswordEntries(anyList(), eq(1))).thenThrow(new DatabaseException("down"));
+        AtomicBoolean rolledBack = new AtomicBoolean();
+        AtomicBoolean notified = new AtomicBoolean();
+        writeQueue.setFailureListener(e -> notified.set(true));
+
+        writeQueue.delete(entry, e -> rolledBack.set(true));
+        writeQueue.flushNow(5, TimeUnit.SECONDS);
+
+        assertTrue(rolledBack.get());
+        assertTrue(notified.get());
+    }
+
+    @Test
+    void applyPending_ShouldOverlayUnflushedChanges() {
+        PasswordEntry updated = existingEntry(1);
+        updated.setWebsite("changed.com");
+        writeQueue.update(updated, e -> {
+        });
+        writeQueue.delete(existingEntry(2), e -> {
+        });
+        writeQueue.insert(new PasswordEntry("new", "Secret123", "new.com"), 1, e -> {
+        });
+
+        List<PasswordEntry> rows = writeQueue.applyPending(1, List.of(existingEntry(1), existingEntry(2),
+                existingEntry(3)));
+
+        assertEquals(2, rows.size());
+        assertEquals("changed.com", rows.get(0).getWebsite());
+        assertEquals(3, rows.get(1).getId());
+        assertEquals(1, writeQueue.getPendingInserts(1).size());
+    }
+}
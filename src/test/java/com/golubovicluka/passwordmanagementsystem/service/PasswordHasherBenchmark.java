@@ -0,0 +1,71 @@
+package com.golubovicluka.passwordmanagementsystem.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the login cost of the password hashers at several parameter
+ * settings. {@code verify} is what every login pays; {@code hash} is paid on
+ * registration and when a stored hash is migrated. Argon2id additionally
+ * holds its memory cost ({@code <KiB>} below) for the duration of each hash.
+ *
+ * Run with {@code mvn -P benchmark test-compile exec:exec -Dbenchmark=PasswordHasherBenchmark}.
+ *
+ * Settings are written as {@code bcrypt-<cost>}, {@code pbkdf2-<iterations>}
+ * and {@code argon2id-<KiB>-<passes>-<lanes>}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class PasswordHasherBenchmark {
+    private static final String PASSWORD = "correct horse battery staple";
+
+    @Param({ "bcrypt-10", "bcrypt-12",
+            "pbkdf2-310000", "pbkdf2-600000",
+            "argon2id-19456-2-1", "argon2id-65536-3-1", "argon2id-65536-3-4" })
+    private String setting;
+
+    private PasswordHasher hasher;
+    private String storedHash;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String[] parts = setting.split("-");
+        hasher = switch (parts[0]) {
+            case "bcrypt" -> {
+                int cost = Integer.parseInt(parts[1]);
+                yield new BCryptPasswordHasher(new BCryptCostCalibrator(250, cost, cost));
+            }
+            case "pbkdf2" -> new Pbkdf2PasswordHasher(Integer.parseInt(parts[1]));
+            case "argon2id" -> new Argon2PasswordHasher(Integer.parseInt(parts[1]), Integer.parseInt(parts[2]),
+                    Integer.parseInt(parts[3]));
+            default -> throw new IllegalArgumentException("Unknown setting " + setting);
+        };
+        storedHash = hasher.hash(PASSWORD);
+    }
+
+    @Benchmark
+    public boolean verify() {
+        return hasher.verify(PASSWORD, storedHash);
+    }
+
+    @Benchmark
+    public String hash() {
+        return hasher.hash(PASSWORD);
+    }
+}
@@ -0,0 +1,56 @@
+package com.golubovicluka.passwordmanagementsystem.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHashersTest {
+
+    private static final String PASSWORD = "TestPassword123!";
+
+    private final BCryptPasswordHasher bcrypt = new BCryptPasswordHasher(new BCryptCostCalibrator(250, 4, 4));
+    private final Pbkdf2PasswordHasher pbkdf2 = new Pbkdf2PasswordHasher(1_000);
+    private final Argon2PasswordHasher argon2 = new Argon2PasswordHasher(64, 1, 2);
+
+    @Test
+    void hash_ShouldRecordAlgorithmAndParametersAndVerify() {
+        String bcryptHash = bcrypt.hash(PASSWORD);
+        String pbkdf2Hash = pbkdf2.hash(PASSWORD);
+        String argon2Hash = argon2.hash(PASSWORD);
+
+        assertTrue(bcryptHash.startsWith("$2a$04$"));
+        assertTrue(pbkdf2Hash.startsWith("$pbkdf2-sha256$i=1000$"));
+        assertTrue(argon2Hash.startsWith("$argon2id$v=19$m=64,t=1,p=2$"));
+        for (PasswordHasher hasher : new PasswordHasher[] { bcrypt, pbkdf2, argon2 }) {
+            String hash = hasher.hash(PASSWORD);
+            assertTrue(hasher.supports(hash));
+            assertTrue(hasher.verify(PASSWORD, hash));
+            assertFalse(hasher.verify("wrong", hash));
+            assertFalse(hasher.needsRehash(hash));
+            assertNotEquals(hash, hasher.hash(PASSWORD));
+        }
+        assertFalse(argon2.supports(pbkdf2Hash));
+        assertFalse(pbkdf2.supports(bcryptHash));
+    }
+
+    @Test
+    void needsRehash_WhenConfiguredParametersIncrease_ShouldReportOldHashes() {
+        assertTrue(new Pbkdf2PasswordHasher(2_000).needsRehash(pbkdf2.hash(PASSWORD)));
+        assertTrue(new Argon2PasswordHasher(128, 1, 2).needsRehash(argon2.hash(PASSWORD)));
+        assertTrue(new Argon2PasswordHasher(64, 1, 4).needsRehash(argon2.hash(PASSWORD)));
+        assertFalse(new Argon2PasswordHasher(64, 1, 1).needsRehash(argon2.hash(PASSWORD)));
+    }
+
+    @Test
+    void verify_ShouldAcceptHashesOfEveryKnownAlgorithmAndAskToMigrateThem() {
+        PasswordHashers hashers = new PasswordHashers(argon2, bcrypt, pbkdf2);
+        String bcryptHash = bcrypt.hash(PASSWORD);
+
+        assertTrue(hashers.verify(PASSWORD, bcryptHash));
+        assertTrue(hashers.needsRehash(bcryptHash));
+        String migrated = hashers.hash(PASSWORD);
+        assertTrue(argon2.supports(migrated));
+        assertFalse(hashers.needsRehash(migrated));
+        assertFalse(hashers.verify(PASSWORD, "$unknown$hash"));
+    }
+}
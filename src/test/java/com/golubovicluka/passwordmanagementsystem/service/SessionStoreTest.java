@@ -0,0 +1,83 @@
+package com.golubovicluka.passwordmanagementsystem.service;
+
+import com.golubovicluka.passwordmanagementsystem.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionStoreTest {
+
+    private static final long MINUTE = 60_000;
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private SessionStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new SessionStore(Duration.ofMinutes(10), Duration.ofMinutes(30), now::get);
+    }
+
+    private static User user(int id) {
+        return new User(id, "user" + id, "hash", LocalDateTime.now());
+    }
+
+    @Test
+    void create_ShouldIssueDistinctOpaqueTokensThatValidate() {
+        Session first = store.create(user(1));
+        Session second = store.create(user(1));
+
+        assertNotEquals(first.getToken(), second.getToken());
+        assertEquals(43, first.getToken().length());
+        assertFalse(first.toString().contains(first.getToken()));
+        assertEquals(1, store.validate(first.getToken()).orElseThrow().getUserId());
+        assertTrue(store.validate("unknown").isEmpty());
+        assertTrue(store.validate(null).isEmpty());
+    }
+
+    @Test
+    void validate_ShouldExpireIdleSessionsButExtendUsedOnesUntilMaxLifetime() {
+        Session used = store.create(user(1));
+        Session idle = store.create(user(2));
+
+        for (int i = 0; i < 2; i++) {
+            now.addAndGet(9 * MINUTE);
+            assertTrue(store.validate(used.getToken()).isPresent());
+        }
+        assertTrue(store.validate(idle.getToken()).isEmpty());
+
+        now.addAndGet(9 * MINUTE);
+        assertTrue(store.validate(used.getToken()).isPresent());
+        now.addAndGet(3 * MINUTE);
+        assertTrue(store.validate(used.getToken()).isEmpty());
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void sweep_ShouldRemoveExpiredSessionsOnly() {
+        store.create(user(1));
+        now.addAndGet(5 * MINUTE);
+        Session fresh = store.create(user(2));
+        now.addAndGet(6 * MINUTE);
+
+        assertEquals(1, store.sweep());
+        assertTrue(store.validate(fresh.getToken()).isPresent());
+    }
+
+    @Test
+    void invalidate_ShouldEndOneOrAllSessionsOfUser() {
+        Session first = store.create(user(1));
+        Session second = store.create(user(1));
+        Session other = store.create(user(2));
+
+        store.invalidate(first.getToken());
+        assertTrue(store.validate(first.getToken()).isEmpty());
+        assertEquals(1, store.invalidateUser(1));
+        assertTrue(store.validate(second.getToken()).isEmpty());
+        assertTrue(store.validate(other.getToken()).isPresent());
+    }
+}
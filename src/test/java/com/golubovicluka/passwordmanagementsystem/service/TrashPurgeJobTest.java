@@ -0,0 +1,44 @@
+package com.golubovicluka.passwordmanagementsystem.service;
+
+import com.golubovicluka.passwordmanagementsystem.dao.PasswordEntryDAO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class TrashPurgeJobTest {
+
+    private PasswordEntryDAO passwordEntryDAO;
+
+    @BeforeEach
+    void setUp() {
+        passwordEntryDAO = mock(PasswordEntryDAO.class);
+    }
+
+    @Test
+    void purgeExpired_ShouldRepeatFullBatchesUntilOneIsPartial() {
+        when(passwordEntryDAO.purgeDeletedEntries(any(), eq(10))).thenReturn(10, 10, 3);
+        TrashPurgeJob job = new TrashPurgeJob(passwordEntryDAO, Duration.ofDays(30), 10,
+                TimeUnit.HOURS.toMillis(1), () -> true);
+
+        assertEquals(23, job.purgeExpired());
+        verify(passwordEntryDAO, times(3)).purgeDeletedEntries(any(), eq(10));
+    }
+
+    @Test
+    void purgeExpired_WhenDatabaseBecomesBusy_ShouldStopBeforeNextBatch() {
+        when(passwordEntryDAO.purgeDeletedEntries(any(), eq(10))).thenReturn(10);
+        AtomicInteger idleChecks = new AtomicInteger();
+        TrashPurgeJob job = new TrashPurgeJob(passwordEntryDAO, Duration.ofDays(30), 10,
+                TimeUnit.HOURS.toMillis(1), () -> idleChecks.incrementAndGet() == 1);
+
+        assertEquals(10, job.purgeExpired());
+        verify(passwordEntryDAO, times(1)).purgeDeletedEntries(any(), eq(10));
+    }
+}